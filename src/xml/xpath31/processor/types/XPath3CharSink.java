@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Apache XalanJ Team, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Apache XalanJ Team       - initial API and implementation
+ *******************************************************************************/
+
+package xml.xpath31.processor.types;
+
+import org.apache.xml.utils.FastStringBuffer;
+
+/**
+ * This class provides, appending of characters to a buffer of type T, for
+ * the formatting of atomic values' string representations.
+ *
+ * <p>The buffer is passed to every call rather than held by this object,
+ * so the shared instances STRING_BUILDER and FAST_STRING_BUFFER can write
+ * the characters of any number of values straight into the caller's
+ * buffer, without creating any object per value.</p>
+ */
+abstract class XPath3CharSink<T> {
+
+    static final XPath3CharSink<StringBuilder> STRING_BUILDER = new XPath3CharSink<StringBuilder>() {
+
+        @Override
+        void put(StringBuilder strBuf, char c) {
+            strBuf.append(c);
+        }
+
+        @Override
+        void put(StringBuilder strBuf, CharSequence str, int start, int end) {
+            strBuf.append(str, start, end);
+        }
+
+    };
+
+    static final XPath3CharSink<FastStringBuffer> FAST_STRING_BUFFER = new XPath3CharSink<FastStringBuffer>() {
+
+        @Override
+        void put(FastStringBuffer fsb, char c) {
+            fsb.append(c);
+        }
+
+        @Override
+        void put(FastStringBuffer fsb, CharSequence str, int start, int end) {
+            if ((start == 0) && (end == str.length()) && (str instanceof String)) {
+                fsb.append((String)str);
+                return;
+            }
+
+            for (int idx = start; idx < end; idx++) {
+                fsb.append(str.charAt(idx));
+            }
+        }
+
+    };
+
+    /**
+     * Append a character, to a buffer.
+     *
+     * @param out   the buffer to append to
+     * @param c     the character
+     */
+    abstract void put(T out, char c);
+
+    /**
+     * Append the characters from start (inclusive) to end (exclusive) of a
+     * character sequence, to a buffer.
+     *
+     * @param out     the buffer to append to
+     * @param str     the character sequence
+     * @param start   the index of the first character appended
+     * @param end     the index after the last character appended
+     */
+    abstract void put(T out, CharSequence str, int start, int end);
+
+    /**
+     * Append a string, to a buffer.
+     *
+     * @param out   the buffer to append to
+     * @param str   the string
+     */
+    final void put(T out, String str) {
+        put(out, str, 0, str.length());
+    }
+
+    /**
+     * Append exactly 'count' decimal digits of a non negative value, to a
+     * buffer, padding with leading zeros when required.
+     *
+     * @param out     the buffer to append to
+     * @param val     the value, which must be less than 10^count
+     * @param count   the number of digits, from 1 to 19
+     */
+    final void putDigits(T out, long val, int count) {
+        for (int idx = count - 1; idx >= 0; idx--) {
+            long pow10 = XSDecimal.LONG_POW10[idx];
+            int digit = (int)(val / pow10);
+            put(out, (char)('0' + digit));
+            val -= digit * pow10;
+        }
+    }
+
+    /**
+     * Append the decimal digits of a non negative value to a buffer, padded
+     * with leading zeros to at least the supplied width.
+     *
+     * @param out     the buffer to append to
+     * @param val     the value
+     * @param width   the minimum number of digits
+     */
+    final void putPadded(T out, long val, int width) {
+        int len = 1;
+        while ((len < XSDecimal.LONG_POW10.length) && (val >= XSDecimal.LONG_POW10[len])) {
+            len++;
+        }
+
+        putDigits(out, val, Math.max(len, width));
+    }
+
+}
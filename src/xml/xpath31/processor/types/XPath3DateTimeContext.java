@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Apache XalanJ Team, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Apache XalanJ Team       - initial API and implementation
+ *******************************************************************************/
+
+package xml.xpath31.processor.types;
+
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * This class provides, the parts of the XPath 3.1 dynamic context that are
+ * used by the xs:dateTime, xs:date and xs:time datatypes. These are the
+ * implicit timezone, and the current date and time.
+ *
+ * <p>An object of this class is meant to be resolved once per
+ * transformation, and supplied to the parse methods of the calendar types
+ * and to the construction of fn:current-dateTime, fn:current-date and
+ * fn:current-time values. The current date and time is a snapshot taken
+ * from the supplied java.time.Clock when the object is constructed, so that
+ * all the calls of these functions within a transformation return the same
+ * value, as required by the specification. Supplying a fixed clock makes
+ * these values deterministic.</p>
+ *
+ * <p>Objects of this class are immutable, and may be shared between
+ * threads.</p>
+ *
+ * Ref : <a href="https://www.w3.org/TR/xpath-31/#eval_context">https://www.w3.org/TR/xpath-31/#eval_context</a>
+ */
+public final class XPath3DateTimeContext {
+
+    // the maximum magnitude of a timezone offset, in minutes
+    private static final int MAX_TIMEZONE_MINUTES = 14 * 60;
+
+    private static final int SECONDS_PER_MINUTE = 60;
+
+    /*
+     * The context used, when a calendar value is created without a context.
+     * Its implicit timezone is the offset of the JVM's default timezone, at
+     * the time this class is initialized.
+     */
+    private static final XPath3DateTimeContext DEFAULT_CONTEXT = new XPath3DateTimeContext(
+                                                                            Clock.systemDefaultZone());
+
+    private final Clock fClock;
+
+    private final Instant fCurrentInstant;
+
+    private final int fImplicitTimezoneMinutes;
+
+    /**
+     * Class constructor. The implicit timezone is the offset of the clock's
+     * zone, at the current instant of the clock.
+     *
+     * @param clock   the clock, from which the current date and time is taken
+     */
+    public XPath3DateTimeContext(Clock clock) {
+        fClock = clock;
+        fCurrentInstant = clock.instant();
+        fImplicitTimezoneMinutes = (clock.getZone()).getRules().getOffset(fCurrentInstant)
+                                                                           .getTotalSeconds() / SECONDS_PER_MINUTE;
+    }
+
+    /**
+     * Class constructor.
+     *
+     * @param clock                     the clock, from which the current date
+     *                                  and time is taken
+     * @param implicitTimezoneMinutes   the implicit timezone offset in minutes,
+     *                                  within the range -14:00 to +14:00
+     *
+     * @throws IllegalArgumentException if the implicit timezone is out of range
+     */
+    public XPath3DateTimeContext(Clock clock, int implicitTimezoneMinutes) {
+        if (Math.abs(implicitTimezoneMinutes) > MAX_TIMEZONE_MINUTES) {
+            throw new IllegalArgumentException("The implicit timezone offset " + implicitTimezoneMinutes +
+                                                                " minutes, is outside the range -14:00 to +14:00.");
+        }
+
+        fClock = clock;
+        fCurrentInstant = clock.instant();
+        fImplicitTimezoneMinutes = implicitTimezoneMinutes;
+    }
+
+    /**
+     * Get a new context, which uses the system clock and the JVM's default
+     * timezone.
+     *
+     * @return   the new context
+     */
+    public static XPath3DateTimeContext systemDefault() {
+        return new XPath3DateTimeContext(Clock.systemDefaultZone());
+    }
+
+    /**
+     * Get the context that is used, when a calendar value is created without
+     * a context. Its implicit timezone is resolved only once.
+     *
+     * @return   the default context
+     */
+    public static XPath3DateTimeContext getDefault() {
+        return DEFAULT_CONTEXT;
+    }
+
+    /**
+     * Get the clock of this context.
+     *
+     * @return   the clock
+     */
+    public Clock getClock() {
+        return fClock;
+    }
+
+    /**
+     * Get the implicit timezone of this context.
+     *
+     * @return   the implicit timezone offset in minutes
+     */
+    public int implicitTimezoneMinutes() {
+        return fImplicitTimezoneMinutes;
+    }
+
+    /**
+     * Get the current date and time of this context, which is the instant
+     * of the clock when this context was constructed.
+     *
+     * @return   the current instant
+     */
+    public Instant currentInstant() {
+        return fCurrentInstant;
+    }
+
+    /**
+     * Get the value of the XPath 3.1 function fn:current-dateTime, which is
+     * the current date and time in the implicit timezone.
+     *
+     * @return   the current date and time
+     */
+    public XSDateTime currentDateTime() {
+        XSDateTime xsDateTime = new XSDateTime(currentLocalSeconds(), fCurrentInstant.getNano(),
+                                                                     fImplicitTimezoneMinutes, true, this);
+        xsDateTime.setPopulatedFromFnCurrentDateTime(true);
+
+        return xsDateTime;
+    }
+
+    /**
+     * Get the value of the XPath 3.1 function fn:current-date, which is the
+     * current date in the implicit timezone.
+     *
+     * @return   the current date
+     */
+    public XSDate currentDate() {
+        XSDate xsDate = new XSDate(Math.floorDiv(currentLocalSeconds(), XSCalendarType.SECONDS_PER_DAY),
+                                                                     fImplicitTimezoneMinutes, true, this);
+        xsDate.setPopulatedFromFnCurrentDate(true);
+
+        return xsDate;
+    }
+
+    /**
+     * Get the value of the XPath 3.1 function fn:current-time, which is the
+     * current time in the implicit timezone.
+     *
+     * @return   the current time
+     */
+    public XSTime currentTime() {
+        XSTime xsTime = new XSTime(Math.floorMod(currentLocalSeconds(), XSCalendarType.SECONDS_PER_DAY),
+                                    fCurrentInstant.getNano(), fImplicitTimezoneMinutes, true, this);
+        xsTime.setPopulatedFromFnCurrentTime(true);
+
+        return xsTime;
+    }
+
+    /*
+     * Get the current date and time in the implicit timezone, as the number
+     * of seconds from 1970-01-01T00:00:00.
+     */
+    private long currentLocalSeconds() {
+        return fCurrentInstant.getEpochSecond() + (fImplicitTimezoneMinutes * (long)SECONDS_PER_MINUTE);
+    }
+
+}
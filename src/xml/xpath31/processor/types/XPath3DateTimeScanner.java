@@ -0,0 +1,363 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Apache XalanJ Team, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Apache XalanJ Team       - initial API and implementation
+ *******************************************************************************/
+
+package xml.xpath31.processor.types;
+
+/**
+ * This class provides, scanning of strings belonging to the lexical spaces
+ * of xs:dateTime, xs:date and xs:time datatypes.
+ *
+ * <p>Each scan method validates and converts its input in a single pass
+ * over the characters, without creating any intermediate strings or arrays,
+ * and returns a status code rather than throwing an exception when the
+ * input isn't valid. Leading and trailing whitespace characters are
+ * ignored, as per the 'collapse' whitespace facet of these datatypes.</p>
+ *
+ * <p>After a successful scan, the value is available from this object's
+ * accessor methods, in the packed form used by XSCalendarType. An object of
+ * this class may be reused for any number of scans, but must not be shared
+ * between threads.</p>
+ */
+public final class XPath3DateTimeScanner {
+
+    /**
+     * Status code, denoting that the input was successfully scanned.
+     */
+    public static final int SCAN_OK = 0;
+
+    /**
+     * Status code, denoting that the input doesn't belong to the lexical
+     * space being scanned.
+     */
+    public static final int SCAN_INVALID = 1;
+
+    // the maximum number of digits of a year
+    private static final int MAX_YEAR_DIGITS = 9;
+
+    // the number of fractional second digits, that are kept
+    private static final int NANO_DIGITS = 9;
+
+    // the maximum magnitude of a timezone offset, in minutes
+    private static final int MAX_TIMEZONE_MINUTES = 14 * 60;
+
+    private static final int[] NANO_SCALE = { 100000000, 10000000, 1000000, 100000, 10000,
+                                              1000, 100, 10, 1 };
+
+    private long fLocalSeconds;
+
+    private int fNanos;
+
+    private int fTimezoneMinutes;
+
+    private boolean fTimezoned;
+
+    // the position following the last successfully scanned fragment
+    private int fPos;
+
+    // the number of days from 1970-01-01, of the last scanned date fragment
+    private long fEpochDay;
+
+    // the number of seconds from the start of the day, of the last scanned
+    // time fragment. This is 86400 for the time 24:00:00.
+    private int fSecondOfDay;
+
+    /**
+     * Class constructor.
+     */
+    public XPath3DateTimeScanner() {
+        // no op
+    }
+
+    /**
+     * Scan a string, as a member of the xs:dateTime lexical space.
+     *
+     * @param str   the string to be scanned
+     *
+     * @return      SCAN_OK if the string is a valid xs:dateTime lexical
+     *              value, SCAN_INVALID otherwise
+     */
+    public int scanDateTime(CharSequence str) {
+        int end = skipTrailingWhitespace(str);
+        fPos = skipLeadingWhitespace(str, end);
+        if (!scanDate(str, end) || !scanChar(str, end, 'T') || !scanTime(str, end) ||
+                                                                          !scanTimezone(str, end)) {
+            return SCAN_INVALID;
+        }
+
+        fLocalSeconds = (fEpochDay * XSCalendarType.SECONDS_PER_DAY) + fSecondOfDay;
+
+        return SCAN_OK;
+    }
+
+    /**
+     * Scan a string, as a member of the xs:date lexical space.
+     *
+     * @param str   the string to be scanned
+     *
+     * @return      SCAN_OK if the string is a valid xs:date lexical value,
+     *              SCAN_INVALID otherwise
+     */
+    public int scanDate(CharSequence str) {
+        int end = skipTrailingWhitespace(str);
+        fPos = skipLeadingWhitespace(str, end);
+        if (!scanDate(str, end) || !scanTimezone(str, end)) {
+            return SCAN_INVALID;
+        }
+
+        fLocalSeconds = fEpochDay * XSCalendarType.SECONDS_PER_DAY;
+        fNanos = 0;
+
+        return SCAN_OK;
+    }
+
+    /**
+     * Scan a string, as a member of the xs:time lexical space. The time
+     * 24:00:00 is scanned as 00:00:00.
+     *
+     * @param str   the string to be scanned
+     *
+     * @return      SCAN_OK if the string is a valid xs:time lexical value,
+     *              SCAN_INVALID otherwise
+     */
+    public int scanTime(CharSequence str) {
+        int end = skipTrailingWhitespace(str);
+        fPos = skipLeadingWhitespace(str, end);
+        if (!scanTime(str, end) || !scanTimezone(str, end)) {
+            return SCAN_INVALID;
+        }
+
+        fLocalSeconds = fSecondOfDay % XSCalendarType.SECONDS_PER_DAY;
+
+        return SCAN_OK;
+    }
+
+    /**
+     * Get the local date and time produced by the last successful scan, as
+     * the number of seconds from 1970-01-01T00:00:00. For an xs:time value,
+     * this is the number of seconds from the start of the day.
+     *
+     * @return   the local seconds
+     */
+    public long localSeconds() {
+        return fLocalSeconds;
+    }
+
+    /**
+     * Get the nanoseconds within the second, produced by the last
+     * successful scan.
+     *
+     * @return   the nanoseconds
+     */
+    public int nanos() {
+        return fNanos;
+    }
+
+    /**
+     * Get the timezone offset in minutes, produced by the last successful
+     * scan.
+     *
+     * @return   the timezone offset, or 0 when the value has no timezone
+     */
+    public int timezoneMinutes() {
+        return fTimezoneMinutes;
+    }
+
+    /**
+     * Check whether the value produced by the last successful scan, has a
+     * timezone.
+     *
+     * @return   true if the value has a timezone. false otherwise.
+     */
+    public boolean isTimezoned() {
+        return fTimezoned;
+    }
+
+    /*
+     * Scan a date fragment '-'? yyyy '-' mm '-' dd, where a year with more
+     * than four digits doesn't have a leading zero, and the year 0000 isn't
+     * allowed.
+     */
+    private boolean scanDate(CharSequence str, int end) {
+        boolean negative = scanChar(str, end, '-');
+        int start = fPos;
+        long year = 0;
+        while ((fPos < end) && isDigit(str.charAt(fPos))) {
+            if (fPos - start == MAX_YEAR_DIGITS) {
+                return false;
+            }
+            year = (year * 10) + (str.charAt(fPos++) - '0');
+        }
+
+        int digits = fPos - start;
+        if ((digits < 4) || ((digits > 4) && (str.charAt(start) == '0')) || (year == 0)) {
+            return false;
+        }
+
+        if (!scanChar(str, end, '-')) {
+            return false;
+        }
+        int month = scanTwoDigits(str, end);
+        if ((month < 1) || (month > 12) || !scanChar(str, end, '-')) {
+            return false;
+        }
+
+        // the lexical year -1 is 1 BCE, which is the astronomical year 0
+        if (negative) {
+            year = 1 - year;
+        }
+
+        int day = scanTwoDigits(str, end);
+        if ((day < 1) || (day > XSCalendarType.daysInMonth(year, month))) {
+            return false;
+        }
+
+        fEpochDay = XSCalendarType.epochDay(year, month, day);
+
+        return true;
+    }
+
+    /*
+     * Scan a time fragment hh ':' mm ':' ss ('.' s+)?, where the hour 24 is
+     * only allowed for the time 24:00:00.
+     */
+    private boolean scanTime(CharSequence str, int end) {
+        int hour = scanTwoDigits(str, end);
+        if ((hour < 0) || (hour > 24) || !scanChar(str, end, ':')) {
+            return false;
+        }
+        int minute = scanTwoDigits(str, end);
+        if ((minute < 0) || (minute > 59) || !scanChar(str, end, ':')) {
+            return false;
+        }
+        int second = scanTwoDigits(str, end);
+        if ((second < 0) || (second > 59)) {
+            return false;
+        }
+
+        int nanos = 0;
+        if (scanChar(str, end, '.')) {
+            int start = fPos;
+            while ((fPos < end) && isDigit(str.charAt(fPos))) {
+                int digits = fPos - start;
+                if (digits < NANO_DIGITS) {
+                    nanos += (str.charAt(fPos) - '0') * NANO_SCALE[digits];
+                }
+                fPos++;
+            }
+            if (fPos == start) {
+                return false;
+            }
+        }
+
+        if ((hour == 24) && ((minute != 0) || (second != 0) || (nanos != 0))) {
+            return false;
+        }
+
+        fSecondOfDay = (((hour * 60) + minute) * 60) + second;
+        fNanos = nanos;
+
+        return true;
+    }
+
+    /*
+     * Scan an optional timezone fragment 'Z' | ('+' | '-') hh ':' mm, which
+     * must end the string range.
+     */
+    private boolean scanTimezone(CharSequence str, int end) {
+        fTimezoneMinutes = 0;
+        fTimezoned = (fPos < end);
+        if (!fTimezoned) {
+            return true;
+        }
+
+        char ch = str.charAt(fPos++);
+        if (ch == 'Z') {
+            return (fPos == end);
+        }
+        if ((ch != '+') && (ch != '-')) {
+            return false;
+        }
+
+        int hours = scanTwoDigits(str, end);
+        if ((hours < 0) || !scanChar(str, end, ':')) {
+            return false;
+        }
+        int minutes = scanTwoDigits(str, end);
+        int offset = (hours * 60) + minutes;
+        if ((minutes < 0) || (minutes > 59) || (offset > MAX_TIMEZONE_MINUTES) || (fPos != end)) {
+            return false;
+        }
+
+        fTimezoneMinutes = (ch == '-') ? -offset : offset;
+
+        return true;
+    }
+
+    /*
+     * Scan two decimal digits. Returns their value, or -1 if the next two
+     * characters aren't digits.
+     */
+    private int scanTwoDigits(CharSequence str, int end) {
+        if ((end - fPos < 2) || !isDigit(str.charAt(fPos)) || !isDigit(str.charAt(fPos + 1))) {
+            return -1;
+        }
+
+        int val = ((str.charAt(fPos) - '0') * 10) + (str.charAt(fPos + 1) - '0');
+        fPos += 2;
+
+        return val;
+    }
+
+    /*
+     * Scan the supplied character, if it is the next character.
+     */
+    private boolean scanChar(CharSequence str, int end, char ch) {
+        if ((fPos < end) && (str.charAt(fPos) == ch)) {
+            fPos++;
+            return true;
+        }
+
+        return false;
+    }
+
+    private static boolean isDigit(char ch) {
+        return (ch >= '0') && (ch <= '9');
+    }
+
+    /*
+     * Get the position just after the last non whitespace character.
+     */
+    private static int skipTrailingWhitespace(CharSequence str) {
+        int end = str.length();
+        while ((end > 0) && isWhitespace(str.charAt(end - 1))) {
+            end--;
+        }
+
+        return end;
+    }
+
+    /*
+     * Get the position of the first non whitespace character.
+     */
+    private static int skipLeadingWhitespace(CharSequence str, int end) {
+        int pos = 0;
+        while ((pos < end) && isWhitespace(str.charAt(pos))) {
+            pos++;
+        }
+
+        return pos;
+    }
+
+    private static boolean isWhitespace(char ch) {
+        return (ch == ' ') || (ch == '\t') || (ch == '\n') || (ch == '\r');
+    }
+
+}
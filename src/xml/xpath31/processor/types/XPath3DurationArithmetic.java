@@ -0,0 +1,319 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Apache XalanJ Team, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Apache XalanJ Team       - initial API and implementation
+ *******************************************************************************/
+
+package xml.xpath31.processor.types;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+import javax.xml.transform.TransformerException;
+
+/**
+ * This class implements the XPath 3.1 multiplication and division of
+ * xs:dayTimeDuration and xs:yearMonthDuration values, by numeric values.
+ *
+ * <p>The numeric operand is taken by its type, as a decimal fraction
+ * unscaledValue * 10^-scale: xs:integer and xs:decimal values directly, and
+ * xs:float and xs:double values from the exact binary fraction of their
+ * value. The operation is then done with primitive long arithmetic on the
+ * duration's months, or seconds and nanoseconds, and the result is rounded
+ * to the nearest month or nanosecond, with halfway values rounded towards
+ * positive infinity (as with the function fn:round). java.math.BigDecimal
+ * values are only used, when an operand or an intermediate result doesn't
+ * fit within a long.</p>
+ */
+final class XPath3DurationArithmetic {
+
+    static final int OP_MULTIPLY = 0;
+
+    static final int OP_DIVIDE = 1;
+
+    private static final String[] OP_NAMES = { "multiply", "divide" };
+
+    // the maximum scale of a numeric operand, that is handled with long
+    // arithmetic
+    private static final int MAX_SCALE = XSDecimal.LONG_POW10.length - 1;
+
+    // the number of bits of the significand of a double, after its
+    // leading one bit
+    private static final int DOUBLE_FRACTION_BITS = 52;
+
+    private static final long NANOS_PER_SECOND = XSCalendarType.NANOS_PER_SECOND;
+
+    private static final BigDecimal BIG_NANOS_PER_SECOND = BigDecimal.valueOf(NANOS_PER_SECOND);
+
+    private static final BigInteger LONG_MIN = BigInteger.valueOf(Long.MIN_VALUE);
+
+    private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+
+    private XPath3DurationArithmetic() {
+        // no op
+    }
+
+    /**
+     * Multiply or divide the day and time components of a duration, by a
+     * numeric value, as per the XPath 3.1 functions
+     * op:multiply-dayTimeDuration and op:divide-dayTimeDuration.
+     *
+     * @param op         OP_MULTIPLY or OP_DIVIDE
+     * @param duration   the duration
+     * @param arg        the numeric value
+     *
+     * @return           the result, as an xs:dayTimeDuration value
+     *
+     * @throws TransformerException   FOCA0005 if the numeric value is NaN,
+     *                                FODT0001 for a division by zero, and
+     *                                FODT0002 for a result that is too large
+     */
+    static XSDayTimeDuration dayTimeOp(int op, XSDuration duration, XSNumericType arg) throws TransformerException {
+        long seconds = duration.dayTimeSeconds();
+        int nanos = duration.dayTimeNanos();
+
+        double doubleVal = 0;
+        long unscaledVal = 0;
+        int scale = -1;
+        if (arg instanceof XSDecimal) {
+            XSDecimal decimal = (XSDecimal)arg;
+            checkZero(op, duration, decimal.zero());
+            if ((decimal._bigUnscaledValue == null) && (decimal._scale <= MAX_SCALE)) {
+                unscaledVal = decimal._unscaledValue;
+                scale = decimal._scale;
+            }
+        }
+        else {
+            doubleVal = toDouble(arg);
+            checkDouble(op, duration, doubleVal);
+            if (Double.isInfinite(doubleVal)) {
+                // the division of a finite duration by infinity is zero
+                return new XSDayTimeDuration(0L, 0L);
+            }
+            scale = doubleScale(doubleVal);
+            if (scale >= 0) {
+                unscaledVal = (long)Math.scalb(doubleVal, scale) * pow5(scale);
+            }
+        }
+
+        if ((scale >= 0) && (unscaledVal != Long.MIN_VALUE)) {
+            long pow10 = XSDecimal.LONG_POW10[scale];
+            try {
+                return (op == OP_MULTIPLY) ? multiplyDayTime(seconds, nanos, unscaledVal, pow10) :
+                                     multiplyDayTime(seconds, nanos, Long.signum(unscaledVal) * pow10,
+                                                                                      Math.abs(unscaledVal));
+            }
+            catch (ArithmeticException ex) {
+                // the result is computed below, with BigDecimal arithmetic
+            }
+        }
+
+        BigDecimal argVal = (arg instanceof XSDecimal) ? ((XSDecimal)arg).getValue() : new BigDecimal(doubleVal);
+        BigDecimal totalNanos = BigDecimal.valueOf(seconds).multiply(BIG_NANOS_PER_SECOND)
+                                                                              .add(BigDecimal.valueOf(nanos));
+        BigInteger resultNanos = (op == OP_MULTIPLY) ? roundedQuotient(totalNanos.multiply(argVal), BigDecimal.ONE) :
+                                                                             roundedQuotient(totalNanos, argVal);
+        BigInteger[] dayTime = resultNanos.divideAndRemainder(BIG_NANOS_PER_SECOND.toBigInteger());
+        if ((dayTime[0].compareTo(LONG_MIN) < 0) || (dayTime[0].compareTo(LONG_MAX) > 0)) {
+            throw tooLarge(op, duration);
+        }
+
+        return new XSDayTimeDuration(dayTime[0].longValue(), dayTime[1].longValue());
+    }
+
+    /**
+     * Multiply or divide the year and month components of a duration, by a
+     * numeric value, as per the XPath 3.1 functions
+     * op:multiply-yearMonthDuration and op:divide-yearMonthDuration.
+     *
+     * @param op         OP_MULTIPLY or OP_DIVIDE
+     * @param duration   the duration
+     * @param arg        the numeric value
+     *
+     * @return           the result, as an xs:yearMonthDuration value
+     *
+     * @throws TransformerException   FOCA0005 if the numeric value is NaN,
+     *                                FODT0001 for a division by zero, and
+     *                                FODT0002 for a result that is too large
+     */
+    static XSYearMonthDuration yearMonthOp(int op, XSDuration duration, XSNumericType arg) throws TransformerException {
+        long months = duration.monthValue();
+
+        double doubleVal = 0;
+        long unscaledVal = 0;
+        int scale = -1;
+        if (arg instanceof XSDecimal) {
+            XSDecimal decimal = (XSDecimal)arg;
+            checkZero(op, duration, decimal.zero());
+            if ((decimal._bigUnscaledValue == null) && (decimal._scale <= MAX_SCALE)) {
+                unscaledVal = decimal._unscaledValue;
+                scale = decimal._scale;
+            }
+        }
+        else {
+            doubleVal = toDouble(arg);
+            checkDouble(op, duration, doubleVal);
+            if (Double.isInfinite(doubleVal)) {
+                return new XSYearMonthDuration(0);
+            }
+            scale = doubleScale(doubleVal);
+            if (scale >= 0) {
+                unscaledVal = (long)Math.scalb(doubleVal, scale) * pow5(scale);
+            }
+        }
+
+        if ((scale >= 0) && (unscaledVal != Long.MIN_VALUE)) {
+            long pow10 = XSDecimal.LONG_POW10[scale];
+            try {
+                long result = (op == OP_MULTIPLY) ? roundedQuotient(Math.multiplyExact(months, unscaledVal), pow10) :
+                                  roundedQuotient(Math.multiplyExact(months, Long.signum(unscaledVal) * pow10),
+                                                                                      Math.abs(unscaledVal));
+                return yearMonthResult(op, duration, result);
+            }
+            catch (ArithmeticException ex) {
+                // the result is computed below, with BigDecimal arithmetic
+            }
+        }
+
+        BigDecimal argVal = (arg instanceof XSDecimal) ? ((XSDecimal)arg).getValue() : new BigDecimal(doubleVal);
+        BigDecimal monthsVal = BigDecimal.valueOf(months);
+        BigInteger result = (op == OP_MULTIPLY) ? roundedQuotient(monthsVal.multiply(argVal), BigDecimal.ONE) :
+                                                                          roundedQuotient(monthsVal, argVal);
+
+        return yearMonthResult(op, duration, (result.bitLength() < 32) ? result.longValue() : Long.MAX_VALUE);
+    }
+
+    private static XSYearMonthDuration yearMonthResult(int op, XSDuration duration, long result)
+                                                                                  throws TransformerException {
+        if ((result < Integer.MIN_VALUE) || (result > Integer.MAX_VALUE)) {
+            throw tooLarge(op, duration);
+        }
+
+        return new XSYearMonthDuration((int)result);
+    }
+
+    /*
+     * Multiply a duration's seconds and nanoseconds by multiplier / divisor,
+     * where the divisor is positive. The multiplier is split into multiples
+     * of 10^9 and a remainder, so that the products of the nanoseconds
+     * never overflow.
+     *
+     * @throws ArithmeticException if the product, or the remainder of the
+     *                             division of its seconds, doesn't fit within
+     *                             a long
+     */
+    private static XSDayTimeDuration multiplyDayTime(long seconds, int nanos, long multiplier, long divisor) {
+        long lowNanos = nanos * Math.floorMod(multiplier, NANOS_PER_SECOND);
+        long productSeconds = Math.addExact(Math.multiplyExact(seconds, multiplier),
+                                                        nanos * Math.floorDiv(multiplier, NANOS_PER_SECOND));
+        productSeconds = Math.addExact(productSeconds, Math.floorDiv(lowNanos, NANOS_PER_SECOND));
+        long productNanos = Math.floorMod(lowNanos, NANOS_PER_SECOND);
+
+        long remainderNanos = Math.addExact(Math.multiplyExact(Math.floorMod(productSeconds, divisor),
+                                                                            NANOS_PER_SECOND), productNanos);
+
+        return new XSDayTimeDuration(Math.floorDiv(productSeconds, divisor),
+                                                                roundedQuotient(remainderNanos, divisor));
+    }
+
+    /*
+     * Divide a long value by a positive long value, rounding to the nearest
+     * integer with halfway values rounded towards positive infinity.
+     */
+    private static long roundedQuotient(long dividend, long divisor) {
+        long quotient = Math.floorDiv(dividend, divisor);
+        long remainder = Math.floorMod(dividend, divisor);
+
+        return (remainder >= divisor - remainder) ? quotient + 1 : quotient;
+    }
+
+    private static BigInteger roundedQuotient(BigDecimal dividend, BigDecimal divisor) {
+        if (divisor.signum() < 0) {
+            dividend = dividend.negate();
+            divisor = divisor.negate();
+        }
+        BigDecimal quotient = dividend.divide(divisor, 0, RoundingMode.FLOOR);
+        BigDecimal remainder = dividend.subtract(quotient.multiply(divisor));
+
+        return ((remainder.compareTo(divisor.subtract(remainder)) >= 0) ? quotient.add(BigDecimal.ONE) :
+                                                                                      quotient).toBigInteger();
+    }
+
+    /*
+     * Get the number of decimal digits after the decimal point, of a finite
+     * double value, when the value is an exact decimal fraction whose
+     * unscaled value fits within a long. A double is an integer times a
+     * power of 2, and m * 2^-n is exactly (m * 5^n) * 10^-n. Returns -1, for
+     * any other value.
+     */
+    private static int doubleScale(double val) {
+        if (val == 0) {
+            return 0;
+        }
+        if (Math.getExponent(val) < Double.MIN_EXPONENT) {
+            return -1;
+        }
+
+        int exponent = Math.getExponent(val) - DOUBLE_FRACTION_BITS;
+        long significand = (long)Math.scalb(val, -exponent);
+        int binaryExponent = exponent + Long.numberOfTrailingZeros(significand);
+        if (binaryExponent >= 0) {
+            return (Math.abs(val) < 0x1p63) ? 0 : -1;
+        }
+
+        int scale = -binaryExponent;
+        if (scale > MAX_SCALE) {
+            return -1;
+        }
+
+        // Math.scalb(val, scale) is the odd integer m, of the value m * 2^-scale
+        return (Math.abs(Math.scalb(val, scale)) <= (Long.MAX_VALUE / pow5(scale))) ? scale : -1;
+    }
+
+    private static long pow5(int exponent) {
+        long result = 1;
+        for (int idx = 0; idx < exponent; idx++) {
+            result *= 5;
+        }
+
+        return result;
+    }
+
+    private static double toDouble(XSNumericType arg) {
+        if (arg instanceof XSFloat) {
+            return ((XSFloat)arg).floatValue();
+        }
+
+        return ((XSDouble)arg).doubleValue();
+    }
+
+    private static void checkDouble(int op, XSDuration duration, double val) throws TransformerException {
+        if (Double.isNaN(val)) {
+            throw new TransformerException("FOCA0005 : Cannot " + OP_NAMES[op] + " an " + duration.stringType()
+                                                                                       + " value with NaN.");
+        }
+        if ((op == OP_MULTIPLY) && Double.isInfinite(val)) {
+            throw tooLarge(op, duration);
+        }
+        checkZero(op, duration, (val == 0));
+    }
+
+    private static void checkZero(int op, XSDuration duration, boolean zero) throws TransformerException {
+        if ((op == OP_DIVIDE) && zero) {
+            throw new TransformerException("FODT0001 : Cannot divide an " + duration.stringType()
+                                                                                       + " value with zero.");
+        }
+    }
+
+    private static TransformerException tooLarge(int op, XSDuration duration) {
+        return new TransformerException("FODT0002 : The result of the operation '" + OP_NAMES[op] + "' on an "
+                                                               + duration.stringType() + " value is too large.");
+    }
+
+}
@@ -0,0 +1,363 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Apache XalanJ Team, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Apache XalanJ Team       - initial API and implementation
+ *******************************************************************************/
+
+package xml.xpath31.processor.types;
+
+/**
+ * This class provides, scanning of strings belonging to the lexical spaces
+ * of xs:duration, xs:dayTimeDuration and xs:yearMonthDuration datatypes.
+ *
+ * <p>All three lexical forms are scanned by one state machine, which walks
+ * the components of the string in their required order, and accumulates
+ * the value in a single pass over the characters without creating any
+ * intermediate strings. Each scan method returns a status code rather than
+ * throwing an exception when the input isn't valid, which makes these
+ * methods suitable for 'castable as' checks. Leading and trailing
+ * whitespace characters are ignored, as per the 'collapse' whitespace
+ * facet of these datatypes.</p>
+ *
+ * <p>After a successful scan, the value is available from this object's
+ * accessor methods, in the normalized form used by XSDuration. An object
+ * of this class may be reused for any number of scans, but must not be
+ * shared between threads.</p>
+ */
+public final class XPath3DurationScanner {
+
+    /**
+     * Status code, denoting that the input was successfully scanned.
+     */
+    public static final int SCAN_OK = 0;
+
+    /**
+     * Status code, denoting that the input doesn't belong to the lexical
+     * space being scanned.
+     */
+    public static final int SCAN_INVALID = 1;
+
+    /**
+     * Status code, denoting that the input belongs to the lexical space
+     * being scanned, but its value is too large to be represented.
+     */
+    public static final int SCAN_OVERFLOW = 2;
+
+    // the components of a duration, in the order in which they must occur.
+    // Each component is scanned at most once, after all the components
+    // before it.
+    private static final int YEARS = 0;
+
+    private static final int MONTHS = 1;
+
+    private static final int DAYS = 2;
+
+    private static final int HOURS = 3;
+
+    private static final int MINUTES = 4;
+
+    private static final int SECONDS = 5;
+
+    private static final int NO_COMPONENT = 6;
+
+    // the number of seconds within a unit of the day and time components
+    private static final long[] COMPONENT_SECONDS = { 0, 0, XSCalendarType.SECONDS_PER_DAY, 3600, 60, 1 };
+
+    // the number of fractional second digits, that are kept
+    private static final int NANO_DIGITS = 9;
+
+    private static final int[] NANO_SCALE = { 100000000, 10000000, 1000000, 100000, 10000,
+                                              1000, 100, 10, 1 };
+
+    // the value of an overflowed number or sum. All the scanned numbers are
+    // non negative.
+    private static final long OVERFLOW = -1;
+
+    // the value of a number, that doesn't have any digits
+    private static final long NO_DIGITS = -2;
+
+    private int fMonths;
+
+    private long fSeconds;
+
+    private int fNanos;
+
+    private int fPos;
+
+    /**
+     * Class constructor.
+     */
+    public XPath3DurationScanner() {
+        // no op
+    }
+
+    /**
+     * Scan a string, as a member of the xs:duration lexical space.
+     *
+     * @param str   the string to be scanned
+     *
+     * @return      SCAN_OK if the string is a valid xs:duration lexical
+     *              value, SCAN_OVERFLOW if its value is too large, and
+     *              SCAN_INVALID otherwise
+     */
+    public int scanDuration(CharSequence str) {
+        return scan(str, YEARS, SECONDS);
+    }
+
+    /**
+     * Scan a string, as a member of the xs:dayTimeDuration lexical space.
+     *
+     * @param str   the string to be scanned
+     *
+     * @return      SCAN_OK if the string is a valid xs:dayTimeDuration
+     *              lexical value, SCAN_OVERFLOW if its value is too large,
+     *              and SCAN_INVALID otherwise
+     */
+    public int scanDayTimeDuration(CharSequence str) {
+        return scan(str, DAYS, SECONDS);
+    }
+
+    /**
+     * Scan a string, as a member of the xs:yearMonthDuration lexical space.
+     *
+     * @param str   the string to be scanned
+     *
+     * @return      SCAN_OK if the string is a valid xs:yearMonthDuration
+     *              lexical value, SCAN_OVERFLOW if its value is too large,
+     *              and SCAN_INVALID otherwise
+     */
+    public int scanYearMonthDuration(CharSequence str) {
+        return scan(str, YEARS, MONTHS);
+    }
+
+    /**
+     * Get the year and month components produced by the last successful
+     * scan, as a signed number of months.
+     *
+     * @return   the months
+     */
+    public int months() {
+        return fMonths;
+    }
+
+    /**
+     * Get the day and time components produced by the last successful scan,
+     * as a signed number of whole seconds.
+     *
+     * @return   the seconds
+     */
+    public long seconds() {
+        return fSeconds;
+    }
+
+    /**
+     * Get the fraction of a second produced by the last successful scan, as
+     * a number of nanoseconds having the same sign as the method seconds.
+     *
+     * @return   the nanoseconds
+     */
+    public int nanos() {
+        return fNanos;
+    }
+
+    /*
+     * Scan '-'? 'P' followed by the components from first to last, where
+     * the components from DAYS onwards are the day and time components, and
+     * those from HOURS onwards must follow a 'T' designator. At least one
+     * component must be present, and at least one must follow a 'T'.
+     */
+    private int scan(CharSequence str, int first, int last) {
+        int end = skipTrailingWhitespace(str);
+        fPos = skipLeadingWhitespace(str, end);
+
+        boolean negative = scanChar(str, end, '-');
+        if (!scanChar(str, end, 'P') || (fPos == end)) {
+            return SCAN_INVALID;
+        }
+
+        long months = 0;
+        long seconds = 0;
+        int nanos = 0;
+        boolean overflow = false;
+        boolean timeDesignator = false;
+        boolean timeComponent = false;
+        int next = first;
+        while (fPos < end) {
+            if (str.charAt(fPos) == 'T') {
+                if (timeDesignator || (last < HOURS)) {
+                    return SCAN_INVALID;
+                }
+                fPos++;
+                timeDesignator = true;
+                next = HOURS;
+                continue;
+            }
+
+            long number = scanNumber(str, end);
+            int fraction = 0;
+            boolean fractional = scanChar(str, end, '.');
+            if (fractional) {
+                int start = fPos;
+                while ((fPos < end) && isDigit(str.charAt(fPos))) {
+                    int digits = fPos - start;
+                    if (digits < NANO_DIGITS) {
+                        fraction += (str.charAt(fPos) - '0') * NANO_SCALE[digits];
+                    }
+                    fPos++;
+                }
+                // a decimal point needs a digit on at least one of its sides
+                if (number == NO_DIGITS) {
+                    if (fPos == start) {
+                        return SCAN_INVALID;
+                    }
+                    number = 0;
+                }
+            }
+            if ((number == NO_DIGITS) || (fPos == end)) {
+                return SCAN_INVALID;
+            }
+
+            int component = designatorComponent(str.charAt(fPos++), timeDesignator);
+            if ((component < next) || (component > last) || (fractional && (component != SECONDS))) {
+                return SCAN_INVALID;
+            }
+            next = component + 1;
+            timeComponent |= timeDesignator;
+
+            if (number == OVERFLOW) {
+                overflow = true;
+            }
+            else if (component == YEARS) {
+                months = (number > Integer.MAX_VALUE / 12) ? OVERFLOW : number * 12;
+            }
+            else if (component == MONTHS) {
+                months = (months == OVERFLOW) ? OVERFLOW : add(months, number, 1);
+            }
+            else {
+                seconds = (seconds == OVERFLOW) ? OVERFLOW : add(seconds, number, COMPONENT_SECONDS[component]);
+                nanos = fraction;
+            }
+        }
+
+        if (timeDesignator && !timeComponent) {
+            return SCAN_INVALID;
+        }
+        if (overflow || (months == OVERFLOW) || (months > Integer.MAX_VALUE) || (seconds == OVERFLOW)) {
+            return SCAN_OVERFLOW;
+        }
+
+        fMonths = negative ? -(int)months : (int)months;
+        fSeconds = negative ? -seconds : seconds;
+        fNanos = negative ? -nanos : nanos;
+
+        return SCAN_OK;
+    }
+
+    /*
+     * Get the component denoted by a designator character, or NO_COMPONENT
+     * if the character isn't a designator. The character 'M' denotes months
+     * before the 'T' designator, and minutes after it.
+     */
+    private static int designatorComponent(char ch, boolean timeDesignator) {
+        switch (ch) {
+        case 'Y':
+            return timeDesignator ? NO_COMPONENT : YEARS;
+        case 'M':
+            return timeDesignator ? MINUTES : MONTHS;
+        case 'D':
+            return timeDesignator ? NO_COMPONENT : DAYS;
+        case 'H':
+            return timeDesignator ? HOURS : NO_COMPONENT;
+        case 'S':
+            return timeDesignator ? SECONDS : NO_COMPONENT;
+        default:
+            return NO_COMPONENT;
+        }
+    }
+
+    /*
+     * Scan an unsigned decimal number. Returns its value, OVERFLOW if the
+     * value doesn't fit in a long, or NO_DIGITS if the next character isn't a
+     * digit.
+     */
+    private long scanNumber(CharSequence str, int end) {
+        if ((fPos == end) || !isDigit(str.charAt(fPos))) {
+            return NO_DIGITS;
+        }
+
+        long value = 0;
+        while ((fPos < end) && isDigit(str.charAt(fPos))) {
+            int digit = str.charAt(fPos++) - '0';
+            if ((value == OVERFLOW) || (value > (Long.MAX_VALUE - digit) / 10)) {
+                value = OVERFLOW;
+            }
+            else {
+                value = (value * 10) + digit;
+            }
+        }
+
+        return value;
+    }
+
+    /*
+     * Get the sum total + (number * unit) of non negative values, or
+     * OVERFLOW if the sum doesn't fit in a long.
+     */
+    private static long add(long total, long number, long unit) {
+        if (number > (Long.MAX_VALUE - total) / unit) {
+            return OVERFLOW;
+        }
+
+        return total + (number * unit);
+    }
+
+    /*
+     * Scan the supplied character, if it is the next character.
+     */
+    private boolean scanChar(CharSequence str, int end, char ch) {
+        if ((fPos < end) && (str.charAt(fPos) == ch)) {
+            fPos++;
+            return true;
+        }
+
+        return false;
+    }
+
+    private static boolean isDigit(char ch) {
+        return (ch >= '0') && (ch <= '9');
+    }
+
+    /*
+     * Get the position just after the last non whitespace character.
+     */
+    private static int skipTrailingWhitespace(CharSequence str) {
+        int end = str.length();
+        while ((end > 0) && isWhitespace(str.charAt(end - 1))) {
+            end--;
+        }
+
+        return end;
+    }
+
+    /*
+     * Get the position of the first non whitespace character.
+     */
+    private static int skipLeadingWhitespace(CharSequence str, int end) {
+        int pos = 0;
+        while ((pos < end) && isWhitespace(str.charAt(pos))) {
+            pos++;
+        }
+
+        return pos;
+    }
+
+    private static boolean isWhitespace(char ch) {
+        return (ch == ' ') || (ch == '\t') || (ch == '\n') || (ch == '\r');
+    }
+
+}
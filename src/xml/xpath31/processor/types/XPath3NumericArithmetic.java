@@ -0,0 +1,376 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Apache XalanJ Team, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Apache XalanJ Team       - initial API and implementation
+ *******************************************************************************/
+
+package xml.xpath31.processor.types;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+import javax.xml.transform.TransformerException;
+
+/**
+ * This class implements the XPath 3.1 arithmetic operators +, -, *, div,
+ * idiv and mod, on values of the xs:integer, xs:decimal, xs:float and
+ * xs:double datatypes.
+ *
+ * <p>The operands are promoted to their common type, in the order xs:integer,
+ * xs:decimal, xs:float, xs:double, and the operation is then done with
+ * primitive long, float or double arithmetic. java.math.BigDecimal values are
+ * only used for xs:integer and xs:decimal operands or intermediate results
+ * that don't fit within a long. A division whose quotient doesn't fit within
+ * a long together with its digits after the decimal point, is still computed
+ * with long arithmetic, and only its result is stored as a
+ * java.math.BigInteger value.</p>
+ */
+final class XPath3NumericArithmetic {
+
+    static final int OP_ADD = 0;
+
+    static final int OP_SUBTRACT = 1;
+
+    static final int OP_MULTIPLY = 2;
+
+    static final int OP_DIVIDE = 3;
+
+    static final int OP_INTEGER_DIVIDE = 4;
+
+    static final int OP_MOD = 5;
+
+    private static final String[] OP_NAMES = { "+", "-", "*", "div", "idiv", "mod" };
+
+    // numeric type promotion ranks
+    private static final int RANK_INTEGER = 0;
+
+    private static final int RANK_DECIMAL = 1;
+
+    private static final int RANK_FLOAT = 2;
+
+    private static final int RANK_DOUBLE = 3;
+
+    // the minimum number of digits after the decimal point, of an
+    // xs:decimal division result.
+    private static final int DIVIDE_SCALE = 18;
+
+    private XPath3NumericArithmetic() {
+        // no op
+    }
+
+    /**
+     * Evaluate an XPath 3.1 arithmetic operation, on two numeric values.
+     *
+     * @param op      one of the OP_ constants of this class
+     * @param arg1    the first operand
+     * @param arg2    the second operand
+     *
+     * @return        the result of the operation, with the promoted type
+     *                of both the operands. The result of idiv is always
+     *                an xs:integer value, and the result of div is an
+     *                xs:decimal value when both the operands are xs:integer.
+     *
+     * @throws TransformerException   FOAR0001 for an integer or decimal
+     *                                division by zero, FOAR0002 for an idiv
+     *                                whose result isn't a finite number,
+     *                                and XPTY0004 for an unsupported operand.
+     */
+    static XSNumericType evaluate(int op, XSNumericType arg1, XSNumericType arg2) throws TransformerException {
+        int rank = Math.max(rank(arg1), rank(arg2));
+
+        if (op == OP_INTEGER_DIVIDE) {
+            return integerDivide(arg1, arg2, rank);
+        }
+
+        switch (rank) {
+            case RANK_DOUBLE :
+                return XSDouble.valueOf(doubleOp(op, toDouble(arg1), toDouble(arg2)));
+            case RANK_FLOAT :
+                return XSFloat.valueOf(floatOp(op, toFloat(arg1), toFloat(arg2)));
+            default :
+                return decimalOp(op, (XSDecimal)arg1, (XSDecimal)arg2, (rank == RANK_INTEGER));
+        }
+    }
+
+    /*
+     * Get the type promotion rank, of a numeric value.
+     */
+    private static int rank(XSNumericType arg) throws TransformerException {
+        if (arg instanceof XSInteger) {
+            return RANK_INTEGER;
+        }
+        else if (arg instanceof XSDecimal) {
+            return RANK_DECIMAL;
+        }
+        else if (arg instanceof XSFloat) {
+            return RANK_FLOAT;
+        }
+        else if (arg instanceof XSDouble) {
+            return RANK_DOUBLE;
+        }
+
+        throw new TransformerException("XPTY0004 : An arithmetic operand of type " + (arg.getClass()).getName() +
+                                                                                  " is not supported.");
+    }
+
+    private static double doubleOp(int op, double val1, double val2) {
+        switch (op) {
+            case OP_ADD :
+                return val1 + val2;
+            case OP_SUBTRACT :
+                return val1 - val2;
+            case OP_MULTIPLY :
+                return val1 * val2;
+            case OP_DIVIDE :
+                return val1 / val2;
+            default :
+                // java's remainder has the same semantics, as XPath's mod
+                return val1 % val2;
+        }
+    }
+
+    private static float floatOp(int op, float val1, float val2) {
+        switch (op) {
+            case OP_ADD :
+                return val1 + val2;
+            case OP_SUBTRACT :
+                return val1 - val2;
+            case OP_MULTIPLY :
+                return val1 * val2;
+            case OP_DIVIDE :
+                return val1 / val2;
+            default :
+                return val1 % val2;
+        }
+    }
+
+    /*
+     * Evaluate an operation other than idiv, on two xs:decimal (or xs:integer)
+     * values. The result is an xs:integer value, when integerResult is true.
+     */
+    private static XSNumericType decimalOp(int op, XSDecimal arg1, XSDecimal arg2, boolean integerResult)
+                                                                                  throws TransformerException {
+        if (((op == OP_DIVIDE) || (op == OP_MOD)) && arg2.zero()) {
+            throw divisionByZero(op);
+        }
+
+        if ((arg1._bigUnscaledValue == null) && (arg2._bigUnscaledValue == null)) {
+            long val1 = arg1._unscaledValue;
+            long val2 = arg2._unscaledValue;
+            int scale1 = arg1._scale;
+            int scale2 = arg2._scale;
+            try {
+                if (op == OP_MULTIPLY) {
+                    return decimalResult(Math.multiplyExact(val1, val2), scale1 + scale2, integerResult);
+                }
+
+                if (op == OP_DIVIDE) {
+                    XSDecimal result = divideDecimal(val1, scale1, val2, scale2);
+                    if (result != null) {
+                        return result;
+                    }
+                }
+                else {
+                    // align both the values, to the larger scale
+                    int scale = Math.max(scale1, scale2);
+                    if (fitsScaledUp(val1, scale - scale1) && fitsScaledUp(val2, scale - scale2)) {
+                        val1 *= XSDecimal.LONG_POW10[scale - scale1];
+                        val2 *= XSDecimal.LONG_POW10[scale - scale2];
+                        long result = (op == OP_ADD) ? Math.addExact(val1, val2) :
+                                                ((op == OP_SUBTRACT) ? Math.subtractExact(val1, val2) :
+                                                                                          (val1 % val2));
+
+                        return decimalResult(result, scale, integerResult);
+                    }
+                }
+            }
+            catch (ArithmeticException ex) {
+                // the result doesn't fit within a long, and is computed below
+            }
+        }
+
+        BigDecimal val1 = arg1.getValue();
+        BigDecimal val2 = arg2.getValue();
+        BigDecimal result = null;
+        switch (op) {
+            case OP_ADD :
+                result = val1.add(val2);
+                break;
+            case OP_SUBTRACT :
+                result = val1.subtract(val2);
+                break;
+            case OP_MULTIPLY :
+                result = val1.multiply(val2);
+                break;
+            case OP_DIVIDE :
+                return new XSDecimal(val1.divide(val2, Math.max(DIVIDE_SCALE, arg1._scale),
+                                                                             RoundingMode.HALF_EVEN));
+            default :
+                result = val1.remainder(val2);
+                break;
+        }
+
+        return integerResult ? XSInteger.valueOf(result.toBigInteger()) : new XSDecimal(result);
+    }
+
+    /*
+     * Evaluate idiv, on two numeric values having the supplied promoted
+     * type rank.
+     */
+    private static XSInteger integerDivide(XSNumericType arg1, XSNumericType arg2, int rank)
+                                                                                  throws TransformerException {
+        if (rank >= RANK_FLOAT) {
+            double val1 = toDouble(arg1);
+            double val2 = toDouble(arg2);
+            if (val2 == 0) {
+                throw divisionByZero(OP_INTEGER_DIVIDE);
+            }
+            if (Double.isNaN(val1) || Double.isNaN(val2) || Double.isInfinite(val1)) {
+                throw new TransformerException("FOAR0002 : The operands of the operation 'idiv' cannot be "
+                                                                          + "NaN, and the dividend cannot be infinite.");
+            }
+
+            double quotient = (rank == RANK_FLOAT) ? (double)((float)val1 / (float)val2) : (val1 / val2);
+            if (Double.isInfinite(quotient)) {
+                throw new TransformerException("FOAR0002 : The result of the operation 'idiv' is too large, "
+                                                                                 + "to be represented as xs:integer.");
+            }
+
+            return XPath3NumericCasts.truncate(quotient);
+        }
+
+        XSDecimal xsDecimal1 = (XSDecimal)arg1;
+        XSDecimal xsDecimal2 = (XSDecimal)arg2;
+        if (xsDecimal2.zero()) {
+            throw divisionByZero(OP_INTEGER_DIVIDE);
+        }
+
+        if ((xsDecimal1._bigUnscaledValue == null) && (xsDecimal2._bigUnscaledValue == null)) {
+            long val1 = xsDecimal1._unscaledValue;
+            long val2 = xsDecimal2._unscaledValue;
+            int scale = Math.max(xsDecimal1._scale, xsDecimal2._scale);
+            if (fitsScaledUp(val1, scale - xsDecimal1._scale) &&
+                                          fitsScaledUp(val2, scale - xsDecimal2._scale) &&
+                                          ((val1 != Long.MIN_VALUE) || (val2 != -1))) {
+                return XSInteger.valueOf((val1 * XSDecimal.LONG_POW10[scale - xsDecimal1._scale]) /
+                                                  (val2 * XSDecimal.LONG_POW10[scale - xsDecimal2._scale]));
+            }
+        }
+
+        BigDecimal quotient = (xsDecimal1.getValue()).divideToIntegralValue(xsDecimal2.getValue());
+
+        return XSInteger.valueOf(quotient.toBigInteger());
+    }
+
+    /*
+     * Divide two non zero xs:decimal values given as unscaled values and
+     * scales, with long arithmetic. The quotient has max(DIVIDE_SCALE, scale1)
+     * digits after the decimal point, rounded half to even, as with the
+     * BigDecimal division. The whole part of the quotient is computed first,
+     * and the digits after the decimal point are then produced from the
+     * remainder, a few at a time. Returns null, when an intermediate value
+     * doesn't fit within a long.
+     */
+    static XSDecimal divideDecimal(long val1, int scale1, long val2, int scale2) {
+        if ((val1 == Long.MIN_VALUE) || (val2 == Long.MIN_VALUE) || !fitsScaledUp(Math.abs(val1), scale2)) {
+            return null;
+        }
+
+        // val1 * 10^-scale1 / (val2 * 10^-scale2) equals
+        // (val1 * 10^scale2) / val2 * 10^-scale1
+        long dividend = Math.abs(val1) * XSDecimal.LONG_POW10[scale2];
+        long divisor = Math.abs(val2);
+        int scale = Math.max(DIVIDE_SCALE, scale1);
+        int digits = scale - scale1;
+
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        long fraction = 0;
+        int remainingDigits = digits;
+        while ((remainingDigits > 0) && (remainder != 0)) {
+            int chunk = remainingDigits;
+            while (!XSDecimal.fitsScaledUp(remainder, chunk)) {
+                chunk--;
+            }
+            if (chunk == 0) {
+                return null;
+            }
+            long scaledRemainder = remainder * XSDecimal.LONG_POW10[chunk];
+            fraction = fraction * XSDecimal.LONG_POW10[chunk] + (scaledRemainder / divisor);
+            remainder = scaledRemainder % divisor;
+            remainingDigits -= chunk;
+        }
+        fraction *= XSDecimal.LONG_POW10[remainingDigits];
+
+        // round half to even, on the last digit kept
+        long diff = divisor - remainder;
+        boolean odd = (((digits == 0) ? quotient : fraction) & 1) != 0;
+        if ((remainder > diff) || ((remainder == diff) && odd)) {
+            if (digits == 0) {
+                quotient++;
+            }
+            else if (++fraction == XSDecimal.LONG_POW10[digits]) {
+                fraction = 0;
+                quotient++;
+            }
+        }
+
+        boolean negative = (val1 ^ val2) < 0;
+        if (fitsScaledUp(quotient, digits)) {
+            long unscaledValue = quotient * XSDecimal.LONG_POW10[digits] + fraction;
+            if (unscaledValue >= 0) {
+                return new XSDecimal(negative ? -unscaledValue : unscaledValue, null, scale);
+            }
+        }
+
+        // the quotient fits within a long, but not together with its digits
+        // after the decimal point
+        BigInteger unscaledValue = (BigInteger.valueOf(quotient)).multiply(BigInteger.valueOf(
+                                      XSDecimal.LONG_POW10[digits])).add(BigInteger.valueOf(fraction));
+
+        return new XSDecimal(0, negative ? unscaledValue.negate() : unscaledValue, scale);
+    }
+
+    /*
+     * Check whether, the supplied value multiplied by 10^digits fits within 
+     * a long, and the power of ten is within XSDecimal.LONG_POW10.
+     */
+    private static boolean fitsScaledUp(long val, int digits) {
+        return (digits < XSDecimal.LONG_POW10.length) && XSDecimal.fitsScaledUp(val, digits);
+    }
+
+    private static XSDecimal decimalResult(long unscaledValue, int scale, boolean integerResult) {
+        return integerResult ? XSInteger.valueOf(unscaledValue) : new XSDecimal(unscaledValue, null, scale);
+    }
+
+    private static double toDouble(XSNumericType arg) {
+        if (arg instanceof XSDouble) {
+            return ((XSDouble)arg).doubleValue();
+        }
+        else if (arg instanceof XSFloat) {
+            return ((XSFloat)arg).floatValue();
+        }
+
+        return ((XSDecimal)arg).doubleValue();
+    }
+
+    private static float toFloat(XSNumericType arg) {
+        if (arg instanceof XSFloat) {
+            return ((XSFloat)arg).floatValue();
+        }
+
+        return ((XSDecimal)arg).floatValue();
+    }
+
+    private static TransformerException divisionByZero(int op) {
+        return new TransformerException("FOAR0001 : Division by zero, within the operation '" +
+                                                                               OP_NAMES[op] + "'.");
+    }
+
+}
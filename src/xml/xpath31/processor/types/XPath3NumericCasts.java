@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Apache XalanJ Team, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Apache XalanJ Team       - initial API and implementation
+ *******************************************************************************/
+
+package xml.xpath31.processor.types;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * This class implements the XPath 3.1 casts, to the xs:integer, xs:decimal,
+ * xs:float and xs:double datatypes.
+ *
+ * <p>The casts are held within a table indexed by the source type and the
+ * target type, and each typed source value is converted directly to the
+ * target value, without formatting and parsing the source value's string
+ * representation. Only values of other types (for e.g, xs:string and
+ * xs:untypedAtomic) are converted from their string value, using the
+ * lexical rules of the target type.</p>
+ */
+final class XPath3NumericCasts {
+
+    static final int TARGET_INTEGER = 0;
+
+    static final int TARGET_DECIMAL = 1;
+
+    static final int TARGET_FLOAT = 2;
+
+    static final int TARGET_DOUBLE = 3;
+
+    private static final int TARGET_COUNT = 4;
+
+    private static final int SOURCE_BOOLEAN = 0;
+
+    private static final int SOURCE_INTEGER = 1;
+
+    private static final int SOURCE_DECIMAL = 2;
+
+    private static final int SOURCE_FLOAT = 3;
+
+    private static final int SOURCE_DOUBLE = 4;
+
+    private static final int SOURCE_OTHER = 5;
+
+    private static final int SOURCE_COUNT = 6;
+
+    // doubles with a smaller magnitude than this, truncate to a long
+    private static final double LONG_TRUNCATE_LIMIT = 9.223372036854775807E18;
+
+    /*
+     * A cast from a source value to a target type. The cast returns null,
+     * if the source value cannot be cast to the target type.
+     */
+    private interface Cast {
+        XSNumericType cast(XSAnyType value);
+    }
+
+    // the source type index of each class, computed once per class
+    private static final ClassValue<Integer> SOURCE_INDEX = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            if (XSBoolean.class.isAssignableFrom(type)) {
+                return SOURCE_BOOLEAN;
+            }
+            else if (XSInteger.class.isAssignableFrom(type)) {
+                return SOURCE_INTEGER;
+            }
+            else if (XSDecimal.class.isAssignableFrom(type)) {
+                return SOURCE_DECIMAL;
+            }
+            else if (XSFloat.class.isAssignableFrom(type)) {
+                return SOURCE_FLOAT;
+            }
+            else if (XSDouble.class.isAssignableFrom(type)) {
+                return SOURCE_DOUBLE;
+            }
+
+            return SOURCE_OTHER;
+        }
+    };
+
+    private static final Cast[] CASTS = new Cast[SOURCE_COUNT * TARGET_COUNT];
+
+    static {
+        register(SOURCE_BOOLEAN, TARGET_INTEGER, value -> XSInteger.valueOf(((XSBoolean)value).value() ? 1 : 0));
+        register(SOURCE_INTEGER, TARGET_INTEGER, value -> integerValueOf((XSInteger)value));
+        register(SOURCE_DECIMAL, TARGET_INTEGER, value -> truncate((XSDecimal)value));
+        register(SOURCE_FLOAT, TARGET_INTEGER, value -> integerValueOf(((XSFloat)value).floatValue()));
+        register(SOURCE_DOUBLE, TARGET_INTEGER, value -> integerValueOf(((XSDouble)value).doubleValue()));
+        register(SOURCE_OTHER, TARGET_INTEGER, value -> parseInteger(value.stringValue()));
+
+        register(SOURCE_BOOLEAN, TARGET_DECIMAL, value -> ((XSBoolean)value).value() ? XSDecimal.ONE :
+                                                                                        XSDecimal.ZERO);
+        register(SOURCE_INTEGER, TARGET_DECIMAL, value -> decimalValueOf((XSDecimal)value));
+        register(SOURCE_DECIMAL, TARGET_DECIMAL, value -> (XSDecimal)value);
+        register(SOURCE_FLOAT, TARGET_DECIMAL, value -> decimalValueOf(((XSFloat)value).floatValue()));
+        register(SOURCE_DOUBLE, TARGET_DECIMAL, value -> decimalValueOf(((XSDouble)value).doubleValue()));
+        register(SOURCE_OTHER, TARGET_DECIMAL, value -> parseDecimal(value.stringValue()));
+
+        register(SOURCE_BOOLEAN, TARGET_FLOAT, value -> XSFloat.valueOf(((XSBoolean)value).value() ? 1.0f :
+                                                                                                   0.0f));
+        register(SOURCE_INTEGER, TARGET_FLOAT, value -> XSFloat.valueOf(((XSDecimal)value).floatValue()));
+        register(SOURCE_DECIMAL, TARGET_FLOAT, value -> XSFloat.valueOf(((XSDecimal)value).floatValue()));
+        register(SOURCE_FLOAT, TARGET_FLOAT, value -> (XSFloat)value);
+        register(SOURCE_DOUBLE, TARGET_FLOAT, value -> XSFloat.valueOf((float)((XSDouble)value).doubleValue()));
+        register(SOURCE_OTHER, TARGET_FLOAT, value -> parseFloat(value.stringValue()));
+
+        register(SOURCE_BOOLEAN, TARGET_DOUBLE, value -> XSDouble.valueOf(((XSBoolean)value).value() ? 1.0 :
+                                                                                                     0.0));
+        register(SOURCE_INTEGER, TARGET_DOUBLE, value -> XSDouble.valueOf(((XSDecimal)value).doubleValue()));
+        register(SOURCE_DECIMAL, TARGET_DOUBLE, value -> XSDouble.valueOf(((XSDecimal)value).doubleValue()));
+        register(SOURCE_FLOAT, TARGET_DOUBLE, value -> XSDouble.valueOf(((XSFloat)value).floatValue()));
+        register(SOURCE_DOUBLE, TARGET_DOUBLE, value -> (XSDouble)value);
+        register(SOURCE_OTHER, TARGET_DOUBLE, value -> parseDouble(value.stringValue()));
+    }
+
+    private XPath3NumericCasts() {
+        // no op
+    }
+
+    /**
+     * Cast a value to one of the numeric types.
+     *
+     * @param value    the value to be cast
+     * @param target   one of the TARGET_ constants of this class
+     *
+     * @return         the cast value, which is an object of the exact target
+     *                 type (for e.g, XSInteger rather than XSLong), or null
+     *                 if the value cannot be cast to the target type
+     */
+    static XSNumericType cast(XSAnyType value, int target) {
+        int source = SOURCE_INDEX.get(value.getClass());
+
+        return CASTS[(source * TARGET_COUNT) + target].cast(value);
+    }
+
+    /**
+     * Get the xs:integer value of a finite double value, truncated towards
+     * zero.
+     *
+     * @param val   the double value
+     *
+     * @return      an XSInteger object
+     */
+    static XSInteger truncate(double val) {
+        if (Math.abs(val) < LONG_TRUNCATE_LIMIT) {
+            return XSInteger.valueOf((long)val);
+        }
+
+        return XSInteger.valueOf((new BigDecimal(val)).toBigInteger());
+    }
+
+    private static void register(int source, int target, Cast cast) {
+        CASTS[(source * TARGET_COUNT) + target] = cast;
+    }
+
+    private static XSInteger integerValueOf(XSInteger xsInteger) {
+        if (xsInteger.getClass() == XSInteger.class) {
+            return xsInteger;
+        }
+
+        return (xsInteger._bigUnscaledValue == null) ? XSInteger.valueOf(xsInteger._unscaledValue) :
+                                                           XSInteger.valueOf(xsInteger._bigUnscaledValue);
+    }
+
+    private static XSInteger truncate(XSDecimal xsDecimal) {
+        if (xsDecimal._bigUnscaledValue == null) {
+            return (xsDecimal._scale < XSDecimal.LONG_POW10.length) ?
+                           XSInteger.valueOf(xsDecimal._unscaledValue / XSDecimal.LONG_POW10[xsDecimal._scale]) :
+                           XSInteger.valueOf(0);
+        }
+
+        // BigInteger division truncates towards zero
+        return XSInteger.valueOf((xsDecimal._bigUnscaledValue).divide(BigInteger.TEN.pow(xsDecimal._scale)));
+    }
+
+    private static XSInteger integerValueOf(double val) {
+        return (Double.isNaN(val) || Double.isInfinite(val)) ? null : truncate(val);
+    }
+
+    private static XSDecimal decimalValueOf(XSDecimal xsDecimal) {
+        return new XSDecimal(xsDecimal._unscaledValue, xsDecimal._bigUnscaledValue, xsDecimal._scale);
+    }
+
+    private static XSDecimal decimalValueOf(double val) {
+        return (Double.isNaN(val) || Double.isInfinite(val)) ? null : XPath3NumericFormat.toDecimal(val);
+    }
+
+    private static XSDecimal decimalValueOf(float val) {
+        return (Float.isNaN(val) || Float.isInfinite(val)) ? null : XPath3NumericFormat.toDecimal(val);
+    }
+
+    private static XSInteger parseInteger(String str) {
+        XPath3NumericScanner numericScanner = new XPath3NumericScanner();
+        if (numericScanner.scanInteger(str) != XPath3NumericScanner.SCAN_OK) {
+            return null;
+        }
+
+        return (numericScanner.bigUnscaledValue() == null) ? XSInteger.valueOf(numericScanner.unscaledValue()) :
+                                                                 XSInteger.valueOf(numericScanner.bigUnscaledValue());
+    }
+
+    private static XSDecimal parseDecimal(String str) {
+        XPath3NumericScanner numericScanner = new XPath3NumericScanner();
+        if (numericScanner.scanDecimal(str) != XPath3NumericScanner.SCAN_OK) {
+            return null;
+        }
+
+        return new XSDecimal(numericScanner.unscaledValue(), numericScanner.bigUnscaledValue(),
+                                                                              numericScanner.scale());
+    }
+
+    private static XSFloat parseFloat(String str) {
+        XPath3NumericScanner numericScanner = new XPath3NumericScanner();
+        if (numericScanner.scanFloat(str) != XPath3NumericScanner.SCAN_OK) {
+            return null;
+        }
+
+        return XSFloat.valueOf(numericScanner.floatValue());
+    }
+
+    private static XSDouble parseDouble(String str) {
+        XPath3NumericScanner numericScanner = new XPath3NumericScanner();
+        if (numericScanner.scanDouble(str) != XPath3NumericScanner.SCAN_OK) {
+            return null;
+        }
+
+        return XSDouble.valueOf(numericScanner.doubleValue());
+    }
+
+}
@@ -0,0 +1,727 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Apache XalanJ Team, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Apache XalanJ Team       - initial API and implementation
+ *******************************************************************************/
+
+package xml.xpath31.processor.types;
+
+import java.math.BigInteger;
+
+/**
+ * This class provides, formatting of xs:double, xs:float and xs:decimal
+ * values to their XPath 3.1 canonical string representations.
+ *
+ * <p>The significant digits written are the shortest decimal digits, that
+ * when read back produce the same floating-point value. These are computed
+ * using the Schubfach algorithm (Raffaello Giulietti, "The Schubfach way to
+ * render doubles"), using only primitive integer arithmetic. Values whose
+ * absolute value is greater than or equal to 1.0E-6 and less than 1.0E6 are
+ * written in decimal notation, and other values are written in exponential
+ * notation with one digit before the decimal point (for e.g, 1.0E6,
+ * 1.5E-7).</p>
+ *
+ * <p>This class doesn't hold any mutable state, and its methods may be called
+ * concurrently.</p>
+ */
+public final class XPath3NumericFormat {
+
+    /**
+     * The maximum number of characters, of the canonical string representation
+     * of an xs:double or xs:float value.
+     */
+    public static final int MAX_FORMATTED_LENGTH = 32;
+
+    private static final String NEG_INFINITY = "-INF";
+
+    private static final String POS_INFINITY = "INF";
+
+    private static final String NAN = "NaN";
+
+    // binary64 (i.e, double) format constants
+    private static final int DOUBLE_P = 53;
+    private static final int DOUBLE_Q_MIN = -1074;
+    private static final long DOUBLE_C_MIN = 1L << (DOUBLE_P - 1);
+    private static final int DOUBLE_C_TINY = 3;
+    private static final int DOUBLE_BQ_MASK = 0x7ff;
+    private static final long DOUBLE_T_MASK = (1L << (DOUBLE_P - 1)) - 1;
+
+    // binary32 (i.e, float) format constants
+    private static final int FLOAT_P = 24;
+    private static final int FLOAT_Q_MIN = -149;
+    private static final int FLOAT_C_MIN = 1 << (FLOAT_P - 1);
+    private static final int FLOAT_C_TINY = 8;
+    private static final int FLOAT_BQ_MASK = 0xff;
+    private static final int FLOAT_T_MASK = (1 << (FLOAT_P - 1)) - 1;
+
+    private static final long MASK_63 = (1L << 63) - 1;
+
+    private static final long MASK_32 = (1L << 32) - 1;
+
+    // range of decimal exponents k, for which 10^-k is needed
+    private static final int K_MIN = -324;
+    private static final int K_MAX = 292;
+
+    /*
+     * For each k in [K_MIN, K_MAX], the 126 bit value g = g1 2^63 + g0 such
+     * that (g - 1) 2^r <= 10^-k < g 2^r, for an integer r with
+     * 2^125 <= g < 2^126. Element 2(k - K_MIN) is g1, and element
+     * 2(k - K_MIN) + 1 is g0.
+     */
+    private static final long[] G = new long[(K_MAX - K_MIN + 1) << 1];
+
+    private static final long[] POW10 = new long[19];
+
+    static {
+        long pow10 = 1;
+        for (int idx = 0; idx < POW10.length; idx++) {
+            POW10[idx] = pow10;
+            pow10 *= 10;
+        }
+
+        for (int k = K_MIN; k <= K_MAX; k++) {
+            int e = -k;
+            int shift = 125 - flog2pow10(e);
+            BigInteger g = null;
+            if (e >= 0) {
+                BigInteger pow = BigInteger.TEN.pow(e);
+                g = (shift >= 0) ? pow.shiftLeft(shift) : pow.shiftRight(-shift);
+            }
+            else {
+                g = (BigInteger.ONE.shiftLeft(shift)).divide(BigInteger.TEN.pow(-e));
+            }
+            g = g.add(BigInteger.ONE);
+            G[(k - K_MIN) << 1] = (g.shiftRight(63)).longValue();
+            G[((k - K_MIN) << 1) + 1] = g.longValue() & MASK_63;
+        }
+    }
+
+    /*
+     * Class constructor.
+     */
+    private XPath3NumericFormat() {
+        // no op
+    }
+
+    /**
+     * Get the XPath 3.1 canonical string representation, of an xs:double
+     * value.
+     *
+     * @param val    the double value to be formatted
+     *
+     * @return       canonical string representation of the supplied value
+     */
+    public static String formatDouble(double val) {
+        StringBuilder strBuf = new StringBuilder(MAX_FORMATTED_LENGTH);
+        formatDouble(val, strBuf, XPath3CharSink.STRING_BUILDER);
+
+        return strBuf.toString();
+    }
+
+    /**
+     * Get the XPath 3.1 canonical string representation, of an xs:float
+     * value.
+     *
+     * @param val    the float value to be formatted
+     *
+     * @return       canonical string representation of the supplied value
+     */
+    public static String formatFloat(float val) {
+        StringBuilder strBuf = new StringBuilder(MAX_FORMATTED_LENGTH);
+        formatFloat(val, strBuf, XPath3CharSink.STRING_BUILDER);
+
+        return strBuf.toString();
+    }
+
+    /**
+     * Append the XPath 3.1 canonical string representation of an xs:double
+     * value, to a string buffer.
+     *
+     * @param val       the double value to be formatted
+     * @param strBuf    the string buffer to append to
+     */
+    public static void appendDouble(double val, StringBuilder strBuf) {
+        formatDouble(val, strBuf, XPath3CharSink.STRING_BUILDER);
+    }
+
+    /**
+     * Append the XPath 3.1 canonical string representation of an xs:float
+     * value, to a string buffer.
+     *
+     * @param val       the float value to be formatted
+     * @param strBuf    the string buffer to append to
+     */
+    public static void appendFloat(float val, StringBuilder strBuf) {
+        formatFloat(val, strBuf, XPath3CharSink.STRING_BUILDER);
+    }
+
+    /**
+     * Append the XPath 3.1 canonical string representation of the xs:decimal
+     * value unscaledValue * 10^-scale, to a string buffer.
+     *
+     * @param unscaledValue   the unscaled value of the decimal
+     * @param scale           the scale of the decimal
+     * @param strBuf          the string buffer to append to
+     */
+    public static void appendDecimal(long unscaledValue, int scale, StringBuilder strBuf) {
+        formatDecimal(unscaledValue, scale, strBuf, XPath3CharSink.STRING_BUILDER);
+    }
+
+    /**
+     * Append the XPath 3.1 canonical string representation of the xs:decimal
+     * value unscaledValue * 10^-scale, to a string buffer.
+     *
+     * @param unscaledValue   the unscaled value of the decimal
+     * @param scale           the scale of the decimal
+     * @param strBuf          the string buffer to append to
+     */
+    public static void appendDecimal(BigInteger unscaledValue, int scale, StringBuilder strBuf) {
+        formatDecimal(unscaledValue, scale, strBuf, XPath3CharSink.STRING_BUILDER);
+    }
+
+    /*
+     * Append the XPath 3.1 canonical string representation of an xs:double
+     * value, to a buffer.
+     */
+    static <T> void formatDouble(double val, T out, XPath3CharSink<T> sink) {
+        long bits = Double.doubleToRawLongBits(val);
+        long t = bits & DOUBLE_T_MASK;
+        int bq = (int) (bits >>> (DOUBLE_P - 1)) & DOUBLE_BQ_MASK;
+
+        if (bq == DOUBLE_BQ_MASK) {
+            if (t != 0) {
+                sink.put(out, NAN);
+            }
+            else {
+                sink.put(out, (bits < 0) ? NEG_INFINITY : POS_INFINITY);
+            }
+            return;
+        }
+
+        if (bits < 0) {
+            sink.put(out, '-');
+        }
+
+        if (bq != 0) {
+            // normal value
+            int mq = -DOUBLE_Q_MIN + 1 - bq;
+            long c = DOUBLE_C_MIN | t;
+            if ((0 < mq) && (mq < DOUBLE_P)) {
+                // fast path, for integer values less than 2^53
+                long f = c >> mq;
+                if ((f << mq) == c) {
+                    putDecimal(f, 0, out, sink);
+                    return;
+                }
+            }
+
+            doubleToDecimal(-mq, c, 0, out, sink);
+        }
+        else if (t != 0) {
+            // subnormal value
+            if (t < DOUBLE_C_TINY) {
+                doubleToDecimal(DOUBLE_Q_MIN, 10 * t, -1, out, sink);
+            }
+            else {
+                doubleToDecimal(DOUBLE_Q_MIN, t, 0, out, sink);
+            }
+        }
+        else {
+            sink.put(out, '0');
+        }
+    }
+
+    /*
+     * Append the XPath 3.1 canonical string representation of an xs:float
+     * value, to a buffer.
+     */
+    static <T> void formatFloat(float val, T out, XPath3CharSink<T> sink) {
+        int bits = Float.floatToRawIntBits(val);
+        int t = bits & FLOAT_T_MASK;
+        int bq = (bits >>> (FLOAT_P - 1)) & FLOAT_BQ_MASK;
+
+        if (bq == FLOAT_BQ_MASK) {
+            if (t != 0) {
+                sink.put(out, NAN);
+            }
+            else {
+                sink.put(out, (bits < 0) ? NEG_INFINITY : POS_INFINITY);
+            }
+            return;
+        }
+
+        if (bits < 0) {
+            sink.put(out, '-');
+        }
+
+        if (bq != 0) {
+            // normal value
+            int mq = -FLOAT_Q_MIN + 1 - bq;
+            int c = FLOAT_C_MIN | t;
+            if ((0 < mq) && (mq < FLOAT_P)) {
+                // fast path, for integer values less than 2^24
+                int f = c >> mq;
+                if ((f << mq) == c) {
+                    putDecimal(f, 0, out, sink);
+                    return;
+                }
+            }
+
+            floatToDecimal(-mq, c, 0, out, sink);
+        }
+        else if (t != 0) {
+            // subnormal value
+            if (t < FLOAT_C_TINY) {
+                floatToDecimal(FLOAT_Q_MIN, 10 * t, -1, out, sink);
+            }
+            else {
+                floatToDecimal(FLOAT_Q_MIN, t, 0, out, sink);
+            }
+        }
+        else {
+            sink.put(out, '0');
+        }
+    }
+
+    /*
+     * Append the XPath 3.1 canonical string representation of the xs:decimal
+     * value unscaledValue * 10^-scale, to a buffer.
+     */
+    static <T> void formatDecimal(long unscaledValue, int scale, T out, XPath3CharSink<T> sink) {
+        if (unscaledValue == 0) {
+            sink.put(out, '0');
+            return;
+        }
+
+        while ((scale > 0) && ((unscaledValue % 10) == 0)) {
+            unscaledValue /= 10;
+            scale--;
+        }
+
+        if (unscaledValue == Long.MIN_VALUE) {
+            // the magnitude of Long.MIN_VALUE, doesn't fit in a long
+            formatDecimal(BigInteger.valueOf(unscaledValue), scale, out, sink);
+            return;
+        }
+
+        long val = unscaledValue;
+        if (val < 0) {
+            sink.put(out, '-');
+            val = -val;
+        }
+
+        int len = decimalLength(val);
+        if (scale <= 0) {
+            sink.putDigits(out, val, len);
+            putZeros(-scale, out, sink);
+        }
+        else if (scale >= len) {
+            sink.put(out, '0');
+            sink.put(out, '.');
+            putZeros(scale - len, out, sink);
+            sink.putDigits(out, val, len);
+        }
+        else {
+            sink.putDigits(out, val / POW10[scale], len - scale);
+            sink.put(out, '.');
+            sink.putDigits(out, val % POW10[scale], scale);
+        }
+    }
+
+    /*
+     * Append the XPath 3.1 canonical string representation of the xs:decimal
+     * value unscaledValue * 10^-scale, to a buffer.
+     */
+    static <T> void formatDecimal(BigInteger unscaledValue, int scale, T out, XPath3CharSink<T> sink) {
+        if (unscaledValue.bitLength() < 63) {
+            formatDecimal(unscaledValue.longValue(), scale, out, sink);
+            return;
+        }
+
+        if (unscaledValue.signum() < 0) {
+            sink.put(out, '-');
+            unscaledValue = unscaledValue.negate();
+        }
+
+        String digits = unscaledValue.toString();
+        int len = digits.length();
+        while ((scale > 0) && (digits.charAt(len - 1) == '0')) {
+            len--;
+            scale--;
+        }
+
+        if (scale <= 0) {
+            sink.put(out, digits, 0, len);
+            putZeros(-scale, out, sink);
+        }
+        else if (scale >= len) {
+            sink.put(out, '0');
+            sink.put(out, '.');
+            putZeros(scale - len, out, sink);
+            sink.put(out, digits, 0, len);
+        }
+        else {
+            sink.put(out, digits, 0, len - scale);
+            sink.put(out, '.');
+            sink.put(out, digits, len - scale, len);
+        }
+    }
+
+    /*
+     * Get the xs:decimal value, whose digits are the shortest decimal that
+     * rounds to the supplied finite double value (i.e, the digits of the
+     * value's canonical string representation).
+     */
+    static XSDecimal toDecimal(double val) {
+        long bits = Double.doubleToRawLongBits(val);
+        long t = bits & DOUBLE_T_MASK;
+        int bq = (int) (bits >>> (DOUBLE_P - 1)) & DOUBLE_BQ_MASK;
+
+        long f;
+        int e;
+        if (bq != 0) {
+            int mq = -DOUBLE_Q_MIN + 1 - bq;
+            long c = DOUBLE_C_MIN | t;
+            if ((0 < mq) && (mq < DOUBLE_P) && (((c >> mq) << mq) == c)) {
+                f = c >> mq;
+                e = 0;
+            }
+            else {
+                f = doubleDigits(-mq, c, 0);
+                e = doubleExponent(-mq, c);
+            }
+        }
+        else if (t != 0) {
+            int dk = (t < DOUBLE_C_TINY) ? -1 : 0;
+            long c = (dk < 0) ? 10 * t : t;
+            f = doubleDigits(DOUBLE_Q_MIN, c, dk);
+            e = doubleExponent(DOUBLE_Q_MIN, c) + dk;
+        }
+        else {
+            return new XSDecimal();
+        }
+
+        return new XSDecimal((bits < 0) ? -f : f, null, -e);
+    }
+
+    /*
+     * Get the xs:decimal value, whose digits are the shortest decimal that
+     * rounds to the supplied finite float value (i.e, the digits of the
+     * value's canonical string representation).
+     */
+    static XSDecimal toDecimal(float val) {
+        int bits = Float.floatToRawIntBits(val);
+        int t = bits & FLOAT_T_MASK;
+        int bq = (bits >>> (FLOAT_P - 1)) & FLOAT_BQ_MASK;
+
+        long f;
+        int e;
+        if (bq != 0) {
+            int mq = -FLOAT_Q_MIN + 1 - bq;
+            int c = FLOAT_C_MIN | t;
+            if ((0 < mq) && (mq < FLOAT_P) && (((c >> mq) << mq) == c)) {
+                f = c >> mq;
+                e = 0;
+            }
+            else {
+                f = floatDigits(-mq, c, 0);
+                e = floatExponent(-mq, c);
+            }
+        }
+        else if (t != 0) {
+            int dk = (t < FLOAT_C_TINY) ? -1 : 0;
+            int c = (dk < 0) ? 10 * t : t;
+            f = floatDigits(FLOAT_Q_MIN, c, dk);
+            e = floatExponent(FLOAT_Q_MIN, c) + dk;
+        }
+        else {
+            return new XSDecimal();
+        }
+
+        return new XSDecimal((bits < 0) ? -f : f, null, -e);
+    }
+
+    /*
+     * Compute the shortest decimal f 10^e, that rounds to the double value
+     * c 2^q, and append it to the buffer.
+     */
+    private static <T> void doubleToDecimal(int q, long c, int dk, T out, XPath3CharSink<T> sink) {
+        putDecimal(doubleDigits(q, c, dk), doubleExponent(q, c) + dk, out, sink);
+    }
+
+    /*
+     * Get the decimal exponent e, of the shortest decimal that rounds to
+     * the double value c 2^q, as computed by doubleDigits.
+     */
+    private static int doubleExponent(int q, long c) {
+        return ((c != DOUBLE_C_MIN) || (q == DOUBLE_Q_MIN)) ? flog10pow2(q) : flog10threeQuartersPow2(q);
+    }
+
+    /*
+     * Compute the shortest decimal f 10^(e + dk), that rounds to the double
+     * value c 2^q (where, e is doubleExponent(q, c)), and return f.
+     */
+    private static long doubleDigits(int q, long c, int dk) {
+        int out = (int) c & 0x1;
+        long cb = c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+
+        if ((c != DOUBLE_C_MIN) || (q == DOUBLE_Q_MIN)) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        }
+        else {
+            // the value is at a binade boundary, so its rounding interval
+            // isn't symmetric.
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+
+        int h = q + flog2pow10(-k) + 2;
+        long g1 = G[(k - K_MIN) << 1];
+        long g0 = G[((k - K_MIN) << 1) + 1];
+
+        long vb = roundToOdd(g1, g0, cb << h);
+        long vbl = roundToOdd(g1, g0, cbl << h);
+        long vbr = roundToOdd(g1, g0, cbr << h);
+
+        long s = vb >> 2;
+        if (s >= 100) {
+            // try, one digit less than the precision of s
+            long sp10 = 10 * multiplyHigh(s, 115_292_150_460_684_698L << 4);
+            long tp10 = sp10 + 10;
+            boolean upin = vbl + out <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + out <= vbr;
+            if (upin != wpin) {
+                return (dk == 0) ? (upin ? sp10 : tp10) : 10L * (upin ? sp10 : tp10);
+            }
+        }
+
+        long t = s + 1;
+        boolean uin = vbl + out <= s << 2;
+        boolean win = (t << 2) + out <= vbr;
+        if (uin != win) {
+            return uin ? s : t;
+        }
+
+        // both s and t are in the rounding interval, so pick the closest one
+        long cmp = vb - ((s + t) << 1);
+
+        return ((cmp < 0) || ((cmp == 0) && ((s & 0x1) == 0))) ? s : t;
+    }
+
+    /*
+     * Compute the shortest decimal f 10^e, that rounds to the float value
+     * c 2^q, and append it to the buffer.
+     */
+    private static <T> void floatToDecimal(int q, int c, int dk, T out, XPath3CharSink<T> sink) {
+        putDecimal(floatDigits(q, c, dk), floatExponent(q, c) + dk, out, sink);
+    }
+
+    /*
+     * Get the decimal exponent e, of the shortest decimal that rounds to
+     * the float value c 2^q, as computed by floatDigits.
+     */
+    private static int floatExponent(int q, int c) {
+        return ((c != FLOAT_C_MIN) || (q == FLOAT_Q_MIN)) ? flog10pow2(q) : flog10threeQuartersPow2(q);
+    }
+
+    /*
+     * Compute the shortest decimal f 10^(e + dk), that rounds to the float
+     * value c 2^q (where, e is floatExponent(q, c)), and return f.
+     */
+    private static long floatDigits(int q, int c, int dk) {
+        int out = c & 0x1;
+        long cb = ((long) c) << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+
+        if ((c != FLOAT_C_MIN) || (q == FLOAT_Q_MIN)) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        }
+        else {
+            // the value is at a binade boundary, so its rounding interval
+            // isn't symmetric.
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+
+        int h = q + flog2pow10(-k) + 33;
+        long g = G[(k - K_MIN) << 1] + 1;
+
+        int vb = roundToOdd(g, cb << h);
+        int vbl = roundToOdd(g, cbl << h);
+        int vbr = roundToOdd(g, cbr << h);
+
+        int s = vb >> 2;
+        if (s >= 100) {
+            // try, one digit less than the precision of s
+            int sp10 = 10 * (int) ((s * 1_717_986_919L) >>> 34);
+            int tp10 = sp10 + 10;
+            boolean upin = vbl + out <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + out <= vbr;
+            if (upin != wpin) {
+                return (dk == 0) ? (upin ? sp10 : tp10) : 10L * (upin ? sp10 : tp10);
+            }
+        }
+
+        int t = s + 1;
+        boolean uin = vbl + out <= s << 2;
+        boolean win = (t << 2) + out <= vbr;
+        if (uin != win) {
+            return uin ? s : t;
+        }
+
+        // both s and t are in the rounding interval, so pick the closest one
+        int cmp = vb - ((s + t) << 1);
+
+        return ((cmp < 0) || ((cmp == 0) && ((s & 0x1) == 0))) ? s : t;
+    }
+
+    /*
+     * Compute (g1 2^63 + g0) cp 2^-127, rounded to odd.
+     */
+    private static long roundToOdd(long g1, long g0, long cp) {
+        long x1 = multiplyHigh(g0, cp);
+        long y0 = g1 * cp;
+        long y1 = multiplyHigh(g1, cp);
+        long z = (y0 >>> 1) + x1;
+        long vbp = y1 + (z >>> 63);
+
+        return vbp | (((z & MASK_63) + MASK_63) >>> 63);
+    }
+
+    /*
+     * Compute g cp 2^-95, rounded to odd.
+     */
+    private static int roundToOdd(long g, long cp) {
+        long x1 = multiplyHigh(g, cp);
+        long vbp = x1 >>> 31;
+
+        return (int) (vbp | (((x1 & MASK_32) + MASK_32) >>> 32));
+    }
+
+    /*
+     * Append the decimal f 10^e (where, f > 0) to the buffer, using XPath 3.1
+     * canonical notation.
+     */
+    private static <T> void putDecimal(long f, int e, T out, XPath3CharSink<T> sink) {
+        while ((f % 10) == 0) {
+            f /= 10;
+            e++;
+        }
+
+        int len = decimalLength(f);
+
+        // the decimal exponent of the most significant digit
+        int p = e + len - 1;
+
+        if ((p >= -6) && (p < 6)) {
+            if (p < 0) {
+                sink.put(out, '0');
+                sink.put(out, '.');
+                putZeros(-(p + 1), out, sink);
+                sink.putDigits(out, f, len);
+            }
+            else if (len <= p + 1) {
+                sink.putDigits(out, f, len);
+                putZeros(p + 1 - len, out, sink);
+            }
+            else {
+                int fracLen = len - (p + 1);
+                sink.putDigits(out, f / POW10[fracLen], p + 1);
+                sink.put(out, '.');
+                sink.putDigits(out, f % POW10[fracLen], fracLen);
+            }
+
+            return;
+        }
+
+        sink.put(out, (char) ('0' + (int) (f / POW10[len - 1])));
+        sink.put(out, '.');
+        if (len == 1) {
+            sink.put(out, '0');
+        }
+        else {
+            sink.putDigits(out, f % POW10[len - 1], len - 1);
+        }
+
+        sink.put(out, 'E');
+        if (p < 0) {
+            sink.put(out, '-');
+            p = -p;
+        }
+        sink.putPadded(out, p, 1);
+    }
+
+    /*
+     * Append 'count' zero digits to the buffer.
+     */
+    private static <T> void putZeros(int count, T out, XPath3CharSink<T> sink) {
+        for (int idx = 0; idx < count; idx++) {
+            sink.put(out, '0');
+        }
+    }
+
+    /*
+     * Get the number of decimal digits, of a positive value.
+     */
+    private static int decimalLength(long val) {
+        int len = 1;
+        while ((len < POW10.length) && (val >= POW10[len])) {
+            len++;
+        }
+
+        return len;
+    }
+
+    /*
+     * floor(e log10(2)), for |e| <= 5456721.
+     */
+    private static int flog10pow2(int e) {
+        return (int) ((e * 661_971_961_083L) >> 41);
+    }
+
+    /*
+     * floor(log10(3/4 2^e)), for |e| <= 2_647_279.
+     */
+    private static int flog10threeQuartersPow2(int e) {
+        return (int) (((e * 661_971_961_083L) + -274_743_187_321L) >> 41);
+    }
+
+    /*
+     * floor(e log2(10)), for |e| <= 1_838_394.
+     */
+    private static int flog2pow10(int e) {
+        return (int) ((e * 913_124_641_741L) >> 38);
+    }
+
+    /*
+     * The high 64 bits of the 128 bit product x y. Java 8 doesn't provide
+     * Math.multiplyHigh.
+     */
+    private static long multiplyHigh(long x, long y) {
+        long x1 = x >> 32;
+        long x2 = x & 0xFFFFFFFFL;
+        long y1 = y >> 32;
+        long y2 = y & 0xFFFFFFFFL;
+
+        long z2 = x2 * y2;
+        long t = (x1 * y2) + (z2 >>> 32);
+        long z1 = t & 0xFFFFFFFFL;
+        long z0 = t >> 32;
+        z1 += x2 * y1;
+
+        return (x1 * y1) + z0 + (z1 >> 32);
+    }
+
+}
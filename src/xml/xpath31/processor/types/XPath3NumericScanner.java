@@ -0,0 +1,497 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Apache XalanJ Team, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Apache XalanJ Team       - initial API and implementation
+ *******************************************************************************/
+
+package xml.xpath31.processor.types;
+
+import java.math.BigInteger;
+
+/**
+ * This class provides, scanning of strings belonging to the lexical spaces
+ * of xs:double, xs:float, xs:decimal and xs:integer datatypes.
+ *
+ * <p>Each scan method validates and converts its input in a single pass,
+ * and returns a status code rather than throwing an exception when the
+ * input isn't valid. This makes these methods suitable, for 'castable as'
+ * checks and other code where many inputs may be invalid. Leading and
+ * trailing whitespace characters are ignored, as per the 'collapse'
+ * whitespace facet of these datatypes.</p>
+ *
+ * <p>After a successful scan, the converted value is available from this
+ * object's accessor methods. Common inputs are converted without any
+ * object allocation. An object of this class may be reused for any number
+ * of scans, but must not be shared between threads.</p>
+ */
+public final class XPath3NumericScanner {
+
+    /**
+     * Status code, denoting that the input was successfully scanned.
+     */
+    public static final int SCAN_OK = 0;
+
+    /**
+     * Status code, denoting that the input doesn't belong to the lexical
+     * space being scanned.
+     */
+    public static final int SCAN_INVALID = 1;
+
+    // the maximum number of significant decimal digits, that are collected
+    // within a long without overflow.
+    private static final int MAX_LONG_DIGITS = 18;
+
+    // values less than this, are exactly representable as doubles
+    private static final long DOUBLE_EXACT_LIMIT = 1L << 53;
+
+    // values less than this, are exactly representable as floats
+    private static final long FLOAT_EXACT_LIMIT = 1L << 24;
+
+    private static final BigInteger LONG_DIGITS_MULTIPLIER = BigInteger.TEN.pow(MAX_LONG_DIGITS);
+
+    private static final double[] DOUBLE_POW10 = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7,
+                                                   1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14,
+                                                   1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21,
+                                                   1e22 };
+
+    private static final float[] FLOAT_POW10 = { 1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f,
+                                                 1e7f, 1e8f, 1e9f, 1e10f };
+
+    private double fDoubleValue;
+
+    private float fFloatValue;
+
+    private long fUnscaledValue;
+
+    private BigInteger fBigUnscaledValue;
+
+    private int fScale;
+
+    // state of the last approximate significand scan
+    private boolean fNegative;
+
+    private long fSignificand;
+
+    private int fExponent;
+
+    private boolean fTooManyDigits;
+
+    /**
+     * Class constructor.
+     */
+    public XPath3NumericScanner() {
+        // no op
+    }
+
+    /**
+     * Scan a string, as a member of the xs:double lexical space. On success,
+     * the value is available from the method doubleValue().
+     *
+     * @param str   the string to be scanned
+     *
+     * @return      SCAN_OK if the string is a valid xs:double lexical value,
+     *              SCAN_INVALID otherwise
+     */
+    public int scanDouble(CharSequence str) {
+        int start = skipLeadingWhitespace(str);
+        int end = skipTrailingWhitespace(str, start);
+
+        int special = scanSpecialValue(str, start, end);
+        if (special != 0) {
+            fDoubleValue = (special == 2) ? Double.NaN : ((special > 0) ? Double.POSITIVE_INFINITY :
+                                                                             Double.NEGATIVE_INFINITY);
+            return SCAN_OK;
+        }
+
+        if (!scanApproximate(str, start, end)) {
+            return SCAN_INVALID;
+        }
+
+        if (fSignificand == 0) {
+            fDoubleValue = fNegative ? -0.0E0 : 0.0E0;
+        }
+        else if (!fTooManyDigits && (fSignificand < DOUBLE_EXACT_LIMIT) &&
+                                         (fExponent >= -22) && (fExponent <= 22)) {
+            // both operands are exact, so a single multiplication or division
+            // gives the correctly rounded result.
+            double val = (fExponent >= 0) ? (fSignificand * DOUBLE_POW10[fExponent]) :
+                                                      (fSignificand / DOUBLE_POW10[-fExponent]);
+            fDoubleValue = fNegative ? -val : val;
+        }
+        else {
+            fDoubleValue = Double.parseDouble((str.subSequence(start, end)).toString());
+        }
+
+        return SCAN_OK;
+    }
+
+    /**
+     * Scan a string, as a member of the xs:float lexical space. On success,
+     * the value is available from the method floatValue().
+     *
+     * @param str   the string to be scanned
+     *
+     * @return      SCAN_OK if the string is a valid xs:float lexical value,
+     *              SCAN_INVALID otherwise
+     */
+    public int scanFloat(CharSequence str) {
+        int start = skipLeadingWhitespace(str);
+        int end = skipTrailingWhitespace(str, start);
+
+        int special = scanSpecialValue(str, start, end);
+        if (special != 0) {
+            fFloatValue = (special == 2) ? Float.NaN : ((special > 0) ? Float.POSITIVE_INFINITY :
+                                                                          Float.NEGATIVE_INFINITY);
+            return SCAN_OK;
+        }
+
+        if (!scanApproximate(str, start, end)) {
+            return SCAN_INVALID;
+        }
+
+        if (fSignificand == 0) {
+            fFloatValue = fNegative ? -0.0f : 0.0f;
+        }
+        else if (!fTooManyDigits && (fSignificand < FLOAT_EXACT_LIMIT) &&
+                                         (fExponent >= -10) && (fExponent <= 10)) {
+            // both operands are exact, so a single multiplication or division
+            // gives the correctly rounded result.
+            float val = (fExponent >= 0) ? (fSignificand * FLOAT_POW10[fExponent]) :
+                                                      (fSignificand / FLOAT_POW10[-fExponent]);
+            fFloatValue = fNegative ? -val : val;
+        }
+        else {
+            fFloatValue = Float.parseFloat((str.subSequence(start, end)).toString());
+        }
+
+        return SCAN_OK;
+    }
+
+    /**
+     * Scan a string, as a member of the xs:decimal lexical space. On success,
+     * the value is unscaledValue() * 10^-scale() when bigUnscaledValue() is
+     * null, and bigUnscaledValue() * 10^-scale() otherwise.
+     *
+     * @param str   the string to be scanned
+     *
+     * @return      SCAN_OK if the string is a valid xs:decimal lexical value,
+     *              SCAN_INVALID otherwise
+     */
+    public int scanDecimal(CharSequence str) {
+        int start = skipLeadingWhitespace(str);
+
+        return scanExact(str, start, skipTrailingWhitespace(str, start), true);
+    }
+
+    /**
+     * Scan a string, as a member of the xs:integer lexical space. On success,
+     * the value is unscaledValue() when bigUnscaledValue() is null, and
+     * bigUnscaledValue() otherwise.
+     *
+     * @param str   the string to be scanned
+     *
+     * @return      SCAN_OK if the string is a valid xs:integer lexical value,
+     *              SCAN_INVALID otherwise
+     */
+    public int scanInteger(CharSequence str) {
+        int start = skipLeadingWhitespace(str);
+
+        return scanExact(str, start, skipTrailingWhitespace(str, start), false);
+    }
+
+    /**
+     * Get the value, produced by the last successful scanDouble call.
+     *
+     * @return   the double value
+     */
+    public double doubleValue() {
+        return fDoubleValue;
+    }
+
+    /**
+     * Get the value, produced by the last successful scanFloat call.
+     *
+     * @return   the float value
+     */
+    public float floatValue() {
+        return fFloatValue;
+    }
+
+    /**
+     * Get the unscaled value produced by the last successful scanDecimal or
+     * scanInteger call, when it fits within a long.
+     *
+     * @return   the unscaled value, or 0 when bigUnscaledValue() isn't null
+     */
+    public long unscaledValue() {
+        return fUnscaledValue;
+    }
+
+    /**
+     * Get the unscaled value produced by the last successful scanDecimal or
+     * scanInteger call, when it doesn't fit within a long.
+     *
+     * @return   the unscaled value, or null when it fits within a long
+     */
+    public BigInteger bigUnscaledValue() {
+        return fBigUnscaledValue;
+    }
+
+    /**
+     * Get the scale produced by the last successful scanDecimal call (i.e,
+     * the number of digits after the decimal point).
+     *
+     * @return   the scale of the decimal value
+     */
+    public int scale() {
+        return fScale;
+    }
+
+    /*
+     * Check whether the string range is one of the special values INF, +INF,
+     * -INF or NaN. Returns 1 for positive infinity, -1 for negative
+     * infinity, 2 for NaN, and 0 otherwise.
+     */
+    private static int scanSpecialValue(CharSequence str, int start, int end) {
+        int len = end - start;
+        if ((len < 3) || (len > 4)) {
+            return 0;
+        }
+
+        char first = str.charAt(start);
+        if (len == 3) {
+            if ((first == 'I') && (str.charAt(start + 1) == 'N') && (str.charAt(start + 2) == 'F')) {
+                return 1;
+            }
+
+            if ((first == 'N') && (str.charAt(start + 1) == 'a') && (str.charAt(start + 2) == 'N')) {
+                return 2;
+            }
+
+            return 0;
+        }
+
+        if (((first == '-') || (first == '+')) && (str.charAt(start + 1) == 'I') &&
+                                    (str.charAt(start + 2) == 'N') && (str.charAt(start + 3) == 'F')) {
+            return (first == '-') ? -1 : 1;
+        }
+
+        return 0;
+    }
+
+    /*
+     * Scan the string range as (\+|-)?([0-9]+(\.[0-9]*)?|\.[0-9]+)([Ee](\+|-)?[0-9]+)?
+     * collecting up to 18 significant digits, such that the value is
+     * approximately fSignificand * 10^fExponent.
+     */
+    private boolean scanApproximate(CharSequence str, int start, int end) {
+        int pos = start;
+        fNegative = false;
+        if (pos < end) {
+            char ch = str.charAt(pos);
+            if ((ch == '-') || (ch == '+')) {
+                fNegative = (ch == '-');
+                pos++;
+            }
+        }
+
+        long significand = 0;
+        int sigDigits = 0;
+        int exponent = 0;
+        boolean tooManyDigits = false;
+        boolean anyDigit = false;
+        boolean inFraction = false;
+
+        for (; pos < end; pos++) {
+            char ch = str.charAt(pos);
+            if ((ch >= '0') && (ch <= '9')) {
+                anyDigit = true;
+                if ((significand == 0) && (ch == '0')) {
+                    // a leading zero
+                    if (inFraction) {
+                        exponent--;
+                    }
+                }
+                else if (sigDigits < MAX_LONG_DIGITS) {
+                    significand = (significand * 10) + (ch - '0');
+                    sigDigits++;
+                    if (inFraction) {
+                        exponent--;
+                    }
+                }
+                else {
+                    // digits beyond the precision collected
+                    tooManyDigits = true;
+                    if (!inFraction) {
+                        exponent++;
+                    }
+                }
+            }
+            else if ((ch == '.') && !inFraction) {
+                inFraction = true;
+            }
+            else {
+                break;
+            }
+        }
+
+        if (!anyDigit) {
+            return false;
+        }
+
+        if (pos < end) {
+            char ch = str.charAt(pos);
+            if ((ch != 'E') && (ch != 'e')) {
+                return false;
+            }
+            pos++;
+
+            boolean negativeExponent = false;
+            if (pos < end) {
+                ch = str.charAt(pos);
+                if ((ch == '-') || (ch == '+')) {
+                    negativeExponent = (ch == '-');
+                    pos++;
+                }
+            }
+
+            if (pos == end) {
+                return false;
+            }
+
+            int expValue = 0;
+            for (; pos < end; pos++) {
+                ch = str.charAt(pos);
+                if ((ch < '0') || (ch > '9')) {
+                    return false;
+                }
+                if (expValue < 100000) {
+                    // larger exponents, overflow or underflow in any case
+                    expValue = (expValue * 10) + (ch - '0');
+                }
+            }
+
+            exponent += negativeExponent ? -expValue : expValue;
+        }
+
+        fSignificand = significand;
+        fExponent = exponent;
+        fTooManyDigits = tooManyDigits;
+
+        return true;
+    }
+
+    /*
+     * Scan the string range as (\+|-)?([0-9]+(\.[0-9]*)?|\.[0-9]+) when a
+     * fraction is allowed, or as (\+|-)?[0-9]+ otherwise, collecting all the
+     * digits exactly.
+     */
+    private int scanExact(CharSequence str, int start, int end, boolean allowFraction) {
+        int pos = start;
+        boolean negative = false;
+        if (pos < end) {
+            char ch = str.charAt(pos);
+            if ((ch == '-') || (ch == '+')) {
+                negative = (ch == '-');
+                pos++;
+            }
+        }
+
+        long chunk = 0;
+        int chunkDigits = 0;
+        BigInteger bigValue = null;
+        int scale = 0;
+        boolean anyDigit = false;
+        boolean inFraction = false;
+
+        for (; pos < end; pos++) {
+            char ch = str.charAt(pos);
+            if ((ch >= '0') && (ch <= '9')) {
+                anyDigit = true;
+                if (inFraction) {
+                    scale++;
+                }
+                if ((chunk == 0) && (chunkDigits == 0) && (bigValue == null) && (ch == '0')) {
+                    // a leading zero
+                    continue;
+                }
+                if (chunkDigits == MAX_LONG_DIGITS) {
+                    bigValue = (bigValue == null) ? BigInteger.valueOf(chunk) :
+                                       (bigValue.multiply(LONG_DIGITS_MULTIPLIER)).add(BigInteger.valueOf(chunk));
+                    chunk = 0;
+                    chunkDigits = 0;
+                }
+                chunk = (chunk * 10) + (ch - '0');
+                chunkDigits++;
+            }
+            else if ((ch == '.') && allowFraction && !inFraction) {
+                inFraction = true;
+            }
+            else {
+                return SCAN_INVALID;
+            }
+        }
+
+        if (!anyDigit) {
+            return SCAN_INVALID;
+        }
+
+        if (bigValue != null) {
+            bigValue = (bigValue.multiply(BigInteger.TEN.pow(chunkDigits))).add(BigInteger.valueOf(chunk));
+            if (negative) {
+                bigValue = bigValue.negate();
+            }
+        }
+        
+        if ((bigValue != null) && (bigValue.bitLength() >= 64)) {
+            fBigUnscaledValue = bigValue;
+            fUnscaledValue = 0;
+        }
+        else if (bigValue != null) {
+            fBigUnscaledValue = null;
+            fUnscaledValue = bigValue.longValue();
+        }
+        else {
+            fBigUnscaledValue = null;
+            fUnscaledValue = negative ? -chunk : chunk;
+        }
+        fScale = scale;
+
+        return SCAN_OK;
+    }
+
+    /*
+     * Get the position of the first non whitespace character.
+     */
+    private static int skipLeadingWhitespace(CharSequence str) {
+        int pos = 0;
+        int len = str.length();
+        while ((pos < len) && isWhitespace(str.charAt(pos))) {
+            pos++;
+        }
+
+        return pos;
+    }
+
+    /*
+     * Get the position just after the last non whitespace character.
+     */
+    private static int skipTrailingWhitespace(CharSequence str, int start) {
+        int end = str.length();
+        while ((end > start) && isWhitespace(str.charAt(end - 1))) {
+            end--;
+        }
+
+        return end;
+    }
+
+    private static boolean isWhitespace(char ch) {
+        return (ch == ' ') || (ch == '\t') || (ch == '\n') || (ch == '\r');
+    }
+
+}
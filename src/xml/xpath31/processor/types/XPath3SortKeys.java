@@ -0,0 +1,416 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Apache XalanJ Team, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Apache XalanJ Team       - initial API and implementation
+ *******************************************************************************/
+
+package xml.xpath31.processor.types;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import org.apache.xpath.objects.ResultSequence;
+import org.apache.xpath.objects.XObject;
+
+/**
+ * This class builds, and sorts, the binary sort keys of XPath 3.1 atomic
+ * values (as returned by XSAnyAtomicType.sortKey()).
+ *
+ * <p>A sort key is a byte array, such that an unsigned lexicographic
+ * comparison of two keys (where a key that is a prefix of another key
+ * is the smaller one) gives the same order as the 'lt' operation of
+ * the values. The first byte of each key identifies the family of types
+ * whose values are mutually comparable, so that keys of different
+ * families are never interleaved.</p>
+ *
+ * <p>Sequences of keys are sorted with a radix sort, which doesn't compare
+ * keys with each other, and takes time proportional to the total length
+ * of the keys.</p>
+ */
+public final class XPath3SortKeys {
+
+    static final byte FAMILY_BOOLEAN = 1;
+
+    static final byte FAMILY_DECIMAL = 2;
+
+    static final byte FAMILY_DOUBLE = 3;
+
+    static final byte FAMILY_DATE = 4;
+
+    static final byte FAMILY_TIME = 5;
+
+    static final byte FAMILY_DATETIME = 6;
+
+    static final byte FAMILY_DURATION = 7;
+
+    static final byte FAMILY_YEAR_MONTH_DURATION = 8;
+
+    // the lengths of the fixed width keys, including the family byte
+    private static final int DOUBLE_KEY_LENGTH = 9;
+
+    private static final int INT_KEY_LENGTH = 5;
+
+    // the length of a calendar key, holding the local seconds and the
+    // nanoseconds
+    private static final int CALENDAR_KEY_LENGTH = 13;
+
+    // the key bytes following the exponent of a negative xs:decimal value,
+    // which sort the digits in reverse, and terminate the digits so that
+    // a shorter key is the larger one.
+    private static final int NEGATIVE_DIGITS_END = 10;
+
+    private static final int DECIMAL_SIGN_NEGATIVE = 0;
+
+    private static final int DECIMAL_SIGN_ZERO = 1;
+
+    private static final int DECIMAL_SIGN_POSITIVE = 2;
+
+    private static final int MAX_LONG_DIGITS = 19;
+
+    // the number of keys, below which a sub range of an MSD radix sort
+    // is sorted by an insertion sort.
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private XPath3SortKeys() {
+        // no op
+    }
+
+    /**
+     * Compare two sort keys, with an unsigned lexicographic comparison.
+     *
+     * @param key1   the first key
+     * @param key2   the second key
+     *
+     * @return       a negative value, zero or a positive value, if the first
+     *               key is less than, equal to or greater than the second key
+     */
+    public static int compare(byte[] key1, byte[] key2) {
+        return compareFrom(key1, key2, 0);
+    }
+
+    /**
+     * Sort a sequence of keys, with a stable radix sort. Keys that all have
+     * the same length are sorted least significant byte first, and keys of
+     * different lengths are sorted most significant byte first.
+     *
+     * @param keys   the keys to be sorted, which are not modified
+     *
+     * @return       the indexes of the keys, in the sorted order of the keys.
+     *               Equal keys retain their original relative order.
+     */
+    public static int[] sortedOrder(byte[][] keys) {
+        int size = keys.length;
+        int[] order = new int[size];
+        for (int idx = 0; idx < size; idx++) {
+            order[idx] = idx;
+        }
+        if (size < 2) {
+            return order;
+        }
+
+        int width = keys[0].length;
+        boolean fixedWidth = true;
+        for (int idx = 1; (idx < size) && fixedWidth; idx++) {
+            fixedWidth = (keys[idx].length == width);
+        }
+
+        if (fixedWidth) {
+            sortLsd(keys, order, width);
+        }
+        else {
+            sortMsd(keys, order, new int[size], 0, size, 0);
+        }
+
+        return order;
+    }
+
+    /**
+     * Sort a sequence of atomic values, as per their sort keys.
+     *
+     * @param resultSeq   the sequence of values to be sorted
+     *
+     * @return            a new sequence with the values in ascending order,
+     *                    or null if the sequence has an item without a sort
+     *                    key, or items of types which are not comparable with
+     *                    each other (in which case the caller should fall back
+     *                    to comparing the values)
+     */
+    public static ResultSequence sort(ResultSequence resultSeq) {
+        int size = resultSeq.size();
+        byte[][] keys = new byte[size][];
+        for (int idx = 0; idx < size; idx++) {
+            XObject item = resultSeq.item(idx);
+            if (!(item instanceof XSAnyAtomicType)) {
+                return null;
+            }
+            byte[] key = ((XSAnyAtomicType)item).sortKey();
+            if ((key == null) || ((idx > 0) && (key[0] != keys[0][0]))) {
+                return null;
+            }
+            keys[idx] = key;
+        }
+
+        int[] order = sortedOrder(keys);
+        ResultSequence sortedSeq = new ResultSequence();
+        for (int idx = 0; idx < size; idx++) {
+            sortedSeq.add(resultSeq.item(order[idx]));
+        }
+
+        return sortedSeq;
+    }
+
+    /**
+     * Get the sort key of an xs:boolean value.
+     */
+    static byte[] booleanKey(boolean val) {
+        return new byte[] { FAMILY_BOOLEAN, (byte)(val ? 1 : 0) };
+    }
+
+    /**
+     * Get the sort key of an xs:double (or xs:float) value. NaN sorts before
+     * all the other values, and negative zero is equal to positive zero, as
+     * for the XPath 3.1 fn:sort function.
+     */
+    static byte[] doubleKey(double val) {
+        return doubleKey(val, FAMILY_DOUBLE);
+    }
+
+    /**
+     * Get the sort key of a double value, within the supplied family.
+     */
+    static byte[] doubleKey(double val, byte family) {
+        long bits = 0;
+        if (!Double.isNaN(val)) {
+            // adding zero makes negative zero positive
+            bits = Double.doubleToRawLongBits(val + 0.0);
+            bits = (bits < 0) ? ~bits : (bits ^ Long.MIN_VALUE);
+        }
+
+        byte[] key = new byte[DOUBLE_KEY_LENGTH];
+        key[0] = family;
+        putLong(key, 1, bits);
+
+        return key;
+    }
+
+    /**
+     * Get the sort key of a signed int value, within the supplied family.
+     */
+    static byte[] intKey(byte family, int val) {
+        byte[] key = new byte[INT_KEY_LENGTH];
+        key[0] = family;
+        putInt(key, 1, val);
+
+        return key;
+    }
+
+    /**
+     * Get the sort key of an xs:date, xs:time or xs:dateTime value, from its
+     * date and time adjusted to UTC as the number of seconds from
+     * 1970-01-01T00:00:00, and the nanoseconds within the second.
+     */
+    static byte[] calendarKey(byte family, long seconds, int nanos) {
+        byte[] key = new byte[CALENDAR_KEY_LENGTH];
+        key[0] = family;
+        putLong(key, 1, seconds ^ Long.MIN_VALUE);
+        putInt(key, 9, nanos);
+
+        return key;
+    }
+
+    /**
+     * Get the sort key of an xs:decimal (or xs:integer) value, with the
+     * supplied unscaled value and scale. The key holds the sign, the
+     * exponent of the most significant digit, and the significant digits
+     * without any trailing zeros, all inverted for negative values.
+     */
+    static byte[] decimalKey(long unscaledValue, BigInteger bigUnscaledValue, int scale) {
+        int signum = (bigUnscaledValue != null) ? bigUnscaledValue.signum() : Long.signum(unscaledValue);
+        if (signum == 0) {
+            return new byte[] { FAMILY_DECIMAL, DECIMAL_SIGN_ZERO };
+        }
+
+        byte[] digits;
+        int digitCount;
+        if (bigUnscaledValue == null) {
+            // the digits are extracted from a non positive value, which
+            // can also hold the magnitude of Long.MIN_VALUE.
+            digits = new byte[MAX_LONG_DIGITS];
+            long val = (unscaledValue > 0) ? -unscaledValue : unscaledValue;
+            digitCount = 0;
+            while (val != 0) {
+                digits[digitCount++] = (byte)-(val % 10);
+                val /= 10;
+            }
+            reverse(digits, digitCount);
+        }
+        else {
+            String str = (bigUnscaledValue.abs()).toString();
+            digitCount = str.length();
+            digits = new byte[digitCount];
+            for (int idx = 0; idx < digitCount; idx++) {
+                digits[idx] = (byte)(str.charAt(idx) - '0');
+            }
+        }
+
+        int exponent = (digitCount - 1) - scale;
+        while (digits[digitCount - 1] == 0) {
+            digitCount--;
+        }
+
+        boolean negative = (signum < 0);
+        byte[] key = new byte[6 + digitCount + (negative ? 1 : 0)];
+        key[0] = FAMILY_DECIMAL;
+        key[1] = (byte)(negative ? DECIMAL_SIGN_NEGATIVE : DECIMAL_SIGN_POSITIVE);
+        putInt(key, 2, negative ? ~exponent : exponent);
+        for (int idx = 0; idx < digitCount; idx++) {
+            key[6 + idx] = (byte)(negative ? (9 - digits[idx]) : digits[idx]);
+        }
+        if (negative) {
+            key[6 + digitCount] = NEGATIVE_DIGITS_END;
+        }
+
+        return key;
+    }
+
+    /**
+     * Store a signed int value within a key, as four bytes whose unsigned
+     * order is the signed order of the int values.
+     */
+    static void putInt(byte[] key, int offset, int val) {
+        val ^= Integer.MIN_VALUE;
+        key[offset] = (byte)(val >>> 24);
+        key[offset + 1] = (byte)(val >>> 16);
+        key[offset + 2] = (byte)(val >>> 8);
+        key[offset + 3] = (byte)val;
+    }
+
+    /*
+     * Store a long value within a key, as eight big endian bytes.
+     */
+    private static void putLong(byte[] key, int offset, long val) {
+        for (int idx = 7; idx >= 0; idx--) {
+            key[offset + idx] = (byte)val;
+            val >>>= 8;
+        }
+    }
+
+    private static void reverse(byte[] bytes, int length) {
+        for (int idx1 = 0, idx2 = length - 1; idx1 < idx2; idx1++, idx2--) {
+            byte tmp = bytes[idx1];
+            bytes[idx1] = bytes[idx2];
+            bytes[idx2] = tmp;
+        }
+    }
+
+    private static int compareFrom(byte[] key1, byte[] key2, int offset) {
+        int length = Math.min(key1.length, key2.length);
+        for (int idx = offset; idx < length; idx++) {
+            int diff = (key1[idx] & 0xFF) - (key2[idx] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+
+        return key1.length - key2.length;
+    }
+
+    /*
+     * Sort keys of the same width, with a counting sort on each byte from
+     * the last one to the first one. A byte position where all the keys
+     * have the same value (for e.g, the family byte) is skipped.
+     */
+    private static void sortLsd(byte[][] keys, int[] result, int width) {
+        int size = result.length;
+        int[] order = result;
+        int[] tmp = new int[size];
+        int[] counts = new int[256];
+        for (int pos = width - 1; pos >= 0; pos--) {
+            Arrays.fill(counts, 0);
+            for (int idx = 0; idx < size; idx++) {
+                counts[keys[order[idx]][pos] & 0xFF]++;
+            }
+            if (counts[keys[order[0]][pos] & 0xFF] == size) {
+                continue;
+            }
+
+            int total = 0;
+            for (int bucket = 0; bucket < 256; bucket++) {
+                int count = counts[bucket];
+                counts[bucket] = total;
+                total += count;
+            }
+            for (int idx = 0; idx < size; idx++) {
+                int keyIdx = order[idx];
+                tmp[counts[keys[keyIdx][pos] & 0xFF]++] = keyIdx;
+            }
+
+            int[] swap = order;
+            order = tmp;
+            tmp = swap;
+        }
+
+        if (order != result) {
+            System.arraycopy(order, 0, result, 0, size);
+        }
+    }
+
+    /*
+     * Sort the keys order[from, to), which are equal up to the byte
+     * position pos, with a counting sort on that byte followed by
+     * a recursive sort of each bucket. A key that ends before pos goes
+     * into the first bucket, ahead of all the longer keys.
+     */
+    private static void sortMsd(byte[][] keys, int[] order, int[] tmp, int from, int to, int pos) {
+        if ((to - from) < INSERTION_SORT_THRESHOLD) {
+            insertionSort(keys, order, from, to, pos);
+            return;
+        }
+
+        int[] counts = new int[258];
+        for (int idx = from; idx < to; idx++) {
+            counts[bucket(keys[order[idx]], pos) + 1]++;
+        }
+        for (int bucket = 0; bucket < 257; bucket++) {
+            counts[bucket + 1] += counts[bucket];
+        }
+        for (int idx = from; idx < to; idx++) {
+            int keyIdx = order[idx];
+            tmp[from + counts[bucket(keys[keyIdx], pos)]++] = keyIdx;
+        }
+        System.arraycopy(tmp, from, order, from, to - from);
+
+        // after the scatter, counts[bucket] is the end of each bucket. The
+        // keys within the first bucket have all ended, and are equal.
+        for (int bucket = 1; bucket < 257; bucket++) {
+            int start = from + counts[bucket - 1];
+            int end = from + counts[bucket];
+            if ((end - start) > 1) {
+                sortMsd(keys, order, tmp, start, end, pos + 1);
+            }
+        }
+    }
+
+    private static int bucket(byte[] key, int pos) {
+        return (pos < key.length) ? ((key[pos] & 0xFF) + 1) : 0;
+    }
+
+    private static void insertionSort(byte[][] keys, int[] order, int from, int to, int pos) {
+        for (int idx = from + 1; idx < to; idx++) {
+            int keyIdx = order[idx];
+            byte[] key = keys[keyIdx];
+            int idx2 = idx - 1;
+            while ((idx2 >= from) && (compareFrom(keys[order[idx2]], key, pos) > 0)) {
+                order[idx2 + 1] = order[idx2];
+                idx2--;
+            }
+            order[idx2 + 1] = keyIdx;
+        }
+    }
+
+}
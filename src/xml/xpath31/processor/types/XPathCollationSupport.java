@@ -14,10 +14,15 @@ package xml.xpath31.processor.types;
 import java.text.Collator;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.xml.transform.TransformerException;
 
@@ -65,9 +70,23 @@ public class XPathCollationSupport {
     
     private final String UCA_QUERY_STRING_PART_SUB_DELIM = "=";
     
-    private List<UCAParameter> fUcaSupportedParameters = new ArrayList<UCAParameter>();
+    // the maximum number of resolved UCA collation uris, that are cached
+    private static final int MAX_CACHED_UCA_COLLATIONS = 256;
+    
+    // the resolved UCA collation uris, shared by all the objects of this 
+    // class. The lookups don't take any lock. The cache is only modified 
+    // while holding UCA_COLLATION_CACHE_LOCK, and when it's full an 
+    // arbitrary entry is evicted to make room for a new one, so that its 
+    // size never exceeds MAX_CACHED_UCA_COLLATIONS.
+    private static final Map<String, UCACollation> UCA_COLLATION_CACHE = new ConcurrentHashMap<String, UCACollation>();
+    
+    private static final Object UCA_COLLATION_CACHE_LOCK = new Object();
+    
+    private static final LongAdder UCA_COLLATION_CACHE_HITS = new LongAdder();
     
-    private String fQueryStrFallbackValue = null;
+    private static final LongAdder UCA_COLLATION_CACHE_MISSES = new LongAdder();
+    
+    private List<UCAParameter> fUcaSupportedParameters = new ArrayList<UCAParameter>();
     
     private String fDefaultCollationUri = null;
     
@@ -102,12 +121,12 @@ public class XPathCollationSupport {
        }
        else if (collationUri.startsWith(UNICODE_COLLATION_ALGORITHM_URI)) {
           try {
-             Collator strComparisonCollator = getUCACollatorFromCollationUri(collationUri);
+             UCACollation ucaCollation = getUCACollation(collationUri);
              
-             if (strComparisonCollator != null) {
-                comparisonResult = strComparisonCollator.compare(str1, str2);                
+             if (ucaCollation.fCollator != null) {
+                comparisonResult = ucaCollation.compare(str1, str2);                
              }
-             else if (UCA_FALLBACK_YES.equals(fQueryStrFallbackValue)) {                    
+             else if (ucaCollation.fFallback) {                    
                 comparisonResult = compareStringsUsingCollation(str1, str2, fDefaultCollationUri);
              }
              else {
@@ -183,6 +202,35 @@ public class XPathCollationSupport {
        return comparisonResult;
     }
     
+    /**
+     * Get the number of UCA collation uri lookups, that have been answered
+     * from the cache of resolved collations shared by all the objects of
+     * this class.
+     * 
+     * @return    the number of cache hits
+     */
+    public static long getCollationCacheHits() {
+       return UCA_COLLATION_CACHE_HITS.sum(); 
+    }
+    
+    /**
+     * Get the number of UCA collation uri lookups, that had to resolve the
+     * collation uri because it wasn't within the cache of resolved 
+     * collations.
+     * 
+     * @return    the number of cache misses
+     */
+    public static long getCollationCacheMisses() {
+       return UCA_COLLATION_CACHE_MISSES.sum(); 
+    }
+    
+    /*
+     * Get the number of resolved collations, that are within the cache.
+     */
+    static int getCollationCacheSize() {
+       return UCA_COLLATION_CACHE.size();
+    }
+    
     /**
      * Given a string, get a corresponding primitive integer array of
      * the codepoints of all the characters of the string in order.
@@ -297,6 +345,46 @@ public class XPathCollationSupport {
        return intArray;
     }
     
+    /**
+     * Get the resolved collation for a UCA collation uri, from the cache of 
+     * resolved collations. The collation uri is resolved and added to the
+     * cache, if it isn't already within the cache. A cached collation that
+     * depends on the default locale, is only used while the default locale
+     * of this object is the same.
+     * 
+     * @param collationUri     the requested collation uri
+     * 
+     * @return                 the resolved collation
+     * 
+     * @throws TransformerException
+     */
+    private UCACollation getUCACollation(String collationUri) throws TransformerException {
+       UCACollation ucaCollation = UCA_COLLATION_CACHE.get(collationUri);
+       if ((ucaCollation != null) && ucaCollation.isUsableWith(DEFAULT_UCA_LOCALE)) {
+          UCA_COLLATION_CACHE_HITS.increment();
+          
+          return ucaCollation;
+       }
+       
+       UCA_COLLATION_CACHE_MISSES.increment();
+       // the collation uri is resolved outside the lock, so that a slow 
+       // resolution doesn't block the misses of other threads. If two 
+       // threads resolve the same uri, the last one resolved is cached.
+       ucaCollation = getUCACollationFromCollationUri(collationUri);
+       synchronized (UCA_COLLATION_CACHE_LOCK) {
+          if (!UCA_COLLATION_CACHE.containsKey(collationUri)) {
+             Iterator<String> cachedUris = (UCA_COLLATION_CACHE.keySet()).iterator();
+             while ((UCA_COLLATION_CACHE.size() >= MAX_CACHED_UCA_COLLATIONS) && cachedUris.hasNext()) {
+                cachedUris.next();
+                cachedUris.remove();
+             }
+          }
+          UCA_COLLATION_CACHE.put(collationUri, ucaCollation);
+       }
+       
+       return ucaCollation;
+    }
+    
     /**
      * This method implements, 'Unicode Collation Algorithm' as specified by XPath 3.1 F&amp;O spec
      * (which in turn is based on UTS #10 [Unicode Technical Standard #10 : Unicode Collation
@@ -305,18 +393,25 @@ public class XPathCollationSupport {
      * @param collationUri     the requested collation uri, during XPath 3.1 string comparisons,
      *                         and sorting of strings.
      *                         
-     * @return                 a configured Java object of type java.text.Collator, that callers of
-     *                         this method can use to do locale specific string comparisons.
+     * @return                 an immutable resolved collation, holding a configured Java object of 
+     *                         type java.text.Collator that callers of this method can use to do locale 
+     *                         specific string comparisons.
      * 
      * @throws TransformerException
      */
-    private Collator getUCACollatorFromCollationUri(String collationUri) throws TransformerException {
+    private UCACollation getUCACollationFromCollationUri(String collationUri) throws TransformerException {
        
        Collator strComparisonCollator = null;
        
+       boolean fallback = UCA_FALLBACK_YES.equals(DEFAULT_UCA_FALLBACK_VALUE);
+       
+       // the default locale, when the collation depends on it
+       Locale defaultLocale = null;
+       
        try {
            if (collationUri.equals(UNICODE_COLLATION_ALGORITHM_URI)) {
               strComparisonCollator = getDefaultUCACollator();
+              defaultLocale = DEFAULT_UCA_LOCALE;
            }
            else {
               int ucaUriPrefixLength = UNICODE_COLLATION_ALGORITHM_URI.length();              
@@ -330,15 +425,13 @@ public class XPathCollationSupport {
                  String queryStrLangCode = queryStrMap.get(UCA_KEYWORD_LANG);
                  String queryStrStrengthValue = queryStrMap.get(UCA_KEYWORD_STRENGTH);
                     
-                 if (queryStrFallbackValue == null) {
-                    fQueryStrFallbackValue = DEFAULT_UCA_FALLBACK_VALUE;  
-                 }
-                 else {
-                    fQueryStrFallbackValue = queryStrFallbackValue;  
+                 if (queryStrFallbackValue != null) {
+                    fallback = UCA_FALLBACK_YES.equals(queryStrFallbackValue);  
                  }
                     
                  if (queryStrLangCode == null) {
                     queryStrLangCode = DEFAULT_UCA_LOCALE.getCountry(); 
+                    defaultLocale = DEFAULT_UCA_LOCALE;
                  }
                     
                  if (queryStrStrengthValue == null) {
@@ -376,7 +469,7 @@ public class XPathCollationSupport {
            throw new TransformerException(ex.getMessage());  
        }
        
-       return strComparisonCollator;
+       return new UCACollation(strComparisonCollator, fallback, defaultLocale);
     }
     
     /**
@@ -450,7 +543,7 @@ public class XPathCollationSupport {
        for (int idx = 0; idx < fUcaSupportedParameters.size(); idx++) {
           UCAParameter ucaParameter = fUcaSupportedParameters.get(idx);
           if ((ucaParameter.getKeywordName()).equals(keyword)) {
-             List<String> paramValues = ucaParameter.getParamValues();
+             Collection<String> paramValues = ucaParameter.getParamValues();
              if (paramValues.contains(value)) {
                 isUCAKeywordAndValueOk = true;
                 break;
@@ -472,8 +565,8 @@ public class XPathCollationSupport {
         UCAParameter ucaFallbackParam = new UCAParameter(UCA_KEYWORD_FALLBACK, fallbackList);
         
         String[] isoLanguageCodes = Locale.getISOLanguages();
-        List<String> isoLanguageList = Arrays.asList(isoLanguageCodes);
-        UCAParameter ucaLanguageParam = new UCAParameter(UCA_KEYWORD_LANG, isoLanguageList);
+        Collection<String> isoLanguageSet = new HashSet<String>(Arrays.asList(isoLanguageCodes));
+        UCAParameter ucaLanguageParam = new UCAParameter(UCA_KEYWORD_LANG, isoLanguageSet);
         
         List<String> collationStrengthList = new ArrayList<String>();
         collationStrengthList.add(UCA_STRENGTH_PRIMARY);
@@ -506,9 +599,9 @@ public class XPathCollationSupport {
         // the 'fallback' parameter has possible values 'yes', 'no'. The 
         // 'strength' parameter has possible values 'primary', 'secondary',
         // 'tertiary', 'identical').
-        private List<String> paramValues;
+        private Collection<String> paramValues;
         
-        public UCAParameter(String keywordName, List<String> paramValues) {
+        public UCAParameter(String keywordName, Collection<String> paramValues) {
            this.keywordName = keywordName;
            this.paramValues = paramValues;
         }
@@ -517,10 +610,55 @@ public class XPathCollationSupport {
             return keywordName;
         }
 
-        public List<String> getParamValues() {
+        public Collection<String> getParamValues() {
             return paramValues;
         }
         
     }
 
+    
+    /**
+     * An object of this class, stores a resolved 'Unicode Collation 
+     * Algorithm' (UCA) collation uri. Objects of this class are immutable 
+     * and are shared between threads, via the cache of resolved collations.
+     */
+    private static final class UCACollation {
+        
+        // Variable denoting, the configured collator. The collator is never
+        // modified after it's configured.
+        private final Collator fCollator;
+        
+        // Variable denoting, whether the 'fallback' parameter is 'yes'.
+        private final boolean fFallback;
+        
+        // Variable denoting, the default locale from which the collator was
+        // configured, or null if the collator doesn't depend on the default
+        // locale.
+        private final Locale fDefaultLocale;
+        
+        public UCACollation(Collator collator, boolean fallback, Locale defaultLocale) {
+           fCollator = collator;
+           fFallback = fallback;
+           fDefaultLocale = defaultLocale;
+        }
+        
+        /**
+         * Compare two strings with this collation. The collators are 
+         * obtained from Collator.getInstance, which returns a 
+         * java.text.RuleBasedCollator whose method compare is itself 
+         * synchronized, so that a shared collator may be used concurrently.
+         */
+        public int compare(String str1, String str2) {
+           return fCollator.compare(str1, str2);
+        }
+        
+        /**
+         * Check whether, this collation may be used by an object of the 
+         * enclosing class having the supplied default locale.
+         */
+        public boolean isUsableWith(Locale defaultLocale) {
+           return (fDefaultLocale == null) || fDefaultLocale.equals(defaultLocale); 
+        }
+        
+    }
 }
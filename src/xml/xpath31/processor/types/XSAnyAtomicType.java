@@ -24,6 +24,12 @@ public abstract class XSAnyAtomicType extends XSAnySimpleType {
     
     private static final long serialVersionUID = 4800376096762047151L;
 
+    /**
+     * The cached hash code of this value, as computed by sameKeyHashCode().
+     * The value 0 denotes, that the hash code has not been computed yet.
+     */
+    private transient int fHashCode;
+
     /*
      * This function supports, creating XML Schema built-in types, XPath 3.1
      * XDM objects with data types xs:boolean, xs:decimal etc.
@@ -37,5 +43,78 @@ public abstract class XSAnyAtomicType extends XSAnySimpleType {
      * @return  String representation of the datatype's name
      */
     public abstract String typeName();
-    
+
+    /**
+     * Get a binary sort key of this value, whose unsigned lexicographic
+     * order (as per XPath3SortKeys.compare) is the same as the order of the
+     * 'lt' operation on values of this type.
+     *
+     * @return  the sort key, or null if this type doesn't have sort keys
+     */
+    public byte[] sortKey() {
+        return null;
+    }
+
+    /**
+     * Determine whether, this value and the supplied object are the same
+     * key, as per the XPath 3.1 op:same-key function (which is used to
+     * compare the keys of XPath 3.1 maps, and by fn:distinct-values).
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        return (obj instanceof XSAnyAtomicType) && sameKey((XSAnyAtomicType)obj);
+    }
+
+    /**
+     * Get a hash code of this value, which is consistent with the
+     * op:same-key equality of the equals(Object) method. The hash code is
+     * computed once, and cached thereafter.
+     */
+    @Override
+    public int hashCode() {
+        int hashCode = fHashCode;
+        if (hashCode == 0) {
+            hashCode = sameKeyHashCode();
+            fHashCode = hashCode;
+        }
+
+        return hashCode;
+    }
+
+    /**
+     * Determine whether, this value and another atomic value are the
+     * same key, as per the XPath 3.1 op:same-key function. Values of types
+     * that don't override this method, are only the same key as themselves.
+     *
+     * @param xsAnyAtomicType   the other value
+     *
+     * @return                  true if both the values are the same key.
+     *                          false otherwise.
+     */
+    protected boolean sameKey(XSAnyAtomicType xsAnyAtomicType) {
+        return false;
+    }
+
+    /**
+     * Compute the hash code of this value. All the values that are the same
+     * key (as per the method sameKey), must have the same hash code.
+     *
+     * @return   the hash code
+     */
+    protected int sameKeyHashCode() {
+        return System.identityHashCode(this);
+    }
+
+    /**
+     * Discard the cached hash code of this value. This method must be called
+     * after any change to the state used by the method sameKeyHashCode.
+     */
+    protected final void resetHashCode() {
+        fHashCode = 0;
+    }
+
 }
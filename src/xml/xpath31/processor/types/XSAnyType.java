@@ -42,8 +42,28 @@ public abstract class XSAnyType extends XObject {
 	 */
 	public abstract String stringValue();
 	
+	/**
+	 * Append the string representation of the value stored, to a 
+	 * FastStringBuffer object. Types that compute their string 
+	 * representation, override this method to write the characters
+	 * directly to the buffer.
+	 * 
+	 * @param fsb   the buffer to append to
+	 */
 	public void appendToFsb(FastStringBuffer fsb) {
 	   fsb.append(stringValue());
 	} 
 	
+	/**
+	 * Append the string representation of the value stored, to a 
+	 * StringBuilder object. Types that compute their string 
+	 * representation, override this method to write the characters
+	 * directly to the buffer.
+	 * 
+	 * @param strBuf   the buffer to append to
+	 */
+	public void appendTo(StringBuilder strBuf) {
+	   strBuf.append(stringValue());
+	}
+	
 }
@@ -97,32 +97,13 @@ public class XSAnyURI extends XSCtrType {
 	}
 	
     @Override
-    public boolean equals(Object obj) {
-       boolean isXsAnyUriEqual = false;
-       
-       String argStrValue = null;       
-       try {
-		   if ((obj instanceof XSAnyURI) || (obj instanceof XSString)) {
-			   argStrValue = ((XSAnyType)obj).stringValue();
-			   isXsAnyUriEqual = this.eq(new XSAnyURI(argStrValue)); 
-		   }
-		   else if (obj instanceof XString) {
-			   argStrValue = ((XString)obj).str();
-			   isXsAnyUriEqual = this.eq(new XSAnyURI(argStrValue)); 
-		   }
-       }
-       catch (TransformerException ex) {
-    	   isXsAnyUriEqual = false; 
-       }
-       
-       return isXsAnyUriEqual;
+    protected boolean sameKey(XSAnyAtomicType xsAnyAtomicType) {
+        return XSString.sameStringKey(_value, xsAnyAtomicType);
     }
     
     @Override
-    public int hashCode() {       
-       String strVal = stringValue();       
-       
-       return strVal.hashCode();
+    protected int sameKeyHashCode() {
+        return XSString.stringHashCode(_value);
     }
 	
 	/**
@@ -24,7 +24,11 @@ public class XSBoolean extends XSCtrType {
 
     private static final String XS_BOOLEAN = "xs:boolean";
     
-    private boolean _value;
+    private static final XSBoolean TRUE = new XSBoolean(true);
+    
+    private static final XSBoolean FALSE = new XSBoolean(false);
+    
+    private final boolean _value;
     
     /*
      * Class constructor.
@@ -40,6 +44,19 @@ public class XSBoolean extends XSCtrType {
         this(false);
     }
 
+    /**
+     * Get an XSBoolean object for the supplied boolean value. This method
+     * returns a shared instance, and should be preferred to the class 
+     * constructor.
+     * 
+     * @param bool   the boolean value
+     * 
+     * @return       an XSBoolean object, representing the supplied value
+     */
+    public static XSBoolean valueOf(boolean bool) {
+        return bool ? TRUE : FALSE;
+    }
+
     @Override
     public ResultSequence constructor(ResultSequence arg) {        
         ResultSequence resultSeq = new ResultSequence();
@@ -51,15 +68,7 @@ public class XSBoolean extends XSCtrType {
         XSAnyType xsAnyType = (XSAnyType)arg.item(0);
         String strVal = xsAnyType.stringValue();
            
-        Boolean bool = null;
-        if (isBooleanFalse(strVal)) {
-           bool = Boolean.FALSE;    
-        }
-        else {
-           bool = Boolean.TRUE;     
-        }
-           
-        resultSeq.add(new XSBoolean(bool.booleanValue()));
+        resultSeq.add(valueOf(!isBooleanFalse(strVal)));
            
         return resultSeq;        
     }
@@ -76,7 +85,7 @@ public class XSBoolean extends XSCtrType {
 
     @Override
     public String stringValue() {
-        return "" + _value;
+        return _value ? "true" : "false";
     }
     
     /**
@@ -116,6 +125,21 @@ public class XSBoolean extends XSCtrType {
         return value();  
     }
     
+    @Override
+    protected boolean sameKey(XSAnyAtomicType xsAnyAtomicType) {
+        return (xsAnyAtomicType instanceof XSBoolean) && (_value == ((XSBoolean)xsAnyAtomicType).value());
+    }
+    
+    @Override
+    protected int sameKeyHashCode() {
+        return Boolean.hashCode(_value);
+    }
+    
+    @Override
+    public byte[] sortKey() {
+        return XPath3SortKeys.booleanKey(_value);
+    }
+    
     public int getType() {
         return CLASS_BOOLEAN;
     }
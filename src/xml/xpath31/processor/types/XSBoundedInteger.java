@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Apache XalanJ Team, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Apache XalanJ Team       - initial API and implementation
+ *******************************************************************************/
+
+package xml.xpath31.processor.types;
+
+import java.math.BigInteger;
+import java.util.function.Function;
+
+import org.apache.xpath.objects.ResultSequence;
+
+/**
+ * A base class, for the XML Schema data types derived from xs:integer by
+ * restricting its range of values (for e.g, xs:long, xs:byte and
+ * xs:nonNegativeInteger).
+ *
+ * <p>Every constructor of a derived type calls the method checkRange, with
+ * the bounds of that type. Since a derived type's constructors call those
+ * of its base type, a value is checked against the bounds of each type
+ * from xs:long (or xs:nonNegativeInteger, xs:nonPositiveInteger) down to
+ * the type being constructed, and an out of range value is reported with
+ * the name of the type being constructed.</p>
+ */
+public abstract class XSBoundedInteger extends XSInteger {
+
+    private static final long serialVersionUID = 6264935874512208817L;
+
+    /*
+     * Class constructor.
+     */
+    protected XSBoundedInteger(long val) {
+        super(val);
+    }
+
+    /*
+     * Class constructor.
+     */
+    protected XSBoundedInteger(BigInteger val) {
+        super(val);
+    }
+
+    /*
+     * Class constructor.
+     */
+    protected XSBoundedInteger(String val) {
+        super(val);
+    }
+
+    /*
+     * Class constructor.
+     */
+    protected XSBoundedInteger(XSInteger val) {
+        super(val);
+    }
+
+    /**
+     * Check that the value of this object is from minInclusive to
+     * maxInclusive. A null bound denotes, that the value space is unbounded
+     * on that side.
+     *
+     * @param minInclusive   the least value of the type, or null
+     * @param maxInclusive   the greatest value of the type, or null
+     *
+     * @throws RuntimeException   if the value is out of range
+     */
+    protected final void checkRange(XSInteger minInclusive, XSInteger maxInclusive) throws RuntimeException {
+        if (((minInclusive != null) && (compareInteger(minInclusive) < 0)) ||
+                                  ((maxInclusive != null) && (compareInteger(maxInclusive) > 0))) {
+            throw new RuntimeException("An instance of type " + stringType() + " cannot be created. The numeric "
+                                                     + "argument '" + stringValue() + "' provided is out of range for "
+                                                     + "type " + stringType() + ".");
+        }
+    }
+
+    /**
+     * Implement the constructor function of a type derived from xs:integer.
+     * The argument is cast to xs:integer, and the result is then created
+     * by the supplied function, which checks its range.
+     *
+     * @param arg       the argument of the constructor function
+     * @param factory   a function creating an object of the derived type,
+     *                  from an xs:integer value
+     *
+     * @return          a sequence having the result, or an empty sequence
+     *                  if the argument is an empty sequence
+     *
+     * @throws RuntimeException   if the argument cannot be cast to the
+     *                            derived type
+     */
+    protected ResultSequence constructor(ResultSequence arg, Function<XSInteger, XSInteger> factory)
+                                                                              throws RuntimeException {
+        ResultSequence resultSeq = new ResultSequence();
+
+        if (arg.size() == 0) {
+           return resultSeq;
+        }
+
+        XSAnyType xsAnyType = (XSAnyType)arg.item(0);
+
+        XSInteger xsInteger = (XSInteger)XPath3NumericCasts.cast(xsAnyType, XPath3NumericCasts.TARGET_INTEGER);
+        if (xsInteger == null) {
+            throw new RuntimeException("An instance of type " + stringType() + " cannot be created. The argument "
+                                                     + "'" + xsAnyType.stringValue() + "' provided is not a valid "
+                                                     + stringType() + " value.");
+        }
+
+        resultSeq.add(factory.apply(xsInteger));
+
+        return resultSeq;
+    }
+
+}
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Apache XalanJ Team, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Apache XalanJ Team       - initial API and implementation
+ *******************************************************************************/
+
+package xml.xpath31.processor.types;
+
+import org.apache.xpath.objects.ResultSequence;
+
+/**
+ * An XML Schema data type representation, of the xs:byte datatype.
+ */
+public class XSByte extends XSShort {
+
+    private static final long serialVersionUID = -5969349556830654523L;
+    
+    private static final String XS_BYTE = "xs:byte";
+    
+    private static final XSInteger MIN_INCLUSIVE = XSInteger.valueOf(-128);
+    
+    private static final XSInteger MAX_INCLUSIVE = XSInteger.valueOf(127);
+
+    /*
+     * Class constructor.
+     */
+    public XSByte() {
+       this((byte)0);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    public XSByte(byte val) {
+        super(val);
+        checkRange(MIN_INCLUSIVE, MAX_INCLUSIVE);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    public XSByte(String val) {
+        super(val);
+        checkRange(MIN_INCLUSIVE, MAX_INCLUSIVE);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    protected XSByte(XSInteger val) {
+        super(val);
+        checkRange(MIN_INCLUSIVE, MAX_INCLUSIVE);
+    }
+    
+    @Override
+    public ResultSequence constructor(ResultSequence arg) throws RuntimeException {
+        return constructor(arg, XSByte::new);
+    }
+    
+    public String stringType() {
+        return XS_BYTE;
+    }
+    
+    public String typeName() {
+        return "byte";
+    }
+
+}
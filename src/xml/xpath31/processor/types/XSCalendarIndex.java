@@ -0,0 +1,354 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Apache XalanJ Team, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Apache XalanJ Team       - initial API and implementation
+ *******************************************************************************/
+
+package xml.xpath31.processor.types;
+
+import java.util.Arrays;
+
+import javax.xml.transform.TransformerException;
+
+import org.apache.xpath.objects.ResultSequence;
+import org.apache.xpath.objects.XObject;
+
+/**
+ * This class provides, a sorted index over a sequence of xs:dateTime,
+ * xs:date or xs:time values, which answers range, minimum, maximum and
+ * nearest value queries with binary searches.
+ *
+ * <p>The index holds the values' dates and times adjusted to UTC (using
+ * the implicit timezone for a value without a timezone) within a sorted
+ * long[] array of seconds and an int[] array of nanoseconds, together with
+ * the permutation from the sorted order to the positions of the values
+ * within the original sequence. The order of the index is the same as the
+ * order of the 'lt' operation of the values, and values that are equal
+ * retain their original relative order.</p>
+ *
+ * <p>XSCalendarIndex objects are immutable, and may be shared between
+ * threads.</p>
+ */
+public final class XSCalendarIndex {
+
+    // the class of the indexed values, or null for an index built from an
+    // empty sequence, whose values have no type
+    private final Class<? extends XSCalendarType> _type;
+
+    private final long[] _seconds;
+
+    private final int[] _nanos;
+
+    private final int[] _positions;
+
+    // the indexed values by their positions, or null when the values are
+    // materialized from _column
+    private final XSCalendarType[] _values;
+
+    private final XSDateTimeColumn _column;
+
+    /*
+     * Class constructor.
+     */
+    private XSCalendarIndex(Class<? extends XSCalendarType> type, int size, XSCalendarType[] values,
+                                                                                   XSDateTimeColumn column) {
+        _type = type;
+        _seconds = new long[size];
+        _nanos = new int[size];
+        _positions = new int[size];
+        _values = values;
+        _column = column;
+    }
+
+    /**
+     * Build an index over a sequence of values.
+     *
+     * @param resultSeq   a sequence, whose items are all xs:dateTime values,
+     *                    all xs:date values or all xs:time values
+     *
+     * @return            an XSCalendarIndex object, or null if the sequence
+     *                    has items of any other type or of more than one of
+     *                    these types
+     */
+    public static XSCalendarIndex build(ResultSequence resultSeq) {
+        int size = resultSeq.size();
+        XSCalendarType[] values = new XSCalendarType[size];
+        byte[][] keys = new byte[size][];
+        Class<? extends XSCalendarType> type = null;
+        for (int idx = 0; idx < size; idx++) {
+            XObject item = resultSeq.item(idx);
+            if (!(item instanceof XSCalendarType) || ((type != null) && (item.getClass() != type))) {
+                return null;
+            }
+            values[idx] = (XSCalendarType)item;
+            type = values[idx].getClass();
+            keys[idx] = values[idx].sortKey();
+        }
+
+        XSCalendarIndex index = new XSCalendarIndex(type, size, values, null);
+        int[] order = XPath3SortKeys.sortedOrder(keys);
+        for (int rank = 0; rank < size; rank++) {
+            XSCalendarType value = values[order[rank]];
+            index._seconds[rank] = value.comparisonSeconds();
+            index._nanos[rank] = value.nanos();
+            index._positions[rank] = order[rank];
+        }
+
+        return index;
+    }
+
+    /**
+     * Build an index over the valid rows of an XSDateTimeColumn. The
+     * positions reported by the index are the row indexes of the column.
+     *
+     * @param column   the column
+     *
+     * @return         an XSCalendarIndex object
+     */
+    public static XSCalendarIndex build(XSDateTimeColumn column) {
+        int[] rows = new int[column.validCount()];
+        byte[][] keys = new byte[rows.length][];
+        int count = 0;
+        for (int row = 0; row < column.size(); row++) {
+            if (column.isValid(row)) {
+                keys[count] = XPath3SortKeys.calendarKey(XPath3SortKeys.FAMILY_DATETIME, column.epochSecond(row),
+                                                                                                 column.nanos(row));
+                rows[count++] = row;
+            }
+        }
+
+        XSCalendarIndex index = new XSCalendarIndex(XSDateTime.class, rows.length, null, column);
+        int[] order = XPath3SortKeys.sortedOrder(keys);
+        for (int rank = 0; rank < rows.length; rank++) {
+            int row = rows[order[rank]];
+            index._seconds[rank] = column.epochSecond(row);
+            index._nanos[rank] = column.nanos(row);
+            index._positions[rank] = row;
+        }
+
+        return index;
+    }
+
+    /**
+     * Get the number of values within this index.
+     *
+     * @return   the number of values
+     */
+    public int size() {
+        return _seconds.length;
+    }
+
+    /**
+     * Get the least value of this index, as per the XPath 3.1 function
+     * fn:min. Of the values that are equal, the first one within the
+     * original sequence is returned.
+     *
+     * @return   the least value, or null for an empty index
+     */
+    public XSCalendarType min() {
+        return (size() == 0) ? null : valueAt(0);
+    }
+
+    /**
+     * Get the greatest value of this index, as per the XPath 3.1 function
+     * fn:max.
+     *
+     * @return   the greatest value, or null for an empty index
+     */
+    public XSCalendarType max() {
+        return (size() == 0) ? null : valueAt(size() - 1);
+    }
+
+    /**
+     * Get the number of values of this index, that are within a range.
+     *
+     * @param from            the lower bound of the range, or null if the
+     *                        range doesn't have a lower bound
+     * @param fromInclusive   true if a value equal to the lower bound is
+     *                        within the range ('ge'). false otherwise ('gt').
+     * @param to              the upper bound of the range, or null if the
+     *                        range doesn't have an upper bound
+     * @param toInclusive     true if a value equal to the upper bound is
+     *                        within the range ('le'). false otherwise ('lt').
+     *
+     * @return                the number of values within the range
+     *
+     * @throws TransformerException if a bound isn't of the indexed type
+     */
+    public int count(XSCalendarType from, boolean fromInclusive, XSCalendarType to, boolean toInclusive)
+                                                                                     throws TransformerException {
+        return Math.max(0, rangeEnd(to, toInclusive) - rangeStart(from, fromInclusive));
+    }
+
+    /**
+     * Get the positions within the original sequence, of the values of this
+     * index that are within a range. The arguments are the same as with the
+     * method count.
+     *
+     * @return   the positions in ascending order, which is the order of the
+     *           values within the original sequence
+     *
+     * @throws TransformerException if a bound isn't of the indexed type
+     */
+    public int[] positions(XSCalendarType from, boolean fromInclusive, XSCalendarType to, boolean toInclusive)
+                                                                                     throws TransformerException {
+        int start = rangeStart(from, fromInclusive);
+        int end = Math.max(start, rangeEnd(to, toInclusive));
+        int[] positions = Arrays.copyOfRange(_positions, start, end);
+        Arrays.sort(positions);
+
+        return positions;
+    }
+
+    /**
+     * Get the values of this index that are within a range, in the order of
+     * the original sequence. The arguments are the same as with the method
+     * count.
+     *
+     * @return   a ResultSequence object
+     *
+     * @throws TransformerException if a bound isn't of the indexed type
+     */
+    public ResultSequence range(XSCalendarType from, boolean fromInclusive, XSCalendarType to, boolean toInclusive)
+                                                                                     throws TransformerException {
+        ResultSequence resultSeq = new ResultSequence();
+        for (int position : positions(from, fromInclusive, to, toInclusive)) {
+            resultSeq.add(valueAtPosition(position));
+        }
+
+        return resultSeq;
+    }
+
+    /**
+     * Get the value of this index, that is nearest to the supplied value.
+     * Of two values that are equally near, the lesser one is returned.
+     *
+     * @param value   the value
+     *
+     * @return        the nearest value, or null for an empty index
+     *
+     * @throws TransformerException if the value isn't of the indexed type
+     */
+    public XSCalendarType nearest(XSCalendarType value) throws TransformerException {
+        checkType(value);
+        if (size() == 0) {
+            return null;
+        }
+
+        long seconds = value.comparisonSeconds();
+        int nanos = value.nanos();
+        int rank = lowerBound(seconds, nanos);
+        if (rank == size()) {
+            return valueAt(rank - 1);
+        }
+        if (rank == 0) {
+            return valueAt(0);
+        }
+
+        // compare the distances from the value, to its neighbours below and
+        // above. Each distance is a number of seconds plus a number of nanos
+        // within the range -999999999 to 999999999, so that the nanos only
+        // matter when the seconds differ by at most 2.
+        long secondsDiff = (seconds - _seconds[rank - 1]) - (_seconds[rank] - seconds);
+        long nanosDiff = ((long)nanos - _nanos[rank - 1]) - ((long)_nanos[rank] - nanos);
+        int cmp = (Math.abs(secondsDiff) > 2) ? Long.signum(secondsDiff) : 
+                             Long.signum((secondsDiff * XSCalendarType.NANOS_PER_SECOND) + nanosDiff);
+
+        return valueAt((cmp <= 0) ? (rank - 1) : rank);
+    }
+
+    /*
+     * Get the rank of the first value within a range, with the supplied
+     * lower bound.
+     */
+    private int rangeStart(XSCalendarType from, boolean fromInclusive) throws TransformerException {
+        if (from == null) {
+            return 0;
+        }
+        checkType(from);
+
+        return fromInclusive ? lowerBound(from.comparisonSeconds(), from.nanos()) :
+                                                         upperBound(from.comparisonSeconds(), from.nanos());
+    }
+
+    /*
+     * Get the rank just after the last value within a range, with the
+     * supplied upper bound.
+     */
+    private int rangeEnd(XSCalendarType to, boolean toInclusive) throws TransformerException {
+        if (to == null) {
+            return size();
+        }
+        checkType(to);
+
+        return toInclusive ? upperBound(to.comparisonSeconds(), to.nanos()) :
+                                                         lowerBound(to.comparisonSeconds(), to.nanos());
+    }
+
+    /*
+     * Get the rank of the first value, that is not less than the supplied
+     * key.
+     */
+    private int lowerBound(long seconds, int nanos) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareAt(mid, seconds, nanos) < 0) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    /*
+     * Get the rank of the first value, that is greater than the supplied
+     * key.
+     */
+    private int upperBound(long seconds, int nanos) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareAt(mid, seconds, nanos) <= 0) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    private int compareAt(int rank, long seconds, int nanos) {
+        int result = Long.compare(_seconds[rank], seconds);
+
+        return (result != 0) ? result : Integer.compare(_nanos[rank], nanos);
+    }
+
+    private XSCalendarType valueAt(int rank) {
+        return valueAtPosition(_positions[rank]);
+    }
+
+    private XSCalendarType valueAtPosition(int position) {
+        return (_values != null) ? _values[position] : _column.item(position);
+    }
+
+    private void checkType(XSCalendarType value) throws TransformerException {
+        if ((_type != null) && (value.getClass() != _type)) {
+            throw new TransformerException("XPTY0004 : A value of type " + value.stringType() + " cannot be "
+                                                                     + "compared with the values of this index.");
+        }
+    }
+
+}
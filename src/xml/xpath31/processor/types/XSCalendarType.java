@@ -13,13 +13,153 @@
 
 package xml.xpath31.processor.types;
 
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import org.apache.xml.utils.FastStringBuffer;
+
 /**
  * Base class for all calendar based classes.
+ * 
+ * <p>The date and time of a calendar value is stored as a few primitive
+ * fields: the local date and time as the number of seconds from 
+ * 1970-01-01T00:00:00 of the proleptic Gregorian calendar, the nanoseconds 
+ * within the second, and the timezone offset in minutes. The year, month
+ * and day are computed from these fields with integer arithmetic, and a
+ * java.util.Calendar object is only built when getCalendar() is called.</p>
+ * 
+ * <p>The dates are stored with the astronomical year numbering, where the
+ * year 0 is 1 BCE. The year values returned by the methods of the 
+ * subclasses, and the string values, don't have a year 0 (as with XML 
+ * Schema 1.0), so that the year -1 is 1 BCE.</p>
  */
 public abstract class XSCalendarType extends XSCtrType {
 
     private static final long serialVersionUID = -6546129697566314664L;
     
+    static final long SECONDS_PER_DAY = 24L * 60 * 60;
+    
+    static final int NANOS_PER_SECOND = 1000000000;
+    
+    private static final int NANOS_PER_MILLISECOND = 1000000;
+    
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    
+    // the maximum length of the lexical representation of a value, which 
+    // has a nine digit year and nine fractional second digits.
+    static final int MAX_LEXICAL_LENGTH = 48;
+    
+    /**
+     * The local date and time of this value (i.e, not adjusted by its 
+     * timezone), as the number of seconds from 1970-01-01T00:00:00. For 
+     * xs:date values this is the start of the day, and for xs:time values 
+     * this is the second of the day.
+     */
+    private final long _localSeconds;
+    
+    private final int _nanos;
+    
+    private final short _tzMinutes;
+    
+    private final boolean _timezoned;
+    
+    /**
+     * The date and time of this value adjusted to UTC, as the number of 
+     * seconds from 1970-01-01T00:00:00. Values without a timezone, are 
+     * adjusted using the implicit timezone of the context they were created
+     * with.
+     */
+    private final long _comparisonSeconds;
+    
+    /**
+     * Class constructor.
+     * 
+     * @param localSeconds   the local date and time, as the number of seconds
+     *                       from 1970-01-01T00:00:00
+     * @param nanos          the nanoseconds within the second
+     * @param tzMinutes      the timezone offset in minutes, which is ignored
+     *                       if timezoned is false
+     * @param timezoned      true if the value has a timezone. false otherwise.
+     */
+    protected XSCalendarType(long localSeconds, int nanos, int tzMinutes, boolean timezoned) {
+        this(localSeconds, nanos, tzMinutes, timezoned, XPath3DateTimeContext.getDefault());
+    }
+    
+    /**
+     * Class constructor.
+     * 
+     * @param localSeconds   the local date and time, as the number of seconds
+     *                       from 1970-01-01T00:00:00
+     * @param nanos          the nanoseconds within the second
+     * @param tzMinutes      the timezone offset in minutes, which is ignored
+     *                       if timezoned is false
+     * @param timezoned      true if the value has a timezone. false otherwise.
+     * @param context        the context, whose implicit timezone is applied 
+     *                       to this value when it is compared with other 
+     *                       values, if this value doesn't have a timezone
+     */
+    protected XSCalendarType(long localSeconds, int nanos, int tzMinutes, boolean timezoned, 
+                                                                          XPath3DateTimeContext context) {
+        _localSeconds = localSeconds;
+        _nanos = nanos;
+        _tzMinutes = (short)(timezoned ? tzMinutes : 0);
+        _timezoned = timezoned;
+        _comparisonSeconds = localSeconds - ((timezoned ? tzMinutes : context.implicitTimezoneMinutes()) * 60L);
+    }
+    
+    /**
+     * Class constructor, for a value that has the same timezone (or the same
+     * implicit timezone, if it doesn't have a timezone) as another calendar
+     * value. This is used for the results of arithmetic operations.
+     * 
+     * @param localSeconds   the local date and time, as the number of seconds
+     *                       from 1970-01-01T00:00:00
+     * @param nanos          the nanoseconds within the second
+     * @param zoneSource     the value, whose timezone is used
+     */
+    protected XSCalendarType(long localSeconds, int nanos, XSCalendarType zoneSource) {
+        _localSeconds = localSeconds;
+        _nanos = nanos;
+        _tzMinutes = zoneSource._tzMinutes;
+        _timezoned = zoneSource._timezoned;
+        _comparisonSeconds = localSeconds - (zoneSource._localSeconds - zoneSource._comparisonSeconds);
+    }
+    
+    /**
+     * Get a java.util.Calendar representation of the date and time stored. 
+     * The calendar is a new object built on each call, which has the UTC 
+     * timezone and the proleptic Gregorian calendar, so that its fields are
+     * the local date and time of this value. Changes to the calendar don't 
+     * affect this value.
+     * 
+     * @return    Calendar representation of the date and time stored
+     */
+    public Calendar getCalendar() {
+        GregorianCalendar cal = new GregorianCalendar(UTC);
+        cal.setGregorianChange(new Date(Long.MIN_VALUE));
+        cal.setTimeInMillis((_localSeconds * 1000) + (_nanos / NANOS_PER_MILLISECOND));
+        
+        return cal;
+    }
+    
+    /**
+     * Get the timezone of the value stored.
+     * 
+     * @return    the timezone as an xs:dayTimeDuration value, or null if 
+     *            this value doesn't have a timezone
+     */
+    public XSDuration getTimezone() {
+        if (!_timezoned) {
+           return null; 
+        }
+        
+        int absMinutes = Math.abs(_tzMinutes);
+        
+        return new XSDayTimeDuration(0, absMinutes / 60, absMinutes % 60, 0.0, _tzMinutes < 0);
+    }
+    
     /**
      * Determine whether, two timezone values (represented as XSDuration objects) 
      * are equal. 
@@ -44,5 +184,347 @@ public abstract class XSCalendarType extends XSCtrType {
         
         return isTimezoneEqual;
     }
+    
+    /**
+     * Compare this and another calendar value of the same type, as per the
+     * XPath 3.1 functions op:dateTime-equal, op:dateTime-less-than etc. Both
+     * the values are adjusted to UTC before the comparison, using the 
+     * implicit timezone for a value that doesn't have a timezone.
+     * 
+     * @return    a negative value, zero or a positive value, if this value 
+     *            is less than, equal to or greater than the other value
+     */
+    protected int compareNormalized(XSCalendarType calendarVal) {
+        int result = Long.compare(_comparisonSeconds, calendarVal._comparisonSeconds);
+        
+        return (result != 0) ? result : Integer.compare(_nanos, calendarVal._nanos);
+    }
+    
+    /**
+     * Determine whether, this and another calendar value of the same type 
+     * are the same key, as per the XPath 3.1 op:same-key function. Two values
+     * that both have a timezone are the same key, if they denote the same 
+     * instant of time. Two values that both don't have a timezone are the 
+     * same key, if their date and time are equal. A value with a timezone, 
+     * is never the same key as a value without a timezone.
+     */
+    protected boolean isSameCalendarKey(XSCalendarType calendarVal) {
+        return (_comparisonSeconds == calendarVal._comparisonSeconds) && (_nanos == calendarVal._nanos) && 
+                                                                    (_timezoned == calendarVal._timezoned);
+    }
+    
+    /**
+     * Get the hash code of this value, that is consistent with the method 
+     * isSameCalendarKey.
+     */
+    protected int calendarHashCode() {
+        int hashCode = (31 * Long.hashCode(_comparisonSeconds)) + _nanos;
+        
+        return _timezoned ? (hashCode + 1) : hashCode;
+    }
+    
+    /**
+     * Get the local date and time of this value moved by a number of months,
+     * as per the XPath 3.1 function op:add-yearMonthDuration-to-dateTime. If
+     * the day of the month doesn't exist within the resulting month, the 
+     * last day of that month is used instead.
+     * 
+     * @param months   the signed number of months
+     * 
+     * @return         the local date and time, as the number of seconds 
+     *                 from 1970-01-01T00:00:00
+     */
+    long localSecondsPlusMonths(int months) {
+        long civilDate = civilFromDays(epochDay());
+        long monthIndex = ((civilDate >> 9) * 12) + ((civilDate >> 5) & 0xF) - 1 + months;
+        long year = Math.floorDiv(monthIndex, 12);
+        int month = (int)Math.floorMod(monthIndex, 12L) + 1;
+        int day = Math.min((int)(civilDate & 0x1F), daysInMonth(year, month));
+        
+        return (epochDay(year, month, day) * SECONDS_PER_DAY) + secondOfDay();
+    }
+    
+    /**
+     * Get the local date and time of this value moved by the day and time 
+     * components of a duration, as the number of whole seconds from 
+     * 1970-01-01T00:00:00. The nanoseconds within the second are available
+     * from the method nanosPlus.
+     * 
+     * @param duration   the duration
+     * @param sign       1 to add the duration, or -1 to subtract it
+     */
+    long localSecondsPlus(XSDuration duration, int sign) {
+        long nanos = _nanos + (sign * (long)duration.dayTimeNanos());
+        
+        return _localSeconds + (sign * duration.dayTimeSeconds()) + Math.floorDiv(nanos, NANOS_PER_SECOND);
+    }
+    
+    /**
+     * Get the nanoseconds within the second, of the local date and time of 
+     * this value moved by the day and time components of a duration.
+     * 
+     * @param duration   the duration
+     * @param sign       1 to add the duration, or -1 to subtract it
+     */
+    int nanosPlus(XSDuration duration, int sign) {
+        long nanos = _nanos + (sign * (long)duration.dayTimeNanos());
+        
+        return (int)Math.floorMod(nanos, (long)NANOS_PER_SECOND);
+    }
+    
+    /**
+     * Get the difference of this and another calendar value of the same 
+     * type, as per the XPath 3.1 function op:subtract-dateTimes. Both the 
+     * values are adjusted to UTC before the subtraction, using the implicit
+     * timezone for a value that doesn't have a timezone.
+     * 
+     * @return    the difference as an xs:dayTimeDuration value
+     */
+    protected XSDayTimeDuration difference(XSCalendarType calendarVal) {
+        return new XSDayTimeDuration(_comparisonSeconds - calendarVal._comparisonSeconds, 
+                                                          (long)_nanos - calendarVal._nanos);
+    }
+    
+    long comparisonSeconds() {
+        return _comparisonSeconds;
+    }
+    
+    long localSeconds() {
+        return _localSeconds;
+    }
+    
+    int nanos() {
+        return _nanos;
+    }
+    
+    int timezoneMinutes() {
+        return _tzMinutes;
+    }
+    
+    boolean isTimezoned() {
+        return _timezoned;
+    }
+    
+    long epochDay() {
+        return Math.floorDiv(_localSeconds, SECONDS_PER_DAY);
+    }
+    
+    int secondOfDay() {
+        return (int)Math.floorMod(_localSeconds, SECONDS_PER_DAY);
+    }
+    
+    int civilYear() {
+        int year = (int)(civilFromDays(epochDay()) >> 9);
+        
+        return (year > 0) ? year : (year - 1);
+    }
+    
+    int civilMonth() {
+        return (int)((civilFromDays(epochDay()) >> 5) & 0xF);
+    }
+    
+    int civilDay() {
+        return (int)(civilFromDays(epochDay()) & 0x1F);
+    }
+    
+    int civilHour() {
+        return secondOfDay() / 3600;
+    }
+    
+    int civilMinute() {
+        return (secondOfDay() / 60) % 60;
+    }
+    
+    int civilSecond() {
+        return secondOfDay() % 60;
+    }
+    
+    /**
+     * Append the lexical representation of this value, to a buffer.
+     * 
+     * @param out    the buffer to append to
+     * @param sink   the appender of characters, to the buffer
+     */
+    abstract <T> void format(T out, XPath3CharSink<T> sink);
+    
+    @Override
+    public String stringValue() {
+        StringBuilder strBuf = new StringBuilder(MAX_LEXICAL_LENGTH);
+        format(strBuf, XPath3CharSink.STRING_BUILDER);
+        
+        return strBuf.toString();
+    }
+    
+    @Override
+    public void appendTo(StringBuilder strBuf) {
+        format(strBuf, XPath3CharSink.STRING_BUILDER);
+    }
+    
+    @Override
+    public void appendToFsb(FastStringBuffer fsb) {
+        format(fsb, XPath3CharSink.FAST_STRING_BUFFER);
+    }
+    
+    /**
+     * Append the lexical representation of the date stored, to a buffer.
+     */
+    <T> void putDate(T out, XPath3CharSink<T> sink) {
+        long civilDate = civilFromDays(epochDay());
+        long year = civilDate >> 9;
+        if (year <= 0) {
+           sink.put(out, '-');
+           year = 1 - year;
+        }
+        sink.putPadded(out, year, 4);
+        sink.put(out, '-');
+        sink.putDigits(out, (civilDate >> 5) & 0xF, 2);
+        sink.put(out, '-');
+        sink.putDigits(out, civilDate & 0x1F, 2);
+    }
+    
+    /**
+     * Append the lexical representation of the time stored, to a buffer. 
+     * The fractional seconds are written without any trailing zeros.
+     */
+    <T> void putTime(T out, XPath3CharSink<T> sink) {
+        int secondOfDay = secondOfDay();
+        sink.putDigits(out, secondOfDay / 3600, 2);
+        sink.put(out, ':');
+        sink.putDigits(out, (secondOfDay / 60) % 60, 2);
+        sink.put(out, ':');
+        sink.putDigits(out, secondOfDay % 60, 2);
+        if (_nanos != 0) {
+           int nanos = _nanos;
+           int digits = 9;
+           while ((nanos % 10) == 0) {
+              nanos /= 10;
+              digits--;
+           }
+           sink.put(out, '.');
+           sink.putDigits(out, nanos, digits);
+        }
+    }
+    
+    /**
+     * Append the lexical representation of the timezone stored (if any), 
+     * to a buffer.
+     */
+    <T> void putTimezone(T out, XPath3CharSink<T> sink) {
+        if (!_timezoned) {
+           return; 
+        }
+        
+        if (_tzMinutes == 0) {
+           sink.put(out, 'Z');
+           return;
+        }
+        
+        int absMinutes = Math.abs(_tzMinutes);
+        sink.put(out, (_tzMinutes < 0) ? '-' : '+');
+        sink.putDigits(out, absMinutes / 60, 2);
+        sink.put(out, ':');
+        sink.putDigits(out, absMinutes % 60, 2);
+    }
+    
+    /**
+     * Get the number of days from 1970-01-01, to the supplied date of the 
+     * proleptic Gregorian calendar.
+     * 
+     * @param year    the year, where 0 denotes 1 BCE
+     * @param month   the month, from 1 to 12
+     * @param day     the day of the month
+     * 
+     * @return        the number of days, which is negative for earlier dates
+     */
+    static long epochDay(long year, int month, int day) {
+        // the years are counted from March, so that the leap day is the 
+        // last day of a year.
+        long y = (month <= 2) ? (year - 1) : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - (era * 400);
+        long dayOfYear = (((153 * (month + ((month > 2) ? -3 : 9))) + 2) / 5) + (day - 1);
+        long dayOfEra = (yearOfEra * 365) + (yearOfEra / 4) - (yearOfEra / 100) + dayOfYear;
+        
+        return (era * 146097) + dayOfEra - 719468;
+    }
+    
+    /**
+     * Get the date of the proleptic Gregorian calendar, that is the supplied
+     * number of days from 1970-01-01. This is the inverse of the method 
+     * epochDay.
+     * 
+     * @param epochDay   the number of days from 1970-01-01
+     * 
+     * @return           the date packed within a long value, as 
+     *                   (year &lt;&lt; 9) | (month &lt;&lt; 5) | day
+     */
+    static long civilFromDays(long epochDay) {
+        long days = epochDay + 719468;
+        long era = Math.floorDiv(days, 146097);
+        long dayOfEra = days - (era * 146097);
+        long yearOfEra = (dayOfEra - (dayOfEra / 1460) + (dayOfEra / 36524) - (dayOfEra / 146096)) / 365;
+        long dayOfYear = dayOfEra - ((365 * yearOfEra) + (yearOfEra / 4) - (yearOfEra / 100));
+        long monthIndex = ((5 * dayOfYear) + 2) / 153;
+        long day = dayOfYear - (((153 * monthIndex) + 2) / 5) + 1;
+        long month = (monthIndex < 10) ? (monthIndex + 3) : (monthIndex - 9);
+        long year = (yearOfEra + (era * 400)) + ((month <= 2) ? 1 : 0);
+        
+        return (year << 9) | (month << 5) | day;
+    }
+    
+    /**
+     * Get the number of days within a month of the proleptic Gregorian 
+     * calendar.
+     */
+    static int daysInMonth(long year, int month) {
+        if (month == 2) {
+           boolean isLeapYear = ((year % 4) == 0) && (((year % 100) != 0) || ((year % 400) == 0));
+           
+           return isLeapYear ? 29 : 28;
+        }
+        
+        return ((month == 4) || (month == 6) || (month == 9) || (month == 11)) ? 30 : 31;
+    }
+    
+    /**
+     * Get the local date and time within the fields of a java.util.Calendar
+     * object, as the number of seconds from 1970-01-01T00:00:00.
+     * 
+     * @param cal       the calendar
+     * @param hasDate   true if the date fields are used. false otherwise.
+     * @param hasTime   true if the time fields are used. false otherwise.
+     */
+    static long localSecondsOf(Calendar cal, boolean hasDate, boolean hasTime) {
+        long localSeconds = 0;
+        if (hasDate) {
+           int year = cal.get(Calendar.YEAR);
+           if (cal.get(Calendar.ERA) == GregorianCalendar.BC) {
+              year = 1 - year; 
+           }
+           localSeconds = epochDay(year, cal.get(Calendar.MONTH) + 1, cal.get(Calendar.DAY_OF_MONTH)) * 
+                                                                                         SECONDS_PER_DAY;
+        }
+        if (hasTime) {
+           localSeconds += (((cal.get(Calendar.HOUR_OF_DAY) * 60L) + cal.get(Calendar.MINUTE)) * 60) + 
+                                                                                 cal.get(Calendar.SECOND);
+        }
+        
+        return localSeconds;
+    }
+    
+    /**
+     * Get the nanoseconds within the second, of a java.util.Calendar object.
+     */
+    static int nanosOf(Calendar cal) {
+        return cal.get(Calendar.MILLISECOND) * NANOS_PER_MILLISECOND;
+    }
+    
+    /**
+     * Get the offset in minutes, of a timezone represented as an XSDuration 
+     * object.
+     */
+    static int timezoneMinutesOf(XSDuration tz) {
+        return (tz == null) ? 0 : (int)Math.round(tz.value() / 60);
+    }
 	
 }
@@ -14,8 +14,6 @@
 package xml.xpath31.processor.types;
 
 import java.util.Calendar;
-import java.util.Date;
-import java.util.GregorianCalendar;
 
 import javax.xml.transform.TransformerException;
 
@@ -31,15 +29,11 @@ public class XSDate extends XSCalendarType {
     
     private static final String XS_DATE = "xs:date";
     
-    private Calendar _calendar;
-    
-    private boolean _timezoned;
-    
-    private XSDuration _tz;
-    
     /**
      * The value of this class field, stores the fact that whether this XSDate
      * object is constructed via XPath function call fn:current-date().
+     * Such values are created by XPath3DateTimeContext with the implicit
+     * timezone, so this field doesn't affect comparisons.
      */
     private boolean isPopulatedFromFnCurrentDate = false;
     
@@ -54,21 +48,49 @@ public class XSDate extends XSCalendarType {
      * @param tz      the timezone of the date to be stored
      */
     public XSDate(Calendar cal, XSDuration tz) {
-        _calendar = cal;        
-        _tz = tz;
-        
-        if (tz == null) {
-           _timezoned = false;
-        }
-        else {
-           _timezoned = true;
-        }
+        super(localSecondsOf(cal, true, false), 0, timezoneMinutesOf(tz), (tz != null));
     }
 
     /**
      * Class constructor. 
      */
-    public XSDate() {}
+    public XSDate() {
+        this(0, 0, false);
+    }
+    
+    /**
+     * Class constructor.
+     * 
+     * @param epochDay    the date, as the number of days from 1970-01-01
+     * @param tzMinutes   the timezone offset in minutes
+     * @param timezoned   true if the value has a timezone. false otherwise.
+     */
+    XSDate(long epochDay, int tzMinutes, boolean timezoned) {
+        super(epochDay * SECONDS_PER_DAY, 0, tzMinutes, timezoned);
+    }
+    
+    /**
+     * Class constructor.
+     * 
+     * @param epochDay    the date, as the number of days from 1970-01-01
+     * @param tzMinutes   the timezone offset in minutes
+     * @param timezoned   true if the value has a timezone. false otherwise.
+     * @param context     the context, whose implicit timezone is applied 
+     *                    when this value doesn't have a timezone
+     */
+    XSDate(long epochDay, int tzMinutes, boolean timezoned, XPath3DateTimeContext context) {
+        super(epochDay * SECONDS_PER_DAY, 0, tzMinutes, timezoned, context);
+    }
+    
+    /**
+     * Class constructor.
+     * 
+     * @param epochDay     the date, as the number of days from 1970-01-01
+     * @param zoneSource   the value, whose timezone is used
+     */
+    XSDate(long epochDay, XSCalendarType zoneSource) {
+        super(epochDay * SECONDS_PER_DAY, 0, zoneSource);
+    }
 
     @Override
     public ResultSequence constructor(ResultSequence arg) throws TransformerException {
@@ -99,64 +121,29 @@ public class XSDate extends XSCalendarType {
      * @return           the XSDate representation of the provided string
      */
     public static XSDate parseDate(String strVal) throws TransformerException {
-        
-        XSDate result = null;
-        
-        try {
-            String dateStr = "";
-            String timeStr = "T00:00:00.0";
-    
-            int idx = strVal.indexOf('+', 1);
-            if (idx == -1) {
-                idx = strVal.indexOf('-', 1);
-                if (idx == -1) {
-                    throw new TransformerException("XTTE0570 : The supplied string value '" + 
-                                                                         strVal + "' cannot be parsed to a xs:date value."); 
-                }
-                idx = strVal.indexOf('-', idx + 1);
-                if (idx == -1) {
-                    throw new TransformerException("XTTE0570 : The supplied string value '" + 
-                                                                         strVal + "' cannot be parsed to a xs:date value.");
-                }
-                idx = strVal.indexOf('-', idx + 1);
-            }
-            if (idx == -1) {
-                idx = strVal.indexOf('Z', 1);
-            }
-            if (idx != -1) {
-                dateStr = strVal.substring(0, idx);
-                dateStr += timeStr;
-                dateStr += strVal.substring(idx, strVal.length());
-            } else {
-                dateStr = strVal + timeStr;
-            }
+        return parseDate(strVal, XPath3DateTimeContext.getDefault());
+    }
     
-            XSDateTime dateTime = XSDateTime.parseDateTime(dateStr);
-            
-            if (dateTime != null) {
-                result = new XSDate(dateTime.getCalendar(), dateTime.getTimezone());;
-            }
-            else {
-                throw new TransformerException("XTTE0570 : The supplied string value '" + 
-                                                                                  strVal + "' cannot be parsed to a xs:date value."); 
-            }
-        }
-        catch (TransformerException ex) {
-           throw ex;  
-        }
-        catch (Exception ex) {
+    /**
+     * Parse a string representation of a date and construct an new XSDate 
+     * object, which uses the implicit timezone of the supplied context when
+     * the string doesn't have a timezone.
+     * 
+     * @param strVal     the string representation of the date
+     * @param context    the date and time context
+     * @return           the XSDate representation of the provided string
+     */
+    public static XSDate parseDate(String strVal, XPath3DateTimeContext context) throws TransformerException {
+        XPath3DateTimeScanner dateTimeScanner = new XPath3DateTimeScanner();
+        if (dateTimeScanner.scanDate(strVal) != XPath3DateTimeScanner.SCAN_OK) {
             throw new TransformerException("XTTE0570 : The supplied string value '" + 
-                                                                                  strVal + "' cannot be parsed to a xs:date value."); 
+                                                                          strVal + "' cannot be parsed to a xs:date value."); 
         }
         
-        return result;
-        
+        return new XSDate(Math.floorDiv(dateTimeScanner.localSeconds(), SECONDS_PER_DAY), 
+                                  dateTimeScanner.timezoneMinutes(), dateTimeScanner.isTimezoned(), context);
     }
     
-    public XSDuration getTimezone() {
-        return _tz;
-    }
-
     @Override
     public String typeName() {
         return "date";
@@ -167,28 +154,14 @@ public class XSDate extends XSCalendarType {
         return XS_DATE;
     }
     
-    /**
-     * Get the Calendar representation of the date stored.
-     * 
-     * @return    the java.util.Calendar representation of the date stored
-     */
-    public Calendar getCalendar() {
-        return _calendar;
-    }
-    
     /**
      * Get the year from the date stored.
      * 
      * @return   the year value of the date stored
      */
     public int year() {
-	   int year = _calendar.get(Calendar.YEAR);
-	   if (_calendar.get(Calendar.ERA) == GregorianCalendar.BC) {
-		  year *= -1;
-	   }
-
-	   return year;
-	}
+       return civilYear();
+    }
     
     /**
      * Get the month from the date stored.
@@ -196,17 +169,17 @@ public class XSDate extends XSCalendarType {
      * @return   the month value of the date stored
      */
     public int month() {
-       return _calendar.get(Calendar.MONTH) + 1;
+       return civilMonth();
     }
     
     /**
-	 * Get the day from the date stored.
-	 * 
-	 * @return   the day value of the date stored
-	 */
-	public int day() {
-	   return _calendar.get(Calendar.DAY_OF_MONTH);
-	}
+     * Get the day from the date stored.
+     * 
+     * @return   the day value of the date stored
+     */
+    public int day() {
+       return civilDay();
+    }
     
     /**
      * Check whether this XSDate object has an, timezone associated with it.
@@ -215,95 +188,32 @@ public class XSDate extends XSCalendarType {
      *                 false otherwise.
      */
     public boolean isDateTimezoned() {
-        return _timezoned;
+        return isTimezoned();
     }
 
     @Override
-    public String stringValue() {
-        String xsDateStrValue = "";
-
-        Calendar calendarObj = getCalendar();
-
-        if (calendarObj.get(Calendar.ERA) == GregorianCalendar.BC) {
-            xsDateStrValue += "-";
-        }
-
-        xsDateStrValue += XSDateTime.padInt(calendarObj.get(Calendar.YEAR), 4);
-
-        xsDateStrValue += "-";
-        xsDateStrValue += XSDateTime.padInt(month(), 2);
-
-        xsDateStrValue += "-";
-        xsDateStrValue += XSDateTime.padInt(calendarObj.get(Calendar.
-                                                                  DAY_OF_MONTH), 2);
-
-        if (isDateTimezoned()) {
-            int hrs = _tz.hours();
-            int min = _tz.minutes();
-            double secs = _tz.seconds();
-            if (hrs == 0 && min == 0 && secs == 0) {
-                xsDateStrValue += "Z";
-            } else {
-                String timezoneStr = "";
-                if (_tz.negative()) {
-                    timezoneStr += "-";
-                } else {
-                    timezoneStr += "+";
-                }
-                timezoneStr += XSDateTime.padInt(hrs, 2);
-                timezoneStr += ":";
-                timezoneStr += XSDateTime.padInt(min, 2);
-
-                xsDateStrValue += timezoneStr;
-            }
-        }
-
-        return xsDateStrValue;
+    <T> void format(T out, XPath3CharSink<T> sink) {
+        putDate(out, sink);
+        putTimezone(out, sink);
     }
     
     /**
      * Determine whether, two XSDate objects are equal.
+     * Both the values are adjusted to UTC before the comparison, using 
+     * the implicit timezone for a value that doesn't have a timezone.
      */
     public boolean equals(XSDate xsDate) {
-        boolean isDateEqual = false;
-        
-        Calendar cal1 = getCalendar();
-        Calendar cal2 = xsDate.getCalendar();                
-        
-        int year1 = cal1.get(Calendar.YEAR);
-        int month1 = cal1.get(Calendar.MONTH);
-        int date1 = cal1.get(Calendar.DATE);
-        
-        int year2 = cal2.get(Calendar.YEAR);
-        int month2 = cal2.get(Calendar.MONTH);
-        int date2 = cal2.get(Calendar.DATE);
-        
-        XSDuration tz1 = getTimezone();
-        XSDuration tz2 = xsDate.getTimezone();
-        
-        isDateEqual = ((year1 == year2) && (month1 == month2) && (date1 == date2)) && 
-                                               isTimezoneEqual(tz1, tz2, isPopulatedFromFnCurrentDate, 
-                                                                                   xsDate.isPopulatedFromFnCurrentDate()); 
-        
-        return isDateEqual; 
+        return compareNormalized(xsDate) == 0;
     }
     
     @Override
-    public boolean equals(Object obj) {
-       boolean isDateEqual = false;
-        
-       if (obj instanceof XSDate) {
-          isDateEqual = this.equals((XSDate)obj);  
-       }
-       
-       return isDateEqual;
+    protected boolean sameKey(XSAnyAtomicType xsAnyAtomicType) {
+        return (xsAnyAtomicType instanceof XSDate) && isSameCalendarKey((XSDate)xsAnyAtomicType);
     }
     
     @Override
-    public int hashCode() {       
-       String strVal = stringValue();       
-       
-       return strVal.hashCode();
+    protected int sameKeyHashCode() {
+        return calendarHashCode();
     }
     
     /**
@@ -311,19 +221,7 @@ public class XSDate extends XSCalendarType {
      * XSDate object provided as an argument to this method. 
      */
     public boolean lt(XSDate xsDate) {
-        boolean isDateBefore = false;
-        
-        Calendar cal1 = getCalendar();
-        Calendar cal2 = xsDate.getCalendar();
-        
-        Date date1 = new Date(cal1.get(Calendar.YEAR), cal1.get(Calendar.MONTH), 
-                                                                     cal1.get(Calendar.DATE));
-        Date date2 = new Date(cal2.get(Calendar.YEAR), cal2.get(Calendar.MONTH), 
-                                                                     cal2.get(Calendar.DATE));
-        
-        isDateBefore = date1.before(date2); 
-        
-        return isDateBefore;
+        return compareNormalized(xsDate) < 0;
     }
     
     /**
@@ -331,19 +229,7 @@ public class XSDate extends XSCalendarType {
      * XSDate object provided as an argument to this method. 
      */
     public boolean gt(XSDate xsDate) {
-        boolean isDateAfter = false;
-        
-        Calendar cal1 = getCalendar();
-        Calendar cal2 = xsDate.getCalendar();                
-        
-        Date date1 = new Date(cal1.get(Calendar.YEAR), cal1.get(Calendar.MONTH), 
-                                                                      cal1.get(Calendar.DATE));
-        Date date2 = new Date(cal2.get(Calendar.YEAR), cal2.get(Calendar.MONTH), 
-                                                                      cal2.get(Calendar.DATE));
-        
-        isDateAfter = date1.after(date2); 
-        
-        return isDateAfter; 
+        return compareNormalized(xsDate) > 0;
     }
        
     /**
@@ -361,16 +247,11 @@ public class XSDate extends XSCalendarType {
         
         if (xObject instanceof XSYearMonthDuration) {
            XSYearMonthDuration argVal = (XSYearMonthDuration)xObject;
-           Calendar cal1 = (Calendar)((getCalendar()).clone());
-           cal1.add(Calendar.MONTH, argVal.monthValue());
-           result = new XSDate(cal1, getTimezone());
+           result = new XSDate(Math.floorDiv(localSecondsPlusMonths(argVal.monthValue()), SECONDS_PER_DAY), this);
         }
         else if (xObject instanceof XSDayTimeDuration) {
            XSDayTimeDuration argVal = (XSDayTimeDuration)xObject;
-           double argValSecs = argVal.value();
-           Calendar cal1 = (Calendar)((getCalendar()).clone());
-           cal1.setTimeInMillis(cal1.getTimeInMillis() + ((((long)argValSecs * 1000))));
-           result = new XSDate(cal1, getTimezone());
+           result = new XSDate(Math.floorDiv(localSecondsPlus(argVal, 1), SECONDS_PER_DAY), this);
         }
         
         return result;
@@ -390,33 +271,16 @@ public class XSDate extends XSCalendarType {
                                                                                  + "xs:dayTimeDuration are only ones that may be subtracted from an xs:date value.");
         }
         
-        if (xObject instanceof XSDate) {                   	        	
-        	Calendar cal1 = getCalendar();
-            Calendar cal2 = ((XSDate)xObject).getCalendar();            
-            long diff1 = (cal1.getTimeInMillis() - cal2.getTimeInMillis());
-            long daysFactor = (1000 * 60 * 60 * 24); 
-            long days = (diff1 / daysFactor);
-            long modulusValue = (diff1 % daysFactor); 
-            if (modulusValue > 0) {
-               days++;
-            }
-            
-            result = XSDayTimeDuration.parseDayTimeDuration("P" + days + "D");
+        if (xObject instanceof XSDate) {
+           result = difference((XSDate)xObject);
         }
         else if (xObject instanceof XSYearMonthDuration) {
-           XSYearMonthDuration argVal = (XSYearMonthDuration)xObject;           
-           Calendar cal1 = (Calendar)((getCalendar()).clone());
-           cal1.add(Calendar.MONTH, argVal.monthValue() * -1);
-           
-           result = new XSDate(cal1, getTimezone());
+           XSYearMonthDuration argVal = (XSYearMonthDuration)xObject;
+           result = new XSDate(Math.floorDiv(localSecondsPlusMonths(-argVal.monthValue()), SECONDS_PER_DAY), this);
         }
         else if (xObject instanceof XSDayTimeDuration) {
            XSDayTimeDuration argVal = (XSDayTimeDuration)xObject;
-           double argValSecs = argVal.value();
-           Calendar cal1 = (Calendar)((getCalendar()).clone());
-           cal1.setTimeInMillis(cal1.getTimeInMillis() + ((((long)argValSecs * 1000)) * -1));
-           
-           result = new XSDate(cal1, getTimezone());
+           result = new XSDate(Math.floorDiv(localSecondsPlus(argVal, -1), SECONDS_PER_DAY), this);
         }
         
         return result;
@@ -430,6 +294,11 @@ public class XSDate extends XSCalendarType {
         this.isPopulatedFromFnCurrentDate = isPopulatedFromFnCurrentDate;
     }
     
+    @Override
+    public byte[] sortKey() {
+        return XPath3SortKeys.calendarKey(XPath3SortKeys.FAMILY_DATE, comparisonSeconds(), 0);
+    }
+    
     public int getType() {
         return CLASS_XS_DATE;
     }
@@ -441,12 +310,12 @@ public class XSDate extends XSCalendarType {
     private XSDate castToDate(XSAnyType xsAnyType) throws TransformerException {
         if (xsAnyType instanceof XSDate) {
             XSDate date = (XSDate) xsAnyType;
-            return new XSDate(date.getCalendar(), date.getTimezone());
+            return new XSDate(date.epochDay(), date.timezoneMinutes(), date.isTimezoned());
         }
 
         if (xsAnyType instanceof XSDateTime) {
             XSDateTime dateTime = (XSDateTime) xsAnyType;
-            return new XSDate(dateTime.getCalendar(), dateTime.getTimezone());
+            return new XSDate(dateTime.epochDay(), dateTime.timezoneMinutes(), dateTime.isTimezoned());
         }
 
         return parseDate(xsAnyType.stringValue());
@@ -14,9 +14,7 @@
 package xml.xpath31.processor.types;
 
 import java.util.Calendar;
-import java.util.Date;
 import java.util.GregorianCalendar;
-import java.util.TimeZone;
 
 import javax.xml.transform.TransformerException;
 
@@ -33,16 +31,12 @@ public class XSDateTime extends XSCalendarType {
     
     private static final String XS_DATE_TIME = "xs:dateTime";
     
-    private Calendar _calendar;
-    
-    private boolean _timezoned;
-    
-    private XSDuration _tz;
-    
     /**
      * The value of this class field, stores the fact that whether this
      * XSDateTime object is constructed via XPath function call 
      * fn:current-dateTime().
+     * Such values are created by XPath3DateTimeContext with the implicit
+     * timezone, so this field doesn't affect comparisons.
      */
     private boolean isPopulatedFromFnCurrentDateTime = false;
     
@@ -58,29 +52,14 @@ public class XSDateTime extends XSCalendarType {
      * @param tz      the timezone of the date to be stored
      */
     public XSDateTime(Calendar cal, XSDuration tz) {
-        _calendar = cal;
-        _tz = tz;
-
-        if (tz == null) {
-            _timezoned = false;
-        }
-        else {
-            _timezoned = true;
-        }
+        super(localSecondsOf(cal, true, true), nanosOf(cal), timezoneMinutesOf(tz), (tz != null));
     }
     
     /*
      * Class constructor. 
      */
     public XSDateTime(Calendar cal) {
-        _calendar = cal;
-
-        if (_tz == null) {
-            _timezoned = false;
-        }
-        else {
-            _timezoned = true;
-        }
+        this(cal, null);
     }
     
     /*
@@ -89,6 +68,46 @@ public class XSDateTime extends XSCalendarType {
     public XSDateTime() {
         this(new GregorianCalendar(), null);
     }
+    
+    /**
+     * Class constructor.
+     * 
+     * @param localSeconds   the local date and time, as the number of seconds
+     *                       from 1970-01-01T00:00:00
+     * @param nanos          the nanoseconds within the second
+     * @param tzMinutes      the timezone offset in minutes
+     * @param timezoned      true if the value has a timezone. false otherwise.
+     */
+    XSDateTime(long localSeconds, int nanos, int tzMinutes, boolean timezoned) {
+        super(localSeconds, nanos, tzMinutes, timezoned);
+    }
+    
+    /**
+     * Class constructor.
+     * 
+     * @param localSeconds   the local date and time, as the number of seconds
+     *                       from 1970-01-01T00:00:00
+     * @param nanos          the nanoseconds within the second
+     * @param tzMinutes      the timezone offset in minutes
+     * @param timezoned      true if the value has a timezone. false otherwise.
+     * @param context        the context, whose implicit timezone is applied 
+     *                       when this value doesn't have a timezone
+     */
+    XSDateTime(long localSeconds, int nanos, int tzMinutes, boolean timezoned, XPath3DateTimeContext context) {
+        super(localSeconds, nanos, tzMinutes, timezoned, context);
+    }
+    
+    /**
+     * Class constructor.
+     * 
+     * @param localSeconds   the local date and time, as the number of seconds
+     *                       from 1970-01-01T00:00:00
+     * @param nanos          the nanoseconds within the second
+     * @param zoneSource     the value, whose timezone is used
+     */
+    XSDateTime(long localSeconds, int nanos, XSCalendarType zoneSource) {
+        super(localSeconds, nanos, zoneSource);
+    }
 
     @Override
     public ResultSequence constructor(ResultSequence arg) throws TransformerException {
@@ -107,14 +126,6 @@ public class XSDateTime extends XSCalendarType {
         return resultSeq;
     }
     
-    public Calendar getCalendar() {
-        return _calendar;
-    }
-    
-    public XSDuration getTimezone() {
-        return _tz;
-    }
-
     @Override
     public String typeName() {
         return "dateTime";
@@ -395,132 +406,30 @@ public class XSDateTime extends XSCalendarType {
      *                  optional timezone value)
      */
     public static XSDateTime parseDateTime(String strVal) throws TransformerException {
-        
-        XSDateTime xsDateTime = null;
-
-        try {
-            int idx = strVal.indexOf('T');
-            if (idx == -1) {
-               throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                  + "cannot be parsed to a xs:dateTime value.");
-            }
-    
-            String date = strVal.substring(0, idx);
-            String time = strVal.substring(idx + 1, strVal.length());
-            String timezone = null;
-    
-            idx = time.indexOf('+');
-            if (idx == -1) {
-                idx = time.indexOf('-');
-            }
-            if (idx == -1) {
-                idx = time.indexOf('Z');
-            }
-            if (idx != -1) {
-                timezone = time.substring(idx, time.length());
-                time = time.substring(0, idx);
-            }
-    
-            int d[] = parseDate(date);
-            if (d == null) {
-               throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                             + "cannot be parsed to a xs:dateTime value.");
-            }
-    
-            TimeZone defaultTimezone = TimeZone.getDefault();
-            GregorianCalendar gregorianCalObj1 = new GregorianCalendar(defaultTimezone);
-    
-            int year = d[0];
-            if (year < 0) {
-                year *= -1;
-                gregorianCalObj1.set(Calendar.ERA, GregorianCalendar.BC);
-            } else {
-                gregorianCalObj1.set(Calendar.ERA, GregorianCalendar.AD);
-            }
-    
-            gregorianCalObj1.set(Calendar.DAY_OF_MONTH, 2);
-            gregorianCalObj1.set(Calendar.MONTH, 2);
-    
-            if (!setItem(gregorianCalObj1, Calendar.YEAR, year)) {
-                throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                              + "cannot be parsed to a xs:dateTime value.");
-            }
-    
-            if (!setItem(gregorianCalObj1, Calendar.MONTH, d[1] - 1)) {
-                throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                              + "cannot be parsed to a xs:dateTime value.");
-            }
-    
-            if (!setItem(gregorianCalObj1, Calendar.DAY_OF_MONTH, d[2])) {
-                throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                              + "cannot be parsed to a xs:dateTime value.");
-            }
-    
-            double t[] = parseTime(time);
-            if (t == null) {
-                throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                              + "cannot be parsed to a xs:dateTime value.");
-            }
-            
-            if (t[0] == 24.0) {
-               // We need to add one day to the date value, and 
-               // set time value to 00:00:00.
-            	
-               gregorianCalObj1.add(Calendar.DAY_OF_MONTH, 1);
-               
-               d[0] = gregorianCalObj1.get(Calendar.YEAR);
-               d[1] = gregorianCalObj1.get(Calendar.MONTH) + 1;
-               d[2] = gregorianCalObj1.get(Calendar.DATE);
-               
-               t[0] = 0.00;
-            }
-    
-            if (!setItem(gregorianCalObj1, Calendar.HOUR_OF_DAY, (int) t[0])) {
-                throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                              + "cannot be parsed to a xs:dateTime value.");
-            }
-    
-            if (!setItem(gregorianCalObj1, Calendar.MINUTE, (int) t[1])) {
-                throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                              + "cannot be parsed to a xs:dateTime value.");
-            }
-    
-            if (!setItem(gregorianCalObj1, Calendar.SECOND, (int) t[2])) {
-                throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                              + "cannot be parsed to a xs:dateTime value.");
-            }
-    
-            double ms = t[2] - ((int) t[2]);
-            ms *= 1000;
-            if (!setItem(gregorianCalObj1, Calendar.MILLISECOND, (int) ms)) {
-                throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                              + "cannot be parsed to a xs:dateTime value.");
-            }
-    
-            int tz[] = null;
-            XSDuration timezoneVal = null;
-            if (timezone != null) {
-                tz = parseTimezone(timezone);
-    
-                if (tz == null) {
-                   throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                                 + "cannot be parsed to a xs:dateTime value.");
-                }
+        return parseDateTime(strVal, XPath3DateTimeContext.getDefault());
+    }
     
-                timezoneVal = new XSDayTimeDuration(0, tz[1], tz[2], 0.0, tz[0] < 0);
-            }
-            
-            xsDateTime = new XSDateTime(gregorianCalObj1, timezoneVal);
-        }
-        catch (TransformerException ex) {
-            throw ex;  
-        }
-        catch (Exception ex) {
+    /**
+     * Parse a string representation of a date and time, and construct a new
+     * XSDateTime object using that information. The implicit timezone of the
+     * supplied context is used, when the string doesn't have a timezone.
+     * 
+     * @param strVal    the string representation of the date (with an optional 
+     *                  timezone value)
+     * @param context   the date and time context
+     * 
+     * @return          the XSDateTime representation of the date and time (with an 
+     *                  optional timezone value)
+     */
+    public static XSDateTime parseDateTime(String strVal, XPath3DateTimeContext context) throws TransformerException {
+        XPath3DateTimeScanner dateTimeScanner = new XPath3DateTimeScanner();
+        if (dateTimeScanner.scanDateTime(strVal) != XPath3DateTimeScanner.SCAN_OK) {
             throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                               + "cannot be parsed to a xs:dateTime value."); 
+                                                                               + "cannot be parsed to a xs:dateTime value.");
         }
 
-        return xsDateTime;
+        return new XSDateTime(dateTimeScanner.localSeconds(), dateTimeScanner.nanos(), 
+                                  dateTimeScanner.timezoneMinutes(), dateTimeScanner.isTimezoned(), context);
     }
 
     @Override
@@ -555,42 +464,27 @@ public class XSDateTime extends XSCalendarType {
     }
     
     public int year() {
-        int year = _calendar.get(Calendar.YEAR);
-        if (_calendar.get(Calendar.ERA) == GregorianCalendar.BC) {
-           year = year * -1;
-        }
-
-        return year;
+        return civilYear();
     }
     
     public int month() {
-        return _calendar.get(Calendar.MONTH) + 1;
+        return civilMonth();
     }
     
     public int day() {
-        return _calendar.get(Calendar.DAY_OF_MONTH);
+        return civilDay();
     }
     
     public int hour() {
-        return _calendar.get(Calendar.HOUR_OF_DAY);
+        return civilHour();
     }
     
     public int minute() {
-        return _calendar.get(Calendar.MINUTE);
+        return civilMinute();
     }
     
-    /*public double second() {
-        double secondVal = _calendar.get(Calendar.SECOND);
-        double millisecVal = _calendar.get(Calendar.MILLISECOND);
-
-        millisecVal /= 1000;
-        secondVal += millisecVal;
-        
-        return secondVal;
-    }*/
-    
     public int second() {
-        return _calendar.get(Calendar.SECOND);       
+        return civilSecond();       
     }
     
     /**
@@ -600,124 +494,34 @@ public class XSDateTime extends XSCalendarType {
      *                 false otherwise.
      */
     public boolean isDateTimeTimezoned() {
-        return _timezoned;
+        return isTimezoned();
     }
 
     @Override
-    public String stringValue() {
-        String returnVal = "";
-
-        Calendar calendarVal = getCalendar();
-
-        if (calendarVal.get(Calendar.ERA) == GregorianCalendar.BC) {
-            returnVal += "-";
-        }
-
-        returnVal += padInt(calendarVal.get(Calendar.YEAR), 4);
-
-        returnVal += "-";
-        returnVal += padInt(month(), 2);
-
-        returnVal += "-";
-        returnVal += padInt(calendarVal.get(Calendar.DAY_OF_MONTH), 2);
-
-        returnVal += "T";
-
-        returnVal += padInt(calendarVal.get(Calendar.HOUR_OF_DAY), 2);
-
-        returnVal += ":";
-        returnVal += padInt(calendarVal.get(Calendar.MINUTE), 2);
-
-        returnVal += ":";
-        int intSec = (int)second();
-        double doubleSec = second();
-
-        if ((doubleSec - intSec) == 0.0) {
-           returnVal += padInt(intSec, 2);
-        }
-        else {
-            if (doubleSec < 10.0) {
-               returnVal += "0" + doubleSec;
-            }
-            else {
-               returnVal += doubleSec;
-            }
-        }
-
-        if (isDateTimeTimezoned()) {
-            int hrs = _tz.hours();
-            int min = _tz.minutes();
-            double secs = _tz.seconds();
-            if ((hrs == 0) && (min == 0) && (secs == 0)) {
-                returnVal += "Z";
-            } else {
-                String timezoneStr = "";
-                if (_tz.negative()) {
-                    timezoneStr += "-";
-                } else {
-                    timezoneStr += "+";
-                }
-                timezoneStr += padInt(hrs, 2);
-                timezoneStr += ":";
-                timezoneStr += padInt(min, 2);
-
-                returnVal += timezoneStr;
-            }
-        }
-
-        return returnVal;
+    <T> void format(T out, XPath3CharSink<T> sink) {
+        putDate(out, sink);
+        sink.put(out, 'T');
+        putTime(out, sink);
+        putTimezone(out, sink);
     }
     
     /**
      * Determine whether, two XSDateTime objects are equal.
+     * Both the values are adjusted to UTC before the comparison, using 
+     * the implicit timezone for a value that doesn't have a timezone.
      */
     public boolean equals(XSDateTime xsDateTime) {
-        boolean isDateTimeEqual = false;
-        
-        Calendar cal1 = getCalendar();
-        Calendar cal2 = xsDateTime.getCalendar();
-        
-        int year1 = cal1.get(Calendar.YEAR);
-        int month1 = cal1.get(Calendar.MONTH);
-        int date1 = cal1.get(Calendar.DATE);
-        int hour1 = hour();
-        int mins1 = minute();
-        double secs1 = second();
-        
-        int year2 = cal2.get(Calendar.YEAR);
-        int month2 = cal2.get(Calendar.MONTH);
-        int date2 = cal2.get(Calendar.DATE);
-        int hour2 = xsDateTime.hour();
-        int mins2 = xsDateTime.minute();
-        double secs2 = xsDateTime.second();
-        
-        XSDuration tz1 = getTimezone();
-        XSDuration tz2 = xsDateTime.getTimezone();
-        
-        isDateTimeEqual = ((year1 == year2) && (month1 == month2) && (date1 == date2) && 
-                           (hour1 == hour2) && (mins1 == mins2) && (secs1 == secs2)) && 
-                                                    isTimezoneEqual(tz1, tz2, isPopulatedFromFnCurrentDateTime, 
-                                                                    xsDateTime.isPopulatedFromFnCurrentDateTime());
-        
-        return isDateTimeEqual;
+        return compareNormalized(xsDateTime) == 0;
     }
     
     @Override
-    public boolean equals(Object obj) {
-       boolean isDateTimeEqual = false;
-        
-       if (obj instanceof XSDateTime) {
-           isDateTimeEqual = this.equals((XSDateTime)obj);  
-       }
-       
-       return isDateTimeEqual;
+    protected boolean sameKey(XSAnyAtomicType xsAnyAtomicType) {
+        return (xsAnyAtomicType instanceof XSDateTime) && isSameCalendarKey((XSDateTime)xsAnyAtomicType);
     }
     
     @Override
-    public int hashCode() {       
-       String strVal = stringValue();       
-       
-       return strVal.hashCode();
+    protected int sameKeyHashCode() {
+        return calendarHashCode();
     }
     
     /**
@@ -725,44 +529,7 @@ public class XSDateTime extends XSCalendarType {
      * XSDateTime object provided as an argument to this method. 
      */
     public boolean lt(XSDateTime xsDateTime) {
-        boolean isDateTimeBefore = false;
-        
-        Calendar cal1 = getCalendar();
-        Calendar cal2 = xsDateTime.getCalendar();
-        
-        Date date1 = new Date(cal1.get(Calendar.YEAR), cal1.get(Calendar.MONTH), 
-                                                                     cal1.get(Calendar.DATE));
-        Date date2 = new Date(cal2.get(Calendar.YEAR), cal2.get(Calendar.MONTH), 
-                                                                     cal2.get(Calendar.DATE));
-        
-        if (date1.before(date2)) {
-           isDateTimeBefore = true;  
-        }
-        else if (date1.equals(date2)) {
-            int hour1 = hour();
-            int mins1 = minute();
-            double secs1 = second();
-            
-            int hour2 = xsDateTime.hour();
-            int mins2 = xsDateTime.minute();
-            double secs2 = xsDateTime.second();
-            
-            if (hour1 < hour2) {
-               isDateTimeBefore = true; 
-            }
-            else if (hour1 == hour2) {
-               if (mins1 < mins2) {
-                  isDateTimeBefore = true;  
-               }
-               else if (mins1 == mins2) {
-                  if (secs1 < secs2) {
-                     isDateTimeBefore = true;  
-                  }
-               }
-            }
-        }
-        
-        return isDateTimeBefore;
+        return compareNormalized(xsDateTime) < 0;
     }
     
     /**
@@ -770,44 +537,7 @@ public class XSDateTime extends XSCalendarType {
      * XSDateTime object provided as an argument to this method. 
      */
     public boolean gt(XSDateTime xsDateTime) {
-        boolean isDateTimeAfter = false;
-        
-        Calendar cal1 = getCalendar();
-        Calendar cal2 = xsDateTime.getCalendar();
-        
-        Date date1 = new Date(cal1.get(Calendar.YEAR), cal1.get(Calendar.MONTH), 
-                                                                     cal1.get(Calendar.DATE));
-        Date date2 = new Date(cal2.get(Calendar.YEAR), cal2.get(Calendar.MONTH), 
-                                                                     cal2.get(Calendar.DATE));
-        
-        if (date1.after(date2)) {
-           isDateTimeAfter = true;  
-        }
-        else if (date1.equals(date2)) {
-            int hour1 = hour();
-            int mins1 = minute();
-            double secs1 = second();
-            
-            int hour2 = xsDateTime.hour();
-            int mins2 = xsDateTime.minute();
-            double secs2 = xsDateTime.second();
-            
-            if (hour1 > hour2) {
-               isDateTimeAfter = true; 
-            }
-            else if (hour1 == hour2) {
-               if (mins1 > mins2) {
-                  isDateTimeAfter = true;  
-               }
-               else if (mins1 == mins2) {
-                  if (secs1 > secs2) {
-                     isDateTimeAfter = true;  
-                  }
-               }
-            }
-        }
-        
-        return isDateTimeAfter;
+        return compareNormalized(xsDateTime) > 0;
     }
     
     /**
@@ -825,16 +555,11 @@ public class XSDateTime extends XSCalendarType {
         
         if (xObject instanceof XSYearMonthDuration) {
            XSYearMonthDuration argVal = (XSYearMonthDuration)xObject;
-           Calendar cal1 = (Calendar)((getCalendar()).clone());
-           cal1.add(Calendar.MONTH, argVal.monthValue());
-           result = new XSDateTime(cal1, getTimezone());
+           result = new XSDateTime(localSecondsPlusMonths(argVal.monthValue()), nanos(), this);
         }
         else if (xObject instanceof XSDayTimeDuration) {
            XSDayTimeDuration argVal = (XSDayTimeDuration)xObject;
-           double argValSecs = argVal.value();
-           Calendar cal1 = (Calendar)((getCalendar()).clone());
-           cal1.setTimeInMillis(cal1.getTimeInMillis() + ((((long)argValSecs * 1000))));
-           result = new XSDateTime(cal1, getTimezone());
+           result = new XSDateTime(localSecondsPlus(argVal, 1), nanosPlus(argVal, 1), this);
         }
         
         return result;
@@ -855,23 +580,15 @@ public class XSDateTime extends XSCalendarType {
          }
          
          if (xObject instanceof XSDateTime) {
-            Calendar cal1 = getCalendar();
-            Calendar cal2 = ((XSDateTime)xObject).getCalendar();
-            long diffDurationMilliSecs = cal1.getTimeInMillis() - cal2.getTimeInMillis();
-            result = new XSDayTimeDuration(diffDurationMilliSecs / 1000);
+            result = difference((XSDateTime)xObject);
          }
          else if (xObject instanceof XSYearMonthDuration) {
             XSYearMonthDuration argVal = (XSYearMonthDuration)xObject;
-            Calendar cal1 = (Calendar)((getCalendar()).clone());
-            cal1.add(Calendar.MONTH, argVal.monthValue() * -1);
-            result = new XSDateTime(cal1, getTimezone());
+            result = new XSDateTime(localSecondsPlusMonths(-argVal.monthValue()), nanos(), this);
          }
          else if (xObject instanceof XSDayTimeDuration) {
             XSDayTimeDuration argVal = (XSDayTimeDuration)xObject;
-            double argValSecs = argVal.value();
-            Calendar cal1 = (Calendar)((getCalendar()).clone());
-            cal1.setTimeInMillis(cal1.getTimeInMillis() + ((((long)argValSecs * 1000)) * -1));
-            result = new XSDateTime(cal1, getTimezone());
+            result = new XSDateTime(localSecondsPlus(argVal, -1), nanosPlus(argVal, -1), this);
          }
          
          return result;
@@ -885,6 +602,11 @@ public class XSDateTime extends XSCalendarType {
         this.isPopulatedFromFnCurrentDateTime = isPopulatedFromFnCurrentDateTime;
     }
     
+    @Override
+    public byte[] sortKey() {
+        return XPath3SortKeys.calendarKey(XPath3SortKeys.FAMILY_DATETIME, comparisonSeconds(), nanos());
+    }
+    
     public int getType() {
         return CLASS_XS_DATETIME;
     }
@@ -896,39 +618,16 @@ public class XSDateTime extends XSCalendarType {
     private XSDateTime castToDateTime(XSAnyType xsAnyType) throws TransformerException {
         if (xsAnyType instanceof XSDate) {
             XSDate xsDate = (XSDate) xsAnyType;
-            return new XSDateTime(xsDate.getCalendar(), xsDate.getTimezone());
+            return new XSDateTime(xsDate.localSeconds(), 0, xsDate.timezoneMinutes(), xsDate.isTimezoned());
         }
 
         if (xsAnyType instanceof XSDateTime) {
             XSDateTime xsDateTime = (XSDateTime) xsAnyType;
-            return new XSDateTime(xsDateTime.getCalendar(), xsDateTime.getTimezone());
+            return new XSDateTime(xsDateTime.localSeconds(), xsDateTime.nanos(), xsDateTime.timezoneMinutes(), 
+                                                                                     xsDateTime.isTimezoned());
         }
 
         return parseDateTime(xsAnyType.stringValue()); 
     }
-    
-    /**
-     * Set a particular field within an java.util.Calendar object.
-     * 
-     * @param cal           the Calendar object to set the field in
-     * @param fieldId       the field to set
-     * @param fieldval      the value to set the field to
-     * 
-     * @return              true if successfully set. false otherwise
-     */
-    private static boolean setItem(Calendar cal, int fieldId, int fieldval) {
-
-        if (fieldval < cal.getActualMinimum(fieldId)) {
-            return false;
-        }
-
-        if (fieldval > cal.getActualMaximum(fieldId)) {
-            return false;
-        }
-
-        cal.set(fieldId, fieldval);
-        
-        return true;
-    }
 
 }
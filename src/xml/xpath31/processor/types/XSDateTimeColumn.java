@@ -0,0 +1,303 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Apache XalanJ Team, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Apache XalanJ Team       - initial API and implementation
+ *******************************************************************************/
+
+package xml.xpath31.processor.types;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.xpath.objects.ResultSequence;
+
+/**
+ * This class represents, a column of xs:dateTime values parsed in bulk from
+ * their lexical representations, and stored within primitive arrays rather
+ * than as individual XSDateTime objects.
+ *
+ * <p>Each row is stored as the number of seconds from 1970-01-01T00:00:00Z
+ * (i.e, the date and time adjusted to UTC, using the implicit timezone for
+ * a value without a timezone), the nanoseconds within the second, and the
+ * timezone offset in minutes. A bitmap records the rows whose strings are
+ * valid xs:dateTime lexical values. XSDateTime objects are only created,
+ * when the method item is called.</p>
+ *
+ * <p>Large inputs are parsed in parallel, using the common fork/join pool.
+ * XSDateTimeColumn objects are immutable, and may be shared between
+ * threads.</p>
+ */
+public final class XSDateTimeColumn {
+
+    /**
+     * The timezone offset stored for a row, whose value doesn't have a
+     * timezone.
+     */
+    public static final short NO_TIMEZONE = Short.MIN_VALUE;
+
+    // the minimum number of rows, for which the parsing is split into
+    // parallel tasks. This is a multiple of 64, so that the tasks never
+    // share a word of the validity bitmap.
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private final XPath3DateTimeContext _context;
+
+    private final long[] _epochSeconds;
+
+    private final int[] _nanos;
+
+    private final short[] _offsets;
+
+    private final long[] _validBits;
+
+    /*
+     * Class constructor.
+     */
+    private XSDateTimeColumn(XPath3DateTimeContext context, int size) {
+        _context = context;
+        _epochSeconds = new long[size];
+        _nanos = new int[size];
+        _offsets = new short[size];
+        _validBits = new long[(size + 63) >>> 6];
+    }
+
+    /**
+     * Parse an array of xs:dateTime lexical values, using the default
+     * date and time context.
+     *
+     * @param values   the values, where a null item is an invalid row
+     *
+     * @return         an XSDateTimeColumn object, having a row for each value
+     */
+    public static XSDateTimeColumn parse(CharSequence[] values) {
+        return parse(values, XPath3DateTimeContext.getDefault());
+    }
+
+    /**
+     * Parse an array of xs:dateTime lexical values.
+     *
+     * @param values    the values, where a null item is an invalid row
+     * @param context   the date and time context, whose implicit timezone
+     *                  is applied to the values without a timezone
+     *
+     * @return          an XSDateTimeColumn object, having a row for each value
+     */
+    public static XSDateTimeColumn parse(CharSequence[] values, XPath3DateTimeContext context) {
+        XSDateTimeColumn column = new XSDateTimeColumn(context, values.length);
+        ParseTask parseTask = new ParseTask(column, values, 0, values.length);
+        if (values.length < PARALLEL_THRESHOLD) {
+            parseTask.compute();
+        }
+        else {
+            ForkJoinPool.commonPool().invoke(parseTask);
+        }
+
+        return column;
+    }
+
+    /**
+     * Parse the xs:dateTime lexical values supplied by an iterator.
+     *
+     * @param values    the values, where a null item is an invalid row
+     * @param context   the date and time context, whose implicit timezone
+     *                  is applied to the values without a timezone
+     *
+     * @return          an XSDateTimeColumn object, having a row for each value
+     */
+    public static XSDateTimeColumn parse(Iterator<? extends CharSequence> values, XPath3DateTimeContext context) {
+        List<CharSequence> valueList = new ArrayList<CharSequence>();
+        while (values.hasNext()) {
+            valueList.add(values.next());
+        }
+
+        return parse(valueList.toArray(new CharSequence[valueList.size()]), context);
+    }
+
+    /**
+     * Get the number of rows within this column.
+     *
+     * @return   the number of rows
+     */
+    public int size() {
+        return _epochSeconds.length;
+    }
+
+    /**
+     * Check whether a row's string, is a valid xs:dateTime lexical value.
+     *
+     * @param idx   the index of the row
+     *
+     * @return      true if the row is valid. false otherwise.
+     */
+    public boolean isValid(int idx) {
+        checkIndex(idx);
+
+        return (_validBits[idx >>> 6] & (1L << idx)) != 0;
+    }
+
+    /**
+     * Get the number of valid rows within this column.
+     *
+     * @return   the number of valid rows
+     */
+    public int validCount() {
+        int count = 0;
+        for (long word : _validBits) {
+            count += Long.bitCount(word);
+        }
+
+        return count;
+    }
+
+    /**
+     * Get the date and time of a row adjusted to UTC, as the number of
+     * seconds from 1970-01-01T00:00:00Z.
+     *
+     * @param idx   the index of the row
+     *
+     * @return      the seconds, or 0 for an invalid row
+     */
+    public long epochSecond(int idx) {
+        return _epochSeconds[idx];
+    }
+
+    /**
+     * Get the nanoseconds within the second, of a row.
+     *
+     * @param idx   the index of the row
+     *
+     * @return      the nanoseconds, or 0 for an invalid row
+     */
+    public int nanos(int idx) {
+        return _nanos[idx];
+    }
+
+    /**
+     * Get the timezone offset of a row.
+     *
+     * @param idx   the index of the row
+     *
+     * @return      the offset in minutes, or NO_TIMEZONE if the row's value
+     *              doesn't have a timezone
+     */
+    public short timezoneMinutes(int idx) {
+        return _offsets[idx];
+    }
+
+    /**
+     * Get the date and time context, with which this column was parsed.
+     *
+     * @return   the context
+     */
+    public XPath3DateTimeContext getContext() {
+        return _context;
+    }
+
+    /**
+     * Get a row of this column, as an XSDateTime object. A new object is
+     * created on each call.
+     *
+     * @param idx   the index of the row
+     *
+     * @return      an XSDateTime object, or null for an invalid row
+     */
+    public XSDateTime item(int idx) {
+        if (!isValid(idx)) {
+            return null;
+        }
+
+        short offset = _offsets[idx];
+        boolean timezoned = (offset != NO_TIMEZONE);
+        int tzMinutes = timezoned ? offset : _context.implicitTimezoneMinutes();
+
+        return new XSDateTime(_epochSeconds[idx] + (tzMinutes * 60L), _nanos[idx], offset, timezoned, _context);
+    }
+
+    /**
+     * Get a sequence, holding the valid rows of this column as XSDateTime
+     * objects.
+     *
+     * @return   a ResultSequence object
+     */
+    public ResultSequence toResultSequence() {
+        ResultSequence resultSeq = new ResultSequence();
+        int size = size();
+        for (int idx = 0; idx < size; idx++) {
+            if (isValid(idx)) {
+                resultSeq.add(item(idx));
+            }
+        }
+
+        return resultSeq;
+    }
+
+    private void checkIndex(int idx) {
+        if ((idx < 0) || (idx >= _epochSeconds.length)) {
+            throw new IndexOutOfBoundsException("Index: " + idx + ", Size: " + _epochSeconds.length);
+        }
+    }
+
+    /*
+     * A task, that parses a range of rows. Ranges that are larger than
+     * PARALLEL_THRESHOLD, are split in halves at a multiple of 64 rows.
+     */
+    private static final class ParseTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 2817264598350416203L;
+
+        private final XSDateTimeColumn fColumn;
+
+        private final CharSequence[] fValues;
+
+        private final int fFrom;
+
+        private final int fTo;
+
+        ParseTask(XSDateTimeColumn column, CharSequence[] values, int from, int to) {
+            fColumn = column;
+            fValues = values;
+            fFrom = from;
+            fTo = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (fTo - fFrom > PARALLEL_THRESHOLD) {
+                int mid = (fFrom + ((fTo - fFrom) >>> 1)) & ~63;
+                invokeAll(new ParseTask(fColumn, fValues, fFrom, mid), new ParseTask(fColumn, fValues, mid, fTo));
+                return;
+            }
+
+            XPath3DateTimeScanner scanner = new XPath3DateTimeScanner();
+            int implicitTimezoneMinutes = fColumn._context.implicitTimezoneMinutes();
+            long[] epochSeconds = fColumn._epochSeconds;
+            int[] nanos = fColumn._nanos;
+            short[] offsets = fColumn._offsets;
+            long[] validBits = fColumn._validBits;
+            for (int idx = fFrom; idx < fTo; idx++) {
+                CharSequence value = fValues[idx];
+                if ((value == null) || (scanner.scanDateTime(value) != XPath3DateTimeScanner.SCAN_OK)) {
+                    offsets[idx] = NO_TIMEZONE;
+                    continue;
+                }
+
+                boolean timezoned = scanner.isTimezoned();
+                int tzMinutes = timezoned ? scanner.timezoneMinutes() : implicitTimezoneMinutes;
+                epochSeconds[idx] = scanner.localSeconds() - (tzMinutes * 60L);
+                nanos[idx] = scanner.nanos();
+                offsets[idx] = timezoned ? (short)tzMinutes : NO_TIMEZONE;
+                validBits[idx >>> 6] |= 1L << idx;
+            }
+        }
+
+    }
+
+}
@@ -55,12 +55,24 @@ public class XSDayTimeDuration extends XSDuration {
 		super(0, 0, 0, 0, 0, Math.abs(secs), secs < 0);
 	}
 
+	/**
+	 * Initializes an XSDayTimeDuration object, to the supplied number of 
+	 * seconds plus nanoseconds. The nanoseconds may have any value, and are
+	 * carried into the seconds.
+	 * 
+	 * @param seconds   the signed number of seconds
+	 * @param nanos     the signed number of nanoseconds
+	 */
+	XSDayTimeDuration(long seconds, long nanos) {
+		super(0, seconds, nanos);
+	}
+
 	/**
 	 * Initializes an XSDayTimeDuration object, to a duration of no time 
 	 * (i.e, 0 days, 0 hours, 0 minutes, 0 seconds).
 	 */
 	public XSDayTimeDuration() {
-		super(0, 0, 0, 0, 0, 0.0, false);
+		super(0, 0L, 0L);
 	}
 
 	/**
@@ -97,98 +109,17 @@ public class XSDayTimeDuration extends XSDuration {
 	 *                       supplied string.
 	 */
 	public static XSDuration parseDayTimeDuration(String strVal) throws TransformerException {
-		
-	    boolean isDurationNegative = false;
-		
-		int days = 0;
-		int hours = 0;
-		int minutes = 0;
-		double seconds = 0;
-
-		String pstr = null;
-		String tstr = null;
-
-		if (strVal.startsWith("-P")) {
-			isDurationNegative = true;
-			pstr = strVal.substring(2, strVal.length());
-		} else if (strVal.startsWith("P")) {
-			isDurationNegative = false;
-			pstr = strVal.substring(1, strVal.length());
-		} else {
-		    throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                          + "cannot be parsed to a xs:dayTimeDuration value.");
-		}
-
-		try {
-			int index = pstr.indexOf('D');
-			boolean actionStatus = false;
-
-			if (index == -1) {
-				if (pstr.startsWith("T")) {
-					tstr = pstr.substring(1, pstr.length());
-				} else {
-				    throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                                  + "cannot be parsed to a xs:dayTimeDuration value.");
-				}
-			} else {
-				String digit = pstr.substring(0, index);
-				days = Integer.parseInt(digit);
-				tstr = pstr.substring(index + 1, pstr.length());
-
-				if (tstr.startsWith("T")) {
-					tstr = tstr.substring(1, tstr.length());
-				} else {
-					if (tstr.length() > 0) {
-					   throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                                     + "cannot be parsed to a xs:dayTimeDuration value.");
-					}
-					tstr = "";
-					actionStatus = true;
-				}
-			}
-
-			index = tstr.indexOf('H');
-			if (index != -1) {
-				String digit = tstr.substring(0, index);
-				hours = Integer.parseInt(digit);
-				tstr = tstr.substring(index + 1, tstr.length());
-				actionStatus = true;
-			}
-
-			index = tstr.indexOf('M');
-			if (index != -1) {
-				String digit = tstr.substring(0, index);
-				minutes = Integer.parseInt(digit);
-				tstr = tstr.substring(index + 1, tstr.length());
-				actionStatus = true;
-			}
-
-			index = tstr.indexOf('S');
-			if (index != -1) {
-				String digit = tstr.substring(0, index);
-				seconds = Double.parseDouble(digit);
-				tstr = tstr.substring(index + 1, tstr.length());
-				actionStatus = true;
-			}
-			if (actionStatus) {
-				if (tstr.length() != 0) {
-				    throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                                  + "cannot be parsed to a xs:dayTimeDuration value.");
-				}
-			} else {
-			    throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                                     + "cannot be parsed to a xs:dayTimeDuration value.");
-			}
-		} 
-		catch (TransformerException ex) {
-	        throw ex;  
+	    XPath3DurationScanner durationScanner = new XPath3DurationScanner();
+	    int status = durationScanner.scanDayTimeDuration(strVal);
+	    if (status == XPath3DurationScanner.SCAN_OVERFLOW) {
+	        throw new TransformerException("FODT0002 : The xs:dayTimeDuration value '" + strVal + "' is too large.");
+	    }
+	    else if (status != XPath3DurationScanner.SCAN_OK) {
+	        throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
+	                                                                                 + "cannot be parsed to a xs:dayTimeDuration value.");
 	    }
-		catch (Exception ex) {
-		    throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                          + "cannot be parsed to a xs:dayTimeDuration value.");
-		}
 
-		return new XSDayTimeDuration(days, hours, minutes, seconds, isDurationNegative);
+	    return new XSDayTimeDuration(durationScanner.seconds(), durationScanner.nanos());
 	}
 
 	/**
@@ -214,9 +145,8 @@ public class XSDayTimeDuration extends XSDuration {
 	 * XSDayTimeDuration value.
 	 */
 	public XSDayTimeDuration add(XSDayTimeDuration xsDayTimeDuration) {       
-        double sum = value() + xsDayTimeDuration.value();
-
-        return new XSDayTimeDuration(sum);
+        return new XSDayTimeDuration(Math.addExact(dayTimeSeconds(), xsDayTimeDuration.dayTimeSeconds()), 
+                                      (long)dayTimeNanos() + xsDayTimeDuration.dayTimeNanos());
     }
 	
     /**
@@ -224,9 +154,8 @@ public class XSDayTimeDuration extends XSDuration {
      * XSDayTimeDuration value.
      */
     public XSDayTimeDuration subtract(XSDayTimeDuration xsDayTimeDuration) {       
-        double diff = value() - xsDayTimeDuration.value();
-
-        return new XSDayTimeDuration(diff);
+        return new XSDayTimeDuration(Math.subtractExact(dayTimeSeconds(), xsDayTimeDuration.dayTimeSeconds()), 
+                                      (long)dayTimeNanos() - xsDayTimeDuration.dayTimeNanos());
     }
     
     /**
@@ -237,25 +166,13 @@ public class XSDayTimeDuration extends XSDuration {
      * @throws TransformerException 
      */
     public XSDayTimeDuration mult(XSAnyType xsAnyType) throws TransformerException {
-        
-        XSDayTimeDuration result = null;
-        
-        if (xsAnyType instanceof XSNumericType) {
-           String argStrVal = ((XSNumericType)xsAnyType).stringValue();
-           XSDouble argDoubleVal = new XSDouble(argStrVal);
-           if (argDoubleVal.nan()) {
-              throw new TransformerException("FOCA0005 : Cannot multiply an XSDayTimeDuration value with NaN.");  
-           }
-           else {
-              result = new XSDayTimeDuration(value() * argDoubleVal.doubleValue()); 
-           }
-        }
-        else {
+        if (!(xsAnyType instanceof XSNumericType)) {
            throw new TransformerException("FOCA0005 : Cannot multiply an XSDayTimeDuration value with a "
                                                                                                    + "non-numeric value"); 
         }
         
-        return result;
+        return XPath3DurationArithmetic.dayTimeOp(XPath3DurationArithmetic.OP_MULTIPLY, this, 
+                                                                               (XSNumericType)xsAnyType);
     }
     
     /**
@@ -270,35 +187,20 @@ public class XSDayTimeDuration extends XSDuration {
         XSDayTimeDuration result = null;
         
         if (xsAnyType instanceof XSNumericType) {
-           String argStrVal = ((XSNumericType)xsAnyType).stringValue();
-           XSDouble argDoubleVal = new XSDouble(argStrVal);
-           if (argDoubleVal.nan()) {
-              throw new TransformerException("FOCA0005 : Cannot divide an XSDayTimeDuration value with NaN.");  
-           }
-           else if (argDoubleVal.zero()) {
-              throw new TransformerException("FODT0001 : Cannot divide an XSDayTimeDuration value with zero."); 
-           }
-           else if (argDoubleVal.infinite()) {
-              double doubleResultVal = value() / argDoubleVal.doubleValue();
-              result = new XSDayTimeDuration(doubleResultVal);
-           }
-           else {
-              BigDecimal bigDecimal1 = new BigDecimal(value());
-              BigDecimal bigDecimal2 = new BigDecimal(argDoubleVal.doubleValue());
-              BigDecimal bigDecimalResult = bigDecimal1.divide(new BigDecimal(bigDecimal2.doubleValue()), 
-                                                                                                 18, BigDecimal.ROUND_HALF_EVEN);
-              result = new XSDayTimeDuration(bigDecimalResult.doubleValue());
-           }
+           result = XPath3DurationArithmetic.dayTimeOp(XPath3DurationArithmetic.OP_DIVIDE, this, 
+                                                                                 (XSNumericType)xsAnyType);
         }
         else if (xsAnyType instanceof XSDayTimeDuration) {
-           double dbl2 = ((XSDayTimeDuration)xsAnyType).seconds();
+           XSDayTimeDuration divisor = (XSDayTimeDuration)xsAnyType;
            
-           if (dbl2 != 0) {
-               BigDecimal bigDecimal1 = new BigDecimal(value());
-               BigDecimal bigDecimal2 = new BigDecimal(dbl2);
-               BigDecimal bigDecimalResult = bigDecimal1.divide(new BigDecimal(bigDecimal2.doubleValue()), 
-                                                                                                  18, BigDecimal.ROUND_HALF_EVEN);
-               result = new XSDayTimeDuration(bigDecimalResult.doubleValue());  
+           if ((divisor.dayTimeSeconds() != 0) || (divisor.dayTimeNanos() != 0)) {
+               // the ratio of the durations, is returned as a duration of
+               // that many seconds. Dividing this duration by the divisor's
+               // number of seconds gives that result.
+               BigDecimal divisorSeconds = BigDecimal.valueOf(divisor.dayTimeSeconds())
+                                                         .add(BigDecimal.valueOf(divisor.dayTimeNanos(), 9));
+               result = XPath3DurationArithmetic.dayTimeOp(XPath3DurationArithmetic.OP_DIVIDE, this, 
+                                                                                new XSDecimal(divisorSeconds));
            }
            else {
               throw new TransformerException("FODT0001 : Cannot divide an XSDayTimeDuration value, with a XSDayTimeDuration "
@@ -326,9 +228,7 @@ public class XSDayTimeDuration extends XSDuration {
 	    if (xsAnyType instanceof XSDuration) {
             XSDuration xsDuration = (XSDuration) xsAnyType;
             
-            return new XSDayTimeDuration(xsDuration.days(), xsDuration.hours(), 
-                                         xsDuration.minutes(), xsDuration.seconds(), 
-                                         xsDuration.negative());
+            return new XSDayTimeDuration(xsDuration.dayTimeSeconds(), xsDuration.dayTimeNanos());
         }
         
         return parseDayTimeDuration(xsAnyType.stringValue());
@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Apache XalanJ Team, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Apache XalanJ Team       - initial API and implementation
+ *******************************************************************************/
+
+package xml.xpath31.processor.types;
+
+import javax.xml.transform.TransformerException;
+
+/**
+ * This class provides, streaming aggregation of xs:dayTimeDuration values
+ * as per the XPath 3.1 functions fn:sum, fn:avg, fn:min and fn:max.
+ *
+ * <p>Each value is folded into primitive totals, without creating any
+ * intermediate XSDayTimeDuration objects: the total number of seconds is
+ * kept as a 128 bit integer within two longs, so that it never overflows,
+ * and the total nanoseconds within a second are carried into it. A result
+ * object is only created by the methods sum, avg, min and max.</p>
+ *
+ * <p>Accumulators of parts of a sequence may be merged with the method
+ * combine, in any order, with the same result as accumulating the whole
+ * sequence. For example,</p>
+ *
+ * <pre>
+ *   stream.collect(XSDayTimeDurationAccumulator::new, XSDayTimeDurationAccumulator::add,
+ *                                                     XSDayTimeDurationAccumulator::combine)
+ * </pre>
+ *
+ * <p>An object of this class must not be shared between threads, while
+ * values are being added to it.</p>
+ */
+public final class XSDayTimeDurationAccumulator {
+
+    private static final long NANOS_PER_SECOND = XSCalendarType.NANOS_PER_SECOND;
+
+    private long _count;
+
+    // the total number of seconds, as a 128 bit two's complement integer
+    private long _highSeconds;
+
+    private long _lowSeconds;
+
+    // the total nanoseconds, within the range 0 to 999999999
+    private long _nanos;
+
+    private long _minSeconds;
+
+    private int _minNanos;
+
+    private long _maxSeconds;
+
+    private int _maxNanos;
+
+    /**
+     * Class constructor, creating an empty accumulator.
+     */
+    public XSDayTimeDurationAccumulator() {
+        // no op
+    }
+
+    /**
+     * Add a value to this accumulator.
+     *
+     * @param value   the value to be added
+     *
+     * @return        this accumulator
+     */
+    public XSDayTimeDurationAccumulator add(XSDayTimeDuration value) {
+        long seconds = value.dayTimeSeconds();
+        int nanos = value.dayTimeNanos();
+
+        addSeconds(seconds);
+        addNanos(nanos);
+
+        if ((_count == 0) || (compare(seconds, nanos, _minSeconds, _minNanos) < 0)) {
+            _minSeconds = seconds;
+            _minNanos = nanos;
+        }
+        if ((_count == 0) || (compare(seconds, nanos, _maxSeconds, _maxNanos) > 0)) {
+            _maxSeconds = seconds;
+            _maxNanos = nanos;
+        }
+        _count++;
+
+        return this;
+    }
+
+    /**
+     * Merge the values of another accumulator, into this accumulator. The
+     * other accumulator is not modified.
+     *
+     * @param other   the other accumulator
+     *
+     * @return        this accumulator
+     */
+    public XSDayTimeDurationAccumulator combine(XSDayTimeDurationAccumulator other) {
+        if (other._count == 0) {
+            return this;
+        }
+
+        long lowSeconds = _lowSeconds + other._lowSeconds;
+        _highSeconds += other._highSeconds + ((Long.compareUnsigned(lowSeconds, _lowSeconds) < 0) ? 1 : 0);
+        _lowSeconds = lowSeconds;
+        addNanos(other._nanos);
+
+        if ((_count == 0) || (compare(other._minSeconds, other._minNanos, _minSeconds, _minNanos) < 0)) {
+            _minSeconds = other._minSeconds;
+            _minNanos = other._minNanos;
+        }
+        if ((_count == 0) || (compare(other._maxSeconds, other._maxNanos, _maxSeconds, _maxNanos) > 0)) {
+            _maxSeconds = other._maxSeconds;
+            _maxNanos = other._maxNanos;
+        }
+        _count += other._count;
+
+        return this;
+    }
+
+    /**
+     * Get the number of values added to this accumulator.
+     *
+     * @return   the number of values
+     */
+    public long count() {
+        return _count;
+    }
+
+    /**
+     * Get the sum of the values added to this accumulator.
+     *
+     * @return   the sum, which is a zero length duration when no values
+     *           have been added
+     *
+     * @throws TransformerException   FODT0002 if the sum is too large
+     */
+    public XSDayTimeDuration sum() throws TransformerException {
+        if (_highSeconds != (_lowSeconds >> 63)) {
+            throw new TransformerException("FODT0002 : The sum of the xs:dayTimeDuration values is too large.");
+        }
+
+        return new XSDayTimeDuration(_lowSeconds, _nanos);
+    }
+
+    /**
+     * Get the average of the values added to this accumulator, rounded to
+     * the nearest nanosecond.
+     *
+     * @return   the average, or null when no values have been added
+     *
+     * @throws TransformerException   FODT0002 if the sum is too large
+     */
+    public XSDayTimeDuration avg() throws TransformerException {
+        if (_count == 0) {
+            return null;
+        }
+
+        return XPath3DurationArithmetic.dayTimeOp(XPath3DurationArithmetic.OP_DIVIDE, sum(),
+                                                                              XSInteger.valueOf(_count));
+    }
+
+    /**
+     * Get the least of the values added to this accumulator.
+     *
+     * @return   the least value, or null when no values have been added
+     */
+    public XSDayTimeDuration min() {
+        return (_count == 0) ? null : new XSDayTimeDuration(_minSeconds, _minNanos);
+    }
+
+    /**
+     * Get the greatest of the values added to this accumulator.
+     *
+     * @return   the greatest value, or null when no values have been added
+     */
+    public XSDayTimeDuration max() {
+        return (_count == 0) ? null : new XSDayTimeDuration(_maxSeconds, _maxNanos);
+    }
+
+    /*
+     * Add a signed number of seconds, to the 128 bit total.
+     */
+    private void addSeconds(long seconds) {
+        long lowSeconds = _lowSeconds + seconds;
+        _highSeconds += (seconds >> 63) + ((Long.compareUnsigned(lowSeconds, _lowSeconds) < 0) ? 1 : 0);
+        _lowSeconds = lowSeconds;
+    }
+
+    /*
+     * Add a number of nanoseconds within the range -999999999 to 999999999,
+     * carrying whole seconds into the total seconds.
+     */
+    private void addNanos(long nanos) {
+        _nanos += nanos;
+        if (_nanos >= NANOS_PER_SECOND) {
+            _nanos -= NANOS_PER_SECOND;
+            addSeconds(1);
+        }
+        else if (_nanos < 0) {
+            _nanos += NANOS_PER_SECOND;
+            addSeconds(-1);
+        }
+    }
+
+    /*
+     * Compare two durations given as normalized (seconds, nanoseconds) pairs,
+     * whose nanoseconds have the same sign as their seconds.
+     */
+    private static int compare(long seconds1, int nanos1, long seconds2, int nanos2) {
+        int result = Long.compare(seconds1, seconds2);
+
+        return (result != 0) ? result : Integer.compare(nanos1, nanos2);
+    }
+
+}
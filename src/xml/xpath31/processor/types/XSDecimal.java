@@ -14,7 +14,9 @@
 package xml.xpath31.processor.types;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
 
+import org.apache.xml.utils.FastStringBuffer;
 import org.apache.xpath.objects.ResultSequence;
 
 /**
@@ -26,30 +28,117 @@ public class XSDecimal extends XSNumericType {
     
     private static final String XS_DECIMAL = "xs:decimal";
     
-    private BigDecimal _value;
+    static final long[] LONG_POW10 = { 1L, 10L, 100L, 1000L, 10000L, 100000L, 
+                                       1000000L, 10000000L, 100000000L, 1000000000L, 
+                                       10000000000L, 100000000000L, 1000000000000L, 
+                                       10000000000000L, 100000000000000L, 
+                                       1000000000000000L, 10000000000000000L, 
+                                       100000000000000000L, 1000000000000000000L };
     
-    private XPath3DecimalFormat xpath3DecimalFormat = new XPath3DecimalFormat(
-                                                                 "0.####################");
+    private static final double[] DOUBLE_POW10 = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 
+                                                   1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 
+                                                   1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 
+                                                   1e22 };
+    
+    private static final float[] FLOAT_POW10 = { 1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 
+                                                 1e7f, 1e8f, 1e9f, 1e10f };
+    
+    // the decimal value is stored as an unscaled value and a scale (i.e, the 
+    // value is unscaledValue * 10^-scale), with no trailing zeros after the 
+    // decimal point and a scale that is never negative. The unscaled value 
+    // is stored as a primitive long whenever it fits, and _bigUnscaledValue 
+    // is null in that case. XSDecimal objects are immutable, and may be 
+    // shared between threads.
+    protected final long _unscaledValue;
+    
+    protected final int _scale;
+    
+    protected final BigInteger _bigUnscaledValue;
+    
+    static final XSDecimal ZERO = new XSDecimal();
+    
+    static final XSDecimal ONE = new XSDecimal(1, null, 0);
     
     /**
      * Class constructor.
      */
     public XSDecimal() {
-       this(BigDecimal.valueOf(0));
+       this(0, null, 0);
     }
     
     /**
      * Class constructor.
      */
     public XSDecimal(BigDecimal bigDecimal) {
-       _value = bigDecimal; 
+       this(0, bigDecimal.unscaledValue(), bigDecimal.scale()); 
     }
     
     /**
      * Class constructor.
      */
     public XSDecimal(String str) {
-        _value = new BigDecimal(str);
+        this(scanDecimal(str));
+    }
+    
+    /*
+     * Class constructor.
+     */
+    private XSDecimal(XPath3NumericScanner numericScanner) {
+        this(numericScanner.unscaledValue(), numericScanner.bigUnscaledValue(), 
+                                                             numericScanner.scale());
+    }
+    
+    /*
+     * Class constructor. The value is unscaledValue * 10^-scale when 
+     * bigUnscaledValue is null, and bigUnscaledValue * 10^-scale otherwise. 
+     * The value is stored after removing trailing zeros after the decimal 
+     * point, and making the scale non negative.
+     */
+    protected XSDecimal(long unscaledValue, BigInteger bigUnscaledValue, int scale) {
+        if (bigUnscaledValue != null) {
+           if (scale < 0) {
+              bigUnscaledValue = bigUnscaledValue.multiply(BigInteger.TEN.pow(-scale));
+              scale = 0;
+           }
+           
+           while ((scale > 0) && (bigUnscaledValue.bitLength() >= 64)) {
+              BigInteger[] quotientAndRemainder = bigUnscaledValue.divideAndRemainder(BigInteger.TEN);
+              if (quotientAndRemainder[1].signum() != 0) {
+                 break; 
+              }
+              bigUnscaledValue = quotientAndRemainder[0];
+              scale--;
+           }
+           
+           if (bigUnscaledValue.bitLength() < 64) {
+              unscaledValue = bigUnscaledValue.longValue();
+              bigUnscaledValue = null;
+           }
+        }
+        else if (scale < 0) {
+           if (fitsScaledUp(unscaledValue, -scale)) {
+              unscaledValue *= LONG_POW10[-scale]; 
+           }
+           else {
+              bigUnscaledValue = (BigInteger.valueOf(unscaledValue)).multiply(BigInteger.TEN.pow(-scale));
+           }
+           scale = 0;
+        }
+        
+        if (bigUnscaledValue == null) {
+           if (unscaledValue == 0) {
+              scale = 0; 
+           }
+           
+           while ((scale > 0) && ((unscaledValue % 10) == 0)) {
+              unscaledValue /= 10;
+              scale--;
+           }
+        }
+        
+        _unscaledValue = (bigUnscaledValue == null) ? unscaledValue : 0;
+        _bigUnscaledValue = bigUnscaledValue;
+        _scale = scale;
     }
 
     @Override
@@ -63,13 +152,40 @@ public class XSDecimal extends XSNumericType {
 
     @Override
     public String stringValue() {
-        if (zero()) {
-           return "0";
+        if ((_bigUnscaledValue == null) && (_scale == 0)) {
+           return Long.toString(_unscaledValue); 
         }
-
-        _value = new BigDecimal((_value.toString()).replaceFirst("0*", ""));
         
-        return xpath3DecimalFormat.performStrFormatting(_value);
+        StringBuilder strBuf = new StringBuilder(_scale + 22);
+        appendTo(strBuf);
+        
+        return strBuf.toString();
+    }
+    
+    /**
+     * Append the canonical string representation of this decimal value, 
+     * to the supplied string buffer.
+     * 
+     * @param strBuf   the string buffer to append to
+     */
+    @Override
+    public void appendTo(StringBuilder strBuf) {
+        if (_bigUnscaledValue != null) {
+           XPath3NumericFormat.appendDecimal(_bigUnscaledValue, _scale, strBuf); 
+        }
+        else {
+           XPath3NumericFormat.appendDecimal(_unscaledValue, _scale, strBuf);
+        }
+    }
+    
+    @Override
+    public void appendToFsb(FastStringBuffer fsb) {
+        if (_bigUnscaledValue != null) {
+           XPath3NumericFormat.formatDecimal(_bigUnscaledValue, _scale, fsb, XPath3CharSink.FAST_STRING_BUFFER);
+        }
+        else {
+           XPath3NumericFormat.formatDecimal(_unscaledValue, _scale, fsb, XPath3CharSink.FAST_STRING_BUFFER);
+        }
     }
     
     @Override
@@ -82,13 +198,13 @@ public class XSDecimal extends XSNumericType {
         
         XSAnyType xsAnyType = (XSAnyType)arg.item(0);
         
-        try {            
-            XSDecimal xsDecimal = castToDecimal(xsAnyType);            
-            resultSeq.add(xsDecimal);
-        } catch (NumberFormatException ex) {
+        XSDecimal xsDecimal = (XSDecimal)XPath3NumericCasts.cast(xsAnyType, XPath3NumericCasts.TARGET_DECIMAL);
+        if (xsDecimal == null) {
             // to do
             return null;
-        }        
+        }
+        
+        resultSeq.add(xsDecimal);
         
         return resultSeq;
     }
@@ -100,7 +216,7 @@ public class XSDecimal extends XSNumericType {
      *            false otherwise.
      */
     public boolean zero() {
-        return (_value.compareTo(new BigDecimal(0.0)) == 0);
+        return (_unscaledValue == 0) && (_bigUnscaledValue == null);
     }
     
     /**
@@ -110,32 +226,77 @@ public class XSDecimal extends XSNumericType {
      * @return   the actual value of the number stored
      */
     public double doubleValue() {
-        return _value.doubleValue();
-    }
-    
-    public BigDecimal getValue() {
-        return _value;
+        if ((_bigUnscaledValue == null) && (_scale < 23) && 
+                                   (Math.abs(_unscaledValue) < (1L << 53))) {
+           // both the unscaled value and the power of ten are exactly 
+           // representable as doubles, so a single division gives the
+           // correctly rounded result.
+           return (_scale == 0) ? (double)_unscaledValue : 
+                                     (double)_unscaledValue / DOUBLE_POW10[_scale];
+        }
+        
+        return (getValue()).doubleValue();
     }
     
     /**
-     * Set the numeric double value, within this XSDecimal object.
+     * Get the value of the number stored within this XSDecimal 
+     * object, rounded to the nearest float value.
      * 
-     * @param val    number to be stored
+     * @return   the float value
      */
-    public void setDouble(double val) {
-        _value = new BigDecimal(val);
+    public float floatValue() {
+        if (_bigUnscaledValue == null) {
+           if (_scale == 0) {
+              return (float)_unscaledValue; 
+           }
+           
+           if ((_scale < FLOAT_POW10.length) && (Math.abs(_unscaledValue) < (1L << 24))) {
+              // both the operands are exactly representable as floats, so 
+              // a single division gives the correctly rounded result.
+              return (float)_unscaledValue / FLOAT_POW10[_scale];
+           }
+        }
+        
+        return (getValue()).floatValue();
+    }
+    
+    public BigDecimal getValue() {
+        if (_bigUnscaledValue != null) {
+           return new BigDecimal(_bigUnscaledValue, _scale);
+        }
+        
+        return BigDecimal.valueOf(_unscaledValue, _scale);
     }
     
     public boolean equals(XSDecimal xsDecimal) {
-        return _value.equals(xsDecimal.getValue()); 
+        if ((_bigUnscaledValue == null) && (xsDecimal._bigUnscaledValue == null)) {
+           return (_unscaledValue == xsDecimal._unscaledValue) && (_scale == xsDecimal._scale);
+        }
+        
+        return (_scale == xsDecimal._scale) && (getUnscaledValue()).equals(xsDecimal.getUnscaledValue()); 
     }
     
     public boolean lt(XSDecimal xsDecimal) {
-        return (_value.compareTo(xsDecimal.getValue()) == -1);
+        return compareValue(xsDecimal) < 0;
     }
     
     public boolean gt(XSDecimal xsDecimal) {
-        return (_value.compareTo(xsDecimal.getValue()) == 1);
+        return compareValue(xsDecimal) > 0;
+    }
+    
+    @Override
+    protected boolean sameKey(XSAnyAtomicType xsAnyAtomicType) {
+        return sameNumericKey(this, xsAnyAtomicType);
+    }
+    
+    @Override
+    protected int sameKeyHashCode() {
+        return numericHashCode(doubleValue());
+    }
+    
+    @Override
+    public byte[] sortKey() {
+        return XPath3SortKeys.decimalKey(_unscaledValue, _bigUnscaledValue, _scale);
     }
     
     public int getType() {
@@ -143,20 +304,66 @@ public class XSDecimal extends XSNumericType {
     }
     
     /*
-     * Cast an object of type XSAnyType, to an object of type 
-     * XSDecimal.  
+     * Scan a string as an xs:decimal lexical value, throwing 
+     * NumberFormatException when the string isn't valid.
      */
-    private XSDecimal castToDecimal(XSAnyType xsAnyType) {        
-       if (xsAnyType instanceof XSBoolean) {            
-          if ((xsAnyType.stringValue()).equals("true")) {
-             return new XSDecimal(new BigDecimal("1"));
-          } 
-          else {
-             return new XSDecimal(new BigDecimal("0"));
-          }
+    private static XPath3NumericScanner scanDecimal(String str) {
+       XPath3NumericScanner numericScanner = new XPath3NumericScanner();
+       if (numericScanner.scanDecimal(str) != XPath3NumericScanner.SCAN_OK) {
+          throw new NumberFormatException("The string value '" + str + "' is not a valid xs:decimal value.");
        }
+       
+       return numericScanner;
+    }
+    
+    /**
+     * Get the unscaled value of this decimal, as a java.math.BigInteger
+     * object.
+     * 
+     * @return   the unscaled value of this decimal
+     */
+    protected BigInteger getUnscaledValue() {
+        return (_bigUnscaledValue != null) ? _bigUnscaledValue : BigInteger.valueOf(_unscaledValue); 
+    }
+    
+    /*
+     * Compare the numeric value of this XSDecimal object, with another 
+     * one. Values, whose unscaled values fit within a long after 
+     * aligning their scales, are compared without any allocation.
+     */
+    int compareValue(XSDecimal xsDecimal) {
+        if ((_bigUnscaledValue == null) && (xsDecimal._bigUnscaledValue == null)) {
+           long val1 = _unscaledValue;
+           long val2 = xsDecimal._unscaledValue;
+           int scaleDiff = _scale - xsDecimal._scale;
+           if (scaleDiff == 0) {
+              return Long.compare(val1, val2);
+           }
+           
+           if ((scaleDiff > 0) && fitsScaledUp(val2, scaleDiff)) {
+              return Long.compare(val1, val2 * LONG_POW10[scaleDiff]); 
+           }
+           
+           if ((scaleDiff < 0) && fitsScaledUp(val1, -scaleDiff)) {
+              return Long.compare(val1 * LONG_POW10[-scaleDiff], val2);
+           }
+        }
+        
+        return (getValue()).compareTo(xsDecimal.getValue());
+    }
+    
+    /*
+     * Check whether, the supplied value multiplied by 10^digits fits 
+     * within a long.
+     */
+    static boolean fitsScaledUp(long val, int digits) {
+        if (digits >= LONG_POW10.length) {
+           return (val == 0); 
+        }
+        
+        long limit = Long.MAX_VALUE / LONG_POW10[digits];
         
-       return new XSDecimal(xsAnyType.stringValue());
+        return (val <= limit) && (val >= -limit);
     }
 
 }
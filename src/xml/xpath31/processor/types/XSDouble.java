@@ -13,6 +13,7 @@
 
 package xml.xpath31.processor.types;
 
+import org.apache.xml.utils.FastStringBuffer;
 import org.apache.xpath.objects.ResultSequence;
 
 /**
@@ -24,16 +25,25 @@ public class XSDouble extends XSNumericType {
 
     private static final String XS_DOUBLE = "xs:double";
 	
-	private Double _value;
+    private static final XSDouble POSITIVE_ZERO = new XSDouble(0.0E0);
+    
+    private static final XSDouble NEGATIVE_ZERO = new XSDouble(-0.0E0);
+    
+    private static final XSDouble ONE = new XSDouble(1.0E0);
+    
+    private static final XSDouble NAN = new XSDouble(Double.NaN);
+    
+    private static final XSDouble POSITIVE_INFINITY = new XSDouble(Double.POSITIVE_INFINITY);
+    
+    private static final XSDouble NEGATIVE_INFINITY = new XSDouble(Double.NEGATIVE_INFINITY);
 	
-	private XPath3DecimalFormat xpath3DecimalFormat = new XPath3DecimalFormat(
-	                                                              "0.################E0");
+	private final double _value;
 
 	/*
 	 * Class constructor.
 	 */
 	public XSDouble(double val) {
-	    _value = new Double(val);
+	    _value = val;
 	}
 
 	/*
@@ -47,18 +57,7 @@ public class XSDouble extends XSNumericType {
      * Class constructor.
      */
 	public XSDouble(String strVal) throws javax.xml.transform.TransformerException {
-		try {
-			if (strVal.equals("-INF")) {
-				_value = new Double(Double.NEGATIVE_INFINITY);
-			} else if (strVal.equals("INF")) {
-				_value = new Double(Double.POSITIVE_INFINITY);
-			} else {
-				_value = new Double(strVal);
-			}
-		} catch (NumberFormatException ex) {
-			throw new javax.xml.transform.TransformerException("FORG0006 : The string value '" + 
-		                                                             strVal + "' cannot be cast to xs:double."); 
-		}
+		_value = toDouble(strVal);
 	}
 
 	/**
@@ -71,22 +70,49 @@ public class XSDouble extends XSNumericType {
 	 *              argument provided.
 	 */
 	public static XSDouble parseDouble(String strVal) throws javax.xml.transform.TransformerException {	    
-		try {
-			Double d1 = null;
-			
-			if (strVal.equals("INF")) {
-				d1 = new Double(Double.POSITIVE_INFINITY);
-			} else if (strVal.equals("-INF")) {
-				d1 = new Double(Double.NEGATIVE_INFINITY);
-			} else {
-				d1 = new Double(strVal);
-			}
-			
-			return new XSDouble(d1.doubleValue());			
-		} catch (NumberFormatException ex) {
+		return valueOf(toDouble(strVal));		
+	}
+	
+	/**
+	 * Get an XSDouble object for the supplied double value. For the values 
+	 * 0, -0, 1, NaN, INF and -INF, this method returns a shared instance.
+	 * 
+	 * @param val   the double value
+	 * 
+	 * @return      an XSDouble object, representing the supplied value
+	 */
+	public static XSDouble valueOf(double val) {
+	    if (val == 0.0E0) {
+	       return (Double.doubleToRawLongBits(val) == 0L) ? POSITIVE_ZERO : NEGATIVE_ZERO;
+	    }
+	    else if (val == 1.0E0) {
+	       return ONE; 
+	    }
+	    else if (Double.isNaN(val)) {
+	       return NAN; 
+	    }
+	    else if (val == Double.POSITIVE_INFINITY) {
+	       return POSITIVE_INFINITY;
+	    }
+	    else if (val == Double.NEGATIVE_INFINITY) {
+	       return NEGATIVE_INFINITY;
+	    }
+	    
+	    return new XSDouble(val);
+	}
+	
+	/*
+	 * Get the double value, corresponding to the supplied string 
+	 * value.
+	 */
+	private static double toDouble(String strVal) throws javax.xml.transform.TransformerException {
+		XPath3NumericScanner numericScanner = new XPath3NumericScanner();
+		if (numericScanner.scanDouble(strVal) != XPath3NumericScanner.SCAN_OK) {
 		    throw new javax.xml.transform.TransformerException("FORG0006 : The string value '" + 
 		                                                             strVal + "' cannot be cast to xs:double.");
-		}		
+		}
+		
+		return numericScanner.doubleValue();
 	}
 	
 	@Override
@@ -100,17 +126,11 @@ public class XSDouble extends XSNumericType {
         
         XSAnyType xsAnyType = (XSAnyType)arg.item(0);
         
-        XSDouble xsAnyTypeConvertedToDouble = null;
-        
-        if (xsAnyType instanceof XSBoolean) {
-            if (xsAnyType.stringValue().equals("true")) {
-                xsAnyTypeConvertedToDouble = new XSDouble(1.0E0);
-            } else {
-                xsAnyTypeConvertedToDouble = new XSDouble(0.0E0);
-            }
-        }
-        else {
-            xsAnyTypeConvertedToDouble = parseDouble(xsAnyType.stringValue());
+        XSDouble xsAnyTypeConvertedToDouble = (XSDouble)XPath3NumericCasts.cast(xsAnyType, 
+                                                                   XPath3NumericCasts.TARGET_DOUBLE);
+        if (xsAnyTypeConvertedToDouble == null) {
+            throw new javax.xml.transform.TransformerException("FORG0006 : The string value '" + 
+                                                       xsAnyType.stringValue() + "' cannot be cast to xs:double.");
         }
         
         resultSeq.add(xsAnyTypeConvertedToDouble);
@@ -130,19 +150,17 @@ public class XSDouble extends XSNumericType {
 
     @Override
     public String stringValue() {
-        if (zero()) {
-            return "0";
-        }
-
-        if (negativeZero()) {
-            return "-0";
-        }
-
-        if (nan()) {
-            return "NaN";
-        }
-
-        return xpath3DecimalFormat.performStrFormatting(_value);
+        return XPath3NumericFormat.formatDouble(_value);
+    }
+    
+    @Override
+    public void appendTo(StringBuilder strBuf) {
+        XPath3NumericFormat.formatDouble(_value, strBuf, XPath3CharSink.STRING_BUILDER);
+    }
+    
+    @Override
+    public void appendToFsb(FastStringBuffer fsb) {
+        XPath3NumericFormat.formatDouble(_value, fsb, XPath3CharSink.FAST_STRING_BUFFER);
     }
     
     /*
@@ -152,7 +170,7 @@ public class XSDouble extends XSNumericType {
      *            false otherwise.
      */
     public boolean negativeZero() {
-        return (Double.compare(_value.doubleValue(), -0.0E0) == 0);
+        return (Double.compare(_value, -0.0E0) == 0);
     }
 
     /**
@@ -160,14 +178,14 @@ public class XSDouble extends XSNumericType {
      * this XSDouble object.
      */
     public double doubleValue() {
-        return _value.doubleValue();
+        return _value;
     }
     
     /**
      * Check whether this XSDouble object represents NaN.
      */
     public boolean nan() {
-        return Double.isNaN(_value.doubleValue());
+        return Double.isNaN(_value);
     }
 
     /**
@@ -175,18 +193,18 @@ public class XSDouble extends XSNumericType {
      * infinite number.
      */
     public boolean infinite() {
-        return Double.isInfinite(_value.doubleValue());
+        return Double.isInfinite(_value);
     }
 
     /**
      * Check whether this XSDouble object represents 0.
      */
     public boolean zero() {
-        return (Double.compare(_value.doubleValue(), 0.0E0) == 0);
+        return (Double.compare(_value, 0.0E0) == 0);
     }
     
     public boolean equals(XSDouble xsDouble) {
-        return _value.equals(xsDouble.doubleValue()); 
+        return Double.doubleToLongBits(_value) == Double.doubleToLongBits(xsDouble.doubleValue()); 
     }
     
     public boolean lt(XSDouble xsDouble) {
@@ -197,6 +215,21 @@ public class XSDouble extends XSNumericType {
         return doubleValue() > xsDouble.doubleValue(); 
     }
     
+    @Override
+    protected boolean sameKey(XSAnyAtomicType xsAnyAtomicType) {
+        return sameNumericKey(this, xsAnyAtomicType);
+    }
+    
+    @Override
+    protected int sameKeyHashCode() {
+        return numericHashCode(_value);
+    }
+    
+    @Override
+    public byte[] sortKey() {
+        return XPath3SortKeys.doubleKey(_value);
+    }
+    
     public int getType() {
         return CLASS_XS_DOUBLE;
     }
@@ -15,29 +15,49 @@ package xml.xpath31.processor.types;
 
 import javax.xml.transform.TransformerException;
 
+import org.apache.xml.utils.FastStringBuffer;
 import org.apache.xpath.objects.ResultSequence;
 
 /**
  * A representation of the XML Schema xs:duration data type.
+ * 
+ * <p>A duration is stored exactly, as a signed number of months for its 
+ * year and month components, and a signed number of seconds plus 
+ * nanoseconds for its day and time components. The individual components
+ * are derived from these when they are requested.</p>
  */
 public class XSDuration extends XSCtrType {
 
     private static final long serialVersionUID = -8460416911698841833L;
 
     private static final String XS_DURATION = "xs:duration";
+    
+    // the maximum length of the string representation of a duration
+    static final int MAX_LEXICAL_LENGTH = 100;
+	
+	/**
+	 * The year and month components of this duration, as a signed number
+	 * of months.
+	 */
+	private final int _months;
 	
-	protected int _year;
-	protected int _month;
-	protected int _days;
-	protected int _hours;
-	protected int _minutes;
-	protected double _seconds;
-	protected boolean _negative;
+	/**
+	 * The day and time components of this duration, as a signed number of
+	 * whole seconds.
+	 */
+	private final long _seconds;
+	
+	/**
+	 * The remaining fraction of a second, as a signed number of nanoseconds
+	 * which has the same sign as _seconds.
+	 */
+	private final int _nanos;
 
 	/**
 	 * Initializes to a XSDuration object with the supplied parameters. If more 
 	 * than 24 hours is supplied, the number of days is adjusted accordingly.
-	 * The same occurs for minutes and seconds.
+	 * The same occurs for minutes and seconds. The seconds are kept to the 
+	 * nearest nanosecond.
 	 * 
 	 * @param years
 	 *            number of years in this duration of time.
@@ -54,41 +74,15 @@ public class XSDuration extends XSCtrType {
 	 * @param negative
 	 *            true if this duration of time represents a backwards passage
 	 *            through time. false otherwise.
+	 *            
+	 * @throws ArithmeticException if the total number of months doesn't fit
+	 *                             within an int
 	 */
 	public XSDuration(int years, int months, int days, int hours, int minutes,
 			                                       double seconds, boolean negative) {
-		_year = years;
-		_month = months;
-		_days = days;
-		_hours = hours;
-		_minutes = minutes;
-		_seconds = seconds;
-		_negative = negative;
-
-		if (_month >= 12) {
-			_year += _month / 12;
-			_month = _month % 12;
-		}
-
-		if (_seconds >= 60) {
-			int isec = (int) _seconds;
-			double rem = _seconds - (isec);
-
-			_minutes += isec / 60;
-			_seconds = isec % 60;
-			_seconds += rem;
-		}
-		
-		if (_minutes >= 60) {
-			_hours += _minutes / 60;
-			_minutes = _minutes % 60;
-		}
-		
-		if (_hours >= 24) {
-			_days += _hours / 24;
-			_hours = _hours % 24;
-		}
-
+		this(signedMonths(years, months, negative), 
+		     signedSeconds((((((long)days * 24) + hours) * 60) + minutes) * 60, seconds, negative), 
+		     signedNanos(seconds, negative));
 	}
 
 	/**
@@ -104,7 +98,64 @@ public class XSDuration extends XSCtrType {
 	 * Initializes to a duration of no time (0days, 0hours, 0minutes, 0seconds).
 	 */
 	public XSDuration() {
-		this(0, 0, 0, 0, 0, 0.0, false);
+		this(0, 0L, 0L);
+	}
+	
+	/**
+	 * Initializes to a duration with the supplied number of months, and 
+	 * the supplied number of seconds plus nanoseconds. The nanoseconds may
+	 * have any value, and are carried into the seconds.
+	 * 
+	 * @param months    the signed number of months
+	 * @param seconds   the signed number of seconds
+	 * @param nanos     the signed number of nanoseconds
+	 * 
+	 * @throws ArithmeticException if the total number of seconds doesn't 
+	 *                             fit within a long
+	 */
+	protected XSDuration(int months, long seconds, long nanos) {
+		long totalSeconds = Math.addExact(seconds, Math.floorDiv(nanos, XSCalendarType.NANOS_PER_SECOND));
+		int fraction = (int)Math.floorMod(nanos, (long)XSCalendarType.NANOS_PER_SECOND);
+		if ((totalSeconds < 0) && (fraction > 0)) {
+			// the fraction is given the sign of the seconds
+			totalSeconds++;
+			fraction -= XSCalendarType.NANOS_PER_SECOND;
+		}
+		
+		_months = months;
+		_seconds = totalSeconds;
+		_nanos = fraction;
+	}
+	
+	/*
+	 * Get the signed number of months, of a duration's year and month 
+	 * components.
+	 */
+	private static int signedMonths(int years, int months, boolean negative) {
+		int total = Math.addExact(Math.multiplyExact(years, 12), months);
+		
+		return negative ? -total : total;
+	}
+	
+	/*
+	 * Get the signed number of whole seconds, of a duration's day and time
+	 * components.
+	 */
+	private static long signedSeconds(long wholeMinuteSeconds, double seconds, boolean negative) {
+		long total = wholeMinuteSeconds + (long)seconds;
+		
+		return negative ? -total : total;
+	}
+	
+	/*
+	 * Get the signed fraction of a duration's seconds component, rounded to
+	 * the nearest nanosecond. A fraction that rounds up to a whole second, 
+	 * is carried into the seconds by the constructor.
+	 */
+	private static long signedNanos(double seconds, boolean negative) {
+		long nanos = Math.round((seconds - (long)seconds) * XSCalendarType.NANOS_PER_SECOND);
+		
+		return negative ? -nanos : nanos;
 	}
 
 	public String typeName() {
@@ -121,65 +172,98 @@ public class XSDuration extends XSCtrType {
 	 * @return   string representation of the duration stored
 	 */
 	public String stringValue() {
-		String returnVal = "";
-		
-		boolean didSomething = false;
+		StringBuilder strBuf = new StringBuilder(MAX_LEXICAL_LENGTH);
+		format(strBuf, XPath3CharSink.STRING_BUILDER);
 		
-		String tret = "";
-
-		//if (negative() && !(days() == 0 && hours() == 0 && seconds() == 0))
-		if (negative())	
-			returnVal += "-";
-
-		returnVal += "P";
+		return strBuf.toString();
+	}
+	
+	@Override
+	public void appendTo(StringBuilder strBuf) {
+		format(strBuf, XPath3CharSink.STRING_BUILDER);
+	}
+	
+	@Override
+	public void appendToFsb(FastStringBuffer fsb) {
+		format(fsb, XPath3CharSink.FAST_STRING_BUFFER);
+	}
+	
+	/**
+	 * Append the string representation of the duration stored, to a 
+	 * buffer.
+	 * 
+	 * @param out    the buffer to append to
+	 * @param sink   the appender of characters, to the buffer
+	 */
+	<T> void format(T out, XPath3CharSink<T> sink) {
+		if (negative()) {
+			sink.put(out, '-');
+		}
+		sink.put(out, 'P');
 
 		int years = year();
-		if (years != 0)
-			returnVal += years + "Y";
+		if (years != 0) {
+			putInt(years, 'Y', out, sink);
+		}
 
 		int months = month();
 		if (months != 0) {
-			returnVal += months + "M";
+			putInt(months, 'M', out, sink);
 		}
 
-		if (days() != 0) {
-			returnVal += days() + "D";
-			didSomething = true;
+		long days = Math.abs(_seconds) / XSCalendarType.SECONDS_PER_DAY;
+		if (days != 0) {
+			putInt(days, 'D', out, sink);
 		}
 
 		int hours = hours();
 		int minutes = minutes();
-		double seconds = seconds();
+		int seconds = (int)(Math.abs(_seconds) % 60);
+		int nanos = Math.abs(_nanos);
+		
+		// the time part is written, if it has a non zero component, or 
+		// else as 'T0S' if the whole duration is of zero length.
+		boolean hasTime = (hours != 0) || (minutes != 0) || (seconds != 0) || (nanos != 0);
+		if (!hasTime && ((days != 0) || (years != 0) || (months != 0))) {
+			return;
+		}
 		
+		sink.put(out, 'T');
 		if (hours != 0) {
-			tret += hours + "H";
-			didSomething = true;
+			putInt(hours, 'H', out, sink);
 		}
 		if (minutes != 0) {
-			tret += minutes + "M";
-			didSomething = true;
+			putInt(minutes, 'M', out, sink);
 		}
-		if (seconds != 0) {
-			String doubStr = (new Double(seconds).toString());
-			if (doubStr.endsWith(".0")) {				
-				tret += doubStr.substring(0, doubStr.indexOf(".0")) + "S";
-			} 
-			else {
-				tret += seconds + "S";
+		if ((seconds != 0) || (nanos != 0)) {
+			sink.putPadded(out, seconds, 1);
+			if (nanos != 0) {
+				int digits = 9;
+				while ((nanos % 10) == 0) {
+					nanos /= 10;
+					digits--;
+				}
+				sink.put(out, '.');
+				sink.putDigits(out, nanos, digits);
 			}
-			didSomething = true;
+			sink.put(out, 'S');
 		} 
-		else if (!didSomething) {
-		    tret += "0S";
+		else if (!hasTime) {
+			sink.put(out, '0');
+			sink.put(out, 'S');
 		}
-		
-		if ((year() == 0 && month() == 0) || (hours > 0 || minutes > 0 || seconds > 0)) {
-			if (tret.length() > 0) {
-				returnVal += "T" + tret;
-			}
+	}
+	
+	/*
+	 * Append an integer value followed by a designator character, to a 
+	 * buffer.
+	 */
+	static <T> void putInt(long val, char designator, T out, XPath3CharSink<T> sink) {
+		if (val < 0) {
+			sink.put(out, '-');
 		}
-
-		return returnVal;
+		sink.putPadded(out, Math.abs(val), 1);
+		sink.put(out, designator);
 	}
 
 	/**
@@ -188,7 +272,7 @@ public class XSDuration extends XSCtrType {
 	 * @return   number of days within the duration of time stored
 	 */
 	public int days() {
-		return _days;
+		return (int)(Math.abs(_seconds) / XSCalendarType.SECONDS_PER_DAY);
 	}
 
 	/**
@@ -198,7 +282,7 @@ public class XSDuration extends XSCtrType {
 	 * @return   number of minutes within the duration of time stored
 	 */
 	public int minutes() {
-		return _minutes;
+		return (int)((Math.abs(_seconds) / 60) % 60);
 	}
 
 	/**
@@ -207,7 +291,7 @@ public class XSDuration extends XSCtrType {
 	 * @return  number of hours within the duration of time stored
 	 */
 	public int hours() {
-		return _hours;
+		return (int)((Math.abs(_seconds) / 3600) % 24);
 	}
 
 	/**
@@ -217,7 +301,7 @@ public class XSDuration extends XSCtrType {
 	 * @return  number of seconds within the duration of time stored
 	 */
 	public double seconds() {
-		return _seconds;
+		return (Math.abs(_seconds) % 60) + (Math.abs(_nanos) / (double)XSCalendarType.NANOS_PER_SECOND);
 	}
 
 	/**
@@ -228,7 +312,7 @@ public class XSDuration extends XSCtrType {
 	 *                false otherwise.
 	 */
 	public boolean negative() {
-		return _negative;
+		return (_months < 0) || (_seconds < 0) || (_nanos < 0);
 	}
 
 	/**
@@ -237,30 +321,11 @@ public class XSDuration extends XSCtrType {
 	 * @return number of seconds making up this duration of time
 	 */
 	public double value() {
-		double ret = days() * 24 * 60 * 60;
-
-		ret += hours() * 60 * 60;
-		ret += minutes() * 60;
-		ret += seconds();
-
-		if (negative()) {
-		   ret *= -1;
-		}
-		
-		return ret;
+		return _seconds + (_nanos / (double)XSCalendarType.NANOS_PER_SECOND);
 	}
 	
 	public double timeValue() {
-		double ret = 0;
-		ret += hours() * 60 * 60;
-		ret += minutes() * 60;
-		ret += seconds();
-
-		if (negative()) {
-		   ret *= -1;
-		}
-		
-		return ret;
+		return (_seconds % XSCalendarType.SECONDS_PER_DAY) + (_nanos / (double)XSCalendarType.NANOS_PER_SECOND);
 	}
 
 	/**
@@ -294,138 +359,17 @@ public class XSDuration extends XSCtrType {
 	 * @return      XSDuration object representing the duration of time supplied
 	 */
 	public static XSDuration parseDuration(String strVal) throws TransformerException {
-		
-	    boolean isDurationNegative = false;
-		
-		int years = 0;
-		int months = 0;
-		int days = 0;
-		int hours = 0;
-		int minutes = 0;
-		double seconds = 0;
-
-		String pstr = "";
-		String tstr = "";
-
-		if (strVal.startsWith("-P")) {
-			isDurationNegative = true;
-			pstr = strVal.substring(2, strVal.length());
-		} 
-		else if (strVal.startsWith("P")) {
-			isDurationNegative = false;
-			pstr = strVal.substring(1, strVal.length());
-		} 
-		else {
-		    throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-		                                                                                         + "cannot be parsed to a xs:duration value.");
-		}
-
-		try {
-			int index = 0;			
-			boolean isAction = false;
-			
-			if (!pstr.startsWith("T")) {
-				index = pstr.indexOf('Y');				
-				if (index != -1) {
-					String digit = pstr.substring(0, index);
-					years = Integer.parseInt(digit);
-					pstr = pstr.substring(index + 1, pstr.length());
-					isAction = true;
-				}
-
-				index = pstr.indexOf('M');
-				if (index != -1) {
-					/**
-					 * An xs:duration string value, may contain the character
-					 * 'M' twice, one for month value and another for time's minute 
-					 * component.
-					 */
-					int idxT = pstr.indexOf('T');
-					if (idxT == -1) {
-						String digit = pstr.substring(0, index);
-						months = Integer.parseInt(digit);
-						pstr = pstr.substring(index + 1, pstr.length());
-					}
-					else {
-						String prefix1 = pstr.substring(0, idxT);						
-						int idx_m = prefix1.indexOf('M');
-						if (idx_m != -1) {
-							String digit = prefix1.substring(0, idx_m);
-							months = Integer.parseInt(digit);
-							index = pstr.indexOf('M'); 
-							pstr = pstr.substring(index + 1, pstr.length());
-						}
-					}
-					
-					isAction = true;
-				}
-
-				// days
-				index = pstr.indexOf('D');
-			}
-			else {
-				index = -1;
-			}
-
-			if (index == -1) {
-				if (pstr.startsWith("T")) {
-					tstr = pstr.substring(1, pstr.length());
-				}
-			} 
-			else {
-				String digit = pstr.substring(0, index);
-				days = Integer.parseInt(digit);
-				tstr = pstr.substring(index + 1, pstr.length());
-
-				if (tstr.startsWith("T")) {
-					tstr = tstr.substring(1, tstr.length());
-				} 
-				else {
-					tstr = "";
-					isAction = true;
-				}
-			}
-
-			// hours
-			index = tstr.indexOf('H');
-			if (index != -1) {
-				String digit = tstr.substring(0, index);
-				hours = Integer.parseInt(digit);
-				tstr = tstr.substring(index + 1, tstr.length());
-				isAction = true;
-			}
-			// minutes
-			index = tstr.indexOf('M');
-			if (index != -1) {
-				String digit = tstr.substring(0, index);
-				minutes = Integer.parseInt(digit);
-				tstr = tstr.substring(index + 1, tstr.length());
-				isAction = true;
-			}
-			// seconds
-			index = tstr.indexOf('S');
-			if (index != -1) {
-				String digit = tstr.substring(0, index);
-				seconds = Double.parseDouble(digit);
-				tstr = tstr.substring(index + 1, tstr.length());
-				isAction = true;
-			}
-			
-			if (!isAction) {
-			    throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                               + "cannot be parsed to a xs:duration value.");
-			}
-
-		} 
-		catch (TransformerException ex) {
-	        throw ex;  
+	    XPath3DurationScanner durationScanner = new XPath3DurationScanner();
+	    int status = durationScanner.scanDuration(strVal);
+	    if (status == XPath3DurationScanner.SCAN_OVERFLOW) {
+	        throw new TransformerException("FODT0002 : The duration value '" + strVal + "' is too large.");
+	    }
+	    else if (status != XPath3DurationScanner.SCAN_OK) {
+	        throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
+	                                                                                     + "cannot be parsed to a xs:duration value.");
 	    }
-		catch (Exception ex) {
-		    throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                              + "cannot be parsed to a xs:duration value."); 
-		}
 
-		return new XSDuration(years, months, days, hours, minutes, seconds, isDurationNegative);
+	    return new XSDuration(durationScanner.months(), durationScanner.seconds(), durationScanner.nanos());
 	}
 
 	/**
@@ -434,7 +378,7 @@ public class XSDuration extends XSCtrType {
 	 * @return number of years within the duration of time stored
 	 */
 	public int year() {
-		return _year;
+		return Math.abs(_months / 12);
 	}
 
 	/**
@@ -443,18 +387,60 @@ public class XSDuration extends XSCtrType {
 	 * @return number of months within the duration of time stored
 	 */
 	public int month() {
-		return _month;
+		return Math.abs(_months % 12);
+	}
+	
+	/**
+	 * Get the year and month components of the duration of time stored,
+	 * as a signed number of months.
+	 * 
+	 * @return   number of months within the duration of time stored
+	 */
+	public int monthValue() {
+	   return _months;
+	}
+	
+	/**
+	 * Get the day and time components of the duration of time stored, as a
+	 * signed number of whole seconds. The remaining fraction of a second is
+	 * available from the method dayTimeNanos.
+	 * 
+	 * @return   number of whole seconds within the duration of time stored
+	 */
+	long dayTimeSeconds() {
+	   return _seconds;
+	}
+	
+	/**
+	 * Get the fraction of a second of the duration of time stored, as a 
+	 * signed number of nanoseconds, which has the same sign as the method
+	 * dayTimeSeconds.
+	 * 
+	 * @return   number of nanoseconds, within the range -999999999 to 999999999
+	 */
+	int dayTimeNanos() {
+	   return _nanos;
+	}
+	
+	/**
+	 * Compare the day and time components of this and another duration.
+	 * 
+	 * @return    a negative value, zero or a positive value, if this duration
+	 *            is less than, equal to or greater than the other duration
+	 */
+	protected int compareDayTime(XSDuration xsDuration) {
+	   int result = Long.compare(_seconds, xsDuration._seconds);
+	   
+	   return (result != 0) ? result : Integer.compare(_nanos, xsDuration._nanos);
 	}
 	
 	/**
 	 * This method does an equality comparison between, this and
-	 * another XSDuration value. 
+	 * another XSDuration value. Two durations are equal, if they have
+	 * the same number of months and the same number of seconds.
 	 */
 	public boolean equals(XSDuration xsDuration) {
-       double val1 = value();
-       double val2 = xsDuration.value();
-       
-       return val1 == val2;
+       return (_months == xsDuration._months) && (compareDayTime(xsDuration) == 0);
     }
 	
 	/**
@@ -462,10 +448,7 @@ public class XSDuration extends XSCtrType {
      * than another one.  
      */
     public boolean lt(XSDuration xsDuration) {
-       double val1 = value();
-       double val2 = xsDuration.value();
-       
-       return val1 < val2;
+       return compareDayTime(xsDuration) < 0;
     }
     
     /**
@@ -473,10 +456,22 @@ public class XSDuration extends XSCtrType {
      * greater than another one.  
      */
     public boolean gt(XSDuration xsDuration) {
-       double val1 = value();
-       double val2 = xsDuration.value();
-       
-       return val1 > val2;
+       return compareDayTime(xsDuration) > 0;
+    }
+    
+    @Override
+    protected boolean sameKey(XSAnyAtomicType xsAnyAtomicType) {
+        return (xsAnyAtomicType instanceof XSDuration) && equals((XSDuration)xsAnyAtomicType);
+    }
+    
+    @Override
+    protected int sameKeyHashCode() {
+        return (31 * ((31 * _months) + Long.hashCode(_seconds))) + _nanos;
+    }
+    
+    @Override
+    public byte[] sortKey() {
+        return XPath3SortKeys.calendarKey(XPath3SortKeys.FAMILY_DURATION, _seconds, _nanos);
     }
     
     public int getType() {
@@ -494,8 +489,7 @@ public class XSDuration extends XSCtrType {
         if (xsAnyType instanceof XSDuration) {
             XSDuration duration = (XSDuration) xsAnyType;
             
-            return new XSDuration(duration.year(), duration.month(), duration.days(), duration.hours(), 
-                                                              duration.minutes(), duration.seconds(), duration.negative());
+            return new XSDuration(duration._months, duration._seconds, duration._nanos);
         }
         
         return parseDuration(xsAnyType.stringValue());
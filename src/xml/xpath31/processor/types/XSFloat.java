@@ -13,6 +13,7 @@
 
 package xml.xpath31.processor.types;
 
+import org.apache.xml.utils.FastStringBuffer;
 import org.apache.xpath.objects.ResultSequence;
 
 /**
@@ -24,16 +25,25 @@ public class XSFloat extends XSNumericType {
 
     private static final String XS_FLOAT = "xs:float";
 	
-	private Float _value;
+    private static final XSFloat POSITIVE_ZERO = new XSFloat(0.0f);
+    
+    private static final XSFloat NEGATIVE_ZERO = new XSFloat(-0.0f);
+    
+    private static final XSFloat ONE = new XSFloat(1.0f);
+    
+    private static final XSFloat NAN = new XSFloat(Float.NaN);
+    
+    private static final XSFloat POSITIVE_INFINITY = new XSFloat(Float.POSITIVE_INFINITY);
+    
+    private static final XSFloat NEGATIVE_INFINITY = new XSFloat(Float.NEGATIVE_INFINITY);
 	
-	private XPath3DecimalFormat xpath3DecimalFormat = new XPath3DecimalFormat(
-	                                                                   "0.#######E0");
+	private final float _value;
 	
 	/*
 	 * Class constructor.
 	 */
 	public XSFloat(float x) {
-		_value = new Float(x);
+		_value = x;
 	}
 
 	/*
@@ -45,19 +55,44 @@ public class XSFloat extends XSNumericType {
 
 	/*
      * Class constructor.
+     * 
+     * @throws NumberFormatException if the string isn't a valid xs:float
+     *                               lexical value
      */
 	public XSFloat(String val) {
-		try {
-	       if (val.equals("-INF")) {
-			  _value = new Float(Float.NEGATIVE_INFINITY);
-		   } else if (val.equals("INF")) {
-			  _value = new Float(Float.POSITIVE_INFINITY);
-		   } else {
-		      _value = new Float(val);
-		   }
-		} catch (NumberFormatException ex) {
-			// to do
+		XPath3NumericScanner numericScanner = new XPath3NumericScanner();
+		if (numericScanner.scanFloat(val) != XPath3NumericScanner.SCAN_OK) {
+		   throw new NumberFormatException("The string value '" + val + "' is not a valid xs:float value.");
 		}
+		_value = numericScanner.floatValue();
+	}
+	
+	/**
+	 * Get an XSFloat object for the supplied float value. For the values 
+	 * 0, -0, 1, NaN, INF and -INF, this method returns a shared instance.
+	 * 
+	 * @param val   the float value
+	 * 
+	 * @return      an XSFloat object, representing the supplied value
+	 */
+	public static XSFloat valueOf(float val) {
+	    if (val == 0.0f) {
+	       return (Float.floatToRawIntBits(val) == 0) ? POSITIVE_ZERO : NEGATIVE_ZERO;
+	    }
+	    else if (val == 1.0f) {
+	       return ONE; 
+	    }
+	    else if (Float.isNaN(val)) {
+	       return NAN; 
+	    }
+	    else if (val == Float.POSITIVE_INFINITY) {
+	       return POSITIVE_INFINITY;
+	    }
+	    else if (val == Float.NEGATIVE_INFINITY) {
+	       return NEGATIVE_INFINITY;
+	    }
+	    
+	    return new XSFloat(val);
 	}
 	
 	public String stringType() {
@@ -69,20 +104,18 @@ public class XSFloat extends XSNumericType {
 	}
 
 	@Override
-	public String stringValue() {	   
-	   if (zero()) {
-	      return "0";
-	   }
-	   
-	   if (negativeZero()) {
-	      return "-0"; 
-	   }
-	        
-	   if (nan()) {
-	      return "NaN";    
-	   }
-	                                
-	   return xpath3DecimalFormat.performStrFormatting(_value);
+	public String stringValue() {
+	   return XPath3NumericFormat.formatFloat(_value);
+	}
+	
+	@Override
+	public void appendTo(StringBuilder strBuf) {
+	   XPath3NumericFormat.formatFloat(_value, strBuf, XPath3CharSink.STRING_BUILDER);
+	}
+	
+	@Override
+	public void appendToFsb(FastStringBuffer fsb) {
+	   XPath3NumericFormat.formatFloat(_value, fsb, XPath3CharSink.FAST_STRING_BUFFER);
 	}
 	
 	@Override
@@ -95,32 +128,14 @@ public class XSFloat extends XSNumericType {
         
         XSAnyType xsAnyType = (XSAnyType)arg.item(0);
         
-        try {
-            Float floatVal = null;
-            
-            if ((xsAnyType.stringValue()).equals("INF")) {
-                floatVal = new Float(Float.POSITIVE_INFINITY);
-            } 
-            else if ((xsAnyType.stringValue()).equals("-INF")) {
-                floatVal = new Float(Float.NEGATIVE_INFINITY);
-            } 
-            else if (xsAnyType instanceof XSBoolean) {
-                if ((xsAnyType.stringValue()).equals("true")) {
-                    floatVal = new Float("1.0E0");
-                } else {
-                    floatVal = new Float("0.0E0");
-                }
-            } 
-            else {
-                floatVal = new Float(xsAnyType.stringValue());
-            }
-            
-            resultSeq.add(new XSFloat(floatVal.floatValue()));
-        } catch (NumberFormatException e) {
+        XSFloat xsFloat = (XSFloat)XPath3NumericCasts.cast(xsAnyType, XPath3NumericCasts.TARGET_FLOAT);
+        if (xsFloat == null) {
             // to do
             return null;
         }
         
+        resultSeq.add(xsFloat);
+        
         return resultSeq;
     }
 
@@ -132,7 +147,7 @@ public class XSFloat extends XSNumericType {
 	 *             false otherwise.
 	 */
 	public boolean nan() {
-		return Float.isNaN(_value.floatValue());
+		return Float.isNaN(_value);
 	}
 
 	/**
@@ -143,7 +158,7 @@ public class XSFloat extends XSNumericType {
 	 *            false otherwise.
 	 */
 	public boolean infinite() {
-		return Float.isInfinite(_value.floatValue());
+		return Float.isInfinite(_value);
 	}
 
 	/**
@@ -153,7 +168,7 @@ public class XSFloat extends XSNumericType {
 	 *            false otherwise.
 	 */
 	public boolean zero() {
-	   return (Float.compare(_value.floatValue(), 0) == 0);
+	   return (Float.compare(_value, 0) == 0);
 	}
 	
 	/*
@@ -163,7 +178,7 @@ public class XSFloat extends XSNumericType {
 	 *           false otherwise.
 	 */
 	public boolean negativeZero() {
-	   return (Float.compare(_value.floatValue(), -0.0f) == 0);
+	   return (Float.compare(_value, -0.0f) == 0);
 	}
 	
 	/**
@@ -173,11 +188,11 @@ public class XSFloat extends XSNumericType {
 	 * @return    the actual numeric float value stored
 	 */
 	public float floatValue() {
-		return _value.floatValue();
+		return _value;
 	}
 	
 	public boolean equals(XSFloat xsFloat) {
-        return _value.equals(xsFloat.floatValue()); 
+        return Float.floatToIntBits(_value) == Float.floatToIntBits(xsFloat.floatValue()); 
     }
 	
 	public boolean lt(XSFloat xsFloat) {
@@ -188,6 +203,21 @@ public class XSFloat extends XSNumericType {
 	    return floatValue() > xsFloat.floatValue(); 
     }
 	
+    @Override
+    protected boolean sameKey(XSAnyAtomicType xsAnyAtomicType) {
+        return sameNumericKey(this, xsAnyAtomicType);
+    }
+    
+    @Override
+    protected int sameKeyHashCode() {
+        return numericHashCode(_value);
+    }
+    
+    @Override
+    public byte[] sortKey() {
+        return XPath3SortKeys.doubleKey(_value);
+    }
+    
     public int getType() {
         return CLASS_XS_FLOAT;
     }
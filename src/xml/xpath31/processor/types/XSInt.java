@@ -26,15 +26,23 @@ public class XSInt extends XSLong {
     
     private static final String XS_INT = "xs:int";
     
-    private static BigInteger MIN_INCLUSIVE = BigInteger.valueOf(-2147483648L);
+    private static final XSInteger MIN_INCLUSIVE = XSInteger.valueOf(-2147483648L);
     
-    private static BigInteger MAX_INCLUSIVE = BigInteger.valueOf(2147483647L);
+    private static final XSInteger MAX_INCLUSIVE = XSInteger.valueOf(2147483647L);
     
 	/*
 	 * Class constructor.
 	 */
 	public XSInt() {
-	  this(BigInteger.valueOf(0));
+	   this(0);
+	}
+	
+	/*
+     * Class constructor.
+     */
+	public XSInt(int val) {
+		super(val);
+		checkRange(MIN_INCLUSIVE, MAX_INCLUSIVE);
 	}
 	
 	/*
@@ -42,6 +50,7 @@ public class XSInt extends XSLong {
      */
 	public XSInt(BigInteger val) {
 		super(val);
+		checkRange(MIN_INCLUSIVE, MAX_INCLUSIVE);
 	}
 	
 	/*
@@ -49,33 +58,20 @@ public class XSInt extends XSLong {
      */
     public XSInt(String val) {
         super(val);
+        checkRange(MIN_INCLUSIVE, MAX_INCLUSIVE);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    protected XSInt(XSInteger val) {
+        super(val);
+        checkRange(MIN_INCLUSIVE, MAX_INCLUSIVE);
     }
 	
 	@Override
     public ResultSequence constructor(ResultSequence arg) throws RuntimeException {
-        ResultSequence resultSeq = new ResultSequence();
-        
-        if (arg.size() == 0) {
-           return resultSeq;     
-        }
-        
-        XSAnyType xsAnyType = (XSAnyType)arg.item(0);
-
-        try {
-            BigInteger bigInt = new BigInteger(xsAnyType.stringValue());          
-
-            if (bigInt.compareTo(MIN_INCLUSIVE) == -1 || 
-                                            bigInt.compareTo(MAX_INCLUSIVE) == 1) {
-                throw new RuntimeException("An instance of type xs:int cannot be created. The numeric argument "
-                                                                           + "'" + xsAnyType.stringValue() + "' provided is out of range for type xs:int.");  
-            }
-            
-            resultSeq.add(new XSInt(bigInt));
-        } catch (NumberFormatException ex) {
-            throw new RuntimeException(ex.getMessage());
-        }
-        
-        return resultSeq;
+        return constructor(arg, XSInt::new);
     }
 	
 	public String stringType() {
@@ -87,15 +83,15 @@ public class XSInt extends XSLong {
 	}
 	
 	public boolean equals(XSInt xsInt) {
-        return _value.equals(xsInt.intValue()); 
+        return equals((XSInteger)xsInt); 
     }
 	
 	public boolean lt(XSInt xsInt) {
-	    return _value.compareTo(xsInt.intValue()) < 0; 
+	    return lt((XSInteger)xsInt); 
     }
 	
 	public boolean gt(XSInt xsInt) {
-	    return _value.compareTo(xsInt.intValue()) > 0; 
+	    return gt((XSInteger)xsInt); 
     }
 	
     public int getType() {
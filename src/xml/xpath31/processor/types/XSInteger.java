@@ -13,7 +13,6 @@
 
 package xml.xpath31.processor.types;
 
-import java.math.BigDecimal;
 import java.math.BigInteger;
 
 import org.apache.xpath.objects.ResultSequence;
@@ -26,32 +25,97 @@ public class XSInteger extends XSDecimal {
     private static final long serialVersionUID = -4634168510820898744L;
 
     private static final String XS_INTEGER = "xs:integer";
+    
+    // the range of values, for which valueOf returns shared instances
+    private static final int CACHE_LOW = -128;
+    
+    private static final int CACHE_HIGH = 1024;
+    
+    private static final XSInteger[] CACHE = new XSInteger[CACHE_HIGH - CACHE_LOW + 1];
+    
+    static {
+        for (int idx = 0; idx < CACHE.length; idx++) {
+            CACHE[idx] = new XSInteger((long)(idx + CACHE_LOW));
+        }
+    }
 	
-    // the underlying java.math.BigInteger value, representing 
-    // this XML Schema datatype value. 
-	protected BigInteger _value;
+    // the integer value is stored within the XSDecimal superclass with 
+    // a scale of 0, as a primitive long whenever it fits within a long, 
+    // and as a java.math.BigInteger value otherwise.
 
 	/*
 	 * Class constructor.
 	 */
 	public XSInteger() {
-		this(BigInteger.valueOf(0));
+		this(0L);
+	}
+	
+	/*
+     * Class constructor.
+     */
+	public XSInteger(long val) {
+		super(val, null, 0);
 	}
 
 	/*
      * Class constructor.
      */
 	public XSInteger(BigInteger val) {
-		super(new BigDecimal(val));
-		_value = val;
+		super(0, val, 0);
 	}
 
 	/*
      * Class constructor.
      */
 	public XSInteger(String val) {
-		super(new BigDecimal(val));
-		_value = new BigInteger(val);
+		this(scanInteger(val));
+	}
+	
+	/*
+     * Class constructor.
+     */
+	private XSInteger(XPath3NumericScanner numericScanner) {
+		super(numericScanner.unscaledValue(), numericScanner.bigUnscaledValue(), 0);
+	}
+	
+	/*
+     * Class constructor, used by the types derived from xs:integer to 
+     * create an object having the same value, as the supplied one.
+     */
+	protected XSInteger(XSInteger val) {
+		super(val._unscaledValue, val._bigUnscaledValue, 0);
+	}
+
+	/**
+	 * Get an XSInteger object for the supplied integer value. For the 
+	 * values from -128 to 1024, this method returns a shared instance.
+	 * 
+	 * @param val   the integer value
+	 * 
+	 * @return      an XSInteger object, representing the supplied value
+	 */
+	public static XSInteger valueOf(long val) {
+	    if ((val >= CACHE_LOW) && (val <= CACHE_HIGH)) {
+	       return CACHE[(int)val - CACHE_LOW]; 
+	    }
+	    
+	    return new XSInteger(val);
+	}
+	
+	/**
+	 * Get an XSInteger object for the supplied integer value. For the 
+	 * values from -128 to 1024, this method returns a shared instance.
+	 * 
+	 * @param val   the integer value
+	 * 
+	 * @return      an XSInteger object, representing the supplied value
+	 */
+	public static XSInteger valueOf(BigInteger val) {
+	    if (val.bitLength() < 64) {
+	       return valueOf(val.longValue()); 
+	    }
+	    
+	    return new XSInteger(val);
 	}
 
 	public String stringType() {
@@ -69,17 +133,8 @@ public class XSInteger extends XSDecimal {
 	 * @return   string representation of the integer value stored
 	 */
 	public String stringValue() {
-		return _value.toString();
-	}
-
-	/**
-     * Check if this XSInteger object represents the value 0.
-     * 
-     * @return    true if this XSInteger object represents the value 0. 
-     *            false otherwise.
-     */
-	public boolean zero() {
-		return (_value.compareTo(BigInteger.ZERO) == 0);
+		return (_bigUnscaledValue != null) ? _bigUnscaledValue.toString() : 
+		                                                      Long.toString(_unscaledValue);
 	}
 
 	public ResultSequence constructor(ResultSequence arg) {
@@ -91,14 +146,14 @@ public class XSInteger extends XSDecimal {
         
         XSAnyType xsAnyType = (XSAnyType)arg.item(0);
         
-        try {
-            BigInteger bigInteger = castToInteger(xsAnyType);            
-            resultSeq.add(new XSInteger(bigInteger));            
-        } catch (NumberFormatException e) {
+        XSInteger xsInteger = (XSInteger)XPath3NumericCasts.cast(xsAnyType, XPath3NumericCasts.TARGET_INTEGER);
+        if (xsInteger == null) {
             // to do
             return null;
         }
         
+        resultSeq.add(xsInteger);
+        
         return resultSeq;
 	}
 
@@ -109,61 +164,72 @@ public class XSInteger extends XSDecimal {
      * @return   the actual value of the number stored
      */
 	public BigInteger intValue() {
-		return _value;
+		return getUnscaledValue();
 	}
 
-	/**
-     * Set the numeric integer value, within this object.
-     * 
-     * @param val    number to be stored
-     */
-	public void setInt(BigInteger val) {
-		_value = val;
-	}
-	
 	public boolean equals(XSInteger xsInteger) {
-        return _value.equals(xsInteger.intValue()); 
+	    if ((_bigUnscaledValue == null) && (xsInteger._bigUnscaledValue == null)) {
+	       return (_unscaledValue == xsInteger._unscaledValue); 
+	    }
+	    
+        return (intValue()).equals(xsInteger.intValue()); 
     }
 	
 	public boolean lt(XSInteger xsInteger) {
-	    return (intValue()).compareTo(xsInteger.intValue()) < 0; 
+	    return compareInteger(xsInteger) < 0; 
     }
 	
 	public boolean gt(XSInteger xsInteger) {
-	    return (intValue()).compareTo(xsInteger.intValue()) > 0; 
+	    return compareInteger(xsInteger) > 0; 
     }
 	
 	public XSInteger multiply(XSInteger xsInteger) {
-	    return new XSInteger((intValue()).multiply(xsInteger.intValue()));   
+	    if ((_bigUnscaledValue == null) && (xsInteger._bigUnscaledValue == null)) {
+	       try {
+	          return valueOf(Math.multiplyExact(_unscaledValue, xsInteger._unscaledValue));
+	       }
+	       catch (ArithmeticException ex) {
+	          // the result doesn't fit within a long, and is computed below
+	       }
+	    }
+	    
+	    return valueOf((intValue()).multiply(xsInteger.intValue()));   
 	}
 	
     public int getType() {
         return CLASS_XS_INTEGER;
     }
-	
-	/*
-     * Cast an object of type XSAnyType, to an object of type 
-     * java.math.BigInteger.  
+    
+    /*
+     * Compare the value of this XSInteger object, with another one. A value
+     * stored as a java.math.BigInteger doesn't fit within a long, and so
+     * is beyond all the values stored as primitive longs.
      */
-    private BigInteger castToInteger(XSAnyType xsAnyType) {
-        
-        if (xsAnyType instanceof XSBoolean) {
-            if ((xsAnyType.stringValue()).equals("true")) {
-                return BigInteger.ONE;
-            } 
-            else {
-                return BigInteger.ZERO;
-            }
+    int compareInteger(XSInteger xsInteger) {
+        if ((_bigUnscaledValue == null) && (xsInteger._bigUnscaledValue == null)) {
+           return Long.compare(_unscaledValue, xsInteger._unscaledValue); 
+        }
+        else if (xsInteger._bigUnscaledValue == null) {
+           return _bigUnscaledValue.signum();
+        }
+        else if (_bigUnscaledValue == null) {
+           return -xsInteger._bigUnscaledValue.signum();
         }
         
-        if ((xsAnyType instanceof XSDecimal) || (xsAnyType instanceof XSFloat) ||
-                                                (xsAnyType instanceof XSDouble)) {
-           BigDecimal bigDecimal =  new BigDecimal(xsAnyType.stringValue());
-           
-           return bigDecimal.toBigInteger();
+        return _bigUnscaledValue.compareTo(xsInteger._bigUnscaledValue);
+    }
+	
+    /*
+     * Scan a string as an xs:integer lexical value, throwing 
+     * NumberFormatException when the string isn't valid.
+     */
+    private static XPath3NumericScanner scanInteger(String val) {
+        XPath3NumericScanner numericScanner = new XPath3NumericScanner();
+        if (numericScanner.scanInteger(val) != XPath3NumericScanner.SCAN_OK) {
+            throw new NumberFormatException("The string value '" + val + "' is not a valid xs:integer value.");
         }
         
-        return new BigInteger(xsAnyType.stringValue());
+        return numericScanner;
     }
 
 }
@@ -20,21 +20,29 @@ import org.apache.xpath.objects.ResultSequence;
 /**
  * An XML Schema data type representation, of the xs:long datatype.
  */
-public class XSLong extends XSInteger {
+public class XSLong extends XSBoundedInteger {
 
     private static final long serialVersionUID = -1030394161532436404L;
     
     private static final String XS_LONG = "xs:long";
     
-    private static BigInteger MIN_INCLUSIVE = BigInteger.valueOf(-9223372036854775808L);
+    private static final XSInteger MIN_INCLUSIVE = XSInteger.valueOf(-9223372036854775808L);
     
-    private static BigInteger MAX_INCLUSIVE = BigInteger.valueOf(9223372036854775807L);
+    private static final XSInteger MAX_INCLUSIVE = XSInteger.valueOf(9223372036854775807L);
 
 	/*
 	 * Class constructor.
 	 */
 	public XSLong() {
-	   this(BigInteger.valueOf(0));
+	   this(0);
+	}
+	
+	/*
+     * Class constructor.
+     */
+	public XSLong(long val) {
+		super(val);
+		checkRange(MIN_INCLUSIVE, MAX_INCLUSIVE);
 	}
 	
 	/*
@@ -42,6 +50,7 @@ public class XSLong extends XSInteger {
      */
 	public XSLong(BigInteger val) {
 		super(val);
+		checkRange(MIN_INCLUSIVE, MAX_INCLUSIVE);
 	}
 	
 	/*
@@ -49,35 +58,33 @@ public class XSLong extends XSInteger {
      */
     public XSLong(String val) {
         super(val);
+        checkRange(MIN_INCLUSIVE, MAX_INCLUSIVE);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    protected XSLong(XSInteger val) {
+        super(val);
+        checkRange(MIN_INCLUSIVE, MAX_INCLUSIVE);
     }
 	
 	@Override
     public ResultSequence constructor(ResultSequence arg) throws RuntimeException {
-        ResultSequence resultSeq = new ResultSequence();
-        
-        if (arg.size() == 0) {
-           return resultSeq;     
-        }
-        
-        XSAnyType xsAnyType = (XSAnyType)arg.item(0);
-
-        try {
-            BigInteger bigInt = new BigInteger(xsAnyType.stringValue());     
-
-            if (bigInt.compareTo(MIN_INCLUSIVE) == -1 || 
-                                         bigInt.compareTo(MAX_INCLUSIVE) == 1) {
-                throw new RuntimeException("An instance of type xs:long cannot be created. The numeric argument "
-                                                                     + "'" + xsAnyType.stringValue() + "' provided is out of range for type xs:long.");  
-            }
-            
-            resultSeq.add(new XSLong(bigInt));
-        } catch (NumberFormatException ex) {
-            throw new RuntimeException(ex.getMessage());
-        }
-        
-        return resultSeq;
+        return constructor(arg, XSLong::new);
     }
 	
+	/**
+	 * Get the value of this xs:long object, as a primitive long value. Every 
+	 * constructor of this class checks the range of the value, so it is 
+	 * always stored as a primitive long.
+	 * 
+	 * @return   the long value
+	 */
+	public long longValue() {
+	    return _unscaledValue;
+	}
+	
 	public String stringType() {
 		return XS_LONG;
 	}
@@ -87,15 +94,15 @@ public class XSLong extends XSInteger {
 	}
 	
 	public boolean equals(XSLong xsLong) {
-        return _value.equals(xsLong.intValue()); 
+        return equals((XSInteger)xsLong); 
     }
 	
 	public boolean lt(XSLong xsLong) {
-	    return _value.compareTo(xsLong.intValue()) < 0; 
+	    return lt((XSInteger)xsLong); 
     }
 	
 	public boolean gt(XSLong xsLong) {
-	    return _value.compareTo(xsLong.intValue()) > 0; 
+	    return gt((XSInteger)xsLong); 
     }
 	
     public int getType() {
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Apache XalanJ Team, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Apache XalanJ Team       - initial API and implementation
+ *******************************************************************************/
+
+package xml.xpath31.processor.types;
+
+import java.math.BigInteger;
+
+import org.apache.xpath.objects.ResultSequence;
+
+/**
+ * An XML Schema data type representation, of the xs:negativeInteger datatype.
+ */
+public class XSNegativeInteger extends XSNonPositiveInteger {
+
+    private static final long serialVersionUID = -7162617817651780217L;
+    
+    private static final String XS_NEGATIVE_INTEGER = "xs:negativeInteger";
+    
+    private static final XSInteger MAX_INCLUSIVE = XSInteger.valueOf(-1);
+
+    /*
+     * Class constructor.
+     */
+    public XSNegativeInteger() {
+       this(-1);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    public XSNegativeInteger(long val) {
+        super(val);
+        checkRange(null, MAX_INCLUSIVE);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    public XSNegativeInteger(BigInteger val) {
+        super(val);
+        checkRange(null, MAX_INCLUSIVE);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    public XSNegativeInteger(String val) {
+        super(val);
+        checkRange(null, MAX_INCLUSIVE);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    protected XSNegativeInteger(XSInteger val) {
+        super(val);
+        checkRange(null, MAX_INCLUSIVE);
+    }
+    
+    @Override
+    public ResultSequence constructor(ResultSequence arg) throws RuntimeException {
+        return constructor(arg, XSNegativeInteger::new);
+    }
+    
+    public String stringType() {
+        return XS_NEGATIVE_INTEGER;
+    }
+    
+    public String typeName() {
+        return "negativeInteger";
+    }
+
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Apache XalanJ Team, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Apache XalanJ Team       - initial API and implementation
+ *******************************************************************************/
+
+package xml.xpath31.processor.types;
+
+import java.math.BigInteger;
+
+import org.apache.xpath.objects.ResultSequence;
+
+/**
+ * An XML Schema data type representation, of the xs:nonNegativeInteger datatype.
+ */
+public class XSNonNegativeInteger extends XSBoundedInteger {
+
+    private static final long serialVersionUID = 8154565805028567172L;
+    
+    private static final String XS_NON_NEGATIVE_INTEGER = "xs:nonNegativeInteger";
+    
+    private static final XSInteger MIN_INCLUSIVE = XSInteger.valueOf(0);
+
+    /*
+     * Class constructor.
+     */
+    public XSNonNegativeInteger() {
+       this(0);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    public XSNonNegativeInteger(long val) {
+        super(val);
+        checkRange(MIN_INCLUSIVE, null);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    public XSNonNegativeInteger(BigInteger val) {
+        super(val);
+        checkRange(MIN_INCLUSIVE, null);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    public XSNonNegativeInteger(String val) {
+        super(val);
+        checkRange(MIN_INCLUSIVE, null);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    protected XSNonNegativeInteger(XSInteger val) {
+        super(val);
+        checkRange(MIN_INCLUSIVE, null);
+    }
+    
+    @Override
+    public ResultSequence constructor(ResultSequence arg) throws RuntimeException {
+        return constructor(arg, XSNonNegativeInteger::new);
+    }
+    
+    public String stringType() {
+        return XS_NON_NEGATIVE_INTEGER;
+    }
+    
+    public String typeName() {
+        return "nonNegativeInteger";
+    }
+
+}
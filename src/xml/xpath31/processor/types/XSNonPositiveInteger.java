@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Apache XalanJ Team, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Apache XalanJ Team       - initial API and implementation
+ *******************************************************************************/
+
+package xml.xpath31.processor.types;
+
+import java.math.BigInteger;
+
+import org.apache.xpath.objects.ResultSequence;
+
+/**
+ * An XML Schema data type representation, of the xs:nonPositiveInteger datatype.
+ */
+public class XSNonPositiveInteger extends XSBoundedInteger {
+
+    private static final long serialVersionUID = -5281015129654896757L;
+    
+    private static final String XS_NON_POSITIVE_INTEGER = "xs:nonPositiveInteger";
+    
+    private static final XSInteger MAX_INCLUSIVE = XSInteger.valueOf(0);
+
+    /*
+     * Class constructor.
+     */
+    public XSNonPositiveInteger() {
+       this(0);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    public XSNonPositiveInteger(long val) {
+        super(val);
+        checkRange(null, MAX_INCLUSIVE);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    public XSNonPositiveInteger(BigInteger val) {
+        super(val);
+        checkRange(null, MAX_INCLUSIVE);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    public XSNonPositiveInteger(String val) {
+        super(val);
+        checkRange(null, MAX_INCLUSIVE);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    protected XSNonPositiveInteger(XSInteger val) {
+        super(val);
+        checkRange(null, MAX_INCLUSIVE);
+    }
+    
+    @Override
+    public ResultSequence constructor(ResultSequence arg) throws RuntimeException {
+        return constructor(arg, XSNonPositiveInteger::new);
+    }
+    
+    public String stringType() {
+        return XS_NON_POSITIVE_INTEGER;
+    }
+    
+    public String typeName() {
+        return "nonPositiveInteger";
+    }
+
+}
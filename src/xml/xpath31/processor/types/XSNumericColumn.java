@@ -0,0 +1,356 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Apache XalanJ Team, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Apache XalanJ Team       - initial API and implementation
+ *******************************************************************************/
+
+package xml.xpath31.processor.types;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import javax.xml.transform.TransformerException;
+
+import org.apache.xpath.objects.ResultSequence;
+import org.apache.xpath.objects.XObject;
+
+/**
+ * This class represents, a homogeneous sequence of xs:integer, xs:decimal
+ * or xs:double values, stored within a primitive array rather than as
+ * individual XSNumericType objects.
+ *
+ * <p>xs:double values are stored within a double[] array, xs:integer values
+ * within a long[] array, and xs:decimal values as long[] unscaled values
+ * sharing a single scale. The aggregate methods sum, avg, min and max work
+ * directly on these arrays, with simple loops that the JIT compiler can
+ * unroll and vectorize.</p>
+ *
+ * <p>XSNumericColumn objects are immutable, and may be shared between
+ * threads.</p>
+ */
+public final class XSNumericColumn {
+
+    /**
+     * The kind of a column, whose items are xs:integer values.
+     */
+    public static final int KIND_INTEGER = 0;
+
+    /**
+     * The kind of a column, whose items are xs:decimal values.
+     */
+    public static final int KIND_DECIMAL = 1;
+
+    /**
+     * The kind of a column, whose items are xs:double values.
+     */
+    public static final int KIND_DOUBLE = 2;
+
+    private static final long INT_RANGE = 1L << 31;
+
+    private final int _kind;
+
+    private final double[] _doubleValues;
+
+    private final long[] _longValues;
+
+    private final int _scale;
+
+    /*
+     * Class constructor.
+     */
+    private XSNumericColumn(int kind, double[] doubleValues, long[] longValues, int scale) {
+        _kind = kind;
+        _doubleValues = doubleValues;
+        _longValues = longValues;
+        _scale = scale;
+    }
+
+    /**
+     * Get a column of xs:double values.
+     *
+     * @param values   the values, which are copied into the column
+     *
+     * @return         an XSNumericColumn object of kind KIND_DOUBLE
+     */
+    public static XSNumericColumn ofDoubles(double[] values) {
+        return new XSNumericColumn(KIND_DOUBLE, Arrays.copyOf(values, values.length), null, 0);
+    }
+
+    /**
+     * Get a column of xs:integer values.
+     *
+     * @param values   the values, which are copied into the column
+     *
+     * @return         an XSNumericColumn object of kind KIND_INTEGER
+     */
+    public static XSNumericColumn ofIntegers(long[] values) {
+        return new XSNumericColumn(KIND_INTEGER, null, Arrays.copyOf(values, values.length), 0);
+    }
+
+    /**
+     * Get a column of xs:decimal values. The value of each item is
+     * unscaledValues[i] * 10^-scale.
+     *
+     * @param unscaledValues   the unscaled values, which are copied into
+     *                         the column
+     * @param scale            the scale shared by all the values, which
+     *                         must not be negative
+     *
+     * @return                 an XSNumericColumn object of kind KIND_DECIMAL
+     */
+    public static XSNumericColumn ofDecimals(long[] unscaledValues, int scale) {
+        if (scale < 0) {
+            throw new IllegalArgumentException("The scale of an xs:decimal column cannot be negative.");
+        }
+
+        return new XSNumericColumn(KIND_DECIMAL, null, Arrays.copyOf(unscaledValues, unscaledValues.length),
+                                                                                                      scale);
+    }
+
+    /**
+     * Get a column, holding the items of a sequence of xs:integer, xs:decimal
+     * and xs:double values. The items are promoted to their common type, in
+     * the order xs:integer, xs:decimal, xs:double.
+     *
+     * @param resultSeq   the sequence of numeric values
+     *
+     * @return            an XSNumericColumn object, or null if the sequence
+     *                    has an item of any other type, or an xs:integer or
+     *                    xs:decimal value that doesn't fit within a long at
+     *                    the common scale of the sequence
+     */
+    public static XSNumericColumn fromResultSequence(ResultSequence resultSeq) {
+        int size = resultSeq.size();
+        int kind = KIND_INTEGER;
+        int scale = 0;
+        for (int idx = 0; idx < size; idx++) {
+            XObject item = resultSeq.item(idx);
+            if (item instanceof XSDouble) {
+                kind = KIND_DOUBLE;
+            }
+            else if (item instanceof XSDecimal) {
+                XSDecimal xsDecimal = (XSDecimal)item;
+                if (xsDecimal._bigUnscaledValue != null) {
+                    return null;
+                }
+                if (!(item instanceof XSInteger)) {
+                    kind = Math.max(kind, KIND_DECIMAL);
+                }
+                scale = Math.max(scale, xsDecimal._scale);
+            }
+            else {
+                return null;
+            }
+        }
+
+        if (kind == KIND_DOUBLE) {
+            double[] values = new double[size];
+            for (int idx = 0; idx < size; idx++) {
+                XObject item = resultSeq.item(idx);
+                values[idx] = (item instanceof XSDouble) ? ((XSDouble)item).doubleValue() :
+                                                                 ((XSDecimal)item).doubleValue();
+            }
+
+            return new XSNumericColumn(KIND_DOUBLE, values, null, 0);
+        }
+
+        if (scale >= XSDecimal.LONG_POW10.length) {
+            return null;
+        }
+
+        long[] values = new long[size];
+        for (int idx = 0; idx < size; idx++) {
+            XSDecimal xsDecimal = (XSDecimal)resultSeq.item(idx);
+            int digits = scale - xsDecimal._scale;
+            if (!XSDecimal.fitsScaledUp(xsDecimal._unscaledValue, digits)) {
+                return null;
+            }
+            values[idx] = xsDecimal._unscaledValue * XSDecimal.LONG_POW10[digits];
+        }
+
+        return new XSNumericColumn(kind, null, values, scale);
+    }
+
+    /**
+     * Get a sequence, holding the items of this column as XSNumericType
+     * objects.
+     *
+     * @return   a ResultSequence object
+     */
+    public ResultSequence toResultSequence() {
+        ResultSequence resultSeq = new ResultSequence();
+        int size = size();
+        for (int idx = 0; idx < size; idx++) {
+            resultSeq.add(item(idx));
+        }
+
+        return resultSeq;
+    }
+
+    /**
+     * Get the kind of this column.
+     *
+     * @return   one of KIND_INTEGER, KIND_DECIMAL or KIND_DOUBLE
+     */
+    public int kind() {
+        return _kind;
+    }
+
+    /**
+     * Get the number of items within this column.
+     *
+     * @return   the number of items
+     */
+    public int size() {
+        return (_kind == KIND_DOUBLE) ? _doubleValues.length : _longValues.length;
+    }
+
+    /**
+     * Get an item of this column.
+     *
+     * @param idx   the index of the item
+     *
+     * @return      an XSDouble, XSInteger or XSDecimal object, depending
+     *              on the kind of this column
+     */
+    public XSNumericType item(int idx) {
+        switch (_kind) {
+            case KIND_DOUBLE :
+                return XSDouble.valueOf(_doubleValues[idx]);
+            case KIND_INTEGER :
+                return XSInteger.valueOf(_longValues[idx]);
+            default :
+                return new XSDecimal(_longValues[idx], null, _scale);
+        }
+    }
+
+    /**
+     * Get the sum of the items of this column, as per the XPath 3.1
+     * function fn:sum.
+     *
+     * @return   the sum, which is the xs:integer value 0 for an empty column
+     */
+    public XSNumericType sum() {
+        if (_kind == KIND_DOUBLE) {
+            // the values are added in sequence order, so that the result is
+            // the same as with repeated XPath '+' operations.
+            double sum = 0;
+            for (double value : _doubleValues) {
+                sum += value;
+            }
+
+            return (_doubleValues.length == 0) ? XSInteger.valueOf(0) : XSDouble.valueOf(sum);
+        }
+
+        // each value is split into a signed high half and an unsigned low
+        // half, which are summed separately. Neither of these sums can
+        // overflow for an array of any length, and each loop is a simple
+        // reduction without any branches.
+        long[] values = _longValues;
+        long highSum = 0;
+        long lowSum = 0;
+        for (int idx = 0; idx < values.length; idx++) {
+            highSum += values[idx] >> 32;
+        }
+        for (int idx = 0; idx < values.length; idx++) {
+            lowSum += values[idx] & 0xFFFFFFFFL;
+        }
+
+        if ((highSum >= -INT_RANGE) && (highSum < INT_RANGE)) {
+            long high = highSum << 32;
+            long sum = high + lowSum;
+            if (((high ^ sum) & (lowSum ^ sum)) >= 0) {
+                return (_kind == KIND_INTEGER) ? XSInteger.valueOf(sum) : new XSDecimal(sum, null, _scale);
+            }
+        }
+
+        BigInteger bigSum = ((BigInteger.valueOf(highSum)).shiftLeft(32)).add(BigInteger.valueOf(lowSum));
+
+        return (_kind == KIND_INTEGER) ? XSInteger.valueOf(bigSum) : new XSDecimal(0, bigSum, _scale);
+    }
+
+    /**
+     * Get the average of the items of this column, as per the XPath 3.1
+     * function fn:avg. The average of xs:integer values is an xs:decimal
+     * value.
+     *
+     * @return   the average, or null for an empty column
+     *
+     * @throws TransformerException
+     */
+    public XSNumericType avg() throws TransformerException {
+        int size = size();
+        if (size == 0) {
+            return null;
+        }
+
+        return XPath3NumericArithmetic.evaluate(XPath3NumericArithmetic.OP_DIVIDE, sum(),
+                                                                             XSInteger.valueOf(size));
+    }
+
+    /**
+     * Get the minimum of the items of this column, as per the XPath 3.1
+     * function fn:min. The result is NaN, if any xs:double item is NaN.
+     *
+     * @return   the minimum, or null for an empty column
+     */
+    public XSNumericType min() {
+        if (size() == 0) {
+            return null;
+        }
+
+        if (_kind == KIND_DOUBLE) {
+            double[] values = _doubleValues;
+            double min = values[0];
+            for (int idx = 1; idx < values.length; idx++) {
+                min = Math.min(min, values[idx]);
+            }
+
+            return XSDouble.valueOf(min);
+        }
+
+        long[] values = _longValues;
+        long min = values[0];
+        for (int idx = 1; idx < values.length; idx++) {
+            min = Math.min(min, values[idx]);
+        }
+
+        return (_kind == KIND_INTEGER) ? XSInteger.valueOf(min) : new XSDecimal(min, null, _scale);
+    }
+
+    /**
+     * Get the maximum of the items of this column, as per the XPath 3.1
+     * function fn:max. The result is NaN, if any xs:double item is NaN.
+     *
+     * @return   the maximum, or null for an empty column
+     */
+    public XSNumericType max() {
+        if (size() == 0) {
+            return null;
+        }
+
+        if (_kind == KIND_DOUBLE) {
+            double[] values = _doubleValues;
+            double max = values[0];
+            for (int idx = 1; idx < values.length; idx++) {
+                max = Math.max(max, values[idx]);
+            }
+
+            return XSDouble.valueOf(max);
+        }
+
+        long[] values = _longValues;
+        long max = values[0];
+        for (int idx = 1; idx < values.length; idx++) {
+            max = Math.max(max, values[idx]);
+        }
+
+        return (_kind == KIND_INTEGER) ? XSInteger.valueOf(max) : new XSDecimal(max, null, _scale);
+    }
+
+}
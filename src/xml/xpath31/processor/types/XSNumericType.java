@@ -13,6 +13,8 @@
 
 package xml.xpath31.processor.types;
 
+import java.math.BigDecimal;
+
 import javax.xml.transform.TransformerException;
 
 import org.apache.xpath.objects.ResultSequence;
@@ -44,5 +46,161 @@ public class XSNumericType extends XSCtrType {
     public String stringValue() {
         return null;
     }
+    
+    /**
+     * Add a numeric value to this numeric value, as per the XPath 3.1 
+     * '+' operator.
+     * 
+     * @param arg   the numeric value to be added
+     * 
+     * @return      the sum, with the promoted type of both the operands
+     * 
+     * @throws TransformerException
+     */
+    public XSNumericType add(XSNumericType arg) throws TransformerException {
+        return XPath3NumericArithmetic.evaluate(XPath3NumericArithmetic.OP_ADD, this, arg);
+    }
+    
+    /**
+     * Subtract a numeric value from this numeric value, as per the 
+     * XPath 3.1 '-' operator.
+     * 
+     * @param arg   the numeric value to be subtracted
+     * 
+     * @return      the difference, with the promoted type of both the operands
+     * 
+     * @throws TransformerException
+     */
+    public XSNumericType subtract(XSNumericType arg) throws TransformerException {
+        return XPath3NumericArithmetic.evaluate(XPath3NumericArithmetic.OP_SUBTRACT, this, arg);
+    }
+    
+    /**
+     * Multiply this numeric value by another numeric value, as per the 
+     * XPath 3.1 '*' operator.
+     * 
+     * @param arg   the multiplier
+     * 
+     * @return      the product, with the promoted type of both the operands
+     * 
+     * @throws TransformerException
+     */
+    public XSNumericType multiply(XSNumericType arg) throws TransformerException {
+        return XPath3NumericArithmetic.evaluate(XPath3NumericArithmetic.OP_MULTIPLY, this, arg);
+    }
+    
+    /**
+     * Divide this numeric value by another numeric value, as per the 
+     * XPath 3.1 'div' operator. The quotient of two xs:integer values 
+     * is an xs:decimal value, and xs:decimal quotients are rounded half 
+     * to even, to at least 18 digits after the decimal point.
+     * 
+     * @param arg   the divisor
+     * 
+     * @return      the quotient
+     * 
+     * @throws TransformerException   FOAR0001 if an xs:integer or xs:decimal 
+     *                                divisor is zero
+     */
+    public XSNumericType divide(XSNumericType arg) throws TransformerException {
+        return XPath3NumericArithmetic.evaluate(XPath3NumericArithmetic.OP_DIVIDE, this, arg);
+    }
+    
+    /**
+     * Divide this numeric value by another numeric value, as per the 
+     * XPath 3.1 'idiv' operator (i.e, the quotient is truncated towards 
+     * zero).
+     * 
+     * @param arg   the divisor
+     * 
+     * @return      the truncated quotient, as an xs:integer value
+     * 
+     * @throws TransformerException   FOAR0001 if the divisor is zero, and
+     *                                FOAR0002 if either operand is NaN or 
+     *                                this value is infinite
+     */
+    public XSInteger idiv(XSNumericType arg) throws TransformerException {
+        return (XSInteger)XPath3NumericArithmetic.evaluate(XPath3NumericArithmetic.OP_INTEGER_DIVIDE, 
+                                                                                              this, arg);
+    }
+    
+    /**
+     * Get the remainder of dividing this numeric value by another numeric 
+     * value, as per the XPath 3.1 'mod' operator. The sign of the result 
+     * is the sign of this value.
+     * 
+     * @param arg   the divisor
+     * 
+     * @return      the remainder, with the promoted type of both the operands
+     * 
+     * @throws TransformerException   FOAR0001 if an xs:integer or xs:decimal 
+     *                                divisor is zero
+     */
+    public XSNumericType mod(XSNumericType arg) throws TransformerException {
+        return XPath3NumericArithmetic.evaluate(XPath3NumericArithmetic.OP_MOD, this, arg);
+    }
+
+    /*
+     * Determine whether, a numeric value and another atomic value are the
+     * same key, as per the XPath 3.1 op:same-key function. Numeric values of
+     * any types are the same key, if they are mathematically equal, and NaN
+     * is the same key as itself.
+     */
+    static boolean sameNumericKey(XSNumericType arg1, XSAnyAtomicType arg2) {
+        boolean isDecimal1 = (arg1 instanceof XSDecimal);
+        boolean isDecimal2 = (arg2 instanceof XSDecimal);
+        if (isDecimal1 && isDecimal2) {
+            return ((XSDecimal)arg1).compareValue((XSDecimal)arg2) == 0;
+        }
+
+        if (!((isDecimal1 || isFloatingPoint(arg1)) && (isDecimal2 || isFloatingPoint(arg2)))) {
+            return false;
+        }
+
+        if (isDecimal1 || isDecimal2) {
+            XSDecimal xsDecimal = (XSDecimal)(isDecimal1 ? arg1 : arg2);
+            double val = floatingPointValue(isDecimal1 ? arg2 : arg1);
+
+            // the decimal value converts to exactly this double value, if
+            // both are equal. So the exact comparison is only needed, when
+            // the conversion gives this double value.
+            if (xsDecimal.doubleValue() != val) {
+                return false;
+            }
+            // a decimal value too large for a double converts to an
+            // infinity, which is never equal to it
+            if (Double.isInfinite(val)) {
+                return false;
+            }
+            if ((xsDecimal._bigUnscaledValue == null) && (xsDecimal._scale == 0) &&
+                                                    (Math.abs(xsDecimal._unscaledValue) <= (1L << 53))) {
+                return true;
+            }
+
+            return (new BigDecimal(val)).compareTo(xsDecimal.getValue()) == 0;
+        }
+
+        double val1 = floatingPointValue(arg1);
+        double val2 = floatingPointValue(arg2);
+
+        return (val1 == val2) || (Double.isNaN(val1) && Double.isNaN(val2));
+    }
+
+    /*
+     * Get the hash code of a numeric value, that is consistent with the
+     * method sameNumericKey. All numeric values hash as their nearest
+     * double value, with negative zero hashing as positive zero.
+     */
+    static int numericHashCode(double val) {
+        return Double.hashCode((val == 0) ? 0.0 : val);
+    }
+
+    private static boolean isFloatingPoint(XSAnyAtomicType arg) {
+        return (arg instanceof XSDouble) || (arg instanceof XSFloat);
+    }
+
+    private static double floatingPointValue(XSAnyAtomicType arg) {
+        return (arg instanceof XSDouble) ? ((XSDouble)arg).doubleValue() : ((XSFloat)arg).floatValue();
+    }
 
 }
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Apache XalanJ Team, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Apache XalanJ Team       - initial API and implementation
+ *******************************************************************************/
+
+package xml.xpath31.processor.types;
+
+import java.math.BigInteger;
+
+import org.apache.xpath.objects.ResultSequence;
+
+/**
+ * An XML Schema data type representation, of the xs:positiveInteger datatype.
+ */
+public class XSPositiveInteger extends XSNonNegativeInteger {
+
+    private static final long serialVersionUID = -5732179088011765021L;
+    
+    private static final String XS_POSITIVE_INTEGER = "xs:positiveInteger";
+    
+    private static final XSInteger MIN_INCLUSIVE = XSInteger.valueOf(1);
+
+    /*
+     * Class constructor.
+     */
+    public XSPositiveInteger() {
+       this(1);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    public XSPositiveInteger(long val) {
+        super(val);
+        checkRange(MIN_INCLUSIVE, null);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    public XSPositiveInteger(BigInteger val) {
+        super(val);
+        checkRange(MIN_INCLUSIVE, null);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    public XSPositiveInteger(String val) {
+        super(val);
+        checkRange(MIN_INCLUSIVE, null);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    protected XSPositiveInteger(XSInteger val) {
+        super(val);
+        checkRange(MIN_INCLUSIVE, null);
+    }
+    
+    @Override
+    public ResultSequence constructor(ResultSequence arg) throws RuntimeException {
+        return constructor(arg, XSPositiveInteger::new);
+    }
+    
+    public String stringType() {
+        return XS_POSITIVE_INTEGER;
+    }
+    
+    public String typeName() {
+        return "positiveInteger";
+    }
+
+}
@@ -13,8 +13,11 @@
 
 package xml.xpath31.processor.types;
 
+import java.util.Objects;
+
 import javax.xml.transform.TransformerException;
 
+import org.apache.xml.utils.FastStringBuffer;
 import org.apache.xpath.objects.ResultSequence;
 
 /**
@@ -107,6 +110,7 @@ public class XSQName extends XSCtrType {
 
 	public void setLocalPart(String localPart) {
 		this.localPart = localPart;
+		resetHashCode();
 	}
 	
 	public String getNamespaceUri() {
@@ -115,55 +119,27 @@ public class XSQName extends XSCtrType {
 
 	public void setNamespaceUri(String namespaceUri) {
 		this.namespaceUri = namespaceUri;
+		resetHashCode();
 	}
 	
-	@Override
-    public int hashCode() {
-	   // We need to form somewhat like below, xs:QName object's
-	   // sufficiently unique string value and get the corresponding 
-	   // hashCode value thereafter.
-	   String uniqueStrValue = "{" + prefix + ":" + 
-                                     namespaceUri + "}" + 
-                                     localPart;
-	   
-	   return uniqueStrValue.hashCode();
+	/*
+	 * Check whether, two xs:QName values are equal. Two xs:QName values are
+	 * equal, if they have the same namespace URI and local part.
+	 */
+	public boolean equals(XSQName xsQName) {
+		return Objects.equals(localPart, xsQName.getLocalPart()) && 
+				                     Objects.equals(namespaceUri, xsQName.getNamespaceUri());
 	}
 	
 	@Override
-    public boolean equals(Object obj) {
-		boolean isQNameEqual = false;
-		
-		if (obj instanceof XSQName) {
-		   isQNameEqual = this.equals((XSQName)obj);
-		}
-		
-		return isQNameEqual; 
+	protected boolean sameKey(XSAnyAtomicType xsAnyAtomicType) {
+		return (xsAnyAtomicType instanceof XSQName) && equals((XSQName)xsAnyAtomicType);
 	}
 	
-	/*
-	 * Check whether, two xs:QName values are equal. 
-	 */
-	public boolean equals(XSQName xsQName) {
-		boolean isQNameEqual = true;
-		
-		if (!localPart.equals(xsQName.getLocalPart())) {
-			isQNameEqual = false;	
-		}
-		else if (((namespaceUri == null) && (xsQName.getNamespaceUri() != null)) ||				
-			      !namespaceUri.equals(xsQName.getNamespaceUri())) {
-			isQNameEqual = false;
-		}
-		else if ((namespaceUri != null) && (xsQName.getNamespaceUri() == null)) {
-			isQNameEqual = false;	
-		}
-		else if ((namespaceUri != null) && (xsQName.getNamespaceUri() != null) && 
-				 (!namespaceUri.equals(xsQName.getNamespaceUri()))) {
-			isQNameEqual = false;
-		}
-				
-		return isQNameEqual;
+	@Override
+	protected int sameKeyHashCode() {
+		return Objects.hash(namespaceUri, localPart);
 	}
-	
 
 	@Override
 	public String typeName() {
@@ -189,6 +165,26 @@ public class XSQName extends XSCtrType {
 		return strVal;
 	}
 	
+	@Override
+	public void appendTo(StringBuilder strBuf) {
+		if (namespaceUri != null) {
+			strBuf.append('{');
+			strBuf.append(namespaceUri);
+			strBuf.append('}');
+		}
+		strBuf.append(localPart);
+	}
+	
+	@Override
+	public void appendToFsb(FastStringBuffer fsb) {
+		if (namespaceUri != null) {
+			fsb.append('{');
+			fsb.append(namespaceUri);
+			fsb.append('}');
+		}
+		fsb.append(localPart);
+	}
+	
 	/**
 	 * Construct an XSQName object, by parsing a provided string value
 	 * as an argument to this method.
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Apache XalanJ Team, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Apache XalanJ Team       - initial API and implementation
+ *******************************************************************************/
+
+package xml.xpath31.processor.types;
+
+import org.apache.xpath.objects.ResultSequence;
+
+/**
+ * An XML Schema data type representation, of the xs:short datatype.
+ */
+public class XSShort extends XSInt {
+
+    private static final long serialVersionUID = -2946724388818297881L;
+    
+    private static final String XS_SHORT = "xs:short";
+    
+    private static final XSInteger MIN_INCLUSIVE = XSInteger.valueOf(-32768);
+    
+    private static final XSInteger MAX_INCLUSIVE = XSInteger.valueOf(32767);
+
+    /*
+     * Class constructor.
+     */
+    public XSShort() {
+       this((short)0);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    public XSShort(short val) {
+        super(val);
+        checkRange(MIN_INCLUSIVE, MAX_INCLUSIVE);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    public XSShort(String val) {
+        super(val);
+        checkRange(MIN_INCLUSIVE, MAX_INCLUSIVE);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    protected XSShort(XSInteger val) {
+        super(val);
+        checkRange(MIN_INCLUSIVE, MAX_INCLUSIVE);
+    }
+    
+    @Override
+    public ResultSequence constructor(ResultSequence arg) throws RuntimeException {
+        return constructor(arg, XSShort::new);
+    }
+    
+    public String stringType() {
+        return XS_SHORT;
+    }
+    
+    public String typeName() {
+        return "short";
+    }
+
+}
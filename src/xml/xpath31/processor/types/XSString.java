@@ -15,8 +15,6 @@ package xml.xpath31.processor.types;
 
 import javax.xml.transform.TransformerException;
 
-import org.apache.xpath.XPathCollationSupport;
-import org.apache.xpath.XPathContext;
 import org.apache.xpath.objects.ResultSequence;
 
 /**
@@ -28,11 +26,17 @@ public class XSString extends XSCtrType {
 
     private static final String XS_STRING = "xs:string";
     
-    private String _value;
+    private static final XSString EMPTY_STRING = new XSString("");
     
-    private XPathContext fXctxt = new XPathContext();
+    // the operators eq, lt and gt compare xs:string values with the default 
+    // collation of an XPath evaluation context, which is the Unicode 
+    // codepoint collation. The collation support object isn't modified by 
+    // string comparisons, and is shared by all the XSString objects, so 
+    // that an XSString object has no state other than its string value.
+    private static final XPathCollationSupport COLLATION_SUPPORT = new XPathCollationSupport(
+                                                          XPathCollationSupport.UNICODE_CODEPOINT_COLLATION_URI);
     
-    private XPathCollationSupport fXpathCollationSupport = fXctxt.getXPathCollationSupport();
+    private final String _value;
     
     /*
      * Class constructor.
@@ -48,6 +52,18 @@ public class XSString extends XSCtrType {
        this(null);
     }
 
+    /**
+     * Get an XSString object for the supplied string value. For a zero 
+     * length string, this method returns a shared instance.
+     * 
+     * @param str   the string value
+     * 
+     * @return      an XSString object, representing the supplied value
+     */
+    public static XSString valueOf(String str) {
+        return ((str != null) && str.isEmpty()) ? EMPTY_STRING : new XSString(str);
+    }
+
     @Override
     public ResultSequence constructor(ResultSequence arg) throws javax.xml.transform.TransformerException {        
         ResultSequence resultSeq = new ResultSequence();
@@ -58,7 +74,7 @@ public class XSString extends XSCtrType {
         
         XSAnyType xsAnyType = (XSAnyType)arg.item(0);
         
-        resultSeq.add(new XSString(xsAnyType.stringValue()));
+        resultSeq.add(valueOf(xsAnyType.stringValue()));
            
         return resultSeq;        
     }
@@ -92,8 +108,8 @@ public class XSString extends XSCtrType {
      * on xs:string values.
      */
     public boolean equals(XSString xsStr) throws TransformerException {
-        int comparisonResult = fXpathCollationSupport.compareStringsUsingCollation(_value, xsStr.stringValue(), 
-                                                                                                       fXctxt.getDefaultCollation());
+        int comparisonResult = COLLATION_SUPPORT.compareStringsUsingCollation(_value, xsStr.stringValue(), 
+                                                                          XPathCollationSupport.UNICODE_CODEPOINT_COLLATION_URI);
         return (comparisonResult == 0); 
     }
     
@@ -102,8 +118,8 @@ public class XSString extends XSCtrType {
      * on xs:string values.
      */
     public boolean lt(XSString xsStr) throws TransformerException {
-        int comparisonResult = fXpathCollationSupport.compareStringsUsingCollation(_value, xsStr.stringValue(), 
-                                                                                                       fXctxt.getDefaultCollation());
+        int comparisonResult = COLLATION_SUPPORT.compareStringsUsingCollation(_value, xsStr.stringValue(), 
+                                                                          XPathCollationSupport.UNICODE_CODEPOINT_COLLATION_URI);
         return (comparisonResult < 0);  
     }
     
@@ -112,13 +128,48 @@ public class XSString extends XSCtrType {
      * on xs:string values.
      */
     public boolean gt(XSString xsStr) throws TransformerException {
-        int comparisonResult = fXpathCollationSupport.compareStringsUsingCollation(_value, xsStr.stringValue(), 
-                                                                                                       fXctxt.getDefaultCollation());
+        int comparisonResult = COLLATION_SUPPORT.compareStringsUsingCollation(_value, xsStr.stringValue(), 
+                                                                          XPathCollationSupport.UNICODE_CODEPOINT_COLLATION_URI);
         return (comparisonResult > 0);  
     }
     
+    @Override
+    protected boolean sameKey(XSAnyAtomicType xsAnyAtomicType) {
+        return sameStringKey(_value, xsAnyAtomicType);
+    }
+    
+    @Override
+    protected int sameKeyHashCode() {
+        return stringHashCode(_value);
+    }
+    
     public int getType() {
         return CLASS_STRING;
     }
 
+    /*
+     * Determine whether, a string value and an atomic value are the same
+     * key, as per the XPath 3.1 op:same-key function. Values of the types
+     * xs:string, xs:anyURI and xs:untypedAtomic are the same key, if their
+     * strings are equal codepoint by codepoint.
+     */
+    static boolean sameStringKey(String str, XSAnyAtomicType xsAnyAtomicType) {
+        if (!((xsAnyAtomicType instanceof XSString) || (xsAnyAtomicType instanceof XSAnyURI) || 
+                                                     (xsAnyAtomicType instanceof XSUntypedAtomic))) {
+            return false;
+        }
+        
+        String argStr = xsAnyAtomicType.stringValue();
+        
+        return (str == null) ? (argStr == null) : str.equals(argStr);
+    }
+    
+    /*
+     * Get the hash code of a string value, that is consistent with the 
+     * method sameStringKey.
+     */
+    static int stringHashCode(String str) {
+        return (str == null) ? 0 : str.hashCode();
+    }
+
 }
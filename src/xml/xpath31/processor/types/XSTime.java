@@ -15,7 +15,6 @@ package xml.xpath31.processor.types;
 
 import java.util.Calendar;
 import java.util.GregorianCalendar;
-import java.util.TimeZone;
 
 import javax.xml.transform.TransformerException;
 
@@ -31,15 +30,11 @@ public class XSTime extends XSCalendarType {
     
     private static final String XS_TIME = "xs:time";
     
-    private Calendar _calendar;
-    
-    private boolean _timezoned;
-    
-    private XSDuration _tz;
-    
     /**
      * The value of this class field, stores the fact that whether this
      * XSTime object is constructed via XPath function call fn:current-time().
+     * Such values are created by XPath3DateTimeContext with the implicit
+     * timezone, so this field doesn't affect comparisons.
      */
     private boolean isPopulatedFromFnCurrentTime = false;
     
@@ -54,15 +49,7 @@ public class XSTime extends XSCalendarType {
      *              XSTime object.
      */
     public XSTime(Calendar cal, XSDuration tz) {
-        _calendar = cal;
-        _tz = tz;
-        
-        if (tz == null) {
-           _timezoned = false;
-        }
-        else {
-           _timezoned = true;
-        }
+        super(localSecondsOf(cal, false, true), nanosOf(cal), timezoneMinutesOf(tz), (tz != null));
     }
 
     /**
@@ -71,7 +58,47 @@ public class XSTime extends XSCalendarType {
      * Construct an XSTime object, and initialize it to the current time.
      */
     public XSTime() {
-        this (new GregorianCalendar(TimeZone.getDefault()), null);
+        this (new GregorianCalendar(), null);
+    }
+    
+    /**
+     * Class constructor.
+     * 
+     * @param secondOfDay   the time, as the number of seconds from the 
+     *                      start of the day
+     * @param nanos         the nanoseconds within the second
+     * @param tzMinutes     the timezone offset in minutes
+     * @param timezoned     true if the value has a timezone. false otherwise.
+     */
+    XSTime(long secondOfDay, int nanos, int tzMinutes, boolean timezoned) {
+        super(secondOfDay, nanos, tzMinutes, timezoned);
+    }
+    
+    /**
+     * Class constructor.
+     * 
+     * @param secondOfDay   the time, as the number of seconds from the 
+     *                      start of the day
+     * @param nanos         the nanoseconds within the second
+     * @param tzMinutes     the timezone offset in minutes
+     * @param timezoned     true if the value has a timezone. false otherwise.
+     * @param context       the context, whose implicit timezone is applied 
+     *                      when this value doesn't have a timezone
+     */
+    XSTime(long secondOfDay, int nanos, int tzMinutes, boolean timezoned, XPath3DateTimeContext context) {
+        super(secondOfDay, nanos, tzMinutes, timezoned, context);
+    }
+    
+    /**
+     * Class constructor.
+     * 
+     * @param secondOfDay   the time, as the number of seconds from the 
+     *                      start of the day
+     * @param nanos         the nanoseconds within the second
+     * @param zoneSource    the value, whose timezone is used
+     */
+    XSTime(long secondOfDay, int nanos, XSCalendarType zoneSource) {
+        super(secondOfDay, nanos, zoneSource);
     }
 
     @Override
@@ -95,16 +122,23 @@ public class XSTime extends XSCalendarType {
      * XSTime object.
      */
     public static XSTime parseTime(String strVal) throws TransformerException {
-
-        String refDate = "1955-07-12T";
-        
-        XSDateTime xsDateTime = XSDateTime.parseDateTime(refDate + strVal);
-        if (xsDateTime == null) {
+        return parseTime(strVal, XPath3DateTimeContext.getDefault());
+    }
+    
+    /**
+     * Parse a string representation of a time value, and construct an new 
+     * XSTime object, which uses the implicit timezone of the supplied context
+     * when the string doesn't have a timezone.
+     */
+    public static XSTime parseTime(String strVal, XPath3DateTimeContext context) throws TransformerException {
+        XPath3DateTimeScanner dateTimeScanner = new XPath3DateTimeScanner();
+        if (dateTimeScanner.scanTime(strVal) != XPath3DateTimeScanner.SCAN_OK) {
            throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
                                                                        + "cannot be parsed to a xs:time value.");
         }
 
-        return new XSTime(xsDateTime.getCalendar(), xsDateTime.getTimezone());
+        return new XSTime(dateTimeScanner.localSeconds(), dateTimeScanner.nanos(), 
+                                  dateTimeScanner.timezoneMinutes(), dateTimeScanner.isTimezoned(), context);
     }
     
     /**
@@ -127,20 +161,6 @@ public class XSTime extends XSCalendarType {
         return XS_TIME;
     }
     
-    /**
-     * Get a java.util.Calendar representation of an time value stored, 
-     * within this XSTime object.
-     * 
-     * @return    Calendar representation of the time stored
-     */
-    public Calendar getCalendar() {
-        return _calendar;
-    }
-    
-    public XSDuration getTimezone() {
-        return _tz;
-    }
-    
     /**
      * Get the hour value stored as an integer within this
      * XSTime object.
@@ -148,7 +168,7 @@ public class XSTime extends XSCalendarType {
      * @return   the hour value stored
      */
     public int hour() {
-        return _calendar.get(Calendar.HOUR_OF_DAY);
+        return civilHour();
     }
 
     /**
@@ -158,7 +178,7 @@ public class XSTime extends XSCalendarType {
      * @return   the minute value stored
      */
     public int minute() {
-        return _calendar.get(Calendar.MINUTE);
+        return civilMinute();
     }
     
     /**
@@ -168,13 +188,7 @@ public class XSTime extends XSCalendarType {
      * @return    the seconds value stored
      */
     public double second() {
-        double secondVal = _calendar.get(Calendar.SECOND);
-        double millisecVal = _calendar.get(Calendar.MILLISECOND);
-
-        millisecVal /= 1000;
-        secondVal += millisecVal;
-        
-        return secondVal;
+        return civilSecond() + ((double)nanos() / NANOS_PER_SECOND);
     }
     
     /**
@@ -184,101 +198,32 @@ public class XSTime extends XSCalendarType {
      *                 false otherwise.
      */
     public boolean isTimetimezoned() {
-        return _timezoned;
+        return isTimezoned();
     }
 
     @Override
-    public String stringValue() {
-        String returnVal = "";
-        
-        Calendar calendarVal = getCalendar();
-        returnVal += XSDateTime.padInt(calendarVal.get(Calendar.HOUR_OF_DAY), 2);
-        
-        returnVal += ":";
-        returnVal += XSDateTime.padInt(calendarVal.get(Calendar.MINUTE), 2);
-        
-
-        returnVal += ":";
-        int intSec = (int) second();
-        double doubleSec = second();
-
-        if ((doubleSec - intSec) == 0.0) {
-            returnVal += XSDateTime.padInt(intSec, 2);
-        }
-        else {
-            if (doubleSec < 10.0) {
-               returnVal += "0" + doubleSec;
-            }
-            else {
-               returnVal += doubleSec;
-            }
-        }
-
-        if (isTimetimezoned()) {
-            int hrs = _tz.hours();
-            int min = _tz.minutes();
-            double secs = _tz.seconds();
-            if (hrs == 0 && min == 0 && secs == 0) {
-               returnVal += "Z";
-            }
-            else {
-               String timezoneStr = "";
-               if (_tz.negative()) {
-                  timezoneStr += "-";  
-               }
-               else {
-                  timezoneStr += "+"; 
-               }
-               timezoneStr += XSDateTime.padInt(hrs, 2);  
-               timezoneStr += ":";
-               timezoneStr += XSDateTime.padInt(min, 2);
-              
-               returnVal += timezoneStr;
-            }
-         }
-
-         return returnVal;
+    <T> void format(T out, XPath3CharSink<T> sink) {
+        putTime(out, sink);
+        putTimezone(out, sink);
     }
     
     /**
      * Determine whether, two XSTime objects are equal.
+     * Both the values are adjusted to UTC before the comparison, using 
+     * the implicit timezone for a value that doesn't have a timezone.
      */
     public boolean equals(XSTime xsTime) {
-        boolean isXsTimeEqual = false;
-        
-        int hour1 = hour();
-        int mins1 = minute();
-        double secs1 = second();
-        
-        int hour2 = xsTime.hour();
-        int mins2 = xsTime.minute();
-        double secs2 = xsTime.second();
-        XSDuration tz1 = getTimezone();
-        XSDuration tz2 = xsTime.getTimezone();
-        
-        isXsTimeEqual = ((hour1 == hour2) && (mins1 == mins2) && (secs1 == secs2)) && 
-                                                            isTimezoneEqual(tz1, tz2, isPopulatedFromFnCurrentTime, 
-                                                                            xsTime.isPopulatedFromFnCurrentTime());
-        
-        return isXsTimeEqual;
+        return compareNormalized(xsTime) == 0;
     }
     
     @Override
-    public boolean equals(Object obj) {
-       boolean isTimeEqual = false;
-        
-       if (obj instanceof XSTime) {
-    	   isTimeEqual = this.equals((XSTime)obj);  
-       }
-       
-       return isTimeEqual;
+    protected boolean sameKey(XSAnyAtomicType xsAnyAtomicType) {
+        return (xsAnyAtomicType instanceof XSTime) && isSameCalendarKey((XSTime)xsAnyAtomicType);
     }
     
     @Override
-    public int hashCode() {       
-       String strVal = stringValue();       
-       
-       return strVal.hashCode();
+    protected int sameKeyHashCode() {
+        return calendarHashCode();
     }
     
     /**
@@ -286,31 +231,7 @@ public class XSTime extends XSCalendarType {
      * object provided as an argument to this method. 
      */
     public boolean lt(XSTime xsTime) {
-       boolean isTimeBefore = false;
-       
-       int hour1 = hour();
-       int mins1 = minute();
-       double secs1 = second();
-       
-       int hour2 = xsTime.hour();
-       int mins2 = xsTime.minute();
-       double secs2 = xsTime.second();
-       
-       if (hour1 < hour2) {
-    	  isTimeBefore = true; 
-       }
-       else if (hour1 == hour2) {
-          if (mins1 < mins2) {
-        	 isTimeBefore = true;  
-          }
-          else if (mins1 == mins2) {
-             if (secs1 < secs2) {
-            	isTimeBefore = true;  
-             }
-          }
-       }
-    
-       return isTimeBefore;
+       return compareNormalized(xsTime) < 0;
     }
     
     /**
@@ -318,31 +239,7 @@ public class XSTime extends XSCalendarType {
      * XSTime object provided as an argument to this method. 
      */
     public boolean gt(XSTime xsTime) {
-    	boolean isTimeAfter = false;
-        
-        int hour1 = hour();
-        int mins1 = minute();
-        double secs1 = second();
-        
-        int hour2 = xsTime.hour();
-        int mins2 = xsTime.minute();
-        double secs2 = xsTime.second();
-        
-        if (hour1 > hour2) {
-        	isTimeAfter = true; 
-        }
-        else if (hour1 == hour2) {
-           if (mins1 > mins2) {
-        	   isTimeAfter = true;  
-           }
-           else if (mins1 == mins2) {
-              if (secs1 > secs2) {
-            	  isTimeAfter = true;  
-              }
-           }
-        }
-     
-        return isTimeAfter;
+       return compareNormalized(xsTime) > 0;
     }
     
     /**
@@ -359,10 +256,7 @@ public class XSTime extends XSCalendarType {
          }
          
          XSDayTimeDuration argVal = (XSDayTimeDuration)xObject;
-         double argValSecs = argVal.value();
-         Calendar cal1 = (Calendar)((getCalendar()).clone());
-         cal1.setTimeInMillis(cal1.getTimeInMillis() + ((((long)argValSecs * 1000))));
-         result = new XSTime(cal1, getTimezone());
+         result = new XSTime(Math.floorMod(localSecondsPlus(argVal, 1), SECONDS_PER_DAY), nanosPlus(argVal, 1), this);
          
          return result;
     }
@@ -383,22 +277,22 @@ public class XSTime extends XSCalendarType {
           }
           
           if (xObject instanceof XSTime) {
-             Calendar cal1 = getCalendar();
-             Calendar cal2 = ((XSTime)xObject).getCalendar();
-             long diffDurationMilliSecs = cal1.getTimeInMillis() - cal2.getTimeInMillis();
-             result = new XSDayTimeDuration(diffDurationMilliSecs / 1000);
+             result = difference((XSTime)xObject);
           }          
           else if (xObject instanceof XSDayTimeDuration) {
              XSDayTimeDuration argVal = (XSDayTimeDuration)xObject;
-             double argValSecs = argVal.value();
-             Calendar cal1 = (Calendar)((getCalendar()).clone());
-             cal1.setTimeInMillis(cal1.getTimeInMillis() + ((((long)argValSecs * 1000)) * -1));
-             result = new XSTime(cal1, getTimezone());
+             result = new XSTime(Math.floorMod(localSecondsPlus(argVal, -1), SECONDS_PER_DAY), 
+                                                                     nanosPlus(argVal, -1), this);
           }
           
           return result;
     }
     
+    @Override
+    public byte[] sortKey() {
+        return XPath3SortKeys.calendarKey(XPath3SortKeys.FAMILY_TIME, comparisonSeconds(), nanos());
+    }
+    
     public int getType() {
         return CLASS_XS_TIME;
     }
@@ -423,7 +317,8 @@ public class XSTime extends XSCalendarType {
         }        
         else if (xsAnyType instanceof XSDateTime) {
            XSDateTime xsDateTime = (XSDateTime)xsAnyType;
-           xsTime = new XSTime(xsDateTime.getCalendar(), xsDateTime.getTimezone());
+           xsTime = new XSTime(xsDateTime.secondOfDay(), xsDateTime.nanos(), xsDateTime.timezoneMinutes(), 
+                                                                                    xsDateTime.isTimezoned());
         }
         else {
            xsTime = parseTime(xsAnyType.stringValue());
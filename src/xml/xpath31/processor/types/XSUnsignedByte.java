@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Apache XalanJ Team, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Apache XalanJ Team       - initial API and implementation
+ *******************************************************************************/
+
+package xml.xpath31.processor.types;
+
+import org.apache.xpath.objects.ResultSequence;
+
+/**
+ * An XML Schema data type representation, of the xs:unsignedByte datatype.
+ */
+public class XSUnsignedByte extends XSUnsignedShort {
+
+    private static final long serialVersionUID = -105965761475679314L;
+    
+    private static final String XS_UNSIGNED_BYTE = "xs:unsignedByte";
+    
+    private static final XSInteger MIN_INCLUSIVE = XSInteger.valueOf(0);
+    
+    private static final XSInteger MAX_INCLUSIVE = XSInteger.valueOf(255);
+
+    /*
+     * Class constructor.
+     */
+    public XSUnsignedByte() {
+       this((short)0);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    public XSUnsignedByte(short val) {
+        super(val);
+        checkRange(MIN_INCLUSIVE, MAX_INCLUSIVE);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    public XSUnsignedByte(String val) {
+        super(val);
+        checkRange(MIN_INCLUSIVE, MAX_INCLUSIVE);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    protected XSUnsignedByte(XSInteger val) {
+        super(val);
+        checkRange(MIN_INCLUSIVE, MAX_INCLUSIVE);
+    }
+    
+    @Override
+    public ResultSequence constructor(ResultSequence arg) throws RuntimeException {
+        return constructor(arg, XSUnsignedByte::new);
+    }
+    
+    public String stringType() {
+        return XS_UNSIGNED_BYTE;
+    }
+    
+    public String typeName() {
+        return "unsignedByte";
+    }
+
+}
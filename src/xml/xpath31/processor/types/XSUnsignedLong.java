@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Apache XalanJ Team, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Apache XalanJ Team       - initial API and implementation
+ *******************************************************************************/
+
+package xml.xpath31.processor.types;
+
+import java.math.BigInteger;
+
+import org.apache.xpath.objects.ResultSequence;
+
+/**
+ * An XML Schema data type representation, of the xs:unsignedLong datatype.
+ */
+public class XSUnsignedLong extends XSNonNegativeInteger {
+
+    private static final long serialVersionUID = -7130337844270415037L;
+    
+    private static final String XS_UNSIGNED_LONG = "xs:unsignedLong";
+    
+    private static final XSInteger MIN_INCLUSIVE = XSInteger.valueOf(0);
+    
+    private static final XSInteger MAX_INCLUSIVE = XSInteger.valueOf(new BigInteger("18446744073709551615"));
+
+    /*
+     * Class constructor.
+     */
+    public XSUnsignedLong() {
+       this(0);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    public XSUnsignedLong(long val) {
+        super(val);
+        checkRange(MIN_INCLUSIVE, MAX_INCLUSIVE);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    public XSUnsignedLong(BigInteger val) {
+        super(val);
+        checkRange(MIN_INCLUSIVE, MAX_INCLUSIVE);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    public XSUnsignedLong(String val) {
+        super(val);
+        checkRange(MIN_INCLUSIVE, MAX_INCLUSIVE);
+    }
+    
+    /*
+     * Class constructor.
+     */
+    protected XSUnsignedLong(XSInteger val) {
+        super(val);
+        checkRange(MIN_INCLUSIVE, MAX_INCLUSIVE);
+    }
+    
+    @Override
+    public ResultSequence constructor(ResultSequence arg) throws RuntimeException {
+        return constructor(arg, XSUnsignedLong::new);
+    }
+    
+    public String stringType() {
+        return XS_UNSIGNED_LONG;
+    }
+    
+    public String typeName() {
+        return "unsignedLong";
+    }
+
+}
@@ -73,6 +73,16 @@ public class XSUntypedAtomic extends XSCtrType {
         return _value;
     }
     
+    @Override
+    protected boolean sameKey(XSAnyAtomicType xsAnyAtomicType) {
+        return XSString.sameStringKey(_value, xsAnyAtomicType);
+    }
+    
+    @Override
+    protected int sameKeyHashCode() {
+        return XSString.stringHashCode(_value);
+    }
+    
     /*
      * Check equality between this XSUntypedAtomic value and an XObject value.  
      */
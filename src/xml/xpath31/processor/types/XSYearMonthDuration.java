@@ -13,8 +13,6 @@
 
 package xml.xpath31.processor.types;
 
-import java.math.BigDecimal;
-
 import javax.xml.transform.TransformerException;
 
 import org.apache.xpath.objects.ResultSequence;
@@ -47,7 +45,7 @@ public class XSYearMonthDuration extends XSDuration {
      * @param months  number of months in the duration of time
      */
     public XSYearMonthDuration(int months) {
-        this(0, Math.abs(months), months < 0);
+        super(months, 0L, 0L);
     }
 
     /**
@@ -67,100 +65,17 @@ public class XSYearMonthDuration extends XSDuration {
      *                   duration of time supplied.
      */
     public static XSDuration parseYearMonthDuration(String strVal) throws TransformerException {
-        
-        boolean isDurationNegative = false;
-        
-        int year = 0;
-        int month = 0;
-
-        int moveAheadIndication = 0;
-
-        String digits = "";
-        
-        try {
-            for (int idx = 0; idx < strVal.length(); idx++) {
-                char charVal = strVal.charAt(idx);
-    
-                switch (moveAheadIndication) {
-                case 0:
-                    if (charVal == '-') {
-                       isDurationNegative = true;
-                       moveAheadIndication = 4;
-                    } else if (charVal == 'P') {
-                       moveAheadIndication = 5;
-                    }
-                    else {
-                       throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                          + "cannot be parsed to a xs:yearMonthDuration value.");
-                    }
-                    break;
-                case 4:
-                    if (charVal == 'P') {
-                       moveAheadIndication = 5;
-                    }
-                    else {
-                       throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                                      + "cannot be parsed to a xs:yearMonthDuration value.");
-                    }
-                    break;
-                case 5:
-                    if ('0' <= charVal && charVal <= '9') {
-                       digits += charVal;
-                    }
-                    else if (charVal == 'Y') {
-                        if (digits.length() == 0) {
-                           throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                                         + "cannot be parsed to a xs:yearMonthDuration value.");
-                        }
-                        year = Integer.parseInt(digits);
-                        digits = "";
-                        moveAheadIndication = 6;
-                    } else if (charVal == 'M') {
-                        if (digits.length() == 0) {
-                           throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                                         + "cannot be parsed to a xs:yearMonthDuration value.");
-                        }
-                        month = Integer.parseInt(digits);
-                        moveAheadIndication = 7;
-                    } else {
-                        throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                                      + "cannot be parsed to a xs:yearMonthDuration value.");
-                    }
-                    break;
-                case 6:
-                   if ('0' <= charVal && charVal <= '9') {
-                      digits += charVal;
-                   }
-                   else if (charVal == 'M') {
-                      if (digits.length() == 0) {
-                         throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                                        + "cannot be parsed to a xs:yearMonthDuration value.");
-                      }
-                      month = Integer.parseInt(digits);
-                      moveAheadIndication = 7;
-                    } else {
-                        throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                                      + "cannot be parsed to a xs:yearMonthDuration value.");
-                    }
-                    break;
-                case 7:
-                    throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                                  + "cannot be parsed to a xs:yearMonthDuration value.");
-                default:
-                    throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                                  + "cannot be parsed to a xs:yearMonthDuration value.");
-                }
-            }
+        XPath3DurationScanner durationScanner = new XPath3DurationScanner();
+        int status = durationScanner.scanYearMonthDuration(strVal);
+        if (status == XPath3DurationScanner.SCAN_OVERFLOW) {
+            throw new TransformerException("FODT0002 : The xs:yearMonthDuration value '" + strVal + "' is too large.");
         }
-        catch (TransformerException ex) {
-           throw ex;  
-        }
-        catch (Exception ex) {
-           throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
-                                                                                         + "cannot be parsed to a xs:yearMonthDuration value."); 
+        else if (status != XPath3DurationScanner.SCAN_OK) {
+            throw new TransformerException("XTTE0570 : The supplied string value '" + strVal + "' "
+                                                                               + "cannot be parsed to a xs:yearMonthDuration value.");
         }
 
-        return new XSYearMonthDuration(year, month, isDurationNegative);
+        return new XSYearMonthDuration(durationScanner.months());
     }
 
     /**
@@ -196,48 +111,22 @@ public class XSYearMonthDuration extends XSDuration {
 		return "yearMonthDuration";
 	}
 	
-	/**
-     * Check whether, this duration value represents a backward passage
-     * through time.
-     * 
-     * @return 'true' if this duration value represents a backward passage
-     *         through time. 'false' otherwise.
-     */
-    public boolean negative() {
-        return _negative;
-    }
-	
-	/**
-     * Get a string representation, of the duration value represented
-     * by this object.
-     * 
-     * @return   String representation, of the duration value represented
-     *           by this object. 
-     */
-    public String stringValue() {
-        String strVal = "";
-
+    @Override
+    <T> void format(T out, XPath3CharSink<T> sink) {
         if (negative()) {
-           strVal += "-";
+           sink.put(out, '-');
         }
-
-        strVal += "P";
+        sink.put(out, 'P');
 
         int years = year();
         if (years != 0) {
-           strVal += years + "Y";
+           putInt(years, 'Y', out, sink);
         }
 
         int months = month();
-        if (months == 0) {
-           if (years == 0) {
-              strVal += months + "M";
-           }
-        } else {
-           strVal += months + "M";
+        if ((months != 0) || (years == 0)) {
+           putInt(months, 'M', out, sink);
         }
-
-        return strVal;
     }
 
 	/**
@@ -249,32 +138,12 @@ public class XSYearMonthDuration extends XSDuration {
 	   return XS_YEAR_MONTH_DURATION;
 	}
 	
-	/**
-     * Get the duration of time as the number of months, equivalent
-     * to this duration object.
-     * 
-     * @return   number of months, equivalent to the duration of time
-     *           represented by this object.
-     */
-    public int monthValue() {
-       int retVal = (year() * 12) + month();
-
-       if (negative()) {
-          retVal *= -1;
-       }
-
-       return retVal;
-    }
-    
     /**
      * This method does an equality comparison between, this and
      * another XSYearMonthDuration value. 
      */
     public boolean equals(XSYearMonthDuration xsYearMonthDuration) {
-       double val1 = monthValue();
-       double val2 = xsYearMonthDuration.monthValue();
-       
-       return val1 == val2;
+       return monthValue() == xsYearMonthDuration.monthValue();
     }
     
     /**
@@ -282,10 +151,7 @@ public class XSYearMonthDuration extends XSDuration {
      * less than another one.  
      */
     public boolean lt(XSYearMonthDuration xsYearMonthDuration) {
-       double val1 = monthValue();
-       double val2 = xsYearMonthDuration.monthValue();
-       
-       return val1 < val2;
+       return monthValue() < xsYearMonthDuration.monthValue();
     }
     
     /**
@@ -293,10 +159,7 @@ public class XSYearMonthDuration extends XSDuration {
      * greater than another one.  
      */
     public boolean gt(XSYearMonthDuration xsYearMonthDuration) {
-       double val1 = monthValue();
-       double val2 = xsYearMonthDuration.monthValue();
-       
-       return val1 > val2;
+       return monthValue() > xsYearMonthDuration.monthValue();
     }
     
     /**
@@ -304,9 +167,7 @@ public class XSYearMonthDuration extends XSDuration {
      * as an XSYearMonthDuration value.
      */
     public XSYearMonthDuration add(XSYearMonthDuration arg) {
-       XSYearMonthDuration result = new XSYearMonthDuration(monthValue() + 
-                                                                arg.monthValue());       
-       return result; 
+       return new XSYearMonthDuration(Math.addExact(monthValue(), arg.monthValue())); 
     }
     
     /**
@@ -314,9 +175,7 @@ public class XSYearMonthDuration extends XSDuration {
      * and return the result as an XSYearMonthDuration value.
      */
     public XSYearMonthDuration subtract(XSYearMonthDuration arg) {
-       XSYearMonthDuration result = new XSYearMonthDuration(monthValue() - 
-                                                                arg.monthValue());       
-       return result; 
+       return new XSYearMonthDuration(Math.subtractExact(monthValue(), arg.monthValue())); 
     }
     
     /**
@@ -327,27 +186,13 @@ public class XSYearMonthDuration extends XSDuration {
      * @throws TransformerException 
      */
     public XSYearMonthDuration mult(XSAnyType xsAnyType) throws TransformerException {
-        
-        XSYearMonthDuration result = null;
-        
-        if (xsAnyType instanceof XSNumericType) {
-           String argStrVal = ((XSNumericType)xsAnyType).stringValue();
-           XSDouble argDoubleVal = new XSDouble(argStrVal);
-           if (argDoubleVal.nan()) {
-              throw new TransformerException("FOCA0005 : Cannot multiply an XSYearMonthDuration value with NaN.");  
-           }
-           else {
-              int res = (int) Math.round(monthValue() * argDoubleVal.doubleValue());
-               
-              result = new XSYearMonthDuration(res); 
-           }
-        }
-        else {
+        if (!(xsAnyType instanceof XSNumericType)) {
            throw new TransformerException("FOCA0005 : Cannot multiply an XSYearMonthDuration value with a "
                                                                                                    + "non-numeric value"); 
         }
         
-        return result;
+        return XPath3DurationArithmetic.yearMonthOp(XPath3DurationArithmetic.OP_MULTIPLY, this, 
+                                                                                 (XSNumericType)xsAnyType);
     }
     
     /**
@@ -362,24 +207,14 @@ public class XSYearMonthDuration extends XSDuration {
         XSAnyType result = null;
         
         if (xsAnyType instanceof XSNumericType) {
-           String argStrVal = ((XSNumericType)xsAnyType).stringValue();
-           XSDouble argDoubleVal = new XSDouble(argStrVal);
-           if (argDoubleVal.nan()) {
-              throw new TransformerException("FOCA0005 : Cannot divide an XSYearMonthDuration value with NaN.");  
-           }
-           else if (argDoubleVal.zero()) {
-              throw new TransformerException("FODT0001 : Cannot divide an XSYearMonthDuration value with zero."); 
-           }
-           else {
-              int intResultVal = (int) Math.round(monthValue() / argDoubleVal.doubleValue());
-              result = new XSYearMonthDuration(intResultVal);
-           }
+           result = XPath3DurationArithmetic.yearMonthOp(XPath3DurationArithmetic.OP_DIVIDE, this, 
+                                                                                   (XSNumericType)xsAnyType);
         }
         else if (xsAnyType instanceof XSYearMonthDuration) {
            XSYearMonthDuration argXSYearMonthDuration = (XSYearMonthDuration) xsAnyType;
-           double dblResultVal = (double) monthValue() / argXSYearMonthDuration.monthValue();
            
-           result = new XSDecimal(new BigDecimal(dblResultVal));
+           result = XPath3NumericArithmetic.evaluate(XPath3NumericArithmetic.OP_DIVIDE, XSInteger.valueOf(monthValue()), 
+                                                           XSInteger.valueOf(argXSYearMonthDuration.monthValue()));
         }
         else {
            throw new TransformerException("FORG0006 : Cannot divide an XSYearMonthDuration value, with a value that is of "
@@ -389,6 +224,11 @@ public class XSYearMonthDuration extends XSDuration {
         return result; 
     }
     
+    @Override
+    public byte[] sortKey() {
+        return XPath3SortKeys.intKey(XPath3SortKeys.FAMILY_YEAR_MONTH_DURATION, monthValue());
+    }
+    
     public int getType() {
         return CLASS_XS_YEARMONTH_DURATION;
     }
@@ -403,8 +243,7 @@ public class XSYearMonthDuration extends XSDuration {
         if (xsAnyType instanceof XSDuration) {
            XSDuration xsDuration = (XSDuration) xsAnyType;
            
-           return new XSYearMonthDuration(xsDuration.year(), xsDuration.month(), 
-                                          xsDuration.negative());
+           return new XSYearMonthDuration(xsDuration.monthValue());
         }
         
         return parseYearMonthDuration(xsAnyType.stringValue());
@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Apache XalanJ Team, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Apache XalanJ Team       - initial API and implementation
+ *******************************************************************************/
+
+package xml.xpath31.processor.types;
+
+import javax.xml.transform.TransformerException;
+
+/**
+ * This class provides, streaming aggregation of xs:yearMonthDuration values
+ * as per the XPath 3.1 functions fn:sum, fn:avg, fn:min and fn:max.
+ *
+ * <p>Each value's number of months is folded into a primitive long total,
+ * without creating any intermediate XSYearMonthDuration objects. A result
+ * object is only created by the methods sum, avg, min and max. Accumulators
+ * of parts of a sequence may be merged with the method combine, in any
+ * order, with the same result as accumulating the whole sequence.</p>
+ *
+ * <p>An object of this class must not be shared between threads, while
+ * values are being added to it.</p>
+ */
+public final class XSYearMonthDurationAccumulator {
+
+    private long _count;
+
+    private long _months;
+
+    // true, if the total number of months has overflowed a long
+    private boolean _overflow;
+
+    private int _minMonths;
+
+    private int _maxMonths;
+
+    /**
+     * Class constructor, creating an empty accumulator.
+     */
+    public XSYearMonthDurationAccumulator() {
+        // no op
+    }
+
+    /**
+     * Add a value to this accumulator.
+     *
+     * @param value   the value to be added
+     *
+     * @return        this accumulator
+     */
+    public XSYearMonthDurationAccumulator add(XSYearMonthDuration value) {
+        int months = value.monthValue();
+
+        addMonths(months);
+        if ((_count == 0) || (months < _minMonths)) {
+            _minMonths = months;
+        }
+        if ((_count == 0) || (months > _maxMonths)) {
+            _maxMonths = months;
+        }
+        _count++;
+
+        return this;
+    }
+
+    /**
+     * Merge the values of another accumulator, into this accumulator. The
+     * other accumulator is not modified.
+     *
+     * @param other   the other accumulator
+     *
+     * @return        this accumulator
+     */
+    public XSYearMonthDurationAccumulator combine(XSYearMonthDurationAccumulator other) {
+        if (other._count == 0) {
+            return this;
+        }
+
+        addMonths(other._months);
+        _overflow |= other._overflow;
+        if ((_count == 0) || (other._minMonths < _minMonths)) {
+            _minMonths = other._minMonths;
+        }
+        if ((_count == 0) || (other._maxMonths > _maxMonths)) {
+            _maxMonths = other._maxMonths;
+        }
+        _count += other._count;
+
+        return this;
+    }
+
+    /**
+     * Get the number of values added to this accumulator.
+     *
+     * @return   the number of values
+     */
+    public long count() {
+        return _count;
+    }
+
+    /**
+     * Get the sum of the values added to this accumulator.
+     *
+     * @return   the sum, which is a zero length duration when no values
+     *           have been added
+     *
+     * @throws TransformerException   FODT0002 if the sum is too large
+     */
+    public XSYearMonthDuration sum() throws TransformerException {
+        if (_overflow || (_months < Integer.MIN_VALUE) || (_months > Integer.MAX_VALUE)) {
+            throw new TransformerException("FODT0002 : The sum of the xs:yearMonthDuration values is too large.");
+        }
+
+        return new XSYearMonthDuration((int)_months);
+    }
+
+    /**
+     * Get the average of the values added to this accumulator, rounded to
+     * the nearest month.
+     *
+     * @return   the average, or null when no values have been added
+     *
+     * @throws TransformerException   FODT0002 if the sum is too large
+     */
+    public XSYearMonthDuration avg() throws TransformerException {
+        if (_count == 0) {
+            return null;
+        }
+
+        return XPath3DurationArithmetic.yearMonthOp(XPath3DurationArithmetic.OP_DIVIDE, sum(),
+                                                                                XSInteger.valueOf(_count));
+    }
+
+    /**
+     * Get the least of the values added to this accumulator.
+     *
+     * @return   the least value, or null when no values have been added
+     */
+    public XSYearMonthDuration min() {
+        return (_count == 0) ? null : new XSYearMonthDuration(_minMonths);
+    }
+
+    /**
+     * Get the greatest of the values added to this accumulator.
+     *
+     * @return   the greatest value, or null when no values have been added
+     */
+    public XSYearMonthDuration max() {
+        return (_count == 0) ? null : new XSYearMonthDuration(_maxMonths);
+    }
+
+    private void addMonths(long months) {
+        long total = _months + months;
+        // the addition overflowed, if both the operands differ in sign from
+        // the result
+        if (((_months ^ total) & (months ^ total)) < 0) {
+            _overflow = true;
+        }
+        _months = total;
+    }
+
+}
@@ -0,0 +1,56 @@
+package xml.xpath31.processor.types;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import javax.xml.transform.TransformerException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XPath3DateTimeContextTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-12-31T23:30:00.25Z"), ZoneOffset.ofHours(2));
+
+    @Test
+    void implicitTimezoneFromClock() {
+        final XPath3DateTimeContext context = new XPath3DateTimeContext(CLOCK);
+
+        assertEquals(120, context.implicitTimezoneMinutes());
+        assertEquals(Instant.parse("2025-12-31T23:30:00.25Z"), context.currentInstant());
+    }
+
+    @Test
+    void currentValues() {
+        final XPath3DateTimeContext context = new XPath3DateTimeContext(CLOCK);
+
+        assertEquals("2026-01-01T01:30:00.25+02:00", context.currentDateTime().stringValue());
+        assertEquals("2026-01-01+02:00", context.currentDate().stringValue());
+        assertEquals("01:30:00.25+02:00", context.currentTime().stringValue());
+        assertTrue(context.currentDateTime().isPopulatedFromFnCurrentDateTime());
+    }
+
+    @Test
+    void implicitTimezoneAppliedToComparisons() throws TransformerException {
+        final XPath3DateTimeContext context = new XPath3DateTimeContext(CLOCK, -300);
+        final XSDateTime local = XSDateTime.parseDateTime("2025-06-01T07:00:00", context);
+
+        assertTrue(local.equals(XSDateTime.parseDateTime("2025-06-01T12:00:00Z", context)));
+        assertTrue(local.lt(XSDateTime.parseDateTime("2025-06-01T12:00:01Z", context)));
+        assertTrue(XSTime.parseTime("07:00:00", context).equals(XSTime.parseTime("12:00:00Z", context)));
+        assertTrue(XSDate.parseDate("2025-06-01", context).equals(XSDate.parseDate("2025-06-01-05:00", context)));
+
+        // the current date and time, is compared with values without a timezone
+        final XPath3DateTimeContext utcContext = new XPath3DateTimeContext(CLOCK, 0);
+        assertTrue(utcContext.currentDateTime().equals(
+                           XSDateTime.parseDateTime("2025-12-31T23:30:00.25", utcContext)));
+    }
+
+    @Test
+    void implicitTimezoneOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new XPath3DateTimeContext(CLOCK, 14 * 60 + 1));
+    }
+
+}
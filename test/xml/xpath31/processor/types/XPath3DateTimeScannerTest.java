@@ -0,0 +1,87 @@
+package xml.xpath31.processor.types;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static xml.xpath31.processor.types.XPath3DateTimeScanner.SCAN_INVALID;
+import static xml.xpath31.processor.types.XPath3DateTimeScanner.SCAN_OK;
+import static org.junit.jupiter.api.Assertions.*;
+
+class XPath3DateTimeScannerTest {
+
+    private final XPath3DateTimeScanner scanner = new XPath3DateTimeScanner();
+
+    @Test
+    void scanDateTime() {
+        assertEquals(SCAN_OK, scanner.scanDateTime("2025-02-28T10:20:30.123456789+05:30"));
+        assertEquals(LocalDateTime.of(2025, 2, 28, 10, 20, 30).toEpochSecond(ZoneOffset.UTC), scanner.localSeconds());
+        assertEquals(123456789, scanner.nanos());
+        assertEquals(330, scanner.timezoneMinutes());
+        assertTrue(scanner.isTimezoned());
+
+        assertEquals(SCAN_OK, scanner.scanDateTime(" 1999-12-31T24:00:00\n"));
+        assertEquals(LocalDate.of(2000, 1, 1).toEpochDay() * 86400, scanner.localSeconds());
+        assertEquals(0, scanner.nanos());
+        assertFalse(scanner.isTimezoned());
+
+        // digits beyond nanosecond precision are truncated
+        assertEquals(SCAN_OK, scanner.scanDateTime("2025-02-28T10:20:30.1234567899Z"));
+        assertEquals(123456789, scanner.nanos());
+        assertEquals(0, scanner.timezoneMinutes());
+        assertTrue(scanner.isTimezoned());
+    }
+
+    @Test
+    void scanDate() {
+        assertEquals(SCAN_OK, scanner.scanDate("2000-02-29-14:00"));
+        assertEquals(LocalDate.of(2000, 2, 29).toEpochDay() * 86400, scanner.localSeconds());
+        assertEquals(-840, scanner.timezoneMinutes());
+
+        // the year -0001 is 1 BCE, which is the astronomical year 0
+        assertEquals(SCAN_OK, scanner.scanDate("-0001-02-29"));
+        assertEquals(LocalDate.of(0, 2, 29).toEpochDay() * 86400, scanner.localSeconds());
+
+        assertEquals(SCAN_OK, scanner.scanDate("12345-06-07"));
+        assertEquals(LocalDate.of(12345, 6, 7).toEpochDay() * 86400, scanner.localSeconds());
+    }
+
+    @Test
+    void scanTime() {
+        assertEquals(SCAN_OK, scanner.scanTime("23:59:59.5"));
+        assertEquals(86399, scanner.localSeconds());
+        assertEquals(500000000, scanner.nanos());
+
+        assertEquals(SCAN_OK, scanner.scanTime("24:00:00Z"));
+        assertEquals(0, scanner.localSeconds());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "2025-02-28", "2025-02-28T", "2025-02-28T10:00", "2025-02-28T10:00:00.",
+            "2025-02-28T10:00:00+02", "2025-02-28T10:00:00+14:01", "2025-02-28T10:00:00+02:60",
+            "2025-02-28T10:00:00Z x", "2025-02-28T10:00:00ZZ", "2025-02-28T24:00:01", "2025-02-28T25:00:00",
+            "2025-02-28T10:60:00", "2025-02-28T10:00:60", "2025-02-29T10:00:00", "2025-13-01T10:00:00",
+            "2025-00-01T10:00:00", "2025-01-00T10:00:00", "0000-01-01T00:00:00", "025-01-01T00:00:00",
+            "02025-01-01T00:00:00", "2025-1-01T00:00:00", "2025-01-01t00:00:00", "+2025-01-01T00:00:00",
+            "1234567890-01-01T00:00:00"})
+    void scanDateTimeInvalid(final String str) {
+        assertEquals(SCAN_INVALID, scanner.scanDateTime(str));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "2025-02-28T10:00:00", "1900-02-29", "2025-02-28Z+01:00", "--2025-02-28"})
+    void scanDateInvalid(final String str) {
+        assertEquals(SCAN_INVALID, scanner.scanDate(str));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "1:00:00", "10:00:00.", "10:00:00+", "T10:00:00", "24:00:00.1"})
+    void scanTimeInvalid(final String str) {
+        assertEquals(SCAN_INVALID, scanner.scanTime(str));
+    }
+
+}
@@ -0,0 +1,85 @@
+package xml.xpath31.processor.types;
+
+import org.junit.jupiter.api.Test;
+
+import javax.xml.transform.TransformerException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XPath3DurationArithmeticTest {
+
+    @Test
+    void multiplyDayTimeDuration() throws TransformerException {
+        final XSDayTimeDuration duration = dayTime("PT1H0.1S");
+
+        assertEquals("PT3H0.3S", duration.mult(new XSInteger("3")).stringValue());
+        assertEquals("PT1H30M0.15S", duration.mult(new XSDecimal("1.5")).stringValue());
+        assertEquals("-PT5H0.5S", duration.mult(new XSDouble(-5.0)).stringValue());
+        assertEquals("PT1H6M0.11S", duration.mult(new XSDouble(1.1)).stringValue());
+        assertEquals("PT0S", duration.mult(new XSFloat(0.0f)).stringValue());
+
+        // the result is rounded to the nearest nanosecond
+        assertEquals("PT0.000000001S", dayTime("PT0.000000001S").mult(new XSDecimal("0.5")).stringValue());
+        assertEquals("PT0S", dayTime("-PT0.000000001S").mult(new XSDecimal("0.5")).stringValue());
+        assertEquals("PT0.000000002S", dayTime("PT0.000000001S").mult(new XSDecimal("1.999999999")).stringValue());
+    }
+
+    @Test
+    void divideDayTimeDuration() throws TransformerException {
+        final XSDayTimeDuration duration = dayTime("P1D");
+
+        assertEquals("PT8H", duration.div(new XSInteger("3")).stringValue());
+        assertEquals("PT3H25M42.857142857S", duration.div(new XSInteger("7")).stringValue());
+        assertEquals("-P2D", duration.div(new XSDecimal("-0.5")).stringValue());
+        assertEquals("PT0S", duration.div(new XSDouble(Double.POSITIVE_INFINITY)).stringValue());
+
+        // the ratio of two durations
+        assertEquals("PT2.5S", dayTime("PT2M30S").div(dayTime("PT1M")).stringValue());
+    }
+
+    @Test
+    void largeOperands() throws TransformerException {
+        // intermediate results beyond the range of a long
+        final XSDayTimeDuration duration = dayTime("P100000000000DT0.5S");
+        assertEquals("P50000000000DT0.25S", duration.mult(new XSDecimal("0.5")).stringValue());
+        assertEquals("P50000000000DT0.25S", duration.div(new XSInteger("2")).stringValue());
+        assertEquals("P1D", dayTime("P1D").mult(new XSDecimal("1.000000000000000000001")).stringValue());
+        assertEquals("P1D", dayTime("P3D").div(new XSDouble(3.0000000000000004)).stringValue());
+
+        assertThrows(TransformerException.class, () -> duration.mult(new XSInteger("1000000000")));
+        assertThrows(TransformerException.class, () -> duration.mult(new XSDouble(Double.POSITIVE_INFINITY)));
+    }
+
+    @Test
+    void multiplyAndDivideYearMonthDuration() throws TransformerException {
+        final XSYearMonthDuration duration = new XSYearMonthDuration(14);
+
+        assertEquals("P2Y4M", duration.mult(new XSInteger("2")).stringValue());
+        // the result is rounded to the nearest month, with halfway values
+        // rounded towards positive infinity
+        assertEquals("P1Y9M", duration.mult(new XSDecimal("1.5")).stringValue());
+        assertEquals("P4M", new XSYearMonthDuration(7).mult(new XSDouble(0.5)).stringValue());
+        assertEquals("-P3M", new XSYearMonthDuration(-7).mult(new XSDouble(0.5)).stringValue());
+        assertEquals("P5M", duration.div(new XSInteger("3")).stringValue());
+        assertEquals("P2Y4M", duration.div(new XSDouble(0.5)).stringValue());
+
+        assertEquals("3.5", ((XSDecimal)duration.div(new XSYearMonthDuration(4))).stringValue());
+
+        assertThrows(TransformerException.class, () -> duration.mult(new XSInteger("1000000000")));
+    }
+
+    @Test
+    void invalidOperands() {
+        final XSDayTimeDuration duration = new XSDayTimeDuration(60);
+
+        assertThrows(TransformerException.class, () -> duration.mult(new XSDouble(Double.NaN)));
+        assertThrows(TransformerException.class, () -> duration.div(new XSInteger("0")));
+        assertThrows(TransformerException.class, () -> duration.div(new XSFloat(-0.0f)));
+        assertThrows(TransformerException.class, () -> new XSYearMonthDuration(1).div(new XSDecimal("0")));
+    }
+
+    private static XSDayTimeDuration dayTime(final String str) throws TransformerException {
+        return (XSDayTimeDuration)XSDayTimeDuration.parseDayTimeDuration(str);
+    }
+
+}
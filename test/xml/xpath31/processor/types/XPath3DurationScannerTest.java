@@ -0,0 +1,84 @@
+package xml.xpath31.processor.types;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static xml.xpath31.processor.types.XPath3DurationScanner.SCAN_INVALID;
+import static xml.xpath31.processor.types.XPath3DurationScanner.SCAN_OK;
+import static xml.xpath31.processor.types.XPath3DurationScanner.SCAN_OVERFLOW;
+import static org.junit.jupiter.api.Assertions.*;
+
+class XPath3DurationScannerTest {
+
+    private final XPath3DurationScanner scanner = new XPath3DurationScanner();
+
+    @Test
+    void scanDuration() {
+        assertEquals(SCAN_OK, scanner.scanDuration("P1Y2M3DT4H5M6.123456789S"));
+        assertEquals(14, scanner.months());
+        assertEquals(((3 * 24 + 4) * 60 + 5) * 60 + 6, scanner.seconds());
+        assertEquals(123456789, scanner.nanos());
+
+        assertEquals(SCAN_OK, scanner.scanDuration(" -P1MT1M\n"));
+        assertEquals(-1, scanner.months());
+        assertEquals(-60, scanner.seconds());
+        assertEquals(0, scanner.nanos());
+
+        // the components of a duration don't need to be within their usual ranges
+        assertEquals(SCAN_OK, scanner.scanDuration("P15MT36H90S"));
+        assertEquals(15, scanner.months());
+        assertEquals(36 * 3600 + 90, scanner.seconds());
+
+        // digits beyond nanosecond precision are truncated
+        assertEquals(SCAN_OK, scanner.scanDuration("-PT.5555555555S"));
+        assertEquals(0, scanner.seconds());
+        assertEquals(-555555555, scanner.nanos());
+
+        assertEquals(SCAN_OK, scanner.scanDuration("PT5.S"));
+        assertEquals(5, scanner.seconds());
+    }
+
+    @Test
+    void scanDayTimeDuration() {
+        assertEquals(SCAN_OK, scanner.scanDayTimeDuration("P3DT0.5S"));
+        assertEquals(0, scanner.months());
+        assertEquals(3 * 86400, scanner.seconds());
+        assertEquals(500000000, scanner.nanos());
+
+        assertEquals(SCAN_INVALID, scanner.scanDayTimeDuration("P1Y"));
+        assertEquals(SCAN_INVALID, scanner.scanDayTimeDuration("P1M"));
+    }
+
+    @Test
+    void scanYearMonthDuration() {
+        assertEquals(SCAN_OK, scanner.scanYearMonthDuration("-P2Y13M"));
+        assertEquals(-37, scanner.months());
+        assertEquals(0, scanner.seconds());
+
+        assertEquals(SCAN_INVALID, scanner.scanYearMonthDuration("P1D"));
+        assertEquals(SCAN_INVALID, scanner.scanYearMonthDuration("PT1M"));
+    }
+
+    @Test
+    void scanOverflow() {
+        assertEquals(SCAN_OVERFLOW, scanner.scanDuration("P178956971Y"));
+        assertEquals(SCAN_OK, scanner.scanDuration("P178956970Y7M"));
+        assertEquals(Integer.MAX_VALUE, scanner.months());
+        assertEquals(SCAN_OVERFLOW, scanner.scanYearMonthDuration("P178956970Y8M"));
+        assertEquals(SCAN_OVERFLOW, scanner.scanDayTimeDuration("PT99999999999999999999S"));
+        assertEquals(SCAN_OVERFLOW, scanner.scanDayTimeDuration("P106751991167301D"));
+
+        // an invalid string isn't reported as an overflow
+        assertEquals(SCAN_INVALID, scanner.scanDuration("P99999999999Y1Y"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "P", "-P", "PT", "P1YT", "1Y", "+P1Y", "P-1Y", "P1M1Y", "P1D1M", "P1H", "P1S",
+            "PT1D", "PT1Y", "P1DT1S1M", "P1Y1Y", "PT1.5M", "P1.5D", "PT.S", "PT 1S", "PT1S x", "P1DTT1H",
+            "P1Y2", "p1Y", "P1y"})
+    void scanDurationInvalid(final String str) {
+        assertEquals(SCAN_INVALID, scanner.scanDuration(str));
+    }
+
+}
@@ -0,0 +1,112 @@
+package xml.xpath31.processor.types;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static xml.xpath31.processor.types.XPath3NumericCasts.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class XPath3NumericCastsTest {
+
+    @ParameterizedTest
+    @MethodSource("castArgs")
+    void cast(final XSAnyType value, final int target, final Class<?> expectedType, final String expectedResult) {
+        final XSNumericType result = XPath3NumericCasts.cast(value, target);
+        if (expectedResult == null) {
+            assertNull(result);
+        } else {
+            assertNotNull(result);
+            assertEquals(expectedType, result.getClass());
+            assertEquals(expectedResult, result.stringValue());
+        }
+    }
+
+    @Test
+    void doubleToDecimalUsesShortestDigits() {
+        final Random random = new Random(47);
+        for (int i = 0; i < 100_000; i++) {
+            final double value = Double.longBitsToDouble(random.nextLong());
+            final XSNumericType result = XPath3NumericCasts.cast(new XSDouble(value), TARGET_DECIMAL);
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                assertNull(result);
+            } else {
+                final BigDecimal expected = new BigDecimal(XPath3NumericFormat.formatDouble(value));
+                assertEquals(0, expected.compareTo(((XSDecimal) result).getValue()), Double.toString(value));
+            }
+        }
+    }
+
+    @Test
+    void floatToDecimalUsesShortestDigits() {
+        final Random random = new Random(53);
+        for (int i = 0; i < 100_000; i++) {
+            final float value = Float.intBitsToFloat(random.nextInt());
+            final XSNumericType result = XPath3NumericCasts.cast(new XSFloat(value), TARGET_DECIMAL);
+            if (Float.isNaN(value) || Float.isInfinite(value)) {
+                assertNull(result);
+            } else {
+                final BigDecimal expected = new BigDecimal(XPath3NumericFormat.formatFloat(value));
+                assertEquals(0, expected.compareTo(((XSDecimal) result).getValue()), Float.toString(value));
+            }
+        }
+    }
+
+    @Test
+    void sameTypeCastReturnsValue() {
+        final XSDouble xsDouble = new XSDouble(2.5);
+        assertSame(xsDouble, XPath3NumericCasts.cast(xsDouble, TARGET_DOUBLE));
+        final XSDecimal xsDecimal = new XSDecimal("2.5");
+        assertSame(xsDecimal, XPath3NumericCasts.cast(xsDecimal, TARGET_DECIMAL));
+    }
+
+    public static Stream<Arguments> castArgs() {
+        return Stream.of(
+                Arguments.of(new XSBoolean(true), TARGET_INTEGER, XSInteger.class, "1"),
+                Arguments.of(new XSLong("42"), TARGET_INTEGER, XSInteger.class, "42"),
+                Arguments.of(new XSDecimal("-17.9"), TARGET_INTEGER, XSInteger.class, "-17"),
+                Arguments.of(new XSDecimal("0.0000000000000000000009"), TARGET_INTEGER, XSInteger.class, "0"),
+                Arguments.of(new XSDecimal("-123456789012345678901234.5"), TARGET_INTEGER, XSInteger.class,
+                        "-123456789012345678901234"),
+                Arguments.of(new XSFloat(2.75f), TARGET_INTEGER, XSInteger.class, "2"),
+                Arguments.of(new XSDouble(-1.0E20), TARGET_INTEGER, XSInteger.class, "-100000000000000000000"),
+                Arguments.of(new XSDouble(Double.NaN), TARGET_INTEGER, null, null),
+                Arguments.of(new XSFloat(Float.NEGATIVE_INFINITY), TARGET_INTEGER, null, null),
+                Arguments.of(new XSString(" 12 "), TARGET_INTEGER, XSInteger.class, "12"),
+                Arguments.of(new XSString("12.5"), TARGET_INTEGER, null, null),
+
+                Arguments.of(new XSBoolean(false), TARGET_DECIMAL, XSDecimal.class, "0"),
+                Arguments.of(new XSInteger(42), TARGET_DECIMAL, XSDecimal.class, "42"),
+                Arguments.of(new XSDouble(0.1), TARGET_DECIMAL, XSDecimal.class, "0.1"),
+                Arguments.of(new XSDouble(-1.0E-7), TARGET_DECIMAL, XSDecimal.class, "-0.0000001"),
+                Arguments.of(new XSDouble(1.0E21), TARGET_DECIMAL, XSDecimal.class, "1000000000000000000000"),
+                Arguments.of(new XSDouble(-0.0), TARGET_DECIMAL, XSDecimal.class, "0"),
+                Arguments.of(new XSFloat(0.1f), TARGET_DECIMAL, XSDecimal.class, "0.1"),
+                Arguments.of(new XSFloat(Float.MIN_VALUE), TARGET_DECIMAL, XSDecimal.class,
+                        "0.0000000000000000000000000000000000000000000014"),
+                Arguments.of(new XSDouble(Double.POSITIVE_INFINITY), TARGET_DECIMAL, null, null),
+                Arguments.of(new XSString("1e5"), TARGET_DECIMAL, null, null),
+
+                Arguments.of(new XSBoolean(true), TARGET_FLOAT, XSFloat.class, "1"),
+                Arguments.of(new XSInteger(16777217), TARGET_FLOAT, XSFloat.class, "1.6777216E7"),
+                Arguments.of(new XSDecimal("0.1"), TARGET_FLOAT, XSFloat.class, "0.1"),
+                Arguments.of(new XSDouble(0.1), TARGET_FLOAT, XSFloat.class, "0.1"),
+                Arguments.of(new XSDouble(1.0E300), TARGET_FLOAT, XSFloat.class, "INF"),
+                Arguments.of(new XSString("-INF"), TARGET_FLOAT, XSFloat.class, "-INF"),
+                Arguments.of(new XSString("abc"), TARGET_FLOAT, null, null),
+
+                Arguments.of(new XSBoolean(false), TARGET_DOUBLE, XSDouble.class, "0"),
+                Arguments.of(new XSInteger("123456789012345678901234567890"), TARGET_DOUBLE, XSDouble.class,
+                        "1.2345678901234568E29"),
+                Arguments.of(new XSDecimal("1.3"), TARGET_DOUBLE, XSDouble.class, "1.3"),
+                Arguments.of(new XSFloat(0.1f), TARGET_DOUBLE, XSDouble.class, "0.10000000149011612"),
+                Arguments.of(new XSString("NaN"), TARGET_DOUBLE, XSDouble.class, "NaN"),
+                Arguments.of(new XSString("1,5"), TARGET_DOUBLE, null, null)
+        );
+    }
+}
@@ -0,0 +1,153 @@
+package xml.xpath31.processor.types;
+
+import org.apache.xml.utils.FastStringBuffer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XPath3NumericFormatTest {
+
+    @ParameterizedTest
+    @MethodSource("doubleArgs")
+    void formatDouble(final double value, final String expectedResult) {
+        assertEquals(expectedResult, XPath3NumericFormat.formatDouble(value));
+    }
+
+    @ParameterizedTest
+    @MethodSource("floatArgs")
+    void formatFloat(final float value, final String expectedResult) {
+        assertEquals(expectedResult, XPath3NumericFormat.formatFloat(value));
+    }
+
+    @ParameterizedTest
+    @MethodSource("decimalArgs")
+    void appendDecimal(final String unscaledValue, final int scale, final String expectedResult) {
+        final BigInteger bigUnscaledValue = new BigInteger(unscaledValue);
+        final StringBuilder strBuf = new StringBuilder();
+        if (bigUnscaledValue.bitLength() < 64) {
+            XPath3NumericFormat.appendDecimal(bigUnscaledValue.longValue(), scale, strBuf);
+            assertEquals(expectedResult, strBuf.toString());
+            strBuf.setLength(0);
+
+            final FastStringBuffer fsb = new FastStringBuffer();
+            fsb.append('[');
+            XPath3NumericFormat.formatDecimal(bigUnscaledValue.longValue(), scale, fsb,
+                                                                     XPath3CharSink.FAST_STRING_BUFFER);
+            assertEquals("[" + expectedResult, fsb.toString());
+        }
+        XPath3NumericFormat.appendDecimal(bigUnscaledValue, scale, strBuf);
+        assertEquals(expectedResult, strBuf.toString());
+
+        final FastStringBuffer fsb = new FastStringBuffer();
+        fsb.append('[');
+        XPath3NumericFormat.formatDecimal(bigUnscaledValue, scale, fsb, XPath3CharSink.FAST_STRING_BUFFER);
+        assertEquals("[" + expectedResult, fsb.toString());
+    }
+
+    @Test
+    void formatDoubleRoundTrips() {
+        final Random random = new Random(31);
+        for (int i = 0; i < 100_000; i++) {
+            final double value = Double.longBitsToDouble(random.nextLong());
+            final String str = XPath3NumericFormat.formatDouble(value);
+            if (!Double.isNaN(value) && !Double.isInfinite(value)) {
+                assertEquals(value, Double.parseDouble(str), str);
+            }
+        }
+    }
+
+    @Test
+    void formatFloatRoundTrips() {
+        final Random random = new Random(37);
+        for (int i = 0; i < 100_000; i++) {
+            final float value = Float.intBitsToFloat(random.nextInt());
+            final String str = XPath3NumericFormat.formatFloat(value);
+            if (!Float.isNaN(value) && !Float.isInfinite(value)) {
+                assertEquals(value, Float.parseFloat(str), str);
+            }
+        }
+    }
+
+    @Test
+    void formatDoubleToBuffer() {
+        final StringBuilder strBuf = new StringBuilder("[");
+        XPath3NumericFormat.appendDouble(-2.2250738585072014E-308, strBuf);
+        strBuf.append(']');
+        assertEquals("[-2.2250738585072014E-308]", strBuf.toString());
+
+        final FastStringBuffer fsb = new FastStringBuffer();
+        fsb.append('[');
+        XPath3NumericFormat.formatFloat(1.0E-7f, fsb, XPath3CharSink.FAST_STRING_BUFFER);
+        fsb.append(']');
+        assertEquals("[1.0E-7]", fsb.toString());
+    }
+
+    public static Stream<Arguments> doubleArgs() {
+        return Stream.of(
+                Arguments.of(0.0, "0"),
+                Arguments.of(-0.0, "-0"),
+                Arguments.of(Double.NaN, "NaN"),
+                Arguments.of(Double.POSITIVE_INFINITY, "INF"),
+                Arguments.of(Double.NEGATIVE_INFINITY, "-INF"),
+                Arguments.of(1.0, "1"),
+                Arguments.of(-100.0, "-100"),
+                Arguments.of(1.3, "1.3"),
+                Arguments.of(0.1 + 0.2, "0.30000000000000004"),
+                Arguments.of(123456.7, "123456.7"),
+                Arguments.of(999999.9999999999, "999999.9999999999"),
+                Arguments.of(1.0E6, "1.0E6"),
+                Arguments.of(1.2345678E7, "1.2345678E7"),
+                Arguments.of(0.000001, "0.000001"),
+                Arguments.of(0.0000012345, "0.0000012345"),
+                Arguments.of(9.99E-7, "9.99E-7"),
+                Arguments.of(-1.5E-7, "-1.5E-7"),
+                Arguments.of(1.0E21, "1.0E21"),
+                Arguments.of(Double.MAX_VALUE, "1.7976931348623157E308"),
+                Arguments.of(Double.MIN_VALUE, "4.9E-324"),
+                Arguments.of(Double.MIN_NORMAL, "2.2250738585072014E-308"),
+                Arguments.of(9007199254740993.0, "9.007199254740992E15")
+        );
+    }
+
+    public static Stream<Arguments> decimalArgs() {
+        return Stream.of(
+                Arguments.of("0", 0, "0"),
+                Arguments.of("0", 5, "0"),
+                Arguments.of("13", 1, "1.3"),
+                Arguments.of("1300", 3, "1.3"),
+                Arguments.of("-5", 2, "-0.05"),
+                Arguments.of("5", 20, "0.00000000000000000005"),
+                Arguments.of("42", 0, "42"),
+                Arguments.of("42", -3, "42000"),
+                Arguments.of("-1000", 3, "-1"),
+                Arguments.of("9223372036854775807", 19, "0.9223372036854775807"),
+                Arguments.of("-9223372036854775808", 4, "-922337203685477.5808"),
+                Arguments.of("1234567890123456789012345678900", 5, "12345678901234567890123456.789"),
+                Arguments.of("-1234567890123456789012345678900", 40, "-0.00000000012345678901234567890123456789")
+        );
+    }
+
+    public static Stream<Arguments> floatArgs() {
+        return Stream.of(
+                Arguments.of(0.0f, "0"),
+                Arguments.of(-0.0f, "-0"),
+                Arguments.of(Float.NaN, "NaN"),
+                Arguments.of(Float.POSITIVE_INFINITY, "INF"),
+                Arguments.of(Float.NEGATIVE_INFINITY, "-INF"),
+                Arguments.of(1.3f, "1.3"),
+                Arguments.of(189.5f, "189.5"),
+                Arguments.of(0.1f, "0.1"),
+                Arguments.of(1.0E6f, "1.0E6"),
+                Arguments.of(16777216f, "1.6777216E7"),
+                Arguments.of(Float.MAX_VALUE, "3.4028235E38"),
+                Arguments.of(Float.MIN_VALUE, "1.4E-45")
+        );
+    }
+}
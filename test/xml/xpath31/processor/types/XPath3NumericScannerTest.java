@@ -0,0 +1,172 @@
+package xml.xpath31.processor.types;
+
+import org.apache.xpath.objects.ResultSequence;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static xml.xpath31.processor.types.XPath3NumericScanner.SCAN_INVALID;
+import static xml.xpath31.processor.types.XPath3NumericScanner.SCAN_OK;
+import static org.junit.jupiter.api.Assertions.*;
+
+class XPath3NumericScannerTest {
+
+    private final XPath3NumericScanner scanner = new XPath3NumericScanner();
+
+    @ParameterizedTest
+    @MethodSource("doubleArgs")
+    void scanDouble(final String str, final double expectedResult) {
+        assertEquals(SCAN_OK, scanner.scanDouble(str));
+        assertEquals(Double.doubleToLongBits(expectedResult), Double.doubleToLongBits(scanner.doubleValue()), str);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", " ", "+", "-", ".", "+.", "1.2.3", "1e", "1e+", "E5", "1 2", "0x10", "1d",
+            "1f", "inf", "Infinity", "-NaN", "+NaN", "--1", "1e1.5", "1,5"})
+    void scanDoubleInvalid(final String str) {
+        assertEquals(SCAN_INVALID, scanner.scanDouble(str));
+        assertEquals(SCAN_INVALID, scanner.scanFloat(str));
+    }
+
+    @Test
+    void scanDoubleMatchesParseDouble() {
+        final Random random = new Random(41);
+        for (int i = 0; i < 100_000; i++) {
+            final double value = Double.longBitsToDouble(random.nextLong());
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                continue;
+            }
+            final String[] strs = {
+                    Double.toString(value),
+                    new BigDecimal(value).toPlainString(),
+                    Long.toString(random.nextLong() >> random.nextInt(64)) + "." + random.nextInt(1000000),
+                    random.nextInt(100000) + "e" + (random.nextInt(60) - 30)
+            };
+            for (final String str : strs) {
+                assertEquals(SCAN_OK, scanner.scanDouble(str), str);
+                assertEquals(Double.parseDouble(str), scanner.doubleValue(), str);
+                assertEquals(SCAN_OK, scanner.scanFloat(str), str);
+                assertEquals(Float.parseFloat(str), scanner.floatValue(), str);
+            }
+        }
+    }
+
+    @Test
+    void scanFloat() {
+        assertEquals(SCAN_OK, scanner.scanFloat("1.3"));
+        assertEquals(1.3f, scanner.floatValue());
+        assertEquals(SCAN_OK, scanner.scanFloat(" -INF\n"));
+        assertEquals(Float.NEGATIVE_INFINITY, scanner.floatValue());
+        assertEquals(SCAN_OK, scanner.scanFloat("1e39"));
+        assertEquals(Float.POSITIVE_INFINITY, scanner.floatValue());
+        assertEquals(SCAN_OK, scanner.scanFloat("16777217"));
+        assertEquals(16777216f, scanner.floatValue());
+    }
+
+    @ParameterizedTest
+    @MethodSource("decimalArgs")
+    void scanDecimal(final String str, final String expectedUnscaledValue, final int expectedScale) {
+        assertEquals(SCAN_OK, scanner.scanDecimal(str));
+        final BigInteger unscaledValue = (scanner.bigUnscaledValue() != null) ? scanner.bigUnscaledValue() :
+                BigInteger.valueOf(scanner.unscaledValue());
+        assertEquals(new BigInteger(expectedUnscaledValue), unscaledValue);
+        assertEquals(expectedScale, scanner.scale());
+        assertEquals(unscaledValue.bitLength() >= 64, scanner.bigUnscaledValue() != null);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "+", ".", "-.", "1e5", "1.2.3", "INF", "NaN", "1 2", "1_000"})
+    void scanDecimalInvalid(final String str) {
+        assertEquals(SCAN_INVALID, scanner.scanDecimal(str));
+    }
+
+    @Test
+    void scanInteger() {
+        assertEquals(SCAN_OK, scanner.scanInteger("\t-0042 "));
+        assertEquals(-42, scanner.unscaledValue());
+        assertNull(scanner.bigUnscaledValue());
+        assertEquals(SCAN_OK, scanner.scanInteger("-9223372036854775808"));
+        assertEquals(Long.MIN_VALUE, scanner.unscaledValue());
+        assertNull(scanner.bigUnscaledValue());
+        assertEquals(SCAN_OK, scanner.scanInteger("123456789012345678901234567890123456789"));
+        assertEquals(new BigInteger("123456789012345678901234567890123456789"), scanner.bigUnscaledValue());
+
+        assertEquals(SCAN_INVALID, scanner.scanInteger("1.0"));
+        assertEquals(SCAN_INVALID, scanner.scanInteger("1e2"));
+        assertEquals(SCAN_INVALID, scanner.scanInteger("-"));
+    }
+
+    @Test
+    void constructorsUseScanner() throws Exception {
+        assertEquals("1.5", new XSDecimal(" 1.50 ").stringValue());
+        assertEquals("12", new XSInteger("+012").stringValue());
+        assertEquals("INF", new XSDouble("+INF").stringValue());
+        assertTrue(new XSFloat("NaN").nan());
+        assertEquals("-INF", new XSFloat(" -INF ").stringValue());
+        assertThrows(NumberFormatException.class, () -> new XSFloat("abc"));
+        assertThrows(NumberFormatException.class, () -> new XSFloat("1.5f"));
+        assertThrows(NumberFormatException.class, () -> new XSDecimal("1e5"));
+        assertThrows(NumberFormatException.class, () -> new XSInteger("12.0"));
+
+        final ResultSequence input = new ResultSequence();
+        input.add(new XSString("12.5x"));
+        assertNull(new XSDecimal().constructor(input));
+        assertNull(new XSInteger().constructor(input));
+        assertNull(new XSFloat().constructor(input));
+
+        final ResultSequence doubleInput = new ResultSequence();
+        doubleInput.add(new XSDouble(1.0E7));
+        assertEquals("10000000", ((XSDecimal) new XSDecimal().constructor(doubleInput).item(0)).stringValue());
+        assertEquals("10000000", ((XSInteger) new XSInteger().constructor(doubleInput).item(0)).stringValue());
+    }
+
+    public static Stream<Arguments> doubleArgs() {
+        return Stream.of(
+                Arguments.of("0", 0.0),
+                Arguments.of("-0", -0.0),
+                Arguments.of("-0.0e10", -0.0),
+                Arguments.of("INF", Double.POSITIVE_INFINITY),
+                Arguments.of("+INF", Double.POSITIVE_INFINITY),
+                Arguments.of("-INF", Double.NEGATIVE_INFINITY),
+                Arguments.of("NaN", Double.NaN),
+                Arguments.of(" \t1.3\r\n", 1.3),
+                Arguments.of("+1.", 1.0),
+                Arguments.of(".5", 0.5),
+                Arguments.of("-.5E-1", -0.05),
+                Arguments.of("00012.5000", 12.5),
+                Arguments.of("1e22", 1.0E22),
+                Arguments.of("1e23", 1.0E23),
+                Arguments.of("9007199254740993", 9.007199254740992E15),
+                Arguments.of("0.30000000000000004", 0.30000000000000004),
+                Arguments.of("1.7976931348623157E308", Double.MAX_VALUE),
+                Arguments.of("1.8E308", Double.POSITIVE_INFINITY),
+                Arguments.of("4.9E-324", Double.MIN_VALUE),
+                Arguments.of("1E-400", 0.0),
+                Arguments.of("1E999999999999", Double.POSITIVE_INFINITY),
+                Arguments.of("123456789012345678901234567890", 1.2345678901234568E29)
+        );
+    }
+
+    public static Stream<Arguments> decimalArgs() {
+        return Stream.of(
+                Arguments.of("0", "0", 0),
+                Arguments.of("-0.000", "0", 3),
+                Arguments.of("1.", "1", 0),
+                Arguments.of(".25", "25", 2),
+                Arguments.of("+007.50", "750", 2),
+                Arguments.of(" -12.5\n", "-125", 1),
+                Arguments.of("999999999999999999", "999999999999999999", 0),
+                Arguments.of("9223372036854775807", "9223372036854775807", 0),
+                Arguments.of("9223372036854775808", "9223372036854775808", 0),
+                Arguments.of("-1234567890123456789012345678901234567.890", "-1234567890123456789012345678901234567890", 3),
+                Arguments.of("0.000000000000000000000000000000000001", "1", 36)
+        );
+    }
+}
@@ -0,0 +1,122 @@
+package xml.xpath31.processor.types;
+
+import org.apache.xpath.objects.ResultSequence;
+import org.junit.jupiter.api.Test;
+
+import javax.xml.transform.TransformerException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XPath3SortKeysTest {
+
+    @Test
+    void decimalKeysMatchNumericOrder() {
+        final Random random = new Random(11);
+        final BigDecimal[] values = new BigDecimal[2000];
+        for (int i = 0; i < values.length; i++) {
+            final BigInteger unscaled = new BigInteger(1 + random.nextInt(100), random);
+            values[i] = new BigDecimal(random.nextBoolean() ? unscaled : unscaled.negate(), random.nextInt(40) - 10);
+        }
+        values[0] = BigDecimal.valueOf(Long.MIN_VALUE);
+        values[1] = new BigDecimal("-1.05");
+        values[2] = new BigDecimal("-1.0");
+        values[3] = new BigDecimal("1.20");
+        values[4] = new BigDecimal("1.23");
+        for (int i = 0; i < values.length; i += 7) {
+            for (int j = 0; j < values.length; j++) {
+                final XSDecimal arg1 = new XSDecimal(values[i]);
+                final XSDecimal arg2 = new XSDecimal(values[j]);
+                assertEquals(Integer.signum(values[i].compareTo(values[j])),
+                        Integer.signum(XPath3SortKeys.compare(arg1.sortKey(), arg2.sortKey())),
+                        values[i] + " " + values[j]);
+            }
+        }
+    }
+
+    @Test
+    void integerKeysEqualDecimalKeys() {
+        assertArrayEquals(new XSDecimal("42.000").sortKey(), new XSInteger(42).sortKey());
+        assertArrayEquals(new XSDecimal("-4200").sortKey(), new XSLong(-4200).sortKey());
+        assertArrayEquals(new XSDecimal("0.00").sortKey(), new XSInteger(0).sortKey());
+    }
+
+    @Test
+    void doubleKeys() {
+        final double[] values = {Double.NaN, Double.NEGATIVE_INFINITY, -Double.MAX_VALUE, -1.5, -Double.MIN_VALUE,
+                0.0, Double.MIN_VALUE, 1.0, 1.5, Double.MAX_VALUE, Double.POSITIVE_INFINITY};
+        for (int i = 0; i + 1 < values.length; i++) {
+            assertTrue(XPath3SortKeys.compare(new XSDouble(values[i]).sortKey(),
+                    new XSDouble(values[i + 1]).sortKey()) < 0, Double.toString(values[i]));
+        }
+        assertArrayEquals(new XSDouble(0.0).sortKey(), new XSDouble(-0.0).sortKey());
+        assertArrayEquals(new XSDouble(0.5).sortKey(), new XSFloat(0.5f).sortKey());
+    }
+
+    @Test
+    void otherKeys() throws TransformerException {
+        assertTrue(XPath3SortKeys.compare(new XSBoolean(false).sortKey(), new XSBoolean(true).sortKey()) < 0);
+        assertTrue(XPath3SortKeys.compare(new XSYearMonthDuration(-3).sortKey(),
+                new XSYearMonthDuration(2).sortKey()) < 0);
+        assertTrue(XPath3SortKeys.compare(new XSDayTimeDuration(-30).sortKey(),
+                new XSDayTimeDuration(20).sortKey()) < 0);
+        assertTrue(XPath3SortKeys.compare(XSDateTime.parseDateTime("1999-12-31T23:59:59.500").sortKey(),
+                XSDateTime.parseDateTime("2000-01-01T00:00:00").sortKey()) < 0);
+        assertTrue(XPath3SortKeys.compare(XSDateTime.parseDateTime("2000-01-01T00:00:00.250").sortKey(),
+                XSDateTime.parseDateTime("2000-01-01T00:00:00.500").sortKey()) < 0);
+        assertTrue(XPath3SortKeys.compare(XSDate.parseDate("-0044-03-15").sortKey(),
+                XSDate.parseDate("0001-01-01").sortKey()) < 0);
+        assertTrue(XPath3SortKeys.compare(XSTime.parseTime("09:30:00").sortKey(),
+                XSTime.parseTime("10:00:00").sortKey()) < 0);
+        assertNull(new XSQName("a").sortKey());
+    }
+
+    @Test
+    void sortedOrderIsStable() {
+        final Random random = new Random(5);
+        for (final int size : new int[] {0, 1, 2, 31, 32, 1000, 5000}) {
+            final byte[][] fixedKeys = new byte[size][];
+            final byte[][] variableKeys = new byte[size][];
+            for (int i = 0; i < size; i++) {
+                fixedKeys[i] = new byte[] {1, (byte) random.nextInt(4), (byte) random.nextInt(256)};
+                variableKeys[i] = new byte[random.nextInt(4)];
+                for (int j = 0; j < variableKeys[i].length; j++) {
+                    variableKeys[i][j] = (byte) (random.nextBoolean() ? 0x80 : random.nextInt(3));
+                }
+            }
+            assertStableOrder(fixedKeys, XPath3SortKeys.sortedOrder(fixedKeys));
+            assertStableOrder(variableKeys, XPath3SortKeys.sortedOrder(variableKeys));
+        }
+    }
+
+    @Test
+    void sortSequence() throws TransformerException {
+        final ResultSequence resultSeq = new ResultSequence();
+        resultSeq.add(new XSDecimal("2.5"));
+        resultSeq.add(new XSInteger(-7));
+        resultSeq.add(new XSDecimal("2.50"));
+        resultSeq.add(new XSInteger(100));
+        final ResultSequence sortedSeq = XPath3SortKeys.sort(resultSeq);
+        assertEquals(4, sortedSeq.size());
+        assertEquals("-7", ((XSAnyType) sortedSeq.item(0)).stringValue());
+        assertSame(resultSeq.item(0), sortedSeq.item(1));
+        assertSame(resultSeq.item(2), sortedSeq.item(2));
+        assertEquals("100", ((XSAnyType) sortedSeq.item(3)).stringValue());
+
+        resultSeq.add(new XSDouble(1.0));
+        assertNull(XPath3SortKeys.sort(resultSeq));
+    }
+
+    private static void assertStableOrder(final byte[][] keys, final int[] order) {
+        final Integer[] expected = new Integer[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            expected[i] = i;
+        }
+        Arrays.sort(expected, Comparator.comparing((Integer i) -> keys[i], XPath3SortKeys::compare));
+        assertArrayEquals(Arrays.stream(expected).mapToInt(Integer::intValue).toArray(), order);
+    }
+}
@@ -0,0 +1,85 @@
+package xml.xpath31.processor.types;
+
+import org.junit.jupiter.api.Test;
+
+import javax.xml.transform.TransformerException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XPathCollationSupportTest {
+
+    private static final String UCA_URI = XPathCollationSupport.UNICODE_COLLATION_ALGORITHM_URI;
+
+    private final XPathCollationSupport collationSupport =
+            new XPathCollationSupport(XPathCollationSupport.UNICODE_CODEPOINT_COLLATION_URI);
+
+    @Test
+    void compareWithUCACollation() throws TransformerException {
+        final String primary = UCA_URI + "?lang=de;strength=primary";
+        final String tertiary = UCA_URI + "?lang=de;strength=tertiary";
+
+        assertEquals(0, collationSupport.compareStringsUsingCollation("Strasse", "strasse", primary));
+        assertEquals(1, collationSupport.compareStringsUsingCollation("Strasse", "strasse", tertiary));
+        assertEquals(-1, collationSupport.compareStringsUsingCollation("apple", "Banana", primary));
+        assertEquals(-1, collationSupport.compareStringsUsingCollation("B", "a", XPathCollationSupport.UNICODE_CODEPOINT_COLLATION_URI));
+    }
+
+    @Test
+    void resolvedCollationsAreCached() throws TransformerException {
+        final String collationUri = UCA_URI + "?strength=secondary;lang=fr";
+        final long hits = XPathCollationSupport.getCollationCacheHits();
+        final long misses = XPathCollationSupport.getCollationCacheMisses();
+
+        for (int i = 0; i < 10; i++) {
+            collationSupport.compareStringsUsingCollation("cote", "côte", collationUri);
+        }
+        // another object shares the cache
+        new XPathCollationSupport(null).compareStringsUsingCollation("cote", "côte", collationUri);
+
+        assertTrue(XPathCollationSupport.getCollationCacheMisses() - misses >= 1);
+        assertTrue(XPathCollationSupport.getCollationCacheHits() - hits >= 10);
+    }
+
+    @Test
+    void collationCacheIsBounded() throws Exception {
+        final String[] strengths = {"primary", "secondary", "tertiary", "identical"};
+        final ExecutorService executor = Executors.newFixedThreadPool(strengths.length);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (final String strength : strengths) {
+                futures.add(executor.submit(() -> {
+                    final XPathCollationSupport support = new XPathCollationSupport(null);
+                    for (final String lang : Locale.getISOLanguages()) {
+                        support.compareStringsUsingCollation("a", "b", UCA_URI + "?lang=" + lang + ";strength=" + strength);
+                    }
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+
+        assertEquals(256, XPathCollationSupport.getCollationCacheSize());
+    }
+
+    @Test
+    void invalidCollationUri() {
+        assertThrows(TransformerException.class,
+                () -> collationSupport.compareStringsUsingCollation("a", "b", UCA_URI + "?strength=strong"));
+        assertThrows(TransformerException.class,
+                () -> collationSupport.compareStringsUsingCollation("a", "b", UCA_URI + "?lang=xx-invalid"));
+        assertThrows(TransformerException.class,
+                () -> collationSupport.compareStringsUsingCollation("a", "b", UCA_URI + "/other"));
+    }
+
+}
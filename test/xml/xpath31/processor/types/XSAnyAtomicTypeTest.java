@@ -0,0 +1,121 @@
+package xml.xpath31.processor.types;
+
+import org.junit.jupiter.api.Test;
+
+import javax.xml.transform.TransformerException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XSAnyAtomicTypeTest {
+
+    @Test
+    void numericSameKey() {
+        assertSameKey(new XSInteger(1), new XSDecimal("1.0"));
+        assertSameKey(new XSInteger(1), new XSDouble(1.0));
+        assertSameKey(new XSDecimal("1.0"), new XSFloat(1.0f));
+        assertSameKey(new XSLong(42), new XSInteger(42));
+        assertSameKey(new XSDecimal("0.5"), new XSFloat(0.5f));
+        assertSameKey(new XSDouble(0.0), new XSDouble(-0.0));
+        assertSameKey(new XSDouble(Double.NaN), new XSFloat(Float.NaN));
+        assertSameKey(new XSInteger(new BigInteger("9007199254740993")), new XSDecimal("9007199254740993"));
+        assertSameKey(new XSDouble(1.0E20), new XSInteger(new BigInteger("100000000000000000000")));
+        assertSameKey(new XSDouble(0.1), new XSDecimal(new BigDecimal(0.1)));
+
+        assertNotSameKey(new XSDouble(0.1), new XSDecimal("0.1"));
+        assertNotSameKey(new XSFloat(0.1f), new XSDouble(0.1));
+        assertNotSameKey(new XSInteger(new BigInteger("9007199254740993")), new XSDouble(9007199254740992.0));
+        assertNotSameKey(new XSDouble(Double.POSITIVE_INFINITY), new XSDecimal("1"));
+        assertNotSameKey(new XSDecimal(new BigDecimal("1E400")), new XSDouble(Double.POSITIVE_INFINITY));
+        assertNotSameKey(new XSDouble(Double.NEGATIVE_INFINITY), new XSInteger(BigInteger.TEN.pow(400).negate()));
+        assertNotSameKey(new XSInteger(1), new XSString("1"));
+        assertNotSameKey(new XSInteger(1), new XSBoolean(true));
+    }
+
+    @Test
+    void stringSameKey() {
+        assertSameKey(new XSString("abc"), new XSAnyURI("abc"));
+        assertSameKey(new XSString("abc"), new XSUntypedAtomic("abc"));
+        assertSameKey(new XSAnyURI("abc"), new XSUntypedAtomic("abc"));
+        assertNotSameKey(new XSString("abc"), new XSString("ABC"));
+        assertNotSameKey(new XSString("abc"), new XSQName("abc"));
+    }
+
+    @Test
+    void otherSameKey() {
+        assertSameKey(new XSBoolean(false), new XSBoolean(false));
+        assertNotSameKey(new XSBoolean(false), new XSBoolean(true));
+        assertSameKey(new XSQName("a", "local", "urn:x"), new XSQName("b", "local", "urn:x"));
+        assertNotSameKey(new XSQName("a", "local", "urn:x"), new XSQName("a", "local", "urn:y"));
+        assertSameKey(new XSQName("local"), new XSQName("local"));
+    }
+
+    @Test
+    void durationSameKey() throws TransformerException {
+        assertSameKey(new XSYearMonthDuration(12), XSDuration.parseDuration("P1Y"));
+        assertSameKey(new XSDayTimeDuration(3600), XSDuration.parseDuration("PT60M"));
+        assertSameKey(XSDuration.parseDuration("PT0S"), new XSYearMonthDuration(0));
+        assertNotSameKey(new XSYearMonthDuration(12), new XSYearMonthDuration(13));
+        assertNotSameKey(XSDuration.parseDuration("P1M"), XSDuration.parseDuration("P30D"));
+    }
+
+    @Test
+    void calendarSameKey() throws TransformerException {
+        assertSameKey(XSDateTime.parseDateTime("2025-02-28T10:00:00Z"),
+                XSDateTime.parseDateTime("2025-02-28T05:00:00-05:00"));
+        assertSameKey(XSDateTime.parseDateTime("2025-02-28T23:30:00-01:00"),
+                XSDateTime.parseDateTime("2025-03-01T00:30:00Z"));
+        assertSameKey(XSDateTime.parseDateTime("2025-02-28T10:00:00"),
+                XSDateTime.parseDateTime("2025-02-28T10:00:00"));
+        assertNotSameKey(XSDateTime.parseDateTime("2025-02-28T10:00:00Z"),
+                XSDateTime.parseDateTime("2025-02-28T10:00:00"));
+        assertSameKey(XSTime.parseTime("10:00:00+02:00"), XSTime.parseTime("08:00:00Z"));
+        assertNotSameKey(XSTime.parseTime("10:00:00"), XSTime.parseTime("10:00:01"));
+        assertSameKey(XSDate.parseDate("2025-02-28"), XSDate.parseDate("2025-02-28"));
+        assertNotSameKey(XSDate.parseDate("2025-02-28"), XSDateTime.parseDateTime("2025-02-28T00:00:00"));
+    }
+
+    @Test
+    void mapKeys() throws TransformerException {
+        final Map<XSAnyAtomicType, String> map = new HashMap<>();
+        map.put(new XSInteger(1), "one");
+        map.put(new XSString("a"), "a");
+        map.put(XSDateTime.parseDateTime("2025-02-28T10:00:00Z"), "dateTime");
+        assertEquals("one", map.get(new XSDouble(1.0)));
+        assertEquals("one", map.get(new XSDecimal("1.000")));
+        assertEquals("a", map.get(new XSUntypedAtomic("a")));
+        assertEquals("dateTime", map.get(XSDateTime.parseDateTime("2025-02-28T11:00:00+01:00")));
+        map.put(new XSDouble(Double.POSITIVE_INFINITY), "INF");
+        assertNull(map.get(new XSDecimal(new BigDecimal("1E400"))));
+
+        final Set<XSAnyAtomicType> set = new HashSet<>();
+        set.add(new XSDouble(Double.NaN));
+        set.add(new XSFloat(Float.NaN));
+        set.add(new XSInteger(0));
+        set.add(new XSDouble(-0.0));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    void epochDay() {
+        assertEquals(0, XSCalendarType.epochDay(1970, 1, 1));
+        assertEquals(java.time.LocalDate.of(2000, 2, 29).toEpochDay(), XSCalendarType.epochDay(2000, 2, 29));
+        assertEquals(java.time.LocalDate.of(-44, 3, 15).toEpochDay(), XSCalendarType.epochDay(-44, 3, 15));
+    }
+
+    private static void assertSameKey(final XSAnyAtomicType value1, final XSAnyAtomicType value2) {
+        assertTrue(value1.equals((Object) value2), value1.stringValue() + " " + value2.stringValue());
+        assertTrue(value2.equals((Object) value1), value2.stringValue() + " " + value1.stringValue());
+        assertEquals(value1.hashCode(), value2.hashCode(), value1.stringValue() + " " + value2.stringValue());
+    }
+
+    private static void assertNotSameKey(final XSAnyAtomicType value1, final XSAnyAtomicType value2) {
+        assertFalse(value1.equals((Object) value2), value1.stringValue() + " " + value2.stringValue());
+        assertFalse(value2.equals((Object) value1), value2.stringValue() + " " + value1.stringValue());
+    }
+}
@@ -0,0 +1,51 @@
+package xml.xpath31.processor.types;
+
+import org.apache.xml.utils.FastStringBuffer;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.stream.Stream;
+
+import javax.xml.transform.TransformerException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XSAnyTypeTest {
+
+    @ParameterizedTest
+    @MethodSource("values")
+    void appendTo(final XSAnyType value) {
+        final StringBuilder strBuf = new StringBuilder("[");
+        value.appendTo(strBuf);
+        assertEquals("[" + value.stringValue(), strBuf.toString());
+
+        final FastStringBuffer fsb = new FastStringBuffer();
+        fsb.append('[');
+        value.appendToFsb(fsb);
+        assertEquals("[" + value.stringValue(), fsb.toString());
+    }
+
+    public static Stream<XSAnyType> values() throws TransformerException {
+        return Stream.of(
+                XSBoolean.valueOf(true),
+                XSInteger.valueOf(-42),
+                XSInteger.valueOf(new BigInteger("123456789012345678901234567890")),
+                new XSDecimal(new BigDecimal("-0.000125")),
+                new XSDecimal(new BigDecimal("1.5E+3")),
+                XSDouble.valueOf(1.0E-7),
+                XSFloat.valueOf(3.25f),
+                XSString.valueOf("abc"),
+                new XSQName(null, "local", "urn:ns"),
+                XSDateTime.parseDateTime("-0044-03-15T12:00:00.125+05:30"),
+                XSDate.parseDate("2025-02-28Z"),
+                XSTime.parseTime("23:59:59.000001-14:00"),
+                XSDuration.parseDuration("-P1Y2M3DT4H5M6.5S"),
+                XSDuration.parseDuration("P1Y"),
+                XSDuration.parseDuration("PT0S"),
+                XSDayTimeDuration.parseDayTimeDuration("P3D"),
+                XSYearMonthDuration.parseYearMonthDuration("P0M"));
+    }
+
+}
@@ -0,0 +1,121 @@
+package xml.xpath31.processor.types;
+
+import org.apache.xpath.objects.ResultSequence;
+import org.junit.jupiter.api.Test;
+
+import javax.xml.transform.TransformerException;
+import java.time.Clock;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XSCalendarIndexTest {
+
+    @Test
+    void rangeQueries() throws TransformerException {
+        final XSCalendarIndex index = XSCalendarIndex.build(sequence(
+                "2025-03-01T00:00:00Z", "2025-01-01T00:00:00Z", "2025-02-01T02:00:00+02:00",
+                "2025-02-01T00:00:00Z", "2025-04-01T00:00:00.5Z"));
+
+        final XSDateTime from = XSDateTime.parseDateTime("2025-02-01T00:00:00Z");
+        final XSDateTime to = XSDateTime.parseDateTime("2025-04-01T00:00:00.5Z");
+
+        assertEquals(5, index.size());
+        assertArrayEquals(new int[]{0, 2, 3}, index.positions(from, true, to, false));
+        assertArrayEquals(new int[]{0, 4}, index.positions(from, false, to, true));
+        assertArrayEquals(new int[]{1}, index.positions(null, true, from, false));
+        assertEquals(4, index.count(from, true, null, true));
+        assertEquals(0, index.count(to, false, from, false));
+
+        final ResultSequence range = index.range(from, true, to, false);
+        assertEquals("2025-03-01T00:00:00Z", ((XSDateTime)range.item(0)).stringValue());
+        assertEquals("2025-02-01T02:00:00+02:00", ((XSDateTime)range.item(1)).stringValue());
+    }
+
+    @Test
+    void minMaxAndNearest() throws TransformerException {
+        final XSCalendarIndex index = XSCalendarIndex.build(sequence(
+                "2025-01-01T00:00:10Z", "2025-01-01T00:00:00Z", "2025-01-01T00:00:20.5Z"));
+
+        assertEquals("2025-01-01T00:00:00Z", index.min().stringValue());
+        assertEquals("2025-01-01T00:00:20.5Z", index.max().stringValue());
+        assertEquals("2025-01-01T00:00:10Z", index.nearest(XSDateTime.parseDateTime("2025-01-01T00:00:14Z")).stringValue());
+        assertEquals("2025-01-01T00:00:20.5Z", index.nearest(XSDateTime.parseDateTime("2025-01-01T00:00:15.5Z")).stringValue());
+        // of two values that are equally near, the lesser one is returned
+        assertEquals("2025-01-01T00:00:10Z", index.nearest(XSDateTime.parseDateTime("2025-01-01T00:00:15.25Z")).stringValue());
+        assertEquals("2025-01-01T00:00:00Z", index.nearest(XSDateTime.parseDateTime("1900-01-01T00:00:00Z")).stringValue());
+        assertEquals("2025-01-01T00:00:20.5Z", index.nearest(XSDateTime.parseDateTime("9999-01-01T00:00:00Z")).stringValue());
+
+        assertNull(XSCalendarIndex.build(new ResultSequence()).min());
+    }
+
+    @Test
+    void sameResultsAsComparisons() throws TransformerException {
+        final Random random = new Random(5);
+        final ResultSequence resultSeq = new ResultSequence();
+        for (int i = 0; i < 500; i++) {
+            resultSeq.add(XSDate.parseDate(String.format(Locale.ROOT, "2025-%02d-%02d%s", 1 + random.nextInt(12),
+                    1 + random.nextInt(28), random.nextBoolean() ? "" : "+14:00")));
+        }
+        final XSCalendarIndex index = XSCalendarIndex.build(resultSeq);
+        final XSDate from = XSDate.parseDate("2025-04-10");
+        final XSDate to = XSDate.parseDate("2025-09-01-10:00");
+
+        int expected = 0;
+        for (int i = 0; i < resultSeq.size(); i++) {
+            final XSDate item = (XSDate)resultSeq.item(i);
+            if (!item.lt(from) && item.lt(to)) {
+                expected++;
+            }
+        }
+        assertEquals(expected, index.count(from, true, to, false));
+        assertEquals(expected, index.positions(from, true, to, false).length);
+    }
+
+    @Test
+    void buildFromColumn() throws TransformerException {
+        final XPath3DateTimeContext context = new XPath3DateTimeContext(Clock.systemUTC(), 0);
+        final XSDateTimeColumn column = XSDateTimeColumn.parse(new CharSequence[]{
+                "2025-05-01T00:00:00", "invalid", "2025-01-01T00:00:00Z", "2025-03-01T00:00:00+01:00"}, context);
+        final XSCalendarIndex index = XSCalendarIndex.build(column);
+
+        assertEquals(3, index.size());
+        assertEquals("2025-01-01T00:00:00Z", index.min().stringValue());
+        assertArrayEquals(new int[]{0, 3}, index.positions(XSDateTime.parseDateTime("2025-02-01T00:00:00Z", context),
+                true, null, false));
+    }
+
+    @Test
+    void mixedTypes() throws TransformerException {
+        final ResultSequence resultSeq = sequence("2025-01-01T00:00:00Z");
+        resultSeq.add(XSDate.parseDate("2025-01-01"));
+        assertNull(XSCalendarIndex.build(resultSeq));
+
+        final XSCalendarIndex index = XSCalendarIndex.build(sequence("2025-01-01T00:00:00Z"));
+        assertThrows(TransformerException.class, () -> index.nearest(XSDate.parseDate("2025-01-01")));
+    }
+
+    @Test
+    void emptySequence() throws TransformerException {
+        final XSCalendarIndex index = XSCalendarIndex.build(new ResultSequence());
+        final XSDate date = XSDate.parseDate("2025-01-01");
+        final XSTime time = XSTime.parseTime("12:00:00");
+
+        assertEquals(0, index.size());
+        assertEquals(0, index.count(date, true, date, true));
+        assertArrayEquals(new int[0], index.positions(null, true, time, false));
+        assertEquals(0, index.range(time, false, null, true).size());
+        assertNull(index.nearest(date));
+        assertNull(index.nearest(XSDateTime.parseDateTime("2025-01-01T00:00:00Z")));
+    }
+
+    private static ResultSequence sequence(final String... values) throws TransformerException {
+        final ResultSequence resultSeq = new ResultSequence();
+        for (final String value : values) {
+            resultSeq.add(XSDateTime.parseDateTime(value));
+        }
+        return resultSeq;
+    }
+
+}
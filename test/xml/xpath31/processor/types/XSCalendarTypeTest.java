@@ -0,0 +1,33 @@
+package xml.xpath31.processor.types;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XSCalendarTypeTest {
+
+    @Test
+    void civilFromDays() {
+        for (long epochDay = -800000; epochDay <= 800000; epochDay += 37) {
+            final LocalDate date = LocalDate.ofEpochDay(epochDay);
+            final long civilDate = XSCalendarType.civilFromDays(epochDay);
+
+            assertEquals(date.getYear(), civilDate >> 9);
+            assertEquals(date.getMonthValue(), (civilDate >> 5) & 0xF);
+            assertEquals(date.getDayOfMonth(), civilDate & 0x1F);
+            assertEquals(epochDay, XSCalendarType.epochDay(date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+        }
+    }
+
+    @Test
+    void daysInMonth() {
+        assertEquals(29, XSCalendarType.daysInMonth(2000, 2));
+        assertEquals(28, XSCalendarType.daysInMonth(1900, 2));
+        assertEquals(29, XSCalendarType.daysInMonth(0, 2));
+        assertEquals(30, XSCalendarType.daysInMonth(2025, 11));
+        assertEquals(31, XSCalendarType.daysInMonth(2025, 12));
+    }
+
+}
@@ -1,6 +1,7 @@
 package xml.xpath31.processor.types;
 
 import org.apache.xpath.objects.ResultSequence;
+import org.apache.xpath.objects.XObject;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
@@ -8,6 +9,7 @@ import org.junit.jupiter.params.provider.ValueSource;
 import javax.xml.transform.TransformerException;
 
 import java.time.LocalDate;
+import java.time.Clock;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -78,4 +80,34 @@ class XSDateTest {
     void stringValue(final String strVal) throws TransformerException {
         assertEquals(strVal, XSDate.parseDate(strVal).stringValue());
     }
-}
\ No newline at end of file
+
+    @Test
+    void addDurations() throws TransformerException {
+        assertEquals("2001-02-28", stringValue(XSDate.parseDate("2000-01-31").add(
+                                           XSYearMonthDuration.parseYearMonthDuration("P1Y1M"))));
+        assertEquals("2004-11-01Z", stringValue(XSDate.parseDate("2004-10-30Z").add(
+                                           XSDayTimeDuration.parseDayTimeDuration("P2DT2H30M0S"))));
+        assertEquals("2000-10-26", stringValue(XSDate.parseDate("2000-10-30").subtract(
+                                           XSDayTimeDuration.parseDayTimeDuration("P3DT1H15M"))));
+
+        // the year -0001 (1 BCE) is a leap year
+        assertEquals("-0001-02-29", stringValue(XSDate.parseDate("-0001-03-31").subtract(
+                                           XSYearMonthDuration.parseYearMonthDuration("P1M"))));
+        assertEquals("0001-01-01", stringValue(XSDate.parseDate("-0001-12-31").add(
+                                           XSDayTimeDuration.parseDayTimeDuration("P1D"))));
+    }
+
+    @Test
+    void subtractDates() throws TransformerException {
+        final XPath3DateTimeContext context = new XPath3DateTimeContext(Clock.systemUTC(), 300);
+
+        assertEquals("P337D", stringValue(XSDate.parseDate("2000-10-30").subtract(XSDate.parseDate("1999-11-28"))));
+        assertEquals("P336DT19H", stringValue(XSDate.parseDate("2000-10-30", context)
+                                          .subtract(XSDate.parseDate("1999-11-28Z", context))));
+    }
+
+    private static String stringValue(final XObject result) {
+        return ((XSAnyType)result).stringValue();
+    }
+
+}
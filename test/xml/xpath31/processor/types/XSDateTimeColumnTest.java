@@ -0,0 +1,84 @@
+package xml.xpath31.processor.types;
+
+import org.junit.jupiter.api.Test;
+
+import javax.xml.transform.TransformerException;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XSDateTimeColumnTest {
+
+    private static final XPath3DateTimeContext CONTEXT = new XPath3DateTimeContext(Clock.systemUTC(), 60);
+
+    @Test
+    void parseRows() throws TransformerException {
+        final XSDateTimeColumn column = XSDateTimeColumn.parse(new CharSequence[]{
+                "2025-02-28T10:20:30.5+05:30", "not a dateTime", null, "2025-02-28T10:20:30"}, CONTEXT);
+
+        assertEquals(4, column.size());
+        assertEquals(2, column.validCount());
+        assertTrue(column.isValid(0));
+        assertFalse(column.isValid(1));
+        assertFalse(column.isValid(2));
+        assertTrue(column.isValid(3));
+
+        final XSDateTime first = XSDateTime.parseDateTime("2025-02-28T10:20:30.5+05:30");
+        assertEquals(first.comparisonSeconds(), column.epochSecond(0));
+        assertEquals(500000000, column.nanos(0));
+        assertEquals(330, column.timezoneMinutes(0));
+        assertEquals("2025-02-28T10:20:30.5+05:30", column.item(0).stringValue());
+
+        // the implicit timezone is applied to the rows without a timezone
+        assertEquals(XSDateTimeColumn.NO_TIMEZONE, column.timezoneMinutes(3));
+        assertEquals(XSDateTime.parseDateTime("2025-02-28T09:20:30Z").comparisonSeconds(), column.epochSecond(3));
+        assertEquals("2025-02-28T10:20:30", column.item(3).stringValue());
+        assertTrue(column.item(3).equals(XSDateTime.parseDateTime("2025-02-28T10:20:30", CONTEXT)));
+
+        assertNull(column.item(1));
+        assertEquals(2, column.toResultSequence().size());
+        assertThrows(IndexOutOfBoundsException.class, () -> column.isValid(4));
+    }
+
+    @Test
+    void parseIterator() {
+        final XSDateTimeColumn column = XSDateTimeColumn.parse(
+                Arrays.asList("1999-12-31T23:59:59Z", "2000-01-01T00:00:00Z").iterator(), CONTEXT);
+
+        assertEquals(2, column.validCount());
+        assertEquals(1, column.epochSecond(1) - column.epochSecond(0));
+    }
+
+    @Test
+    void parseLargeInputInParallel() throws TransformerException {
+        final Random random = new Random(17);
+        final String[] values = new String[50_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (random.nextInt(100) == 0) ? "2025-13-01T00:00:00" :
+                    String.format(Locale.ROOT, "%04d-%02d-%02dT%02d:%02d:%02d.%03d%s", 1 + random.nextInt(9999),
+                            1 + random.nextInt(12), 1 + random.nextInt(28), random.nextInt(24), random.nextInt(60),
+                            random.nextInt(60), random.nextInt(1000), random.nextBoolean() ? "Z" : "-03:00");
+        }
+
+        final XSDateTimeColumn column = XSDateTimeColumn.parse(values, CONTEXT);
+
+        assertEquals(values.length, column.size());
+        int validCount = 0;
+        for (int i = 0; i < values.length; i++) {
+            final boolean valid = !values[i].startsWith("2025-13");
+            assertEquals(valid, column.isValid(i));
+            if (valid) {
+                validCount++;
+                final XSDateTime expected = XSDateTime.parseDateTime(values[i], CONTEXT);
+                assertEquals(expected.comparisonSeconds(), column.epochSecond(i));
+                assertEquals(expected.nanos(), column.nanos(i));
+                assertEquals(expected.timezoneMinutes(), column.timezoneMinutes(i));
+            }
+        }
+        assertEquals(validCount, column.validCount());
+    }
+
+}
@@ -1,6 +1,11 @@
 package xml.xpath31.processor.types;
 
+import java.util.Calendar;
+import java.time.Clock;
+import java.util.GregorianCalendar;
+
 import org.apache.xpath.objects.ResultSequence;
+import org.apache.xpath.objects.XObject;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
@@ -76,6 +81,20 @@ class XSDateTimeTest {
         assertTrue(jan.lt(feb));
     }
 
+    @Test
+    void timezoneNormalizedComparison() throws TransformerException {
+        final XSDateTime plusTwo = XSDateTime.parseDateTime("2025-01-01T12:00:00+02:00");
+        final XSDateTime utc = XSDateTime.parseDateTime("2025-01-01T10:00:00Z");
+        final XSDateTime minusOne = XSDateTime.parseDateTime("2025-01-01T10:00:00-01:00");
+
+        assertTrue(plusTwo.equals(utc));
+        assertEquals(plusTwo.hashCode(), utc.hashCode());
+        assertTrue(utc.lt(minusOne));
+        assertTrue(minusOne.gt(plusTwo));
+        assertTrue(XPath3SortKeys.compare(plusTwo.sortKey(), utc.sortKey()) == 0);
+        assertTrue(XPath3SortKeys.compare(utc.sortKey(), minusOne.sortKey()) < 0);
+    }
+
     @Test
     void gt() throws TransformerException {
         final XSDateTime jan = XSDateTime.parseDateTime("2025-01-28T00:00:00Z");
@@ -83,4 +102,93 @@ class XSDateTimeTest {
         assertTrue(feb.gt(jan));
     }
 
-}
\ No newline at end of file
+    @Test
+    void fractionalSeconds() throws TransformerException {
+        final XSDateTime dateTime = XSDateTime.parseDateTime("2025-02-28T10:00:00.125Z");
+
+        assertEquals("2025-02-28T10:00:00.125Z", dateTime.stringValue());
+        assertEquals(125000000, dateTime.nanos());
+        assertTrue(dateTime.lt(XSDateTime.parseDateTime("2025-02-28T10:00:00.126Z")));
+    }
+
+    @Test
+    void endOfDay() throws TransformerException {
+        final XSDateTime dateTime = XSDateTime.parseDateTime("2024-12-31T24:00:00");
+
+        assertEquals("2025-01-01T00:00:00", dateTime.stringValue());
+        assertThrows(TransformerException.class, () -> XSDateTime.parseDateTime("2024-12-31T24:00:01"));
+    }
+
+    @Test
+    void leapDay() throws TransformerException {
+        assertEquals(29, XSDateTime.parseDateTime("2000-02-29T00:00:00").day());
+        assertThrows(TransformerException.class, () -> XSDateTime.parseDateTime("1900-02-29T00:00:00"));
+        assertThrows(TransformerException.class, () -> XSDateTime.parseDateTime("2025-04-31T00:00:00"));
+        assertThrows(TransformerException.class, () -> XSDateTime.parseDateTime("2025-04-30T00:00:00+14:30"));
+    }
+
+    @Test
+    void negativeYear() throws TransformerException {
+        final XSDateTime dateTime = XSDateTime.parseDateTime("-0044-03-15T12:00:00Z");
+
+        assertEquals(-44, dateTime.year());
+        assertEquals("-0044-03-15T12:00:00Z", dateTime.stringValue());
+        assertEquals(GregorianCalendar.BC, dateTime.getCalendar().get(Calendar.ERA));
+        assertEquals(44, dateTime.getCalendar().get(Calendar.YEAR));
+    }
+
+    @Test
+    void calendarView() throws TransformerException {
+        final XSDateTime dateTime = XSDateTime.parseDateTime("2025-02-28T10:20:30.5+05:30");
+        final Calendar cal = dateTime.getCalendar();
+
+        assertEquals(2025, cal.get(Calendar.YEAR));
+        assertEquals(Calendar.FEBRUARY, cal.get(Calendar.MONTH));
+        assertEquals(28, cal.get(Calendar.DAY_OF_MONTH));
+        assertEquals(10, cal.get(Calendar.HOUR_OF_DAY));
+        assertEquals(500, cal.get(Calendar.MILLISECOND));
+        assertEquals(330 * 60, (int)dateTime.getTimezone().value());
+
+        final XSDateTime copy = new XSDateTime(cal, dateTime.getTimezone());
+        assertTrue(copy.equals(dateTime));
+        assertEquals(dateTime.stringValue(), copy.stringValue());
+    }
+
+    @Test
+    void addDurations() throws TransformerException {
+        final XSDateTime dateTime = XSDateTime.parseDateTime("2000-10-30T11:12:00");
+
+        assertEquals("2001-12-30T11:12:00", stringValue(dateTime.add(XSYearMonthDuration.parseYearMonthDuration("P1Y2M"))));
+        assertEquals("2000-11-02T12:27:00", stringValue(dateTime.add(XSDayTimeDuration.parseDayTimeDuration("P3DT1H15M"))));
+        assertEquals("2000-10-27T09:57:00", stringValue(dateTime.subtract(XSDayTimeDuration.parseDayTimeDuration("P3DT1H15M"))));
+
+        // the day of the month is clamped to the end of the resulting month
+        assertEquals("2001-02-28T00:00:00Z", stringValue(XSDateTime.parseDateTime("2000-01-31T00:00:00Z")
+                                  .add(XSYearMonthDuration.parseYearMonthDuration("P1Y1M"))));
+        assertEquals("2000-02-29T00:00:00Z", stringValue(XSDateTime.parseDateTime("2000-03-31T00:00:00Z")
+                                  .subtract(XSYearMonthDuration.parseYearMonthDuration("P1M"))));
+    }
+
+    @Test
+    void addFractionalSeconds() throws TransformerException {
+        final XSDateTime dateTime = XSDateTime.parseDateTime("1999-12-31T23:59:59.5+01:00");
+
+        assertEquals("2000-01-01T00:00:00.25+01:00", stringValue(dateTime.add(XSDayTimeDuration.parseDayTimeDuration("PT0.75S"))));
+        assertEquals("1999-12-31T23:59:58.75+01:00", stringValue(dateTime.subtract(XSDayTimeDuration.parseDayTimeDuration("PT0.75S"))));
+    }
+
+    @Test
+    void subtractDateTimes() throws TransformerException {
+        final XPath3DateTimeContext context = new XPath3DateTimeContext(Clock.systemUTC(), -300);
+
+        assertEquals("P337DT2H12M", stringValue(XSDateTime.parseDateTime("2000-10-30T06:12:00", context)
+                           .subtract(XSDateTime.parseDateTime("1999-11-28T09:00:00Z", context))));
+        assertEquals("-PT0.5S", stringValue(XSDateTime.parseDateTime("2000-01-01T00:00:00Z", context)
+                           .subtract(XSDateTime.parseDateTime("2000-01-01T00:00:00.5Z", context))));
+    }
+
+    private static String stringValue(final XObject result) {
+        return ((XSAnyType)result).stringValue();
+    }
+
+}
@@ -0,0 +1,71 @@
+package xml.xpath31.processor.types;
+
+import org.junit.jupiter.api.Test;
+
+import javax.xml.transform.TransformerException;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XSDayTimeDurationAccumulatorTest {
+
+    @Test
+    void aggregates() throws TransformerException {
+        final XSDayTimeDurationAccumulator accumulator = new XSDayTimeDurationAccumulator();
+        accumulator.add(dayTime("PT1H0.4S")).add(dayTime("-PT0.5S")).add(dayTime("P1DT0.3S"));
+
+        assertEquals(3, accumulator.count());
+        assertEquals("P1DT1H0.2S", accumulator.sum().stringValue());
+        assertEquals("PT8H20M0.066666667S", accumulator.avg().stringValue());
+        assertEquals("-PT0.5S", accumulator.min().stringValue());
+        assertEquals("P1DT0.3S", accumulator.max().stringValue());
+    }
+
+    @Test
+    void empty() throws TransformerException {
+        final XSDayTimeDurationAccumulator accumulator = new XSDayTimeDurationAccumulator();
+
+        assertEquals("PT0S", accumulator.sum().stringValue());
+        assertNull(accumulator.avg());
+        assertNull(accumulator.min());
+        assertNull(accumulator.max());
+    }
+
+    @Test
+    void parallelSameAsSequential() throws TransformerException {
+        final Random random = new Random(3);
+        final XSDayTimeDuration[] values = new XSDayTimeDuration[100_000];
+        XSDayTimeDuration expected = new XSDayTimeDuration();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new XSDayTimeDuration(random.nextInt(2_000_000) - 1_000_000L,
+                                                     random.nextInt(2_000_000_000) - 1_000_000_000L);
+            expected = expected.add(values[i]);
+        }
+
+        final XSDayTimeDurationAccumulator accumulator = IntStream.range(0, values.length).parallel()
+                .mapToObj(i -> values[i]).collect(XSDayTimeDurationAccumulator::new,
+                        XSDayTimeDurationAccumulator::add, XSDayTimeDurationAccumulator::combine);
+
+        assertEquals(values.length, accumulator.count());
+        assertTrue(expected.equals(accumulator.sum()));
+    }
+
+    @Test
+    void intermediateOverflow() throws TransformerException {
+        final XSDayTimeDuration large = new XSDayTimeDuration(Long.MAX_VALUE, 0L);
+        final XSDayTimeDurationAccumulator accumulator = new XSDayTimeDurationAccumulator();
+        accumulator.add(large).add(large);
+
+        assertThrows(TransformerException.class, accumulator::sum);
+
+        // the total doesn't overflow, so that it is exact after smaller values are added
+        accumulator.add(new XSDayTimeDuration(-Long.MAX_VALUE, 0L));
+        assertTrue(large.equals(accumulator.sum()));
+    }
+
+    private static XSDayTimeDuration dayTime(final String str) throws TransformerException {
+        return (XSDayTimeDuration)XSDayTimeDuration.parseDayTimeDuration(str);
+    }
+
+}
@@ -148,4 +148,17 @@ class XSDayTimeDurationTest {
     void getType() {
         assertEquals(CLASS_XS_DAYTIME_DURATION, new XSDayTimeDuration().getType());
     }
+    @Test
+    void exactSum() throws TransformerException {
+        final XSDayTimeDuration tenth = (XSDayTimeDuration)XSDayTimeDuration.parseDayTimeDuration("PT0.1S");
+        XSDayTimeDuration sum = new XSDayTimeDuration();
+        for (int i = 0; i < 10; i++) {
+            sum = sum.add(tenth);
+        }
+
+        assertEquals("PT1S", sum.stringValue());
+        assertTrue(sum.equals(new XSDayTimeDuration(1)));
+        assertEquals("-PT0.9S", tenth.subtract(sum).stringValue());
+    }
+
 }
\ No newline at end of file
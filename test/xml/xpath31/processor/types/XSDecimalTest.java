@@ -22,7 +22,10 @@ class XSDecimalTest {
 
     @Test
     void stringValue() {
-        new XSDecimal("1.3").stringValue();
+        final XSDecimal xsDecimal = new XSDecimal("1.3");
+        assertEquals("1.3", xsDecimal.stringValue());
+        assertEquals("1.3", xsDecimal.stringValue());
+        assertEquals(BigDecimal.valueOf(1.3), xsDecimal.getValue());
     }
 
     @Test
@@ -37,6 +40,24 @@ class XSDecimalTest {
         assertEquals("1.3", ((XSDecimal)sequence.item(0)).stringValue());
     }
 
+    @Test
+    void stringValueIsCanonical() {
+        assertEquals("1.3", new XSDecimal("1.300").stringValue());
+        assertEquals("-0.05", new XSDecimal("-000.0500").stringValue());
+        assertEquals("100", new XSDecimal("100.0").stringValue());
+        assertEquals("0", new XSDecimal("-0.00").stringValue());
+        assertEquals("12345678901234567890123.45", new XSDecimal("12345678901234567890123.450").stringValue());
+        assertEquals("1200", new XSDecimal(new BigDecimal("1.2E+3")).stringValue());
+        assertEquals("0.000000000000000000001", new XSDecimal(new BigDecimal("1E-21")).stringValue());
+    }
+
+    @Test
+    void appendTo() {
+        final StringBuilder strBuf = new StringBuilder("x = ");
+        new XSDecimal("-0012.5000").appendTo(strBuf);
+        assertEquals("x = -12.5", strBuf.toString());
+    }
+
     @Test
     void zero() {
         assertFalse(new XSDecimal("1.3").zero());
@@ -45,6 +66,9 @@ class XSDecimalTest {
     @Test
     void doubleValue() {
         assertEquals(1.3, new XSDecimal("1.3").doubleValue());
+        assertEquals(0.1, new XSDecimal("0.1").doubleValue());
+        assertEquals(-1234.5678, new XSDecimal("-1234.5678").doubleValue());
+        assertEquals(1.0E-30, new XSDecimal("0.000000000000000000000000000001").doubleValue());
     }
 
     @Test
@@ -61,6 +85,9 @@ class XSDecimalTest {
         assertFalse(new XSDecimal("1.5").equals(new XSDecimal("15")));
         assertFalse(new XSDecimal("8.6").equals(new XSDecimal("65646.874")));
         assertFalse(new XSDecimal("256.684").equals(new XSDecimal("68.96864")));
+
+        assertTrue(new XSDecimal("1.30").equals(new XSDecimal("1.3")));
+        assertTrue(new XSDecimal("99999999999999999999.5").equals(new XSDecimal("99999999999999999999.50")));
     }
 
     @Test
@@ -68,6 +95,8 @@ class XSDecimalTest {
         assertTrue(new XSDecimal("1.3").lt(new XSDecimal("2")));
         assertTrue(new XSDecimal("1.3").lt(new XSDecimal("1.4")));
         assertTrue(new XSDecimal("1.3").lt(new XSDecimal("1.3000000000000000000001")));
+        assertTrue(new XSDecimal("-92233720368547758.08").lt(new XSDecimal("-9")));
+        assertFalse(new XSDecimal("1.3").lt(new XSDecimal("1.3")));
     }
 
     @Test
@@ -100,6 +100,16 @@ class XSDoubleTest {
         assertTrue(new XSDouble("1.3").gt(new XSDouble("1.2999999999999999")));
     }
 
+    @Test
+    void valueOf() {
+        assertSame(XSDouble.valueOf(0.0), XSDouble.valueOf(0.0));
+        assertSame(XSDouble.valueOf(Double.NaN), XSDouble.valueOf(0.0 / 0.0));
+        assertNotSame(XSDouble.valueOf(0.0), XSDouble.valueOf(-0.0));
+        assertTrue(XSDouble.valueOf(-0.0).negativeZero());
+        assertSame(XSDouble.valueOf(Double.NEGATIVE_INFINITY), XSDouble.valueOf(Double.NEGATIVE_INFINITY));
+        assertEquals("2.5", XSDouble.valueOf(2.5).stringValue());
+    }
+
     @Test
     void getType() {
         assertEquals(CLASS_XS_DOUBLE, new XSDouble().getType());
@@ -12,7 +12,9 @@ import java.time.temporal.ChronoUnit;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class XSDurationTest {
@@ -110,4 +112,29 @@ class XSDurationTest {
         assertTrue(fiveMinute.gt(oneMinute));
     }
 
+    @Test
+    void exactFractionalSeconds() throws TransformerException {
+        final XSDuration duration = XSDuration.parseDuration("P1Y3DT0.123456789S");
+
+        assertEquals("P1Y3DT0.123456789S", duration.stringValue());
+        assertEquals(12, duration.monthValue());
+        assertEquals(3 * ONE_DAY_SECONDS, duration.dayTimeSeconds());
+        assertEquals(123_456_789, duration.dayTimeNanos());
+        assertTrue(duration.lt(XSDuration.parseDuration("P1Y3DT0.12345679S")));
+    }
+
+    @Test
+    void negativeZero() throws TransformerException {
+        final XSDuration duration = XSDuration.parseDuration("-PT0S");
+
+        assertFalse(duration.negative());
+        assertEquals("PT0S", duration.stringValue());
+        assertTrue(duration.equals(new XSDuration()));
+    }
+
+    @Test
+    void tooLarge() {
+        assertThrows(TransformerException.class, () -> XSDuration.parseDuration("P999999999Y"));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+package xml.xpath31.processor.types;
+
+import org.apache.xpath.objects.ResultSequence;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.math.BigInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XSIntegerDerivedTypesTest {
+
+    @ParameterizedTest
+    @MethodSource("rangeArgs")
+    void constructorRange(final XSInteger type, final String typeName, final String minValue, final String maxValue,
+                          final String belowMin, final String aboveMax) {
+        assertEquals("xs:" + typeName, type.stringType());
+        assertEquals(typeName, type.typeName());
+
+        if (minValue != null) {
+            assertConstructed(type, minValue);
+            assertOutOfRange(type, belowMin);
+        }
+        if (maxValue != null) {
+            assertConstructed(type, maxValue);
+            assertOutOfRange(type, aboveMax);
+        }
+        final RuntimeException ex = assertThrows(RuntimeException.class, () -> type.constructor(sequenceOf("abc")));
+        assertTrue(ex.getMessage().contains("not a valid xs:" + typeName), ex.getMessage());
+    }
+
+    @Test
+    void constructorCastsNumericValues() {
+        final ResultSequence input = new ResultSequence();
+        input.add(new XSDouble(-17.9));
+        final XSInteger result = (XSInteger) new XSShort().constructor(input).item(0);
+        assertEquals(XSShort.class, result.getClass());
+        assertEquals("-17", result.stringValue());
+
+        final ResultSequence decimalInput = new ResultSequence();
+        decimalInput.add(new XSDecimal("255.99"));
+        assertEquals("255", ((XSInteger) new XSUnsignedByte().constructor(decimalInput).item(0)).stringValue());
+    }
+
+    @Test
+    void primitiveValues() {
+        assertEquals(Long.MIN_VALUE, new XSLong(Long.MIN_VALUE).longValue());
+        assertEquals(-5, new XSInt(-5).longValue());
+        assertEquals(Integer.MAX_VALUE, new XSInt("2147483647").longValue());
+        assertTrue(new XSInt(7).equals(new XSInt("7")));
+        assertTrue(new XSLong(3).lt(new XSLong(4)));
+        assertEquals("4294967295", new XSUnsignedInt(4294967295L).stringValue());
+        assertEquals("18446744073709551615", new XSUnsignedLong("18446744073709551615").stringValue());
+    }
+
+    @Test
+    void publicConstructorsCheckRange() {
+        assertPublicOutOfRange("xs:long", () -> new XSLong("99999999999999999999"));
+        assertPublicOutOfRange("xs:long", () -> new XSLong(new BigInteger("-9223372036854775809")));
+        assertPublicOutOfRange("xs:int", () -> new XSInt(new BigInteger("2147483648")));
+        assertPublicOutOfRange("xs:byte", () -> new XSByte("1000"));
+        assertPublicOutOfRange("xs:byte", () -> new XSByte("-129"));
+        assertPublicOutOfRange("xs:short", () -> new XSShort("40000"));
+        assertPublicOutOfRange("xs:unsignedLong", () -> new XSUnsignedLong(-1));
+        assertPublicOutOfRange("xs:unsignedLong", () -> new XSUnsignedLong("18446744073709551616"));
+        assertPublicOutOfRange("xs:unsignedInt", () -> new XSUnsignedInt(4294967296L));
+        assertPublicOutOfRange("xs:unsignedShort", () -> new XSUnsignedShort(65536));
+        assertPublicOutOfRange("xs:unsignedByte", () -> new XSUnsignedByte((short) 256));
+        assertPublicOutOfRange("xs:nonNegativeInteger", () -> new XSNonNegativeInteger(new BigInteger("-1")));
+        assertPublicOutOfRange("xs:positiveInteger", () -> new XSPositiveInteger(-5));
+        assertPublicOutOfRange("xs:positiveInteger", () -> new XSPositiveInteger("0"));
+        assertPublicOutOfRange("xs:nonPositiveInteger", () -> new XSNonPositiveInteger(1));
+        assertPublicOutOfRange("xs:negativeInteger", () -> new XSNegativeInteger("0"));
+
+        assertEquals(-128, new XSByte("-128").longValue());
+        assertEquals("18446744073709551615", new XSUnsignedLong(new BigInteger("18446744073709551615")).stringValue());
+        assertEquals("-1", new XSNegativeInteger().stringValue());
+        assertEquals("1", new XSPositiveInteger().stringValue());
+    }
+
+    @Test
+    void getType() {
+        assertEquals(new XSInt().getType(), new XSByte().getType());
+        assertEquals(new XSInteger().getType(), new XSUnsignedByte().getType());
+        assertEquals(new XSInteger().getType(), new XSNegativeInteger().getType());
+    }
+
+    private static void assertPublicOutOfRange(final String stringType, final Executable executable) {
+        final RuntimeException ex = assertThrows(RuntimeException.class, executable);
+        assertTrue(ex.getMessage().contains("out of range for type " + stringType), ex.getMessage());
+    }
+
+    private static void assertConstructed(final XSInteger type, final String value) {
+        final ResultSequence resultSeq = type.constructor(sequenceOf(value));
+        assertEquals(1, resultSeq.size());
+        assertEquals(type.getClass(), resultSeq.item(0).getClass());
+        assertEquals(value, ((XSInteger) resultSeq.item(0)).stringValue());
+    }
+
+    private static void assertOutOfRange(final XSInteger type, final String value) {
+        final RuntimeException ex = assertThrows(RuntimeException.class, () -> type.constructor(sequenceOf(value)));
+        assertTrue(ex.getMessage().contains("out of range for type " + type.stringType()), ex.getMessage());
+    }
+
+    private static ResultSequence sequenceOf(final String value) {
+        final ResultSequence resultSeq = new ResultSequence();
+        resultSeq.add(new XSString(value));
+        return resultSeq;
+    }
+
+    public static Stream<Arguments> rangeArgs() {
+        return Stream.of(
+                Arguments.of(new XSLong(), "long", "-9223372036854775808", "9223372036854775807",
+                        "-9223372036854775809", "9223372036854775808"),
+                Arguments.of(new XSInt(), "int", "-2147483648", "2147483647", "-2147483649", "2147483648"),
+                Arguments.of(new XSShort(), "short", "-32768", "32767", "-32769", "32768"),
+                Arguments.of(new XSByte(), "byte", "-128", "127", "-129", "128"),
+                Arguments.of(new XSUnsignedLong(), "unsignedLong", "0", "18446744073709551615",
+                        "-1", "18446744073709551616"),
+                Arguments.of(new XSUnsignedInt(), "unsignedInt", "0", "4294967295", "-1", "4294967296"),
+                Arguments.of(new XSUnsignedShort(), "unsignedShort", "0", "65535", "-1", "65536"),
+                Arguments.of(new XSUnsignedByte(), "unsignedByte", "0", "255", "-1", "256"),
+                Arguments.of(new XSNonNegativeInteger(), "nonNegativeInteger", "0", null, "-1", null),
+                Arguments.of(new XSPositiveInteger(), "positiveInteger", "1", null, "0", null),
+                Arguments.of(new XSNonPositiveInteger(), "nonPositiveInteger", null, "0", null, "1"),
+                Arguments.of(new XSNegativeInteger(), "negativeInteger", null, "-1", null, "0")
+        );
+    }
+}
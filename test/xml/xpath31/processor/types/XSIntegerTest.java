@@ -0,0 +1,121 @@
+package xml.xpath31.processor.types;
+
+import org.apache.xpath.objects.ResultSequence;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import static org.apache.xpath.objects.XObject.CLASS_XS_INTEGER;
+import static org.junit.jupiter.api.Assertions.*;
+
+class XSIntegerTest {
+
+    @Test
+    void stringType() {
+        assertEquals("xs:integer", new XSInteger().stringType());
+    }
+
+    @Test
+    void typeName() {
+        assertEquals("integer", new XSInteger().typeName());
+    }
+
+    @Test
+    void stringValue() {
+        assertEquals("0", new XSInteger().stringValue());
+        assertEquals("-42", new XSInteger("-42").stringValue());
+        assertEquals("42", new XSInteger("+42").stringValue());
+        assertEquals("9223372036854775807", new XSInteger("9223372036854775807").stringValue());
+        assertEquals("123456789012345678901234567890", new XSInteger("123456789012345678901234567890").stringValue());
+    }
+
+    @Test
+    void constructor() {
+        final ResultSequence input = new ResultSequence();
+        input.add(new XSDecimal("-17.9"));
+
+        final ResultSequence sequence = new XSInteger().constructor(input);
+
+        assertNotNull(sequence);
+        assertEquals(1, sequence.size());
+        assertEquals("-17", ((XSInteger)sequence.item(0)).stringValue());
+    }
+
+    @Test
+    void zero() {
+        assertTrue(new XSInteger("0").zero());
+        assertTrue(new XSInteger("-0").zero());
+        assertFalse(new XSInteger("1").zero());
+    }
+
+    @Test
+    void intValue() {
+        assertEquals(BigInteger.valueOf(1337), new XSInteger(1337).intValue());
+        assertEquals(new BigInteger("-98765432109876543210"), new XSInteger("-98765432109876543210").intValue());
+    }
+
+    @Test
+    void doubleValue() {
+        assertEquals(1337.0, new XSInteger(1337).doubleValue());
+        assertEquals(1.0E20, new XSInteger("100000000000000000000").doubleValue());
+    }
+
+    @Test
+    void getValue() {
+        assertEquals(BigDecimal.valueOf(1337), new XSInteger(1337).getValue());
+    }
+
+    @Test
+    void testEquals() {
+        assertTrue(new XSInteger("1337").equals(new XSInteger(1337)));
+        assertTrue(new XSInteger("00000000000000000000000000001").equals(new XSInteger(1)));
+        assertTrue(new XSInteger("98765432109876543210").equals(new XSInteger(new BigInteger("98765432109876543210"))));
+
+        assertFalse(new XSInteger("1").equals(new XSInteger("2")));
+        assertFalse(new XSInteger("98765432109876543210").equals(new XSInteger(1)));
+    }
+
+    @Test
+    void lt() {
+        assertTrue(new XSInteger(-5).lt(new XSInteger(3)));
+        assertTrue(new XSInteger(Long.MAX_VALUE).lt(new XSInteger("9223372036854775808")));
+        assertFalse(new XSInteger(3).lt(new XSInteger(3)));
+    }
+
+    @Test
+    void gt() {
+        assertTrue(new XSInteger(3).gt(new XSInteger(-5)));
+        assertTrue(new XSInteger(Long.MIN_VALUE).gt(new XSInteger("-9223372036854775809")));
+        assertFalse(new XSInteger(3).gt(new XSInteger(3)));
+    }
+
+    @Test
+    void multiply() {
+        assertEquals("-42", new XSInteger(6).multiply(new XSInteger(-7)).stringValue());
+        assertEquals("85070591730234615847396907784232501249",
+                new XSInteger(Long.MAX_VALUE).multiply(new XSInteger(Long.MAX_VALUE)).stringValue());
+        assertEquals("9223372036854775808",
+                new XSInteger(Long.MIN_VALUE).multiply(new XSInteger(-1)).stringValue());
+        assertEquals("0", new XSInteger("3000000000000000000000").multiply(new XSInteger("1000000000000000000000"))
+                .multiply(new XSInteger(0)).stringValue());
+    }
+
+    @Test
+    void valueOf() {
+        assertSame(XSInteger.valueOf(-128), XSInteger.valueOf(BigInteger.valueOf(-128)));
+        assertSame(XSInteger.valueOf(1024), XSInteger.valueOf(1024));
+        assertNotSame(XSInteger.valueOf(1025), XSInteger.valueOf(1025));
+        assertEquals("1025", XSInteger.valueOf(1025).stringValue());
+        assertEquals("98765432109876543210", XSInteger.valueOf(new BigInteger("98765432109876543210")).stringValue());
+
+        final ResultSequence input = new ResultSequence();
+        input.add(new XSBoolean(true));
+        assertSame(XSInteger.valueOf(1), new XSInteger().constructor(input).item(0));
+    }
+
+    @Test
+    void getType() {
+        assertEquals(CLASS_XS_INTEGER, new XSInteger().getType());
+    }
+}
@@ -0,0 +1,123 @@
+package xml.xpath31.processor.types;
+
+import org.apache.xpath.objects.ResultSequence;
+import org.junit.jupiter.api.Test;
+
+import javax.xml.transform.TransformerException;
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XSNumericColumnTest {
+
+    @Test
+    void doubleAggregates() throws TransformerException {
+        final XSNumericColumn column = XSNumericColumn.ofDoubles(new double[]{1.5, -2.0, 4.25, 0.1});
+        assertEquals(XSNumericColumn.KIND_DOUBLE, column.kind());
+        assertEquals(4, column.size());
+        assertEquals("3.85", column.sum().stringValue());
+        assertEquals("0.9625", column.avg().stringValue());
+        assertEquals("-2", column.min().stringValue());
+        assertEquals("4.25", column.max().stringValue());
+
+        final XSNumericColumn withNaN = XSNumericColumn.ofDoubles(new double[]{1.0, Double.NaN, 3.0});
+        assertTrue(((XSDouble) withNaN.min()).nan());
+        assertTrue(((XSDouble) withNaN.max()).nan());
+    }
+
+    @Test
+    void integerAggregates() throws TransformerException {
+        final XSNumericColumn column = XSNumericColumn.ofIntegers(new long[]{5, -3, 12, 7});
+        assertEquals(XSInteger.class, column.sum().getClass());
+        assertEquals("21", column.sum().stringValue());
+        assertEquals(XSDecimal.class, column.avg().getClass());
+        assertEquals("5.25", column.avg().stringValue());
+        assertEquals("-3", column.min().stringValue());
+        assertEquals("12", column.max().stringValue());
+    }
+
+    @Test
+    void integerSumOverflow() {
+        assertEquals("18446744073709551614",
+                XSNumericColumn.ofIntegers(new long[]{Long.MAX_VALUE, Long.MAX_VALUE}).sum().stringValue());
+        assertEquals("-18446744073709551616",
+                XSNumericColumn.ofIntegers(new long[]{Long.MIN_VALUE, Long.MIN_VALUE}).sum().stringValue());
+        assertEquals("9223372036854775806",
+                XSNumericColumn.ofIntegers(new long[]{Long.MAX_VALUE, 1, -2}).sum().stringValue());
+        assertEquals("-1", XSNumericColumn.ofIntegers(new long[]{Long.MIN_VALUE, Long.MAX_VALUE}).sum().stringValue());
+
+        final Random random = new Random(43);
+        final long[] values = new long[10_000];
+        BigInteger expected = BigInteger.ZERO;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextLong() >> random.nextInt(8);
+            expected = expected.add(BigInteger.valueOf(values[i]));
+        }
+        assertEquals(expected.toString(), XSNumericColumn.ofIntegers(values).sum().stringValue());
+    }
+
+    @Test
+    void decimalAggregates() throws TransformerException {
+        final XSNumericColumn column = XSNumericColumn.ofDecimals(new long[]{150, -25, 1000}, 2);
+        assertEquals("11.25", column.sum().stringValue());
+        assertEquals("3.75", column.avg().stringValue());
+        assertEquals("-0.25", column.min().stringValue());
+        assertEquals("10", column.max().stringValue());
+        assertEquals(XSDecimal.class, column.item(2).getClass());
+        assertThrows(IllegalArgumentException.class, () -> XSNumericColumn.ofDecimals(new long[0], -1));
+    }
+
+    @Test
+    void emptyColumn() throws TransformerException {
+        final XSNumericColumn column = XSNumericColumn.ofDoubles(new double[0]);
+        assertEquals(XSInteger.class, column.sum().getClass());
+        assertEquals("0", column.sum().stringValue());
+        assertNull(column.avg());
+        assertNull(column.min());
+        assertNull(column.max());
+    }
+
+    @Test
+    void fromResultSequence() {
+        final ResultSequence integers = new ResultSequence();
+        integers.add(new XSInteger(3));
+        integers.add(new XSLong("4"));
+        assertEquals(XSNumericColumn.KIND_INTEGER, XSNumericColumn.fromResultSequence(integers).kind());
+
+        final ResultSequence decimals = new ResultSequence();
+        decimals.add(new XSInteger(3));
+        decimals.add(new XSDecimal("0.125"));
+        decimals.add(new XSDecimal("-1.5"));
+        final XSNumericColumn decimalColumn = XSNumericColumn.fromResultSequence(decimals);
+        assertEquals(XSNumericColumn.KIND_DECIMAL, decimalColumn.kind());
+        assertEquals("1.625", decimalColumn.sum().stringValue());
+        assertEquals("3", decimalColumn.item(0).stringValue());
+
+        final ResultSequence doubles = new ResultSequence();
+        doubles.add(new XSDecimal("0.5"));
+        doubles.add(new XSDouble(2.0));
+        final XSNumericColumn doubleColumn = XSNumericColumn.fromResultSequence(doubles);
+        assertEquals(XSNumericColumn.KIND_DOUBLE, doubleColumn.kind());
+        assertEquals("2.5", doubleColumn.sum().stringValue());
+
+        final ResultSequence unsupported = new ResultSequence();
+        unsupported.add(new XSFloat(1.0f));
+        assertNull(XSNumericColumn.fromResultSequence(unsupported));
+
+        final ResultSequence big = new ResultSequence();
+        big.add(new XSInteger("123456789012345678901234567890"));
+        assertNull(XSNumericColumn.fromResultSequence(big));
+    }
+
+    @Test
+    void toResultSequence() {
+        final ResultSequence resultSeq = XSNumericColumn.ofIntegers(new long[]{1, 2000}).toResultSequence();
+        assertEquals(2, resultSeq.size());
+        assertSame(XSInteger.valueOf(1), resultSeq.item(0));
+        assertEquals("2000", ((XSInteger) resultSeq.item(1)).stringValue());
+
+        final ResultSequence doubles = XSNumericColumn.ofDoubles(new double[]{0.5}).toResultSequence();
+        assertEquals("0.5", ((XSDouble) doubles.item(0)).stringValue());
+    }
+}
@@ -0,0 +1,50 @@
+package xml.xpath31.processor.types;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reports the retained heap size of the numeric datatype instances, as
+ * measured by JOL on the running JVM. Each of these instances should hold
+ * only primitive fields, when its value fits within them.
+ *
+ * <p>The reported sizes include the fields inherited from XObject and its
+ * superclasses, so they are only meaningful when this test is run against
+ * the real xalan-java dependency. The assertions compare each instance
+ * with the layout of its own class, and hold for any superclass layout.</p>
+ */
+class XSNumericFootprintIT {
+
+    @Test
+    void footprint(final TestReporter testReporter) {
+        final Object[] instances = {
+                new XSDouble(1.3),
+                new XSFloat(1.3f),
+                new XSDecimal("1.3"),
+                new XSDecimal(new BigDecimal("123456789012345678901234567890.5")),
+                new XSInteger("42")
+        };
+
+        for (final Object instance : instances) {
+            final long shallowSize = ClassLayout.parseInstance(instance).instanceSize();
+            final long retainedSize = GraphLayout.parseInstance(instance).totalSize();
+            testReporter.publishEntry(instance.getClass().getSimpleName() + " " + ((XSAnyType) instance).stringValue(),
+                    "shallow " + shallowSize + " bytes, retained " + retainedSize + " bytes");
+        }
+
+        assertEquals(ClassLayout.parseClass(XSDouble.class).instanceSize(),
+                GraphLayout.parseInstance(new XSDouble(1.3)).totalSize());
+        assertEquals(ClassLayout.parseClass(XSFloat.class).instanceSize(),
+                GraphLayout.parseInstance(new XSFloat(1.3f)).totalSize());
+        assertEquals(ClassLayout.parseClass(XSDecimal.class).instanceSize(),
+                GraphLayout.parseInstance(new XSDecimal("1.3")).totalSize());
+        assertEquals(ClassLayout.parseClass(XSInteger.class).instanceSize(),
+                GraphLayout.parseInstance(new XSInteger(42)).totalSize());
+    }
+}
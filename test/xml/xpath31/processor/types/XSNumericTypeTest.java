@@ -4,6 +4,7 @@ import org.apache.xpath.objects.ResultSequence;
 import org.junit.jupiter.api.Test;
 
 import javax.xml.transform.TransformerException;
+import java.math.BigDecimal;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -40,4 +41,150 @@ class XSNumericTypeTest {
                 "XSNumericType always returns null for this method"
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void integerArithmetic() throws TransformerException {
+        assertResult(XSInteger.class, "5", new XSInteger(2).add(new XSInteger(3)));
+        assertResult(XSInteger.class, "-1", new XSInteger(2).subtract(new XSInteger(3)));
+        assertResult(XSInteger.class, "6", new XSInteger(2).multiply((XSNumericType) new XSInteger(3)));
+        assertResult(XSInteger.class, "-3", new XSInteger(-7).idiv(new XSInteger(2)));
+        assertResult(XSInteger.class, "-1", new XSInteger(-7).mod(new XSInteger(2)));
+        assertResult(XSInteger.class, "1", new XSInteger(7).mod(new XSInteger(-2)));
+        assertResult(XSInteger.class, "5", new XSLong("2").add(new XSInt("3")));
+    }
+
+    @Test
+    void integerOverflow() throws TransformerException {
+        assertResult(XSInteger.class, "9223372036854775808", new XSInteger(Long.MAX_VALUE).add(new XSInteger(1)));
+        assertResult(XSInteger.class, "-9223372036854775809", new XSInteger(Long.MIN_VALUE).subtract(new XSInteger(1)));
+        assertResult(XSInteger.class, "9223372036854775808", new XSInteger(Long.MIN_VALUE).idiv(new XSInteger(-1)));
+        assertResult(XSInteger.class, "0", new XSInteger(Long.MIN_VALUE).mod(new XSInteger(-1)));
+        assertResult(XSInteger.class, "9223372036854775807",
+                new XSInteger("9223372036854775808").subtract(new XSInteger(1)));
+    }
+
+    @Test
+    void integerDivisionIsDecimal() throws TransformerException {
+        assertResult(XSDecimal.class, "2.5", new XSInteger(5).divide(new XSInteger(2)));
+        assertResult(XSDecimal.class, "3", new XSInteger(6).divide(new XSInteger(2)));
+        assertResult(XSDecimal.class, "0.333333333333333333", new XSInteger(1).divide(new XSInteger(3)));
+        assertResult(XSDecimal.class, "-0.666666666666666667", new XSInteger(-2).divide(new XSInteger(3)));
+        assertResult(XSDecimal.class, "0.000000000000000002", new XSInteger(1).divide(new XSInteger(400000000000000000L)));
+    }
+
+    @Test
+    void decimalArithmetic() throws TransformerException {
+        assertResult(XSDecimal.class, "3.55", new XSDecimal("1.3").add(new XSDecimal("2.25")));
+        assertResult(XSDecimal.class, "2.3", new XSDecimal("1.3").add(new XSInteger(1)));
+        assertResult(XSDecimal.class, "-0.95", new XSDecimal("1.3").subtract(new XSDecimal("2.25")));
+        assertResult(XSDecimal.class, "2.925", new XSDecimal("1.3").multiply(new XSDecimal("2.25")));
+        assertResult(XSDecimal.class, "0.1", new XSDecimal("0.3").divide(new XSInteger(3)));
+        assertResult(XSDecimal.class, "0.0000000000000000000001",
+                new XSDecimal("0.0000000000000000000003").divide(new XSInteger(3)));
+        assertResult(XSDecimal.class, "0.1", new XSDecimal("1.3").mod(new XSDecimal("0.4")));
+        assertResult(XSInteger.class, "3", new XSDecimal("1.3").idiv(new XSDecimal("0.4")));
+        assertResult(XSDecimal.class, "12345678901234567890.5",
+                new XSDecimal("12345678901234567890").add(new XSDecimal("0.5")));
+        assertResult(XSDecimal.class, "0.5", new XSDecimal("12345678901234567890.5")
+                .subtract(new XSDecimal("12345678901234567890")));
+    }
+
+    @Test
+    void decimalMatchesBigDecimal() throws TransformerException {
+        final String[] values = {"0", "1", "-1", "0.5", "-3.75", "123456789.123456789", "9223372036854775807",
+                "-9223372036854775808", "0.000000001", "98765432109876543210.0123", "-42"};
+        for (final String str1 : values) {
+            for (final String str2 : values) {
+                final BigDecimal val1 = new BigDecimal(str1);
+                final BigDecimal val2 = new BigDecimal(str2);
+                final XSDecimal arg1 = new XSDecimal(str1);
+                final XSDecimal arg2 = new XSDecimal(str2);
+                assertEquals(new XSDecimal(val1.add(val2)).stringValue(), arg1.add(arg2).stringValue());
+                assertEquals(new XSDecimal(val1.subtract(val2)).stringValue(), arg1.subtract(arg2).stringValue());
+                assertEquals(new XSDecimal(val1.multiply(val2)).stringValue(), arg1.multiply(arg2).stringValue());
+                if (val2.signum() != 0) {
+                    assertEquals(new XSDecimal(val1.remainder(val2)).stringValue(), arg1.mod(arg2).stringValue());
+                    assertEquals(val1.divideToIntegralValue(val2).toBigInteger().toString(),
+                            arg1.idiv(arg2).stringValue());
+                    assertEquals(new XSDecimal(val1.divide(val2, Math.max(18, val1.stripTrailingZeros().scale()),
+                            java.math.RoundingMode.HALF_EVEN)).stringValue(), arg1.divide(arg2).stringValue());
+                }
+            }
+        }
+    }
+
+    @Test
+    void decimalDivisionWithLongs() {
+        // these quotients are computed with long arithmetic, without the
+        // BigDecimal fallback
+        assertEquals("2.5", XPath3NumericArithmetic.divideDecimal(10, 0, 4, 0).stringValue());
+        assertEquals("142857.142857142857142857", XPath3NumericArithmetic.divideDecimal(1000000, 0, 7, 0).stringValue());
+        assertEquals("-0.666666666666666667", XPath3NumericArithmetic.divideDecimal(-2, 0, 3, 0).stringValue());
+        assertEquals("4", XPath3NumericArithmetic.divideDecimal(10, 0, 25, 1).stringValue());
+        assertEquals("-41152263004115226.3", XPath3NumericArithmetic.divideDecimal(-1234567890123456789L, 0, 30, 0)
+                .stringValue());
+
+        final java.util.Random random = new java.util.Random(42);
+        for (int i = 0; i < 10000; i++) {
+            final long val1 = random.nextLong() >> random.nextInt(64);
+            final long val2 = (random.nextLong() >> random.nextInt(64)) | 1;
+            final int scale1 = random.nextInt(20);
+            final int scale2 = random.nextInt(19);
+            final XSDecimal result = XPath3NumericArithmetic.divideDecimal(val1, scale1, val2, scale2);
+            if (result != null) {
+                final BigDecimal expected = BigDecimal.valueOf(val1, scale1).divide(BigDecimal.valueOf(val2, scale2),
+                        Math.max(18, scale1), java.math.RoundingMode.HALF_EVEN);
+                assertEquals(0, expected.compareTo(result.getValue()), val1 + "E-" + scale1 + " div " + val2 + "E-" + scale2);
+            }
+        }
+    }
+
+    @Test
+    void floatArithmetic() throws TransformerException {
+        assertResult(XSFloat.class, "1.5", new XSFloat(1.0f).add(new XSInteger(0).add(new XSDecimal("0.5"))));
+        assertResult(XSFloat.class, "0.3", new XSFloat(0.1f).add(new XSFloat(0.2f)));
+        assertResult(XSFloat.class, "INF", new XSFloat(1.0f).divide(new XSInteger(0)));
+        assertResult(XSFloat.class, "NaN", new XSFloat(1.0f).mod(new XSInteger(0)));
+        assertResult(XSFloat.class, "1.6777216E7", new XSFloat(1.0f).multiply(new XSInteger(16777217)));
+    }
+
+    @Test
+    void doubleArithmetic() throws TransformerException {
+        assertResult(XSDouble.class, "0.30000000000000004", new XSDouble(0.1).add(new XSDouble(0.2)));
+        assertResult(XSDouble.class, "2.5", new XSFloat(0.5f).add(new XSDouble(2.0)));
+        assertResult(XSDouble.class, "1.3", new XSDecimal("1.3").multiply(new XSDouble(1.0)));
+        assertResult(XSDouble.class, "-INF", new XSDouble(-1.0).divide(new XSInteger(0)));
+        assertResult(XSDouble.class, "-0", new XSDouble(-0.0).add(new XSDouble(-0.0)));
+        assertResult(XSDouble.class, "-1", new XSDouble(-7.0).mod(new XSDouble(2.0)));
+        assertResult(XSInteger.class, "-3", new XSDouble(-7.0).idiv(new XSDouble(2.0)));
+        assertResult(XSInteger.class, "0", new XSDouble(5.0).idiv(new XSDouble(Double.POSITIVE_INFINITY)));
+        assertResult(XSInteger.class, "100000000000000000000", new XSDouble(1.0E20).idiv(new XSInteger(1)));
+    }
+
+    @Test
+    void errors() {
+        assertErrorCode("FOAR0001", () -> new XSInteger(1).divide(new XSInteger(0)));
+        assertErrorCode("FOAR0001", () -> new XSDecimal("1.5").mod(new XSDecimal("0.0")));
+        assertErrorCode("FOAR0001", () -> new XSInteger(1).idiv(new XSInteger(0)));
+        assertErrorCode("FOAR0001", () -> new XSDouble(1.0).idiv(new XSDouble(0.0)));
+        assertErrorCode("FOAR0002", () -> new XSDouble(Double.NaN).idiv(new XSDouble(1.0)));
+        assertErrorCode("FOAR0002", () -> new XSDouble(Double.POSITIVE_INFINITY).idiv(new XSInteger(2)));
+        assertErrorCode("FOAR0002", () -> new XSDouble(Double.MAX_VALUE).idiv(new XSDouble(0.5)));
+        assertErrorCode("XPTY0004", () -> new XSNumericType().add(new XSInteger(1)));
+    }
+
+    private static void assertResult(final Class<?> expectedType, final String expectedValue,
+                                     final XSNumericType result) {
+        assertEquals(expectedType, result.getClass());
+        assertEquals(expectedValue, result.stringValue());
+    }
+
+    private static void assertErrorCode(final String expectedCode, final Arithmetic arithmetic) {
+        final TransformerException ex = assertThrows(TransformerException.class, arithmetic::evaluate);
+        assertTrue(ex.getMessage().startsWith(expectedCode), ex.getMessage());
+    }
+
+    private interface Arithmetic {
+        void evaluate() throws TransformerException;
+    }
+}
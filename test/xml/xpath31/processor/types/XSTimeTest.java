@@ -1,9 +1,12 @@
 package xml.xpath31.processor.types;
 
+import org.apache.xpath.objects.XObject;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.time.Clock;
+
 import javax.xml.transform.TransformerException;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -42,4 +45,29 @@ class XSTimeTest {
     void stringType() {
         assertEquals("xs:time", new XSTime().stringType());
     }
-}
\ No newline at end of file
+
+    @Test
+    void addDurations() throws TransformerException {
+        assertEquals("12:27:00", stringValue(XSTime.parseTime("11:12:00").add(
+                                          XSDayTimeDuration.parseDayTimeDuration("P3DT1H15M"))));
+        assertEquals("02:27:00+03:00", stringValue(XSTime.parseTime("23:12:00+03:00").add(
+                                          XSDayTimeDuration.parseDayTimeDuration("P1DT3H15M"))));
+        assertEquals("23:59:59.5Z", stringValue(XSTime.parseTime("00:00:00Z").subtract(
+                                          XSDayTimeDuration.parseDayTimeDuration("PT0.5S"))));
+    }
+
+    @Test
+    void subtractTimes() throws TransformerException {
+        final XPath3DateTimeContext context = new XPath3DateTimeContext(Clock.systemUTC(), -300);
+
+        assertEquals("PT2H12M", stringValue(XSTime.parseTime("11:12:00Z", context)
+                                          .subtract(XSTime.parseTime("04:00:00", context))));
+        assertEquals("-PT1H23M", stringValue(XSTime.parseTime("24:00:00+01:00", context)
+                                          .subtract(XSTime.parseTime("01:23:00+01:00", context))));
+    }
+
+    private static String stringValue(final XObject result) {
+        return ((XSAnyType)result).stringValue();
+    }
+
+}
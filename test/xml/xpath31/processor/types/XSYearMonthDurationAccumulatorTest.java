@@ -0,0 +1,50 @@
+package xml.xpath31.processor.types;
+
+import org.junit.jupiter.api.Test;
+
+import javax.xml.transform.TransformerException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XSYearMonthDurationAccumulatorTest {
+
+    @Test
+    void aggregates() throws TransformerException {
+        final XSYearMonthDurationAccumulator accumulator = new XSYearMonthDurationAccumulator();
+        accumulator.add(new XSYearMonthDuration(14)).add(new XSYearMonthDuration(-3)).add(new XSYearMonthDuration(1));
+
+        assertEquals(3, accumulator.count());
+        assertEquals("P1Y", accumulator.sum().stringValue());
+        assertEquals("P4M", accumulator.avg().stringValue());
+        assertEquals("-P3M", accumulator.min().stringValue());
+        assertEquals("P1Y2M", accumulator.max().stringValue());
+    }
+
+    @Test
+    void combine() throws TransformerException {
+        final XSYearMonthDurationAccumulator first = new XSYearMonthDurationAccumulator();
+        first.add(new XSYearMonthDuration(5));
+        final XSYearMonthDurationAccumulator second = new XSYearMonthDurationAccumulator();
+        second.add(new XSYearMonthDuration(-7)).add(new XSYearMonthDuration(2));
+
+        first.combine(second).combine(new XSYearMonthDurationAccumulator());
+
+        assertEquals(3, first.count());
+        assertEquals("P0M", first.sum().stringValue());
+        assertEquals("-P7M", first.min().stringValue());
+        assertEquals("P5M", first.max().stringValue());
+        assertEquals(2, second.count());
+
+        assertNull(new XSYearMonthDurationAccumulator().combine(new XSYearMonthDurationAccumulator()).avg());
+    }
+
+    @Test
+    void sumTooLarge() {
+        final XSYearMonthDurationAccumulator accumulator = new XSYearMonthDurationAccumulator();
+        accumulator.add(new XSYearMonthDuration(Integer.MAX_VALUE)).add(new XSYearMonthDuration(1));
+
+        assertThrows(TransformerException.class, accumulator::sum);
+        assertThrows(TransformerException.class, accumulator::avg);
+    }
+
+}